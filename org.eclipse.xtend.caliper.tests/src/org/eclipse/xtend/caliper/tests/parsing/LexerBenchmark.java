@@ -16,6 +16,7 @@ import java.nio.charset.Charset;
 import org.antlr.runtime.ANTLRStringStream;
 import org.antlr.runtime.Token;
 import org.eclipse.xtend.core.parser.InternalFlexer;
+import org.eclipse.xtend.core.parser.antlr.internal.BufferedFlexTokenSource;
 import org.eclipse.xtend.core.parser.antlr.internal.FlexerFactory;
 import org.eclipse.xtend.core.parser.antlr.internal.InternalXtendLexer;
 import org.eclipse.xtend.core.parser.antlr.internal.FlexTokenSource;
@@ -84,6 +85,7 @@ public class LexerBenchmark extends SimpleBenchmark {
 	private String contentToParse;
 	private InternalXtendLexer lexer;
 	private FlexTokenSource flexerTokenSource;
+	private BufferedFlexTokenSource bufferedTokenSource;
 	private InternalFlexer bareFlexer;
 
 	public String loadString() {
@@ -101,6 +103,7 @@ public class LexerBenchmark extends SimpleBenchmark {
 		contentToParse = loadString();
 		lexer = new InternalXtendLexer(null);
 		flexerTokenSource = new FlexerFactory().createTokenSource(null);
+		bufferedTokenSource = new FlexerFactory().createBufferedTokenSource(null);
 		bareFlexer = new FlexerFactory().createFlexer(null);
 	}
 
@@ -132,6 +135,20 @@ public class LexerBenchmark extends SimpleBenchmark {
 		return result;
 	}
 	
+	public int timeBufferedFlexing(int reps) throws Exception {
+		int result = reps;
+		for (int i = 0; i < reps; i++) {
+			Token tok = null;
+			bufferedTokenSource.reset(new StringReader(contentToParse));
+			while(tok != Token.EOF_TOKEN) {
+				tok = bufferedTokenSource.nextToken();
+				result++;
+			}
+			result += reps;
+		}
+		return result;
+	}
+	
 	public int timeFlexingWithoutTokens(int reps) throws Exception {
 		int result = reps;
 		for (int i = 0; i < reps; i++) {
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.caliper.tests.scoping;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtend.core.XtendStandaloneSetup;
+import org.eclipse.xtend.core.scoping.XtendImportedNamespaceScopeProvider;
+import org.eclipse.xtend.core.xtend.XtendFile;
+import org.eclipse.xtext.common.types.TypesPackage;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.scoping.IScope;
+import org.eclipse.xtext.util.OnChangeEvictingCache;
+import org.eclipse.xtext.util.StringInputStream;
+
+import com.google.caliper.Param;
+import com.google.caliper.Runner;
+import com.google.caliper.SimpleBenchmark;
+import com.google.inject.Injector;
+
+/**
+ * Resolves simple type names in a file with many wildcard imports.
+ */
+public class WildcardImportBenchmark extends SimpleBenchmark {
+
+	private static final String[] PACKAGES = {
+		"java.util", "java.io", "java.net", "java.nio", "java.text", "java.math", "java.lang.reflect", "java.lang.annotation",
+		"java.util.concurrent", "java.util.regex", "java.util.zip", "java.util.jar", "java.util.logging", "java.nio.charset",
+		"java.nio.file", "java.security", "java.beans", "javax.swing", "javax.swing.event", "javax.swing.text",
+		"com.google.common.base", "com.google.common.collect", "com.google.common.io", "com.google.inject"
+	};
+
+	private static final String[] NAMES = {
+		"String", "List", "Map", "File", "URL", "Charset", "Path", "Iterables", "Injector", "JButton", "BigDecimal",
+		"Method", "Pattern", "Executor", "Logger", "Optional", "Unknown", "Missing", "Foo", "Bar"
+	};
+
+	@Param({"1", "24"})
+	private int imports;
+
+	private XtendImportedNamespaceScopeProvider scopeProvider;
+
+	private OnChangeEvictingCache cache;
+
+	private Resource resource;
+
+	private XtendFile file;
+
+	private QualifiedName[] names;
+
+	@Override
+	protected void setUp() throws Exception {
+		Injector injector = new XtendStandaloneSetup().createInjectorAndDoEMFRegistration();
+		scopeProvider = injector.getInstance(XtendImportedNamespaceScopeProvider.class);
+		cache = injector.getInstance(OnChangeEvictingCache.class);
+		XtextResourceSet resourceSet = injector.getInstance(XtextResourceSet.class);
+		resourceSet.setClasspathURIContext(getClass().getClassLoader());
+		resource = resourceSet.createResource(URI.createURI("benchmark/Benchmark.xtend"));
+		StringBuilder content = new StringBuilder("package benchmark\n");
+		for (int i = 0; i < imports; i++) {
+			content.append("import ").append(PACKAGES[i]).append(".*\n");
+		}
+		content.append("class Benchmark {}\n");
+		resource.load(new StringInputStream(content.toString()), null);
+		file = (XtendFile) resource.getContents().get(0);
+		names = new QualifiedName[NAMES.length];
+		for (int i = 0; i < NAMES.length; i++) {
+			names[i] = QualifiedName.create(NAMES[i]);
+		}
+		// warm up the types that are shared by the resource set
+		timeResolve(1);
+	}
+
+	public int timeResolve(int reps) {
+		int result = 0;
+		for (int i = 0; i < reps; i++) {
+			cache.clear(resource);
+			IScope scope = scopeProvider.getScope(file, TypesPackage.Literals.JVM_PARAMETERIZED_TYPE_REFERENCE__TYPE);
+			for (QualifiedName name : names) {
+				if (scope.getSingleElement(name) != null) {
+					result++;
+				}
+			}
+		}
+		return result;
+	}
+
+	public static void main(String[] args) {
+		Runner.main(WildcardImportBenchmark.class, args);
+	}
+
+}
@@ -68,6 +68,17 @@ public class Benchmark extends SimpleBenchmark {
 		return result;
 	}
 	
+	public int timeTableDispatchedOverridden(int reps) {
+		SpecializeAllCasesTableDispatcher dispatcher = new SpecializeAllCasesTableDispatcher();
+		int result = 0;
+		for (int i = 0; i < reps; i++) {
+			for(CaliperTypeReference reference: references) {
+				result += dispatcher.accept(reference, reps, reps * reps);
+			}
+		}
+		return result;
+	}
+	
 	public int timePolymorphicDispatchedInherited(int reps) {
 		SpecializeSomeCasesPolymorphicDispatcher dispatcher = new SpecializeSomeCasesPolymorphicDispatcher();
 		int result = 0;
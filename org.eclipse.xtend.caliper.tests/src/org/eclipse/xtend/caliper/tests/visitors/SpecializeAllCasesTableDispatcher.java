@@ -0,0 +1,127 @@
+package org.eclipse.xtend.caliper.tests.visitors;
+
+import java.util.Arrays;
+import org.eclipse.xtend.caliper.tests.visitors.CaliperArrayTypeReference;
+import org.eclipse.xtend.caliper.tests.visitors.CaliperCompoundTypeReference;
+import org.eclipse.xtend.caliper.tests.visitors.CaliperFunctionTypeReference;
+import org.eclipse.xtend.caliper.tests.visitors.CaliperParameterizedTypeReference;
+import org.eclipse.xtend.caliper.tests.visitors.CaliperTypeReference;
+import org.eclipse.xtend.caliper.tests.visitors.CaliperUnboundTypeReference;
+import org.eclipse.xtend.caliper.tests.visitors.CaliperUnknownTypeReference;
+import org.eclipse.xtend.caliper.tests.visitors.CaliperWildcardTypeReference;
+
+@SuppressWarnings("all")
+public class SpecializeAllCasesTableDispatcher {
+  private final static ClassValue<Integer> _dispatchTable_accept = new ClassValue<Integer>() {
+    @Override
+    protected Integer computeValue(final Class<?> type) {
+      if (CaliperFunctionTypeReference.class.isAssignableFrom(type)) {
+        return 0;
+      }
+      if (CaliperArrayTypeReference.class.isAssignableFrom(type)) {
+        return 1;
+      }
+      if (CaliperCompoundTypeReference.class.isAssignableFrom(type)) {
+        return 2;
+      }
+      if (CaliperParameterizedTypeReference.class.isAssignableFrom(type)) {
+        return 3;
+      }
+      if (CaliperUnboundTypeReference.class.isAssignableFrom(type)) {
+        return 4;
+      }
+      if (CaliperUnknownTypeReference.class.isAssignableFrom(type)) {
+        return 5;
+      }
+      if (CaliperWildcardTypeReference.class.isAssignableFrom(type)) {
+        return 6;
+      }
+      return 7;
+    }
+  };
+  
+
+  protected int _accept(final CaliperTypeReference reference, final int i, final long k) {
+    long _plus = (k + 200L);
+    int _intValue = Long.valueOf(_plus).intValue();
+    int _plus_1 = (i + _intValue);
+    return _plus_1;
+  }
+  
+  protected int _accept(final CaliperParameterizedTypeReference reference, final int i, final long k) {
+    long _plus = (k + 200L);
+    int _intValue = Long.valueOf(_plus).intValue();
+    int _plus_1 = (i + _intValue);
+    return _plus_1;
+  }
+  
+  protected int _accept(final CaliperArrayTypeReference reference, final int i, final long k) {
+    long _plus = (k + 200L);
+    int _intValue = Long.valueOf(_plus).intValue();
+    int _plus_1 = (i + _intValue);
+    return _plus_1;
+  }
+  
+  protected int _accept(final CaliperFunctionTypeReference reference, final int i, final long k) {
+    long _plus = (k + 200L);
+    int _intValue = Long.valueOf(_plus).intValue();
+    int _plus_1 = (i + _intValue);
+    return _plus_1;
+  }
+  
+  protected int _accept(final CaliperUnknownTypeReference reference, final int i, final long k) {
+    long _plus = (k + 200L);
+    int _intValue = Long.valueOf(_plus).intValue();
+    int _plus_1 = (i + _intValue);
+    return _plus_1;
+  }
+  
+  protected int _accept(final CaliperCompoundTypeReference reference, final int i, final long k) {
+    long _plus = (k + 200L);
+    int _intValue = Long.valueOf(_plus).intValue();
+    int _plus_1 = (i + _intValue);
+    return _plus_1;
+  }
+  
+  protected int _accept(final CaliperUnboundTypeReference reference, final int i, final long k) {
+    long _plus = (k + 200L);
+    int _intValue = Long.valueOf(_plus).intValue();
+    int _plus_1 = (i + _intValue);
+    return _plus_1;
+  }
+  
+  protected int _accept(final CaliperWildcardTypeReference reference, final int i, final long k) {
+    long _plus = (k + 200L);
+    int _intValue = Long.valueOf(_plus).intValue();
+    int _plus_1 = (i + _intValue);
+    return _plus_1;
+  }
+  
+  public int accept(final CaliperTypeReference reference, final int i, final long k) {
+    if (reference == null) {
+      throw new IllegalArgumentException("Unhandled parameter types: " +
+        Arrays.<Object>asList(reference, i, k).toString());
+    }
+    switch (_dispatchTable_accept.get(reference.getClass()).intValue()) {
+      case 0:
+        return _accept((CaliperFunctionTypeReference)reference, i, k);
+      case 1:
+        return _accept((CaliperArrayTypeReference)reference, i, k);
+      case 2:
+        return _accept((CaliperCompoundTypeReference)reference, i, k);
+      case 3:
+        return _accept((CaliperParameterizedTypeReference)reference, i, k);
+      case 4:
+        return _accept((CaliperUnboundTypeReference)reference, i, k);
+      case 5:
+        return _accept((CaliperUnknownTypeReference)reference, i, k);
+      case 6:
+        return _accept((CaliperWildcardTypeReference)reference, i, k);
+      case 7:
+        return _accept(reference, i, k);
+      default:
+        throw new IllegalArgumentException("Unhandled parameter types: " +
+          Arrays.<Object>asList(reference, i, k).toString());
+    }
+  }
+}
@@ -0,0 +1,16 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+class CompactRichStrings {
+
+	def generate(String name, int count) '''
+		class «name» {
+			int count = «count»;
+		}
+	'''
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+import java.util.List
+
+class CreateExtensions {
+
+	def create new StringBuilder(name) single(String name) {
+		append("!")
+	}
+
+	def create <String>newArrayList pair(String name, int index) {
+		add(name + index)
+	}
+
+	def create <String>newArrayList triple(String first, String second, String third) {
+		addAll(first, second, third)
+	}
+
+	def create (if (values.empty) null else new StringBuilder) nullable(List<String> values) {
+	}
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+
+class DispatchTable {
+
+	def dispatch String describe(String value, int depth) {
+		'string'
+	}
+
+	def dispatch String describe(Integer value, int depth) {
+		'integer'
+	}
+
+	def dispatch String describe(CharSequence value, int depth) {
+		'chars'
+	}
+
+	def dispatch String describe(Void value, int depth) {
+		'null'
+	}
+
+	def dispatch String describe(Object value, int depth) {
+		'object'
+	}
+
+	def dispatch String small(String value) {
+		'string'
+	}
+
+	def dispatch String small(Object value) {
+		'object'
+	}
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.tests;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig;
+import org.eclipse.xtext.xbase.compiler.GeneratorConfig;
+import org.eclipse.xtext.xbase.compiler.IGeneratorConfigProvider;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+
+/**
+ * Provides the same {@link XtendGeneratorConfig} for all resources, so tests can compile and run code with the
+ * Xtend specific generator settings. The settings are restored after each test.
+ */
+public class XtendGeneratorConfigRuntimeInjectorProvider extends RuntimeInjectorProvider {
+
+	@Singleton
+	public static class SingletonXtendGeneratorConfigProvider implements IGeneratorConfigProvider {
+
+		private final XtendGeneratorConfig config = new XtendGeneratorConfig();
+
+		@Override
+		public GeneratorConfig get(EObject context) {
+			return config;
+		}
+
+	}
+
+	private final XtendGeneratorConfig savedGeneratorConfig = new XtendGeneratorConfig();
+
+	@Override
+	protected Injector internalCreateInjector() {
+		return new RuntimeTestSetup() {
+
+			@Override
+			public Injector createInjector() {
+				return Guice.createInjector(new XtendRuntimeTestModule(), new AbstractModule() {
+					@Override
+					protected void configure() {
+						bind(IGeneratorConfigProvider.class).to(SingletonXtendGeneratorConfigProvider.class);
+					}
+				});
+			}
+
+		}.createInjectorAndDoEMFRegistration();
+	}
+
+	@Override
+	public void setupRegistry() {
+		super.setupRegistry();
+		GeneratorConfig generatorConfig = getInjector().getInstance(IGeneratorConfigProvider.class).get(null);
+		savedGeneratorConfig.copy(generatorConfig);
+	}
+
+	@Override
+	public void restoreRegistry() {
+		super.restoreRegistry();
+		GeneratorConfig generatorConfig = getInjector().getInstance(IGeneratorConfigProvider.class).get(null);
+		generatorConfig.copy(savedGeneratorConfig);
+	}
+
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.tests.compiler
+
+import java.util.List
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig
+import org.eclipse.xtend.core.tests.XtendGeneratorConfigRuntimeInjectorProvider
+import org.eclipse.xtext.testing.InjectWith
+import org.eclipse.xtext.util.IAcceptor
+import org.eclipse.xtext.xbase.compiler.CompilationTestHelper.Result
+import org.junit.Test
+
+/**
+ * Create functions with concurrent caches have to return the same objects as the ones that synchronize on their cache.
+ */
+@InjectWith(XtendGeneratorConfigRuntimeInjectorProvider)
+class ConcurrentCreateExtensionsCompilerTest extends AbstractXtendCompilerTest {
+
+	@Test
+	def void testCreatedOnceUnderConcurrentCalls() {
+		'''
+			import java.util.concurrent.atomic.AtomicInteger
+			class C {
+				val counter = new AtomicInteger
+				def create new StringBuilder(key) builder(String key) {
+					counter.incrementAndGet
+				}
+				def int initialized() {
+					counter.get
+				}
+			}
+		'''.compileConcurrent [
+			val instance = compiledClass.newInstance
+			val keys = (0 ..< 1000).map['key' + it].toList
+			val executor = Executors.newFixedThreadPool(4)
+			try {
+				val results = executor.invokeAll((1 .. 4).map[instance.callAll('builder', keys)].toList)
+				val expected = results.head.get
+				for (result : results) {
+					val actual = result.get
+					for (i : 0 ..< keys.size) {
+						assertSame(expected.get(i), actual.get(i))
+					}
+				}
+				for (i : 0 ..< keys.size) {
+					assertEquals(keys.get(i), expected.get(i).toString)
+				}
+				assertEquals(keys.size, instance.call('initialized'))
+			} finally {
+				executor.shutdownNow
+			}
+		]
+	}
+
+	@Test
+	def void testReentrantCreation() {
+		'''
+			class C {
+				def create result: newArrayList node(String name) {
+					result += name
+					result += node(if (name == 'a') 'b' else 'a')
+				}
+			}
+		'''.compileConcurrent [
+			val instance = compiledClass.newInstance
+			val a = instance.call('node', 'a') as List<?>
+			val b = a.get(1) as List<?>
+			assertEquals('a', a.get(0))
+			assertEquals('b', b.get(0))
+			assertSame(a, b.get(1))
+			assertSame(a, instance.call('node', 'a'))
+			assertSame(b, instance.call('node', 'b'))
+		]
+	}
+
+	@Test
+	def void testNullKeysAndResults() {
+		'''
+			import java.util.concurrent.atomic.AtomicInteger
+			class C {
+				val counter = new AtomicInteger
+				def create new StringBuilder(String.valueOf(key)) builder(String key) {
+				}
+				def create new StringBuilder(first + second) pair(String first, String second) {
+				}
+				def create if (key === null) null else new StringBuilder(key) nullable(String key) {
+					counter.incrementAndGet
+				}
+				def int initialized() {
+					counter.get
+				}
+			}
+		'''.compileConcurrent [
+			val instance = compiledClass.newInstance
+			val Object none = null
+			val builder = instance.call('builder', none)
+			assertEquals('null', builder.toString)
+			assertSame(builder, instance.call('builder', none))
+			assertNotSame(builder, instance.call('builder', 'null'))
+			val pairs = #[
+				instance.call('pair', none, none),
+				instance.call('pair', 'a', none),
+				instance.call('pair', none, 'a'),
+				instance.call('pair', 'a', 'a')
+			]
+			assertEquals(4, pairs.toSet.size)
+			assertSame(pairs.get(0), instance.call('pair', none, none))
+			assertSame(pairs.get(1), instance.call('pair', 'a', none))
+			assertSame(pairs.get(2), instance.call('pair', none, 'a'))
+			assertSame(pairs.get(3), instance.call('pair', 'a', 'a'))
+			// null results are not cached, so they are initialized on every call
+			assertNull(instance.call('nullable', none))
+			assertNull(instance.call('nullable', none))
+			assertEquals(2, instance.call('initialized'))
+			val nullable = instance.call('nullable', 'a')
+			assertSame(nullable, instance.call('nullable', 'a'))
+			assertEquals(3, instance.call('initialized'))
+		]
+	}
+
+	protected def void compileConcurrent(CharSequence source, IAcceptor<Result> acceptor) {
+		val config = generatorConfigProvider.get(null) as XtendGeneratorConfig
+		config.concurrentCreateExtensions = true
+		source.compile [
+			assertTrue(singleGeneratedCode.contains('ConcurrentHashMap'))
+			acceptor.accept(it)
+		]
+	}
+
+	/**
+	 * Calls the given method with each of the given arguments and returns the results in the same order.
+	 */
+	protected def Callable<List<Object>> callAll(Object instance, String name, List<?> arguments) {
+		return [|
+			val results = <Object>newArrayList
+			for (argument : arguments) {
+				results += instance.call(name, argument)
+			}
+			return results
+		]
+	}
+
+	protected def Object call(Object instance, String name, Object... arguments) {
+		val method = instance.class.methods.findFirst[it.name == name && parameterTypes.length == arguments.length]
+		return method.invoke(instance, arguments)
+	}
+
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.tests.compiler
+
+import java.lang.reflect.InvocationTargetException
+import java.util.List
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig
+import org.eclipse.xtend.core.tests.XtendGeneratorConfigRuntimeInjectorProvider
+import org.eclipse.xtext.testing.InjectWith
+import org.eclipse.xtext.util.JavaVersion
+import org.junit.Test
+
+/**
+ * Dispatch methods that look up their cases in a table have to return the same results as the ones that test one
+ * case after the other.
+ */
+@InjectWith(XtendGeneratorConfigRuntimeInjectorProvider)
+class DispatchTableCompilerTest extends AbstractXtendCompilerTest {
+
+	@Test
+	def void testSameResultsAsCaseChain() {
+		val source = '''
+			class C {
+				def dispatch String m(Object o) { 'Object' }
+				def dispatch String m(CharSequence s) { 'CharSequence' }
+				def dispatch String m(String s) { 'String' }
+				def dispatch String m(Number n) { 'Number' }
+				def dispatch String m(Integer i) { 'Integer' }
+				def dispatch String m(Void v) { 'null' }
+				def dispatch String m(Object o, Object p) { 'Object,Object' }
+				def dispatch String m(String s, Object p) { 'String,Object' }
+				def dispatch String m(Integer i, Object p) { 'Integer,Object' }
+				def dispatch String n(CharSequence s) { 'CharSequence' }
+				def dispatch String n(Integer i) { 'Integer' }
+				def dispatch String n(Double d) { 'Double' }
+			}
+		'''
+		val List<Object> arguments = #[null, 'a', new StringBuilder, 1, 1.5, 1L, new Object]
+		val caseChain = source.invokeAll(0, arguments)
+		assertEquals(#[
+			'null', 'IllegalArgumentException', 'IllegalArgumentException',
+			'String', 'String,Object', 'CharSequence',
+			'CharSequence', 'Object,Object', 'CharSequence',
+			'Integer', 'Integer,Object', 'Integer',
+			'Number', 'Object,Object', 'Double',
+			'Number', 'Object,Object', 'IllegalArgumentException',
+			'Object', 'Object,Object', 'IllegalArgumentException'
+		], caseChain)
+		assertEquals(caseChain, source.invokeAll(2, arguments))
+	}
+
+	/**
+	 * Calls the dispatch methods with each of the given arguments and returns their results, or the simple names of
+	 * the exceptions they threw.
+	 */
+	protected def List<String> invokeAll(CharSequence source, int dispatchTableThreshold, List<Object> arguments) {
+		val config = generatorConfigProvider.get(null) as XtendGeneratorConfig
+		config.javaSourceVersion = JavaVersion.JAVA8
+		config.dispatchTableThreshold = dispatchTableThreshold
+		val results = <String>newArrayList
+		source.compile [
+			// the tables of both families of m need distinct names
+			assertEquals(dispatchTableThreshold > 0, singleGeneratedCode.contains('_dispatchTable_m_1'))
+			val instance = compiledClass.newInstance
+			for (argument : arguments) {
+				results += instance.call('m', argument)
+				results += instance.call('m', argument, 'p')
+				results += instance.call('n', argument)
+			}
+		]
+		return results
+	}
+
+	protected def String call(Object instance, String name, Object... arguments) {
+		val method = instance.class.methods.findFirst[it.name == name && parameterTypes.length == arguments.length]
+		try {
+			return method.invoke(instance, arguments) as String
+		} catch (InvocationTargetException e) {
+			return e.targetException.class.simpleName
+		}
+	}
+
+}
@@ -8,18 +8,37 @@
 package org.eclipse.xtend.core.tests.compiler.batch
 
 import com.google.common.base.Charsets
+import com.google.common.hash.Hashing
 import com.google.common.io.Files
 import com.google.inject.Inject
 import java.io.File
+import java.io.FileOutputStream
 import java.io.IOException
+import java.util.List
+import java.util.Map
 import java.util.Set
+import java.util.concurrent.Executors
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
 import org.apache.log4j.Level
+import org.eclipse.emf.common.util.URI
+import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.emf.ecore.resource.ResourceSet
+import org.eclipse.xtend.core.compiler.batch.CompilationReport
+import org.eclipse.xtend.core.compiler.batch.SourceLocationAdapter
 import org.eclipse.xtend.core.compiler.batch.XtendBatchCompiler
 import org.eclipse.xtend.core.tests.RuntimeInjectorProvider
+import org.eclipse.xtend.core.tests.performance.GeneratorConfig
+import org.eclipse.xtend.core.tests.performance.XtendFileGenerator
+import org.eclipse.xtend.core.xtend.XtendFile
+import org.eclipse.xtext.resource.SynchronizedXtextResourceSet
+import org.eclipse.xtext.resource.XtextResource
 import org.eclipse.xtext.testing.InjectWith
 import org.eclipse.xtext.testing.XtextRunner
 import org.eclipse.xtext.testing.logging.LoggingTester
 import org.eclipse.xtext.testing.smoketest.IgnoredBySmokeTest
+import org.eclipse.xtext.util.internal.Stopwatches
+import org.eclipse.xtext.xbase.lib.IterableExtensions
 import org.junit.After
 import org.junit.AfterClass
 import org.junit.Before
@@ -42,6 +61,9 @@ class TestBatchCompiler {
 	@Inject
 	XtendBatchCompiler batchCompiler
 
+	@Inject
+	XtendFileGenerator fileGenerator
+
 	static String OUTPUT_DIRECTORY_WITH_SPACES = "./test result"
 	static String OUTPUT_DIRECTORY = "./test-result"
 	static String XTEND_SRC_DIRECTORY = "./batch-compiler-data/test data"
@@ -467,6 +489,42 @@ class TestBatchCompiler {
 		Files.toString(new File(fileName), Charsets.UTF_8)
 	}
 
+	/**
+	 * Writes the given number of generated types, each of which uses its predecessor as an extension, and the
+	 * types they depend on to a new source folder.
+	 */
+	def private String createSources(int count) {
+		val sources = <String, CharSequence>newHashMap
+		sources.putAll(fileGenerator.dependencies)
+		for (i : 0 ..< count) {
+			val config = new GeneratorConfig
+			config.packageName = "generated"
+			config.className = "MyGeneratedType" + i
+			if (i > 0) {
+				config.injectedExtensionTypes.add("generated.MyGeneratedType" + (i - 1))
+			}
+			sources.put("generated/MyGeneratedType" + i + ".xtend", fileGenerator.getContents(config))
+		}
+		for (entry : sources.entrySet) {
+			val file = new File(TEMP_DIRECTORY + "/generated-src/" + entry.key)
+			Files.createParentDirs(file)
+			Files.write(entry.value, file, Charsets.UTF_8)
+		}
+		return TEMP_DIRECTORY + "/generated-src"
+	}
+
+	def private Map<String, String> hashGeneratedFiles(String directory) {
+		val result = <String, String>newHashMap
+		for (fileName : new File(directory).list) {
+			result.put(fileName, Files.hash(new File(directory, fileName), Hashing.md5).toString)
+		}
+		return result
+	}
+
+	def private List<String> getMessages(LoggingTester.LogCapture logs) {
+		logs.logEntries.map[message].sort
+	}
+
 	@Test
 	def void tempDirectory() {
 		batchCompiler.deleteTempDirectory = false
@@ -562,4 +620,339 @@ class TestBatchCompiler {
 		assertTrue(generated.contains("@Override"))
 		assertTrue(generated.contains("(Integer it) ->"))
 	}
+
+	@Test
+	def void testParallelValidation() {
+		batchCompiler.numberOfThreads = 4
+		batchCompiler.sourcePath = "./batch-compiler-data/activeAnnotations1"
+		val logs = LoggingTester.captureLogging(Level.ERROR, XtendBatchCompiler)[
+			assertFalse(batchCompiler.compile)
+		]
+		logs.assertNumberOfLogEntries(1)
+	}
+
+	@Test
+	def void testParallelValidationOfManySources() {
+		val sourcePath = createSources(30)
+		Files.write('''
+			package generated
+			
+			class Broken extends MyGeneratedType0 {
+				def void broken() {
+					simpleMethodCall_01(missing)
+				}
+			}
+		''', new File(sourcePath + "/generated/Broken.xtend"), Charsets.UTF_8)
+		batchCompiler.sourcePath = sourcePath
+		val serial = LoggingTester.captureLogging(Level.WARN, XtendBatchCompiler)[
+			assertFalse(batchCompiler.compile)
+		]
+		serial.assertLogEntry("missing")
+		batchCompiler.numberOfThreads = 8
+		for (i : 0 ..< 3) {
+			val parallel = LoggingTester.captureLogging(Level.WARN, XtendBatchCompiler)[
+				assertFalse(batchCompiler.compile)
+			]
+			assertEquals(serial.messages, parallel.messages)
+		}
+		// only the source resources are resolved before the validation if a report is written
+		batchCompiler.reportFile = TEMP_DIRECTORY + "/report.json"
+		val parallel = LoggingTester.captureLogging(Level.WARN, XtendBatchCompiler)[
+			assertFalse(batchCompiler.compile)
+		]
+		assertEquals(serial.messages, parallel.messages)
+	}
+
+	@Test
+	def void testParallelGenerationOfManySources() {
+		batchCompiler.sourcePath = createSources(30)
+		batchCompiler.writeTraceFiles = true
+		batchCompiler.writeStorageFiles = true
+		assertTrue(batchCompiler.compile)
+		val expected = hashGeneratedFiles(OUTPUT_DIRECTORY + "/generated")
+		assertEquals(30, expected.keySet.filter[endsWith(".java")].size)
+		batchCompiler.numberOfThreads = 8
+		for (i : 0 ..< 3) {
+			cleanFolder(new File(OUTPUT_DIRECTORY), null, true, false)
+			assertTrue(batchCompiler.compile)
+			assertEquals(expected, hashGeneratedFiles(OUTPUT_DIRECTORY + "/generated"))
+		}
+	}
+
+	@Test
+	def void testInMemoryStubCompilation() {
+		assertTrue(batchCompiler.compile)
+		val expected = hashGeneratedFiles(OUTPUT_DIRECTORY + "/test")
+		cleanFolder(new File(OUTPUT_DIRECTORY), null, true, false)
+		batchCompiler.inMemoryStubCompilation = true
+		batchCompiler.deleteTempDirectory = false
+		batchCompiler.tempDirectory = TEMP_DIRECTORY
+		assertTrue(batchCompiler.compile)
+		assertFalse(new File(TEMP_DIRECTORY).exists)
+		assertEquals(expected, hashGeneratedFiles(OUTPUT_DIRECTORY + "/test"))
+	}
+
+	@Test
+	def void testInMemoryStubCompilationClassPath() {
+		batchCompiler.inMemoryStubCompilation = true
+		batchCompiler.sourcePath = './batch-compiler-data/classpathTest/src'
+		batchCompiler.setClassPath('./batch-compiler-data/classpathTest/dependency')
+		assertTrue("Compiling with correct dependency resolution", batchCompiler.compile)
+	}
+
+	@Test
+	def void testInMemoryStubCompilationJarWithoutDirectoryEntries() {
+		val jar = new File(TEMP_DIRECTORY + "/dependency.jar")
+		Files.createParentDirs(jar)
+		val out = new ZipOutputStream(new FileOutputStream(jar))
+		try {
+			out.putNextEntry(new ZipEntry("my/pack/MyDependency.class"))
+			Files.copy(new File("./batch-compiler-data/classpathTest/dependency/my/pack/MyDependency.class"), out)
+			out.closeEntry
+		} finally {
+			out.close
+		}
+		batchCompiler.inMemoryStubCompilation = true
+		batchCompiler.sourcePath = './batch-compiler-data/classpathTest/src'
+		batchCompiler.setClassPath(jar.path)
+		assertTrue("Compiling against a jar without directory entries", batchCompiler.compile)
+	}
+
+	@Test
+	def void testIncrementalBuild() {
+		batchCompiler.sourcePath = createSources(3)
+		batchCompiler.incremental = true
+		assertTrue(batchCompiler.compile)
+		assertTrue(new File(OUTPUT_DIRECTORY + "/.xtend.buildstate").exists)
+		val numberOfSources = fileGenerator.dependencies.size + 3
+		val logs = LoggingTester.captureLogging(Level.INFO, XtendBatchCompiler)[
+			assertTrue(batchCompiler.compile)
+		]
+		logs.assertLogEntry("up-to-date")
+		// no other type uses the last one
+		Files.append("\n// changed", new File(TEMP_DIRECTORY + "/generated-src/generated/MyGeneratedType2.xtend"), Charsets.UTF_8)
+		val lastChanged = LoggingTester.captureLogging(Level.INFO, XtendBatchCompiler)[
+			assertTrue(batchCompiler.compile)
+		]
+		lastChanged.assertLogEntry("Compiling 1 of " + numberOfSources + " Xtend sources incrementally.")
+		// the other types use the first one transitively
+		Files.append("\n// changed", new File(TEMP_DIRECTORY + "/generated-src/generated/MyGeneratedType0.xtend"), Charsets.UTF_8)
+		val firstChanged = LoggingTester.captureLogging(Level.INFO, XtendBatchCompiler)[
+			assertTrue(batchCompiler.compile)
+		]
+		firstChanged.assertLogEntry("Compiling 3 of " + numberOfSources + " Xtend sources incrementally.")
+	}
+
+	@Test
+	def void testReadStorageFiles() {
+		batchCompiler.readStorageFiles = true
+		assertTrue(batchCompiler.compile)
+		val expected = hashGeneratedFiles(OUTPUT_DIRECTORY + "/test")
+		assertEquals(5, expected.keySet.filter[endsWith(".xtendbin")].size)
+		batchCompiler.reportFile = OUTPUT_DIRECTORY + "/report.json"
+		assertTrue(batchCompiler.compile)
+		// no source has changed, so all of them are loaded from their storage files
+		val loadPhase = getContents(OUTPUT_DIRECTORY + "/report.json").split("\n").findFirst[contains('"name": "load"')]
+		assertTrue(loadPhase, loadPhase.contains('"resources": 0}'))
+		assertEquals(expected, hashGeneratedFiles(OUTPUT_DIRECTORY + "/test"))
+	}
+
+	@Test
+	def void testReadStorageFilesReloadsDependentsOfNewTypes() {
+		val a = new File(TEMP_DIRECTORY + "/storage-src/p/A.xtend")
+		val b = new File(TEMP_DIRECTORY + "/storage-src/p/B.xtend")
+		Files.createParentDirs(a)
+		Files.write("package p class A {}", a, Charsets.UTF_8)
+		Files.write("package p class B { def m() { String.valueOf(1) } }", b, Charsets.UTF_8)
+		batchCompiler.sourcePath = TEMP_DIRECTORY + "/storage-src"
+		batchCompiler.readStorageFiles = true
+		assertTrue(batchCompiler.compile)
+		assertTrue(getContents(OUTPUT_DIRECTORY + "/p/B.java").contains("public String m()"))
+		// the new type p.String shadows java.lang.String in the unchanged B.xtend
+		Files.write("package p class A {} class String { def static valueOf(int i) { 42 } }", a, Charsets.UTF_8)
+		assertTrue(batchCompiler.compile)
+		val javaCode = getContents(OUTPUT_DIRECTORY + "/p/B.java")
+		assertTrue(javaCode, javaCode.contains("public int m()"))
+	}
+
+	@Test
+	def void testSharedJvmTypeCache() {
+		val objectType = URI.createURI("java:/Objects/java.lang.Object")
+		val resources = <Resource>newArrayList
+		batchCompiler.resourceSetProvider = [
+			new SynchronizedXtextResourceSet {
+				override getResource(URI uri, boolean loadOnDemand) {
+					val result = super.getResource(uri, loadOnDemand)
+					if (uri == objectType && result !== null) {
+						resources += result
+					}
+					return result
+				}
+			}
+		]
+		// the cache is not used for the types of the current class loader
+		batchCompiler.useCurrentClassLoaderAsParent = false
+		batchCompiler.useSharedJvmTypeCache = true
+		batchCompiler.sourcePath = './batch-compiler-data/classpathTest/src'
+		val xbaseLib = new File(typeof(IterableExtensions).protectionDomain.codeSource.location.toURI).path
+		batchCompiler.setClassPath('./batch-compiler-data/classpathTest/dependency' + File.pathSeparator + xbaseLib)
+		assertTrue(batchCompiler.compile)
+		assertTrue(batchCompiler.compile)
+		// both phases of both compilations use the same cached type
+		assertFalse(resources.empty)
+		assertEquals(1, resources.toSet.size)
+	}
+
+	@Test
+	def void testSerialLoadingWithThreads() {
+		batchCompiler.sourcePath = createSources(20)
+		batchCompiler.writeTraceFiles = true
+		batchCompiler.numberOfThreads = 4
+		assertTrue(batchCompiler.compile)
+		val expected = hashGeneratedFiles(OUTPUT_DIRECTORY + "/generated")
+		cleanFolder(new File(OUTPUT_DIRECTORY), null, true, false)
+		batchCompiler.parallelLoading = false
+		assertTrue(batchCompiler.compile)
+		assertEquals(expected, hashGeneratedFiles(OUTPUT_DIRECTORY + "/generated"))
+	}
+
+	@Test
+	def void testCompilationReport() {
+		batchCompiler.reportFile = OUTPUT_DIRECTORY + "/report.json"
+		val logs = LoggingTester.captureLogging(Level.INFO, CompilationReport)[
+			assertTrue(batchCompiler.compile)
+		]
+		logs.assertLogEntry("Compilation report")
+		val report = getContents(OUTPUT_DIRECTORY + "/report.json")
+		assertTrue(report, report.contains('"name": "validate"'))
+		assertTrue(report, report.contains('"slowestFiles"'))
+		val validatePhase = report.split("\n").findFirst[contains('"name": "validate"')]
+		assertTrue(validatePhase, validatePhase.contains('"resources": 5}'))
+	}
+
+	@Test
+	def void testCompilationReportKeepsStopwatches() {
+		batchCompiler.reportFile = OUTPUT_DIRECTORY + "/report.json"
+		Stopwatches.setEnabled(true)
+		try {
+			val task = Stopwatches.forTask("TestBatchCompiler")
+			task.start
+			task.stop
+			assertTrue(batchCompiler.compile)
+			// the numbers of other tasks are neither reset nor listed in the report
+			assertEquals(1, Stopwatches.allNumbers.get("TestBatchCompiler").numberOfMeasurements)
+			assertFalse(getContents(OUTPUT_DIRECTORY + "/report.json").contains("TestBatchCompiler"))
+			assertNotSame(Stopwatches.forTask("TestBatchCompiler"), Stopwatches.forTask("TestBatchCompiler"))
+		} finally {
+			Stopwatches.setEnabled(false)
+			Stopwatches.resetAll
+		}
+		assertTrue(batchCompiler.compile)
+		assertSame(Stopwatches.forTask("TestBatchCompiler"), Stopwatches.forTask("TestBatchCompiler"))
+	}
+
+	@Test
+	def void testCompilationReportMeasuresWorkers() {
+		val report = new CompilationReport(true, 0)
+		val phase = report.startPhase("parallel")
+		val executor = Executors.newSingleThreadExecutor
+		try {
+			executor.submit(report.measureWorker [|
+				// allocates at least 8 MB on the worker thread
+				var size = 0
+				for (i : 0 ..< 8) {
+					size += newByteArrayOfSize(1024 * 1024).length
+				}
+				return size
+			]).get
+		} finally {
+			executor.shutdownNow
+		}
+		phase.stop(0)
+		assertTrue(String.valueOf(phase.allocatedBytes), phase.allocatedBytes >= 8 * 1024 * 1024)
+	}
+
+	@Test
+	def void testConcurrentCreateExtensions() {
+		batchCompiler.sourcePath = "./batch-compiler-data/createExtensions"
+		batchCompiler.concurrentCreateExtensions = true
+		assertTrue(batchCompiler.compile)
+		val javaCode = getContents(OUTPUT_DIRECTORY + "/CreateExtensions.java")
+		assertTrue(javaCode, javaCode.contains("ConcurrentHashMap<Object, StringBuilder> _createCache_single"))
+		assertTrue(javaCode, javaCode.contains("ConcurrentHashMap<Object, ConcurrentHashMap<Object, ArrayList<String>>> _createCache_pair"))
+		assertTrue(javaCode, javaCode.contains("_createCacheNullKey_single"))
+		assertTrue(javaCode, javaCode.contains("putIfAbsent"))
+		assertTrue(javaCode, javaCode.contains("if (_result != null) {"))
+		assertTrue(javaCode, javaCode.contains("synchronized (_createCache_triple)"))
+		assertFalse(javaCode, javaCode.contains("synchronized (_createCache_single)"))
+	}
+
+	@Test
+	def void testDispatchTable() {
+		batchCompiler.sourcePath = "./batch-compiler-data/dispatchTable"
+		batchCompiler.dispatchTableThreshold = 3
+		assertTrue(batchCompiler.compile)
+		val javaCode = getContents(OUTPUT_DIRECTORY + "/DispatchTable.java")
+		assertTrue(javaCode, javaCode.contains("ClassValue<Integer> _dispatchTable_describe"))
+		assertTrue(javaCode, javaCode.contains("switch (_dispatchTable_describe.get(value.getClass()).intValue()) {"))
+		assertFalse(javaCode, javaCode.contains("_dispatchTable_small"))
+		assertTrue(javaCode, javaCode.contains("if (value instanceof String) {"))
+	}
+
+	@Test
+	def void testCompactRichStrings() {
+		batchCompiler.sourcePath = "./batch-compiler-data/compactRichStrings"
+		batchCompiler.fileEncoding = "UTF-8"
+		batchCompiler.compactRichStrings = true
+		assertTrue(batchCompiler.compile)
+		val javaCode = getContents(OUTPUT_DIRECTORY + "/CompactRichStrings.java")
+		assertTrue(javaCode, javaCode.contains('_builder.append("\\tint count = ");'))
+		assertTrue(javaCode, javaCode.contains('_builder.append(count);'))
+		assertFalse(javaCode, javaCode.contains('_builder.append("\\t");'))
+	}
+
+	@Test
+	def void testDiscardNodeModels() {
+		batchCompiler.numberOfThreads = 4
+		batchCompiler.writeTraceFiles = true
+		assertTrue(batchCompiler.compile)
+		val expected = hashGeneratedFiles(OUTPUT_DIRECTORY + "/test")
+		cleanFolder(new File(OUTPUT_DIRECTORY), null, true, false)
+		val resourceSets = <ResourceSet>newArrayList
+		batchCompiler.resourceSetProvider = [
+			val resourceSet = new SynchronizedXtextResourceSet
+			resourceSets += resourceSet
+			return resourceSet
+		]
+		// the traces are computed from the node models, so they must not be discarded too early
+		batchCompiler.discardNodeModels = true
+		assertTrue(batchCompiler.compile)
+		assertEquals(expected, hashGeneratedFiles(OUTPUT_DIRECTORY + "/test"))
+		// the locations of the source elements are kept
+		val xtendFiles = resourceSets.head.resources.filter(XtextResource).filter[it.URI.fileExtension == 'xtend']
+		assertFalse(xtendFiles.empty)
+		for (resource : xtendFiles) {
+			assertNull(resource.parseResult)
+			val xtendFile = resource.contents.head as XtendFile
+			for (type : xtendFile.xtendTypes) {
+				assertTrue(SourceLocationAdapter.getLocation(type).length > 0)
+			}
+		}
+	}
+
+	@Test
+	def void testIncrementalBuildWithBuildStateLocation() {
+		batchCompiler.incremental = true
+		batchCompiler.buildStateLocation = TEMP_DIRECTORY + "/buildstate"
+		assertTrue(batchCompiler.compile)
+		assertTrue(new File(TEMP_DIRECTORY + "/buildstate").exists)
+		assertFalse(new File(OUTPUT_DIRECTORY + "/.xtend.buildstate").exists)
+		val generated = new File(OUTPUT_DIRECTORY + "/test/XtendA.java")
+		assertTrue(generated.delete)
+		val logs = LoggingTester.captureLogging(Level.INFO, XtendBatchCompiler)[
+			assertTrue(batchCompiler.compile)
+		]
+		logs.assertLogEntry("missing")
+		assertTrue(generated.exists)
+	}
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.tests.linking;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.xtend.core.scoping.ResourceSetTypeCache;
+import org.eclipse.xtend.core.tests.AbstractXtendTestCase;
+import org.eclipse.xtend.core.xtend.XtendField;
+import org.eclipse.xtend.core.xtend.XtendFile;
+import org.eclipse.xtext.common.types.JvmType;
+import org.eclipse.xtext.common.types.xtext.AbstractTypeScope;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.util.StringInputStream;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * The types of the imports are shared by the resources of a resource set.
+ */
+public class ResourceSetTypeCacheTest extends AbstractXtendTestCase {
+
+	@Test public void testSharedImports() throws Exception {
+		Iterator<XtendFile> files = files(false,
+				"package a import java.util.List class A { List<String> list }",
+				"package b import java.util.* class B { List<String> list }").iterator();
+		XtendFile a = files.next();
+		XtendFile b = files.next();
+		JvmType listInA = getFieldType(a);
+		ResourceSetTypeCache cache = ResourceSetTypeCache.findOrInstall(a.eResource().getResourceSet());
+		long hits = cache.getHitCount();
+		JvmType listInB = getFieldType(b);
+		assertEquals("java.util.List", listInA.getIdentifier());
+		assertSame(listInA, listInB);
+		assertTrue(cache.getHitCount() > hits);
+	}
+
+	@Test public void testNewSourceType() throws Exception {
+		XtextResourceSet resourceSet = getResourceSet();
+		XtendFile a = load(resourceSet, "a/A.xtend", "package a import c.C class A { C c }");
+		JvmType unresolved = getFieldType(a);
+		assertTrue(unresolved == null || unresolved.eIsProxy());
+		load(resourceSet, "c/C.xtend", "package c class C {}");
+		XtendFile b = load(resourceSet, "b/B.xtend", "package b import c.C class B { C c }");
+		JvmType resolved = getFieldType(b);
+		assertFalse(resolved.eIsProxy());
+		assertEquals("c.C", resolved.getIdentifier());
+	}
+
+	@Test public void testReloadedSourceType() throws Exception {
+		XtextResourceSet resourceSet = getResourceSet();
+		Resource c = load(resourceSet, "c/C.xtend", "package c class C {}").eResource();
+		XtendFile a = load(resourceSet, "a/A.xtend", "package a import c.C class A { C c }");
+		assertEquals("c.C", getFieldType(a).getIdentifier());
+		c.unload();
+		c.load(new StringInputStream("package c class C {}"), null);
+		XtendFile b = load(resourceSet, "b/B.xtend", "package b import c.C class B { C c }");
+		JvmType resolved = getFieldType(b);
+		assertFalse(resolved.eIsProxy());
+		assertSame(c, resolved.eResource());
+	}
+
+	@Test public void testMissDroppedWhenTypesAreLoaded() throws Exception {
+		XtextResourceSet resourceSet = getResourceSet();
+		final List<QualifiedName> lookups = Lists.newArrayList();
+		AbstractTypeScope scope = ResourceSetTypeCache.findOrInstall(resourceSet).getTypeScope(new AbstractTypeScope(null, null, null) {
+			@Override
+			public IEObjectDescription getSingleElement(QualifiedName name, boolean binary) {
+				lookups.add(name);
+				return null;
+			}
+		}, null);
+		QualifiedName name = QualifiedName.create("c", "Missing");
+		assertNull(scope.getSingleElement(name, true));
+		assertNull(scope.getSingleElement(name, true));
+		assertEquals(1, lookups.size());
+		resourceSet.getResources().add(new ResourceImpl(URI.createURI("java:/Objects/c.Other")));
+		assertNull(scope.getSingleElement(name, true));
+		assertEquals(2, lookups.size());
+	}
+
+	@Test public void testNoMissStoredAfterConcurrentClear() throws Exception {
+		XtextResourceSet resourceSet = getResourceSet();
+		final ResourceSetTypeCache cache = ResourceSetTypeCache.findOrInstall(resourceSet);
+		final List<QualifiedName> lookups = Lists.newArrayList();
+		AbstractTypeScope scope = cache.getTypeScope(new AbstractTypeScope(null, null, null) {
+			@Override
+			public IEObjectDescription getSingleElement(QualifiedName name, boolean binary) {
+				lookups.add(name);
+				if (lookups.size() == 1) {
+					// e.g. a source resource that was changed by another thread during the first lookup
+					cache.clear();
+				}
+				return null;
+			}
+		}, null);
+		QualifiedName name = QualifiedName.create("c", "Missing");
+		assertNull(scope.getSingleElement(name, true));
+		assertNull(scope.getSingleElement(name, true));
+		assertEquals(2, lookups.size());
+		assertNull(scope.getSingleElement(name, true));
+		assertEquals(2, lookups.size());
+	}
+
+	protected XtendFile load(XtextResourceSet resourceSet, String fileName, String content) throws Exception {
+		Resource resource = resourceSet.createResource(URI.createURI(fileName));
+		resource.load(new StringInputStream(content), null);
+		return (XtendFile) resource.getContents().get(0);
+	}
+
+	protected JvmType getFieldType(XtendFile file) {
+		XtendField field = (XtendField) file.getXtendTypes().get(0).getMembers().get(0);
+		return field.getType().getType();
+	}
+
+}
@@ -7,6 +7,7 @@
  *******************************************************************************/
 package org.eclipse.xtend.core.tests.macro
 
+import com.google.common.base.Strings
 import java.io.ByteArrayInputStream
 import java.io.File
 import java.io.FileInputStream
@@ -112,6 +113,33 @@ class JavaIoFileSystemTest {
 		assertTrue(mod < path.lastModification)
 	}
 
+	@Test def void testModificationStamp_03() {
+		val path = new Path('/foo/src/my/pack/Foo.txt')
+		val contents = Strings.repeat("Hello Foo\n", 2000)
+		path.contents = contents + "Foo"
+		val mod = path.lastModification
+
+		Thread.sleep(1000)
+		path.contents = contents + "Foo"
+		assertEquals(mod, path.lastModification)
+		path.contents = contents + "Bar"
+		assertTrue(mod < path.lastModification)
+		assertEquals(contents + "Bar", path.contents.toString)
+	}
+
+	@Test def void testModificationStamp_04() {
+		val path = new Path('/foo/src/my/pack/Foo.txt')
+		val contents = Strings.repeat("Hello Foo\n", 2000)
+		path.contentsAsStream = new ByteArrayInputStream((contents + "Foo").bytes)
+		val mod = path.lastModification
+
+		Thread.sleep(1000)
+		path.contentsAsStream = new ByteArrayInputStream((contents + "Foo").bytes)
+		assertEquals(mod, path.lastModification)
+		path.contentsAsStream = new ByteArrayInputStream((contents + "Foo!").bytes)
+		assertTrue(mod < path.lastModification)
+	}
+
 	@Test def void testGetWorkspaceChildren() {
 		assertEquals(Path.ROOT.children.join('[', ', ', ']')[it.segments.join('.')], 1, Path.ROOT.children.size)
 	}
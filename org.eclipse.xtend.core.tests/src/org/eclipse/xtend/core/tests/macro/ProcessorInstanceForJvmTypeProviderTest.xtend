@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.tests.macro
+
+import java.io.File
+import java.io.FileOutputStream
+import java.util.List
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import org.eclipse.xtend.core.macro.ProcessorInstanceForJvmTypeProvider
+import org.eclipse.xtend.lib.macro.TransformationContext
+import org.eclipse.xtend.lib.macro.TransformationParticipant
+import org.eclipse.xtend.lib.macro.declaration.MutableClassDeclaration
+import org.eclipse.xtext.xbase.testing.TemporaryFolder
+import org.junit.Rule
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class ProcessorInstanceForJvmTypeProviderTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+	val provider = new ProcessorInstanceForJvmTypeProvider
+
+	@Test def void testStatelessProcessorIsReused() {
+		val processor = provider.getInstance(StatelessProcessor)
+		assertSame(processor, provider.getInstance(StatelessProcessor))
+		assertEquals(1, provider.createdProcessorInstances)
+		assertEquals(1, provider.reusedProcessorInstances)
+	}
+
+	@Test def void testStatefulProcessorIsNotReused() {
+		val processor = provider.getInstance(StatefulProcessor)
+		assertNotSame(processor, provider.getInstance(StatefulProcessor))
+		assertEquals(2, provider.createdProcessorInstances)
+		assertEquals(0, provider.reusedProcessorInstances)
+	}
+
+	@Test def void testSharedClassLoaderForJars() {
+		val folder = temporaryFolder.newFolder
+		val jar = new File(folder, 'processors.jar')
+		new JarOutputStream(new FileOutputStream(jar)).close
+		val classpath = #[jar, folder]
+		val first = provider.createSharedClassLoader(classpath, class.classLoader)
+		val second = provider.createSharedClassLoader(classpath, class.classLoader)
+		assertNotSame(first, second)
+		assertSame(first.parent, second.parent)
+		assertEquals(1, provider.loadedClassLoaders)
+		assertEquals(1, provider.reusedClassLoaders)
+
+		jar.setLastModified(jar.lastModified - 10000)
+		val third = provider.createSharedClassLoader(classpath, class.classLoader)
+		assertNotSame(first.parent, third.parent)
+		assertEquals(2, provider.loadedClassLoaders)
+		assertEquals(1, provider.reusedClassLoaders)
+	}
+
+	@Test def void testDroppedClassLoadersAreClosed() {
+		val jar = new File(temporaryFolder.newFolder, 'processors.jar')
+		val out = new JarOutputStream(new FileOutputStream(jar))
+		out.putNextEntry(new JarEntry('processor-marker.txt'))
+		out.close
+		val first = provider.createSharedClassLoader(#[jar], class.classLoader)
+		assertNotNull(first.parent.getResource('processor-marker.txt'))
+
+		jar.setLastModified(jar.lastModified - 10000)
+		val second = provider.createSharedClassLoader(#[jar], class.classLoader)
+		assertNotNull(second.parent.getResource('processor-marker.txt'))
+		// the replaced class loader has closed its jar
+		assertNull(first.parent.getResource('processor-marker.txt'))
+
+		provider.clearSharedClassLoaders
+		assertNull(second.parent.getResource('processor-marker.txt'))
+	}
+
+}
+
+class StatelessProcessor implements TransformationParticipant<MutableClassDeclaration> {
+
+	override doTransform(List<? extends MutableClassDeclaration> annotatedTargetElements, extension TransformationContext context) {
+		annotatedTargetElements.forEach[addWarning('Transformed')]
+	}
+
+}
+
+class StatefulProcessor implements TransformationParticipant<MutableClassDeclaration> {
+
+	int transformed
+
+	override doTransform(List<? extends MutableClassDeclaration> annotatedTargetElements, extension TransformationContext context) {
+		transformed += annotatedTargetElements.size
+	}
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.tests.parsing;
+
+import java.util.Random;
+
+import org.eclipse.xtend.core.parser.FlexTokenIndex;
+import org.eclipse.xtend.core.parser.antlr.internal.FlexerFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * An updated index has to be the same as the index of the modified text.
+ */
+public class FlexTokenIndexTest extends Assert {
+
+	private FlexerFactory flexerFactory = new FlexerFactory();
+
+	private String model =
+			"package foo\n" +
+			"/* a comment with 'quotes' */\n" +
+			"class Bar {\n" +
+			"	val x = 1e+5 + 0x1F#L\n" +
+			"	// a line comment\n" +
+			"	def m(String s) \'\'\'\n" +
+			"		\u00ABIF s !== null\u00BB\u00ABs\u00BB\u00ABELSE\u00BBnone\u00ABENDIF\u00BB text \u00AB\u00AB\u00AB comment\n" +
+			"	\'\'\'\n" +
+			"	def n() { \"str\\\"ing\" + 'x' ..< 3 }\n" +
+			"}\n";
+
+	@Test public void testInsert() {
+		for (int offset = 0; offset <= model.length(); offset++) {
+			for (String inserted : new String[] { "a", " ", "'", "\"", "/*", "*/", "\u00AB", "1e", "\n" }) {
+				assertUpdate(model, model.substring(0, offset) + inserted + model.substring(offset));
+			}
+		}
+	}
+
+	@Test public void testDelete() {
+		for (int offset = 0; offset < model.length(); offset++) {
+			for (int length = 1; length <= 3 && offset + length <= model.length(); length++) {
+				assertUpdate(model, model.substring(0, offset) + model.substring(offset + length));
+			}
+		}
+	}
+
+	@Test public void testRandomEdits() {
+		Random random = new Random(42);
+		String text = model;
+		FlexTokenIndex index = FlexTokenIndex.create(flexerFactory, text);
+		for (int i = 0; i < 500; i++) {
+			int offset = random.nextInt(text.length() + 1);
+			int length = Math.min(random.nextInt(4), text.length() - offset);
+			String replacement = model.substring(random.nextInt(model.length() - 5)).substring(0, random.nextInt(5));
+			text = text.substring(0, offset) + replacement + text.substring(offset + length);
+			index = index.update(text);
+			assertSameIndex(FlexTokenIndex.create(flexerFactory, text), index);
+		}
+	}
+
+	@Test public void testLookaheadBeyondTokenEnd() {
+		// the lexer scans the stars up to the end of the text before it falls back to an erroneous comment "/**"
+		String stars = "class A {}\n/**************************************";
+		for (int offset = stars.indexOf('*'); offset <= stars.length(); offset++) {
+			assertUpdate(stars, stars.substring(0, offset) + "/" + stars.substring(offset));
+			assertUpdate(stars, stars.substring(0, offset) + "/\nclass B {}" + stars.substring(offset));
+		}
+		assertUpdate(stars + "/", stars);
+		assertUpdate(stars, stars + ";");
+		assertUpdate(stars + ";", stars + ";/**/");
+	}
+
+	@Test public void testEmpty() {
+		assertUpdate("", model);
+		assertUpdate(model, "");
+	}
+
+	protected void assertUpdate(String original, String modified) {
+		FlexTokenIndex index = FlexTokenIndex.create(flexerFactory, original).update(modified);
+		assertSameIndex(FlexTokenIndex.create(flexerFactory, modified), index);
+	}
+
+	protected void assertSameIndex(FlexTokenIndex expected, FlexTokenIndex actual) {
+		assertEquals(expected.getText(), actual.getText());
+		assertEquals(expected.getText(), expected.getTokenCount(), actual.getTokenCount());
+		for (int i = 0; i < expected.getTokenCount(); i++) {
+			assertEquals(expected.getText(), expected.getTokenStart(i), actual.getTokenStart(i));
+			assertEquals(expected.getText(), expected.getTokenType(i), actual.getTokenType(i));
+		}
+	}
+
+}
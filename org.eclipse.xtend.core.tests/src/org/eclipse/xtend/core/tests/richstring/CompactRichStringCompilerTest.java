@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.tests.richstring;
+
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig;
+import org.eclipse.xtend.core.tests.XtendGeneratorConfigRuntimeInjectorProvider;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.xbase.compiler.IGeneratorConfigProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Inject;
+
+/**
+ * Runs the template tests with {@link XtendGeneratorConfig#isCompactRichStrings() compact rich strings}, which have to
+ * produce the same strings as the default compilation.
+ */
+@InjectWith(XtendGeneratorConfigRuntimeInjectorProvider.class)
+public class CompactRichStringCompilerTest extends RichStringCompilerTest {
+
+	@Inject
+	private IGeneratorConfigProvider generatorConfigProvider;
+
+	@Inject
+	private RichStringCompilerTestHelper testHelper;
+
+	@Before
+	public void enableCompactRichStrings() {
+		getGeneratorConfig().setCompactRichStrings(true);
+	}
+
+	protected XtendGeneratorConfig getGeneratorConfig() {
+		return (XtendGeneratorConfig) generatorConfigProvider.get(null);
+	}
+
+	/**
+	 * Evaluates the given template with the default and with the compact compilation and expects the same string.
+	 */
+	protected void assertSameOutput(String richString) throws Exception {
+		getGeneratorConfig().setCompactRichStrings(false);
+		String expectedOutput = testHelper.evaluate(richString);
+		getGeneratorConfig().setCompactRichStrings(true);
+		assertEquals(expectedOutput, testHelper.evaluate(richString));
+	}
+
+	@Test public void testSameOutput_Values() throws Exception {
+		assertSameOutput(
+				"'''\n" +
+				"\tfoo\n" +
+				"\t\t1 + 1 true 2L 1.5\n" +
+				"\t\t'\\n'.charAt(0)x new Character('\\n')y\n" +
+				"\t\t'a\\nb' newArrayList('c\\nd')\n" +
+				"\tnull\n" +
+				"\tbar\n" +
+				"'''");
+	}
+
+	@Test public void testSameOutput_EmptyLines() throws Exception {
+		assertSameOutput(
+				"'''\n" +
+				"\tfoo\n" +
+				"\n" +
+				"\t\t\n" +
+				"\t\tbar  \n" +
+				"\n" +
+				"'''");
+	}
+
+	@Test public void testSameOutput_Separators() throws Exception {
+		assertSameOutput(
+				"'''\n" +
+				"\tfoo\n" +
+				"\t\tFOR i : 1..3 BEFORE '[\\n' SEPARATOR ',\\n' AFTER '\\n]'\n" +
+				"\t\t\ti: 'a\\nb'\n" +
+				"\n" +
+				"\t\tENDFOR\n" +
+				"\t\tFOR s : #['x', 'y'] SEPARATOR ', 'sENDFOR\n" +
+				"\tbar\n" +
+				"'''");
+	}
+
+	@Test public void testSameOutput_Conditions() throws Exception {
+		assertSameOutput(
+				"'''\n" +
+				"\tfoo\n" +
+				"\t\tIF 1 > 2\n" +
+				"\t\t\tno\n" +
+				"\t\tELSEIF 1 < 2\n" +
+				"\t\t\tyes 1\n" +
+				"\t\t\t  'a\\nb'\n" +
+				"\t\tELSE\n" +
+				"\t\t\tnever\n" +
+				"\t\tENDIF\n" +
+				"\t\tIF falsenoENDIF  \n" +
+				"\tbar\n" +
+				"'''");
+	}
+
+}
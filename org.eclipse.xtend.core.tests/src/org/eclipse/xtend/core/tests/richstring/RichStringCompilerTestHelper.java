@@ -18,5 +18,12 @@ public class RichStringCompilerTestHelper extends CompilerTestHelper {
 	protected Object apply(Class<?> compile) throws Exception {
 		return super.apply(compile).toString();
 	}
+
+	/**
+	 * Compiles and runs the given template and returns the resulting string.
+	 */
+	public String evaluate(String richString) throws Exception {
+		return (String) apply(compile(richString));
+	}
 	
 }
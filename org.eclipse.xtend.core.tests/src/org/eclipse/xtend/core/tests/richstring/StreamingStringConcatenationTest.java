@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.tests.richstring;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.eclipse.xtend.core.richstring.StreamingStringConcatenation;
+import org.eclipse.xtend2.lib.StringConcatenation;
+import org.eclipse.xtend2.lib.StringConcatenationClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The streamed text has to be the same as the one that is collected by a {@link StringConcatenation}.
+ */
+public class StreamingStringConcatenationTest extends Assert {
+
+	private String lineDelimiter = "\n";
+
+	@Test public void testAppend() throws IOException {
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("abc");
+				target.newLine();
+				target.append("abc");
+			}
+		});
+	}
+
+	@Test public void testNewLineIfNotEmpty_01() throws IOException {
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.newLineIfNotEmpty();
+				target.append("abc");
+				target.newLineIfNotEmpty();
+				target.append(" ");
+				target.append("\t");
+				target.newLineIfNotEmpty();
+				target.newLineIfNotEmpty();
+				target.append("abc");
+			}
+		});
+	}
+
+	@Test public void testNewLineIfNotEmpty_02() throws IOException {
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("abc");
+				target.newLineIfNotEmpty();
+				target.append(" ");
+				target.append("\t");
+				target.newLineIfNotEmpty();
+				target.newLine();
+				target.append("abc");
+			}
+		});
+	}
+
+	@Test public void testTrailingWhitespace_01() throws IOException {
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("abc");
+				target.newLineIfNotEmpty();
+				target.append(" ");
+			}
+		});
+	}
+
+	@Test public void testTrailingWhitespace_02() throws IOException {
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("abc ");
+			}
+		});
+	}
+
+	@Test public void testAppendMultiLine() throws IOException {
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("abc\rdef\r\nghi\njkl");
+			}
+		});
+	}
+
+	@Test public void testAppendIndented() throws IOException {
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("class {");
+				target.newLine();
+				target.append("\t");
+				target.append("abc\ndef", "\t");
+				target.newLine();
+				target.append("}");
+			}
+		});
+	}
+
+	@Test public void testAppendImmediate() throws IOException {
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				for (String element : new String[] { "a", "b", "c" }) {
+					target.append(element);
+					target.newLineIfNotEmpty();
+					target.appendImmediate(",", "");
+				}
+			}
+		});
+	}
+
+	@Test public void testAppendClient() throws IOException {
+		final StringConcatenationClient inner = new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("abc");
+				target.newLine();
+				target.append("def");
+			}
+		};
+		assertSameText(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("{");
+				target.newLine();
+				target.append("  ");
+				target.append(inner, "  ");
+				target.newLineIfNotEmpty();
+				target.append("}");
+			}
+		});
+	}
+
+	@Test public void testWrite() throws IOException {
+		StringWriter writer = new StringWriter();
+		StreamingStringConcatenation.write(new StringConcatenationClient() {
+			@Override
+			protected void appendTo(TargetStringConcatenation target) {
+				target.append("abc");
+				target.newLine();
+			}
+		}, writer, "\r\n");
+		assertEquals("abc\r\n", writer.toString());
+	}
+
+	protected void assertSameText(StringConcatenationClient client) throws IOException {
+		StringConcatenation expected = new StringConcatenation(lineDelimiter);
+		expected.append(client);
+		StringBuilder actual = new StringBuilder();
+		StreamingStringConcatenation.write(client, actual, lineDelimiter);
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+}
@@ -103,8 +103,10 @@ import org.junit.runners.Suite.SuiteClasses;
 	CompilerBugProtectedVisibilityTest.class,
 	CompilerTraceTest.class,
 	CompoundAssignmentOperatorCompilerTest.class,
+	ConcurrentCreateExtensionsCompilerTest.class,
 	ConfiguredCompilerTest.class,
 	DispatchCompilerTest.class,
+	DispatchTableCompilerTest.class,
 	ExtensionsCompilerTest.class,
 	OldDataCompilerTest.class,
 	NewDataCompilerTest.class,
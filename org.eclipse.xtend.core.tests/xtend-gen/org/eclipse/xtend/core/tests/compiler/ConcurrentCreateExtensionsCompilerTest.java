@@ -0,0 +1,309 @@
+/**
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtend.core.tests.compiler;
+
+import com.google.common.base.Objects;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig;
+import org.eclipse.xtend.core.tests.XtendGeneratorConfigRuntimeInjectorProvider;
+import org.eclipse.xtend.core.tests.compiler.AbstractXtendCompilerTest;
+import org.eclipse.xtend2.lib.StringConcatenation;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.util.IAcceptor;
+import org.eclipse.xtext.xbase.compiler.CompilationTestHelper;
+import org.eclipse.xtext.xbase.compiler.GeneratorConfig;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Conversions;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.ExclusiveRange;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IntegerRange;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Create functions with concurrent caches have to return the same objects as the ones that synchronize on their cache.
+ */
+@InjectWith(XtendGeneratorConfigRuntimeInjectorProvider.class)
+@SuppressWarnings("all")
+public class ConcurrentCreateExtensionsCompilerTest extends AbstractXtendCompilerTest {
+  @Test
+  public void testCreatedOnceUnderConcurrentCalls() {
+    StringConcatenation _builder = new StringConcatenation();
+    _builder.append("import java.util.concurrent.atomic.AtomicInteger");
+    _builder.newLine();
+    _builder.append("class C {");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("val counter = new AtomicInteger");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def create new StringBuilder(key) builder(String key) {");
+    _builder.newLine();
+    _builder.append("\t\t");
+    _builder.append("counter.incrementAndGet");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("}");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def int initialized() {");
+    _builder.newLine();
+    _builder.append("\t\t");
+    _builder.append("counter.get");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("}");
+    _builder.newLine();
+    _builder.append("}");
+    _builder.newLine();
+    final IAcceptor<CompilationTestHelper.Result> _function = (CompilationTestHelper.Result it) -> {
+      try {
+        Class<?> _compiledClass = it.getCompiledClass();
+        final Object instance = _compiledClass.newInstance();
+        ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, 1000, true);
+        final Function1<Integer, String> _function_1 = (Integer it_1) -> {
+          return ("key" + it_1);
+        };
+        Iterable<String> _map = IterableExtensions.<Integer, String>map(_doubleDotLessThan, _function_1);
+        final List<String> keys = IterableExtensions.<String>toList(_map);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+          IntegerRange _upTo = new IntegerRange(1, 4);
+          final Function1<Integer, Callable<List<Object>>> _function_2 = (Integer it_1) -> {
+            return this.callAll(instance, "builder", keys);
+          };
+          Iterable<Callable<List<Object>>> _map_1 = IterableExtensions.<Integer, Callable<List<Object>>>map(_upTo, _function_2);
+          List<Callable<List<Object>>> _list = IterableExtensions.<Callable<List<Object>>>toList(_map_1);
+          final List<Future<List<Object>>> results = executor.<List<Object>>invokeAll(_list);
+          Future<List<Object>> _head = IterableExtensions.<Future<List<Object>>>head(results);
+          final List<Object> expected = _head.get();
+          for (final Future<List<Object>> result : results) {
+            {
+              final List<Object> actual = result.get();
+              int _size = keys.size();
+              ExclusiveRange _doubleDotLessThan_1 = new ExclusiveRange(0, _size, true);
+              for (final Integer i : _doubleDotLessThan_1) {
+                Object _get = expected.get((i).intValue());
+                Object _get_1 = actual.get((i).intValue());
+                Assert.assertSame(_get, _get_1);
+              }
+            }
+          }
+          int _size = keys.size();
+          ExclusiveRange _doubleDotLessThan_1 = new ExclusiveRange(0, _size, true);
+          for (final Integer i : _doubleDotLessThan_1) {
+            String _get = keys.get((i).intValue());
+            Object _get_1 = expected.get((i).intValue());
+            String _string = _get_1.toString();
+            Assert.assertEquals(_get, _string);
+          }
+          int _size_1 = keys.size();
+          Object _call = this.call(instance, "initialized");
+          Assert.assertEquals(Integer.valueOf(_size_1), _call);
+        } finally {
+          executor.shutdownNow();
+        }
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    };
+    this.compileConcurrent(_builder, _function);
+  }
+  
+  @Test
+  public void testReentrantCreation() {
+    StringConcatenation _builder = new StringConcatenation();
+    _builder.append("class C {");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def create result: newArrayList node(String name) {");
+    _builder.newLine();
+    _builder.append("\t\t");
+    _builder.append("result += name");
+    _builder.newLine();
+    _builder.append("\t\t");
+    _builder.append("result += node(if (name == 'a') 'b' else 'a')");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("}");
+    _builder.newLine();
+    _builder.append("}");
+    _builder.newLine();
+    final IAcceptor<CompilationTestHelper.Result> _function = (CompilationTestHelper.Result it) -> {
+      try {
+        Class<?> _compiledClass = it.getCompiledClass();
+        final Object instance = _compiledClass.newInstance();
+        Object _call = this.call(instance, "node", "a");
+        final List<?> a = ((List<?>) _call);
+        Object _get = a.get(1);
+        final List<?> b = ((List<?>) _get);
+        Object _get_1 = a.get(0);
+        Assert.assertEquals("a", _get_1);
+        Object _get_2 = b.get(0);
+        Assert.assertEquals("b", _get_2);
+        Object _get_3 = b.get(1);
+        Assert.assertSame(a, _get_3);
+        Object _call_1 = this.call(instance, "node", "a");
+        Assert.assertSame(a, _call_1);
+        Object _call_2 = this.call(instance, "node", "b");
+        Assert.assertSame(b, _call_2);
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    };
+    this.compileConcurrent(_builder, _function);
+  }
+  
+  @Test
+  public void testNullKeysAndResults() {
+    StringConcatenation _builder = new StringConcatenation();
+    _builder.append("import java.util.concurrent.atomic.AtomicInteger");
+    _builder.newLine();
+    _builder.append("class C {");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("val counter = new AtomicInteger");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def create new StringBuilder(String.valueOf(key)) builder(String key) {");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("}");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def create new StringBuilder(first + second) pair(String first, String second) {");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("}");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def create if (key === null) null else new StringBuilder(key) nullable(String key) {");
+    _builder.newLine();
+    _builder.append("\t\t");
+    _builder.append("counter.incrementAndGet");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("}");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def int initialized() {");
+    _builder.newLine();
+    _builder.append("\t\t");
+    _builder.append("counter.get");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("}");
+    _builder.newLine();
+    _builder.append("}");
+    _builder.newLine();
+    final IAcceptor<CompilationTestHelper.Result> _function = (CompilationTestHelper.Result it) -> {
+      try {
+        Class<?> _compiledClass = it.getCompiledClass();
+        final Object instance = _compiledClass.newInstance();
+        final Object none = null;
+        final Object builder = this.call(instance, "builder", none);
+        String _string = builder.toString();
+        Assert.assertEquals("null", _string);
+        Object _call = this.call(instance, "builder", none);
+        Assert.assertSame(builder, _call);
+        Object _call_1 = this.call(instance, "builder", "null");
+        Assert.assertNotSame(builder, _call_1);
+        Object _call_2 = this.call(instance, "pair", none, none);
+        Object _call_3 = this.call(instance, "pair", "a", none);
+        Object _call_4 = this.call(instance, "pair", none, "a");
+        Object _call_5 = this.call(instance, "pair", "a", "a");
+        final List<Object> pairs = Collections.<Object>unmodifiableList(CollectionLiterals.<Object>newArrayList(_call_2, _call_3, _call_4, _call_5));
+        Set<Object> _set = IterableExtensions.<Object>toSet(pairs);
+        int _size = _set.size();
+        Assert.assertEquals(4, _size);
+        Object _get = pairs.get(0);
+        Object _call_6 = this.call(instance, "pair", none, none);
+        Assert.assertSame(_get, _call_6);
+        Object _get_1 = pairs.get(1);
+        Object _call_7 = this.call(instance, "pair", "a", none);
+        Assert.assertSame(_get_1, _call_7);
+        Object _get_2 = pairs.get(2);
+        Object _call_8 = this.call(instance, "pair", none, "a");
+        Assert.assertSame(_get_2, _call_8);
+        Object _get_3 = pairs.get(3);
+        Object _call_9 = this.call(instance, "pair", "a", "a");
+        Assert.assertSame(_get_3, _call_9);
+        Object _call_10 = this.call(instance, "nullable", none);
+        Assert.assertNull(_call_10);
+        Object _call_11 = this.call(instance, "nullable", none);
+        Assert.assertNull(_call_11);
+        Object _call_12 = this.call(instance, "initialized");
+        Assert.assertEquals(Integer.valueOf(2), _call_12);
+        final Object nullable = this.call(instance, "nullable", "a");
+        Object _call_13 = this.call(instance, "nullable", "a");
+        Assert.assertSame(nullable, _call_13);
+        Object _call_14 = this.call(instance, "initialized");
+        Assert.assertEquals(Integer.valueOf(3), _call_14);
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    };
+    this.compileConcurrent(_builder, _function);
+  }
+  
+  protected void compileConcurrent(final CharSequence source, final IAcceptor<CompilationTestHelper.Result> acceptor) {
+    try {
+      GeneratorConfig _get = this.generatorConfigProvider.get(null);
+      final XtendGeneratorConfig config = ((XtendGeneratorConfig) _get);
+      config.setConcurrentCreateExtensions(true);
+      final IAcceptor<CompilationTestHelper.Result> _function = (CompilationTestHelper.Result it) -> {
+        String _singleGeneratedCode = it.getSingleGeneratedCode();
+        boolean _contains = _singleGeneratedCode.contains("ConcurrentHashMap");
+        Assert.assertTrue(_contains);
+        acceptor.accept(it);
+      };
+      this.compilationTestHelper.compile(source, _function);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  /**
+   * Calls the given method with each of the given arguments and returns the results in the same order.
+   */
+  protected Callable<List<Object>> callAll(final Object instance, final String name, final List<?> arguments) {
+    final Callable<List<Object>> _function = () -> {
+      final ArrayList<Object> results = CollectionLiterals.<Object>newArrayList();
+      for (final Object argument : arguments) {
+        Object _call = this.call(instance, name, argument);
+        results.add(_call);
+      }
+      return results;
+    };
+    return _function;
+  }
+  
+  protected Object call(final Object instance, final String name, final Object... arguments) {
+    try {
+      Class<?> _class = instance.getClass();
+      Method[] _methods = _class.getMethods();
+      final Function1<Method, Boolean> _function = (Method it) -> {
+        return Boolean.valueOf((Objects.equal(it.getName(), name) && (it.getParameterTypes().length == arguments.length)));
+      };
+      final Method method = IterableExtensions.<Method>findFirst(((Iterable<Method>)Conversions.doWrapArray(_methods)), _function);
+      return method.invoke(instance, arguments);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtend.core.tests.compiler;
+
+import com.google.common.base.Objects;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig;
+import org.eclipse.xtend.core.tests.XtendGeneratorConfigRuntimeInjectorProvider;
+import org.eclipse.xtend.core.tests.compiler.AbstractXtendCompilerTest;
+import org.eclipse.xtend2.lib.StringConcatenation;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.util.IAcceptor;
+import org.eclipse.xtext.util.JavaVersion;
+import org.eclipse.xtext.xbase.compiler.CompilationTestHelper;
+import org.eclipse.xtext.xbase.compiler.GeneratorConfig;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Conversions;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Dispatch methods that look up their cases in a table have to return the same results as the ones that test one
+ * case after the other.
+ */
+@InjectWith(XtendGeneratorConfigRuntimeInjectorProvider.class)
+@SuppressWarnings("all")
+public class DispatchTableCompilerTest extends AbstractXtendCompilerTest {
+  @Test
+  public void testSameResultsAsCaseChain() {
+    StringConcatenation _builder = new StringConcatenation();
+    _builder.append("class C {");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(Object o) { 'Object' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(CharSequence s) { 'CharSequence' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(String s) { 'String' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(Number n) { 'Number' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(Integer i) { 'Integer' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(Void v) { 'null' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(Object o, Object p) { 'Object,Object' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(String s, Object p) { 'String,Object' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String m(Integer i, Object p) { 'Integer,Object' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String n(CharSequence s) { 'CharSequence' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String n(Integer i) { 'Integer' }");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("def dispatch String n(Double d) { 'Double' }");
+    _builder.newLine();
+    _builder.append("}");
+    _builder.newLine();
+    final String source = _builder.toString();
+    StringBuilder _stringBuilder = new StringBuilder();
+    Object _object = new Object();
+    final List<Object> arguments = Collections.<Object>unmodifiableList(CollectionLiterals.<Object>newArrayList(null, "a", _stringBuilder, Integer.valueOf(1), Double.valueOf(1.5), Long.valueOf(1L), _object));
+    final List<String> caseChain = this.invokeAll(source, 0, arguments);
+    Assert.assertEquals(Collections.<String>unmodifiableList(CollectionLiterals.<String>newArrayList("null", "IllegalArgumentException", "IllegalArgumentException", "String", "String,Object", "CharSequence", "CharSequence", "Object,Object", "CharSequence", "Integer", "Integer,Object", "Integer", "Number", "Object,Object", "Double", "Number", "Object,Object", "IllegalArgumentException", "Object", "Object,Object", "IllegalArgumentException")), caseChain);
+    List<String> _invokeAll = this.invokeAll(source, 2, arguments);
+    Assert.assertEquals(caseChain, _invokeAll);
+  }
+  
+  /**
+   * Calls the dispatch methods with each of the given arguments and returns their results, or the simple names of
+   * the exceptions they threw.
+   */
+  protected List<String> invokeAll(final CharSequence source, final int dispatchTableThreshold, final List<Object> arguments) {
+    try {
+      GeneratorConfig _get = this.generatorConfigProvider.get(null);
+      final XtendGeneratorConfig config = ((XtendGeneratorConfig) _get);
+      config.setJavaSourceVersion(JavaVersion.JAVA8);
+      config.setDispatchTableThreshold(dispatchTableThreshold);
+      final ArrayList<String> results = CollectionLiterals.<String>newArrayList();
+      final IAcceptor<CompilationTestHelper.Result> _function = (CompilationTestHelper.Result it) -> {
+        try {
+          String _singleGeneratedCode = it.getSingleGeneratedCode();
+          boolean _contains = _singleGeneratedCode.contains("_dispatchTable_m_1");
+          Assert.assertEquals(Boolean.valueOf((dispatchTableThreshold > 0)), Boolean.valueOf(_contains));
+          Class<?> _compiledClass = it.getCompiledClass();
+          final Object instance = _compiledClass.newInstance();
+          for (final Object argument : arguments) {
+            {
+              String _call = this.call(instance, "m", argument);
+              results.add(_call);
+              String _call_1 = this.call(instance, "m", argument, "p");
+              results.add(_call_1);
+              String _call_2 = this.call(instance, "n", argument);
+              results.add(_call_2);
+            }
+          }
+        } catch (Throwable _e) {
+          throw Exceptions.sneakyThrow(_e);
+        }
+      };
+      this.compilationTestHelper.compile(source, _function);
+      return results;
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  protected String call(final Object instance, final String name, final Object... arguments) {
+    Class<?> _class = instance.getClass();
+    Method[] _methods = _class.getMethods();
+    final Function1<Method, Boolean> _function = (Method it) -> {
+      return Boolean.valueOf((Objects.equal(it.getName(), name) && (it.getParameterTypes().length == arguments.length)));
+    };
+    final Method method = IterableExtensions.<Method>findFirst(((Iterable<Method>)Conversions.doWrapArray(_methods)), _function);
+    try {
+      Object _invoke = method.invoke(instance, arguments);
+      return ((String) _invoke);
+    } catch (final Throwable _t) {
+      if (_t instanceof InvocationTargetException) {
+        final InvocationTargetException e = (InvocationTargetException)_t;
+        Throwable _targetException = e.getTargetException();
+        Class<? extends Throwable> _class_1 = _targetException.getClass();
+        return _class_1.getSimpleName();
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    }
+  }
+}
@@ -8,32 +8,67 @@
 package org.eclipse.xtend.core.tests.compiler.batch;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.apache.log4j.Level;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtend.core.compiler.batch.CompilationReport;
+import org.eclipse.xtend.core.compiler.batch.SourceLocationAdapter;
 import org.eclipse.xtend.core.compiler.batch.XtendBatchCompiler;
 import org.eclipse.xtend.core.tests.RuntimeInjectorProvider;
+import org.eclipse.xtend.core.tests.performance.GeneratorConfig;
+import org.eclipse.xtend.core.tests.performance.XtendFileGenerator;
+import org.eclipse.xtend.core.xtend.XtendFile;
+import org.eclipse.xtend.core.xtend.XtendTypeDeclaration;
 import org.eclipse.xtend2.lib.StringConcatenation;
 import org.eclipse.xtext.generator.OutputConfiguration;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.resource.SynchronizedXtextResourceSet;
+import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.testing.InjectWith;
 import org.eclipse.xtext.testing.XtextRunner;
 import org.eclipse.xtext.testing.logging.LoggingTester;
 import org.eclipse.xtext.testing.smoketest.IgnoredBySmokeTest;
 import org.eclipse.xtext.util.Files;
+import org.eclipse.xtext.util.ITextRegionWithLineInformation;
+import org.eclipse.xtext.util.internal.Stopwatches;
 import org.eclipse.xtext.workspace.FileProjectConfig;
 import org.eclipse.xtext.workspace.FileSourceFolder;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Conversions;
 import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.ExclusiveRange;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.InputOutput;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.ListExtensions;
 import org.eclipse.xtext.xbase.lib.ObjectExtensions;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 import org.junit.After;
@@ -56,6 +91,9 @@ public class TestBatchCompiler {
   @Inject
   private XtendBatchCompiler batchCompiler;
   
+  @Inject
+  private XtendFileGenerator fileGenerator;
+  
   private static String OUTPUT_DIRECTORY_WITH_SPACES = "./test result";
   
   private static String OUTPUT_DIRECTORY = "./test-result";
@@ -837,6 +875,71 @@ public class TestBatchCompiler {
     }
   }
   
+  /**
+   * Writes the given number of generated types, each of which uses its predecessor as an extension, and the
+   * types they depend on to a new source folder.
+   */
+  private String createSources(final int count) {
+    try {
+      final HashMap<String, CharSequence> sources = CollectionLiterals.<String, CharSequence>newHashMap();
+      Map<String, ? extends CharSequence> _dependencies = this.fileGenerator.getDependencies();
+      sources.putAll(_dependencies);
+      ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, count, true);
+      for (final Integer i : _doubleDotLessThan) {
+        {
+          final GeneratorConfig config = new GeneratorConfig();
+          config.packageName = "generated";
+          config.className = ("MyGeneratedType" + i);
+          if (((i).intValue() > 0)) {
+            config.injectedExtensionTypes.add(("generated.MyGeneratedType" + Integer.valueOf(((i).intValue() - 1))));
+          }
+          CharSequence _contents = this.fileGenerator.getContents(config);
+          sources.put((("generated/MyGeneratedType" + i) + ".xtend"), _contents);
+        }
+      }
+      Set<Map.Entry<String, CharSequence>> _entrySet = sources.entrySet();
+      for (final Map.Entry<String, CharSequence> entry : _entrySet) {
+        {
+          String _key = entry.getKey();
+          String _plus = ((TestBatchCompiler.TEMP_DIRECTORY + "/generated-src/") + _key);
+          final File file = new File(_plus);
+          com.google.common.io.Files.createParentDirs(file);
+          CharSequence _value = entry.getValue();
+          com.google.common.io.Files.write(_value, file, Charsets.UTF_8);
+        }
+      }
+      return (TestBatchCompiler.TEMP_DIRECTORY + "/generated-src");
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  private Map<String, String> hashGeneratedFiles(final String directory) {
+    try {
+      final HashMap<String, String> result = CollectionLiterals.<String, String>newHashMap();
+      File _file = new File(directory);
+      String[] _list = _file.list();
+      for (final String fileName : _list) {
+        File _file_1 = new File(directory, fileName);
+        HashCode _hash = com.google.common.io.Files.hash(_file_1, Hashing.md5());
+        String _string = _hash.toString();
+        result.put(fileName, _string);
+      }
+      return result;
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  private List<String> getMessages(final LoggingTester.LogCapture logs) {
+    List<LoggingTester.LogEntry> _logEntries = logs.getLogEntries();
+    final Function1<LoggingTester.LogEntry, String> _function = (LoggingTester.LogEntry it) -> {
+      return it.getMessage();
+    };
+    List<String> _map = ListExtensions.<LoggingTester.LogEntry, String>map(_logEntries, _function);
+    return IterableExtensions.<String>sort(_map);
+  }
+  
   @Test
   public void tempDirectory() {
     this.batchCompiler.setDeleteTempDirectory(false);
@@ -970,4 +1073,550 @@ public class TestBatchCompiler {
     boolean _contains_1 = generated.contains("(Integer it) ->");
     Assert.assertTrue(_contains_1);
   }
+  
+  @Test
+  public void testParallelValidation() {
+    this.batchCompiler.setNumberOfThreads(4);
+    this.batchCompiler.setSourcePath("./batch-compiler-data/activeAnnotations1");
+    final Runnable _function = () -> {
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertFalse(_compile);
+    };
+    final LoggingTester.LogCapture logs = LoggingTester.captureLogging(Level.ERROR, XtendBatchCompiler.class, _function);
+    logs.assertNumberOfLogEntries(1);
+  }
+  
+  @Test
+  public void testParallelValidationOfManySources() {
+    try {
+      final String sourcePath = this.createSources(30);
+      StringConcatenation _builder = new StringConcatenation();
+      _builder.append("package generated");
+      _builder.newLine();
+      _builder.newLine();
+      _builder.append("class Broken extends MyGeneratedType0 {");
+      _builder.newLine();
+      _builder.append("\t");
+      _builder.append("def void broken() {");
+      _builder.newLine();
+      _builder.append("\t\t");
+      _builder.append("simpleMethodCall_01(missing)");
+      _builder.newLine();
+      _builder.append("\t");
+      _builder.append("}");
+      _builder.newLine();
+      _builder.append("}");
+      _builder.newLine();
+      File _file = new File((sourcePath + "/generated/Broken.xtend"));
+      com.google.common.io.Files.write(_builder, _file, Charsets.UTF_8);
+      this.batchCompiler.setSourcePath(sourcePath);
+      final Runnable _function = () -> {
+        boolean _compile = this.batchCompiler.compile();
+        Assert.assertFalse(_compile);
+      };
+      final LoggingTester.LogCapture serial = LoggingTester.captureLogging(Level.WARN, XtendBatchCompiler.class, _function);
+      serial.assertLogEntry("missing");
+      this.batchCompiler.setNumberOfThreads(8);
+      ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, 3, true);
+      for (final Integer i : _doubleDotLessThan) {
+        {
+          final Runnable _function_1 = () -> {
+            boolean _compile = this.batchCompiler.compile();
+            Assert.assertFalse(_compile);
+          };
+          final LoggingTester.LogCapture parallel = LoggingTester.captureLogging(Level.WARN, XtendBatchCompiler.class, _function_1);
+          List<String> _messages = this.getMessages(serial);
+          List<String> _messages_1 = this.getMessages(parallel);
+          Assert.assertEquals(_messages, _messages_1);
+        }
+      }
+      this.batchCompiler.setReportFile((TestBatchCompiler.TEMP_DIRECTORY + "/report.json"));
+      final Runnable _function_2 = () -> {
+        boolean _compile = this.batchCompiler.compile();
+        Assert.assertFalse(_compile);
+      };
+      final LoggingTester.LogCapture parallel = LoggingTester.captureLogging(Level.WARN, XtendBatchCompiler.class, _function_2);
+      List<String> _messages = this.getMessages(serial);
+      List<String> _messages_1 = this.getMessages(parallel);
+      Assert.assertEquals(_messages, _messages_1);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testParallelGenerationOfManySources() {
+    try {
+      String _createSources = this.createSources(30);
+      this.batchCompiler.setSourcePath(_createSources);
+      this.batchCompiler.setWriteTraceFiles(true);
+      this.batchCompiler.setWriteStorageFiles(true);
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+      final Map<String, String> expected = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/generated"));
+      Set<String> _keySet = expected.keySet();
+      final Function1<String, Boolean> _function = (String it) -> {
+        return Boolean.valueOf(it.endsWith(".java"));
+      };
+      Iterable<String> _filter = IterableExtensions.<String>filter(_keySet, _function);
+      int _size = IterableExtensions.size(_filter);
+      Assert.assertEquals(30, _size);
+      this.batchCompiler.setNumberOfThreads(8);
+      ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, 3, true);
+      for (final Integer i : _doubleDotLessThan) {
+        {
+          File _file = new File(TestBatchCompiler.OUTPUT_DIRECTORY);
+          Files.cleanFolder(_file, null, true, false);
+          boolean _compile_1 = this.batchCompiler.compile();
+          Assert.assertTrue(_compile_1);
+          Map<String, String> _hashGeneratedFiles = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/generated"));
+          Assert.assertEquals(expected, _hashGeneratedFiles);
+        }
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testInMemoryStubCompilation() {
+    try {
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+      final Map<String, String> expected = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/test"));
+      File _file = new File(TestBatchCompiler.OUTPUT_DIRECTORY);
+      Files.cleanFolder(_file, null, true, false);
+      this.batchCompiler.setInMemoryStubCompilation(true);
+      this.batchCompiler.setDeleteTempDirectory(false);
+      this.batchCompiler.setTempDirectory(TestBatchCompiler.TEMP_DIRECTORY);
+      boolean _compile_1 = this.batchCompiler.compile();
+      Assert.assertTrue(_compile_1);
+      File _file_1 = new File(TestBatchCompiler.TEMP_DIRECTORY);
+      boolean _exists = _file_1.exists();
+      Assert.assertFalse(_exists);
+      Map<String, String> _hashGeneratedFiles = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/test"));
+      Assert.assertEquals(expected, _hashGeneratedFiles);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testInMemoryStubCompilationClassPath() {
+    this.batchCompiler.setInMemoryStubCompilation(true);
+    this.batchCompiler.setSourcePath("./batch-compiler-data/classpathTest/src");
+    this.batchCompiler.setClassPath("./batch-compiler-data/classpathTest/dependency");
+    boolean _compile = this.batchCompiler.compile();
+    Assert.assertTrue("Compiling with correct dependency resolution", _compile);
+  }
+  
+  @Test
+  public void testInMemoryStubCompilationJarWithoutDirectoryEntries() {
+    try {
+      final File jar = new File((TestBatchCompiler.TEMP_DIRECTORY + "/dependency.jar"));
+      com.google.common.io.Files.createParentDirs(jar);
+      FileOutputStream _fileOutputStream = new FileOutputStream(jar);
+      final ZipOutputStream out = new ZipOutputStream(_fileOutputStream);
+      try {
+        ZipEntry _zipEntry = new ZipEntry("my/pack/MyDependency.class");
+        out.putNextEntry(_zipEntry);
+        File _file = new File("./batch-compiler-data/classpathTest/dependency/my/pack/MyDependency.class");
+        com.google.common.io.Files.copy(_file, out);
+        out.closeEntry();
+      } finally {
+        out.close();
+      }
+      this.batchCompiler.setInMemoryStubCompilation(true);
+      this.batchCompiler.setSourcePath("./batch-compiler-data/classpathTest/src");
+      String _path = jar.getPath();
+      this.batchCompiler.setClassPath(_path);
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue("Compiling against a jar without directory entries", _compile);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testIncrementalBuild() {
+    try {
+      String _createSources = this.createSources(3);
+      this.batchCompiler.setSourcePath(_createSources);
+      this.batchCompiler.setIncremental(true);
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+      File _file = new File((TestBatchCompiler.OUTPUT_DIRECTORY + "/.xtend.buildstate"));
+      boolean _exists = _file.exists();
+      Assert.assertTrue(_exists);
+      Map<String, ? extends CharSequence> _dependencies = this.fileGenerator.getDependencies();
+      int _size = _dependencies.size();
+      final int numberOfSources = (_size + 3);
+      final Runnable _function = () -> {
+        boolean _compile_1 = this.batchCompiler.compile();
+        Assert.assertTrue(_compile_1);
+      };
+      final LoggingTester.LogCapture logs = LoggingTester.captureLogging(Level.INFO, XtendBatchCompiler.class, _function);
+      logs.assertLogEntry("up-to-date");
+      File _file_1 = new File((TestBatchCompiler.TEMP_DIRECTORY + "/generated-src/generated/MyGeneratedType2.xtend"));
+      com.google.common.io.Files.append("\n// changed", _file_1, Charsets.UTF_8);
+      final Runnable _function_1 = () -> {
+        boolean _compile_1 = this.batchCompiler.compile();
+        Assert.assertTrue(_compile_1);
+      };
+      final LoggingTester.LogCapture lastChanged = LoggingTester.captureLogging(Level.INFO, XtendBatchCompiler.class, _function_1);
+      lastChanged.assertLogEntry((("Compiling 1 of " + Integer.valueOf(numberOfSources)) + " Xtend sources incrementally."));
+      File _file_2 = new File((TestBatchCompiler.TEMP_DIRECTORY + "/generated-src/generated/MyGeneratedType0.xtend"));
+      com.google.common.io.Files.append("\n// changed", _file_2, Charsets.UTF_8);
+      final Runnable _function_2 = () -> {
+        boolean _compile_1 = this.batchCompiler.compile();
+        Assert.assertTrue(_compile_1);
+      };
+      final LoggingTester.LogCapture firstChanged = LoggingTester.captureLogging(Level.INFO, XtendBatchCompiler.class, _function_2);
+      firstChanged.assertLogEntry((("Compiling 3 of " + Integer.valueOf(numberOfSources)) + " Xtend sources incrementally."));
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testReadStorageFiles() {
+    this.batchCompiler.setReadStorageFiles(true);
+    boolean _compile = this.batchCompiler.compile();
+    Assert.assertTrue(_compile);
+    final Map<String, String> expected = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/test"));
+    Set<String> _keySet = expected.keySet();
+    final Function1<String, Boolean> _function = (String it) -> {
+      return Boolean.valueOf(it.endsWith(".xtendbin"));
+    };
+    Iterable<String> _filter = IterableExtensions.<String>filter(_keySet, _function);
+    int _size = IterableExtensions.size(_filter);
+    Assert.assertEquals(5, _size);
+    this.batchCompiler.setReportFile((TestBatchCompiler.OUTPUT_DIRECTORY + "/report.json"));
+    boolean _compile_1 = this.batchCompiler.compile();
+    Assert.assertTrue(_compile_1);
+    String _contents = this.getContents((TestBatchCompiler.OUTPUT_DIRECTORY + "/report.json"));
+    String[] _split = _contents.split("\n");
+    final Function1<String, Boolean> _function_1 = (String it) -> {
+      return Boolean.valueOf(it.contains("\"name\": \"load\""));
+    };
+    final String loadPhase = IterableExtensions.<String>findFirst(((Iterable<String>)Conversions.doWrapArray(_split)), _function_1);
+    boolean _contains = loadPhase.contains("\"resources\": 0}");
+    Assert.assertTrue(loadPhase, _contains);
+    Map<String, String> _hashGeneratedFiles = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/test"));
+    Assert.assertEquals(expected, _hashGeneratedFiles);
+  }
+  
+  @Test
+  public void testReadStorageFilesReloadsDependentsOfNewTypes() {
+    try {
+      final File a = new File((TestBatchCompiler.TEMP_DIRECTORY + "/storage-src/p/A.xtend"));
+      final File b = new File((TestBatchCompiler.TEMP_DIRECTORY + "/storage-src/p/B.xtend"));
+      com.google.common.io.Files.createParentDirs(a);
+      com.google.common.io.Files.write("package p class A {}", a, Charsets.UTF_8);
+      com.google.common.io.Files.write("package p class B { def m() { String.valueOf(1) } }", b, Charsets.UTF_8);
+      this.batchCompiler.setSourcePath((TestBatchCompiler.TEMP_DIRECTORY + "/storage-src"));
+      this.batchCompiler.setReadStorageFiles(true);
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+      String _contents = this.getContents((TestBatchCompiler.OUTPUT_DIRECTORY + "/p/B.java"));
+      boolean _contains = _contents.contains("public String m()");
+      Assert.assertTrue(_contains);
+      com.google.common.io.Files.write("package p class A {} class String { def static valueOf(int i) { 42 } }", a, Charsets.UTF_8);
+      boolean _compile_1 = this.batchCompiler.compile();
+      Assert.assertTrue(_compile_1);
+      final String javaCode = this.getContents((TestBatchCompiler.OUTPUT_DIRECTORY + "/p/B.java"));
+      boolean _contains_1 = javaCode.contains("public int m()");
+      Assert.assertTrue(javaCode, _contains_1);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testSharedJvmTypeCache() {
+    try {
+      final org.eclipse.emf.common.util.URI objectType = org.eclipse.emf.common.util.URI.createURI("java:/Objects/java.lang.Object");
+      final ArrayList<Resource> resources = CollectionLiterals.<Resource>newArrayList();
+      final Provider<ResourceSet> _function = () -> {
+        return new SynchronizedXtextResourceSet() {
+          @Override
+          public Resource getResource(final org.eclipse.emf.common.util.URI uri, final boolean loadOnDemand) {
+            final Resource result = super.getResource(uri, loadOnDemand);
+            if ((Objects.equal(uri, objectType) && (result != null))) {
+              resources.add(result);
+            }
+            return result;
+          }
+        };
+      };
+      this.batchCompiler.setResourceSetProvider(_function);
+      this.batchCompiler.setUseCurrentClassLoaderAsParent(false);
+      this.batchCompiler.setUseSharedJvmTypeCache(true);
+      this.batchCompiler.setSourcePath("./batch-compiler-data/classpathTest/src");
+      ProtectionDomain _protectionDomain = IterableExtensions.class.getProtectionDomain();
+      CodeSource _codeSource = _protectionDomain.getCodeSource();
+      URL _location = _codeSource.getLocation();
+      URI _uRI = _location.toURI();
+      File _file = new File(_uRI);
+      final String xbaseLib = _file.getPath();
+      this.batchCompiler.setClassPath((("./batch-compiler-data/classpathTest/dependency" + File.pathSeparator) + xbaseLib));
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+      boolean _compile_1 = this.batchCompiler.compile();
+      Assert.assertTrue(_compile_1);
+      boolean _isEmpty = resources.isEmpty();
+      Assert.assertFalse(_isEmpty);
+      Set<Resource> _set = IterableExtensions.<Resource>toSet(resources);
+      int _size = _set.size();
+      Assert.assertEquals(1, _size);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testSerialLoadingWithThreads() {
+    try {
+      String _createSources = this.createSources(20);
+      this.batchCompiler.setSourcePath(_createSources);
+      this.batchCompiler.setWriteTraceFiles(true);
+      this.batchCompiler.setNumberOfThreads(4);
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+      final Map<String, String> expected = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/generated"));
+      File _file = new File(TestBatchCompiler.OUTPUT_DIRECTORY);
+      Files.cleanFolder(_file, null, true, false);
+      this.batchCompiler.setParallelLoading(false);
+      boolean _compile_1 = this.batchCompiler.compile();
+      Assert.assertTrue(_compile_1);
+      Map<String, String> _hashGeneratedFiles = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/generated"));
+      Assert.assertEquals(expected, _hashGeneratedFiles);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testCompilationReport() {
+    this.batchCompiler.setReportFile((TestBatchCompiler.OUTPUT_DIRECTORY + "/report.json"));
+    final Runnable _function = () -> {
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+    };
+    final LoggingTester.LogCapture logs = LoggingTester.captureLogging(Level.INFO, CompilationReport.class, _function);
+    logs.assertLogEntry("Compilation report");
+    final String report = this.getContents((TestBatchCompiler.OUTPUT_DIRECTORY + "/report.json"));
+    boolean _contains = report.contains("\"name\": \"validate\"");
+    Assert.assertTrue(report, _contains);
+    boolean _contains_1 = report.contains("\"slowestFiles\"");
+    Assert.assertTrue(report, _contains_1);
+    String[] _split = report.split("\n");
+    final Function1<String, Boolean> _function_1 = (String it) -> {
+      return Boolean.valueOf(it.contains("\"name\": \"validate\""));
+    };
+    final String validatePhase = IterableExtensions.<String>findFirst(((Iterable<String>)Conversions.doWrapArray(_split)), _function_1);
+    boolean _contains_2 = validatePhase.contains("\"resources\": 5}");
+    Assert.assertTrue(validatePhase, _contains_2);
+  }
+  
+  @Test
+  public void testCompilationReportKeepsStopwatches() {
+    this.batchCompiler.setReportFile((TestBatchCompiler.OUTPUT_DIRECTORY + "/report.json"));
+    Stopwatches.setEnabled(true);
+    try {
+      final Stopwatches.StoppedTask task = Stopwatches.forTask("TestBatchCompiler");
+      task.start();
+      task.stop();
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+      Map<String, Stopwatches.NumbersForTask> _allNumbers = Stopwatches.allNumbers();
+      Stopwatches.NumbersForTask _get = _allNumbers.get("TestBatchCompiler");
+      int _numberOfMeasurements = _get.getNumberOfMeasurements();
+      Assert.assertEquals(1, _numberOfMeasurements);
+      String _contents = this.getContents((TestBatchCompiler.OUTPUT_DIRECTORY + "/report.json"));
+      boolean _contains = _contents.contains("TestBatchCompiler");
+      Assert.assertFalse(_contains);
+      Stopwatches.StoppedTask _forTask = Stopwatches.forTask("TestBatchCompiler");
+      Stopwatches.StoppedTask _forTask_1 = Stopwatches.forTask("TestBatchCompiler");
+      Assert.assertNotSame(_forTask, _forTask_1);
+    } finally {
+      Stopwatches.setEnabled(false);
+      Stopwatches.resetAll();
+    }
+    boolean _compile = this.batchCompiler.compile();
+    Assert.assertTrue(_compile);
+    Stopwatches.StoppedTask _forTask = Stopwatches.forTask("TestBatchCompiler");
+    Stopwatches.StoppedTask _forTask_1 = Stopwatches.forTask("TestBatchCompiler");
+    Assert.assertSame(_forTask, _forTask_1);
+  }
+  
+  @Test
+  public void testCompilationReportMeasuresWorkers() {
+    try {
+      final CompilationReport report = new CompilationReport(true, 0);
+      final CompilationReport.Phase phase = report.startPhase("parallel");
+      final ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        final Callable<Integer> _function = () -> {
+          int size = 0;
+          ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, 8, true);
+          for (final Integer i : _doubleDotLessThan) {
+            int _size = size;
+            byte[] _newByteArrayOfSize = new byte[(1024 * 1024)];
+            int _length = _newByteArrayOfSize.length;
+            size = (_size + _length);
+          }
+          return Integer.valueOf(size);
+        };
+        Callable<Integer> _measureWorker = report.<Integer>measureWorker(_function);
+        Future<Integer> _submit = executor.<Integer>submit(_measureWorker);
+        _submit.get();
+      } finally {
+        executor.shutdownNow();
+      }
+      phase.stop(0);
+      long _allocatedBytes = phase.getAllocatedBytes();
+      String _valueOf = String.valueOf(_allocatedBytes);
+      long _allocatedBytes_1 = phase.getAllocatedBytes();
+      boolean _greaterEqualsThan = (_allocatedBytes_1 >= ((8 * 1024) * 1024));
+      Assert.assertTrue(_valueOf, _greaterEqualsThan);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+
+  @Test
+  public void testConcurrentCreateExtensions() {
+    this.batchCompiler.setSourcePath("./batch-compiler-data/createExtensions");
+    this.batchCompiler.setConcurrentCreateExtensions(true);
+    boolean _compile = this.batchCompiler.compile();
+    Assert.assertTrue(_compile);
+    final String javaCode = this.getContents((TestBatchCompiler.OUTPUT_DIRECTORY + "/CreateExtensions.java"));
+    boolean _contains = javaCode.contains("ConcurrentHashMap<Object, StringBuilder> _createCache_single");
+    Assert.assertTrue(javaCode, _contains);
+    boolean _contains_1 = javaCode.contains("ConcurrentHashMap<Object, ConcurrentHashMap<Object, ArrayList<String>>> _createCache_pair");
+    Assert.assertTrue(javaCode, _contains_1);
+    boolean _contains_2 = javaCode.contains("_createCacheNullKey_single");
+    Assert.assertTrue(javaCode, _contains_2);
+    boolean _contains_3 = javaCode.contains("putIfAbsent");
+    Assert.assertTrue(javaCode, _contains_3);
+    boolean _contains_4 = javaCode.contains("if (_result != null) {");
+    Assert.assertTrue(javaCode, _contains_4);
+    boolean _contains_5 = javaCode.contains("synchronized (_createCache_triple)");
+    Assert.assertTrue(javaCode, _contains_5);
+    boolean _contains_6 = javaCode.contains("synchronized (_createCache_single)");
+    Assert.assertFalse(javaCode, _contains_6);
+  }
+
+  @Test
+  public void testDispatchTable() {
+    this.batchCompiler.setSourcePath("./batch-compiler-data/dispatchTable");
+    this.batchCompiler.setDispatchTableThreshold(3);
+    boolean _compile = this.batchCompiler.compile();
+    Assert.assertTrue(_compile);
+    final String javaCode = this.getContents((TestBatchCompiler.OUTPUT_DIRECTORY + "/DispatchTable.java"));
+    boolean _contains = javaCode.contains("ClassValue<Integer> _dispatchTable_describe");
+    Assert.assertTrue(javaCode, _contains);
+    boolean _contains_1 = javaCode.contains("switch (_dispatchTable_describe.get(value.getClass()).intValue()) {");
+    Assert.assertTrue(javaCode, _contains_1);
+    boolean _contains_2 = javaCode.contains("_dispatchTable_small");
+    Assert.assertFalse(javaCode, _contains_2);
+    boolean _contains_3 = javaCode.contains("if (value instanceof String) {");
+    Assert.assertTrue(javaCode, _contains_3);
+  }
+
+  @Test
+  public void testCompactRichStrings() {
+    this.batchCompiler.setSourcePath("./batch-compiler-data/compactRichStrings");
+    this.batchCompiler.setFileEncoding("UTF-8");
+    this.batchCompiler.setCompactRichStrings(true);
+    boolean _compile = this.batchCompiler.compile();
+    Assert.assertTrue(_compile);
+    final String javaCode = this.getContents((TestBatchCompiler.OUTPUT_DIRECTORY + "/CompactRichStrings.java"));
+    boolean _contains = javaCode.contains("_builder.append(\"\\tint count = \");");
+    Assert.assertTrue(javaCode, _contains);
+    boolean _contains_1 = javaCode.contains("_builder.append(count);");
+    Assert.assertTrue(javaCode, _contains_1);
+    boolean _contains_2 = javaCode.contains("_builder.append(\"\\t\");");
+    Assert.assertFalse(javaCode, _contains_2);
+  }
+  
+  @Test
+  public void testDiscardNodeModels() {
+    try {
+      this.batchCompiler.setNumberOfThreads(4);
+      this.batchCompiler.setWriteTraceFiles(true);
+      boolean _compile = this.batchCompiler.compile();
+      Assert.assertTrue(_compile);
+      final Map<String, String> expected = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/test"));
+      File _file = new File(TestBatchCompiler.OUTPUT_DIRECTORY);
+      Files.cleanFolder(_file, null, true, false);
+      final ArrayList<ResourceSet> resourceSets = CollectionLiterals.<ResourceSet>newArrayList();
+      final Provider<ResourceSet> _function = () -> {
+        final SynchronizedXtextResourceSet resourceSet = new SynchronizedXtextResourceSet();
+        resourceSets.add(resourceSet);
+        return resourceSet;
+      };
+      this.batchCompiler.setResourceSetProvider(_function);
+      this.batchCompiler.setDiscardNodeModels(true);
+      boolean _compile_1 = this.batchCompiler.compile();
+      Assert.assertTrue(_compile_1);
+      Map<String, String> _hashGeneratedFiles = this.hashGeneratedFiles((TestBatchCompiler.OUTPUT_DIRECTORY + "/test"));
+      Assert.assertEquals(expected, _hashGeneratedFiles);
+      ResourceSet _head = IterableExtensions.<ResourceSet>head(resourceSets);
+      EList<Resource> _resources = _head.getResources();
+      Iterable<XtextResource> _filter = Iterables.<XtextResource>filter(_resources, XtextResource.class);
+      final Function1<XtextResource, Boolean> _function_1 = (XtextResource it) -> {
+        org.eclipse.emf.common.util.URI _uRI = it.getURI();
+        String _fileExtension = _uRI.fileExtension();
+        return Boolean.valueOf(Objects.equal(_fileExtension, "xtend"));
+      };
+      final Iterable<XtextResource> xtendFiles = IterableExtensions.<XtextResource>filter(_filter, _function_1);
+      boolean _isEmpty = IterableExtensions.isEmpty(xtendFiles);
+      Assert.assertFalse(_isEmpty);
+      for (final XtextResource resource : xtendFiles) {
+        {
+          IParseResult _parseResult = resource.getParseResult();
+          Assert.assertNull(_parseResult);
+          EList<EObject> _contents = resource.getContents();
+          EObject _head_1 = IterableExtensions.<EObject>head(_contents);
+          final XtendFile xtendFile = ((XtendFile) _head_1);
+          EList<XtendTypeDeclaration> _xtendTypes = xtendFile.getXtendTypes();
+          for (final XtendTypeDeclaration type : _xtendTypes) {
+            ITextRegionWithLineInformation _location = SourceLocationAdapter.getLocation(type);
+            int _length = _location.getLength();
+            boolean _greaterThan = (_length > 0);
+            Assert.assertTrue(_greaterThan);
+          }
+        }
+      }
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testIncrementalBuildWithBuildStateLocation() {
+    this.batchCompiler.setIncremental(true);
+    this.batchCompiler.setBuildStateLocation((TestBatchCompiler.TEMP_DIRECTORY + "/buildstate"));
+    boolean _compile = this.batchCompiler.compile();
+    Assert.assertTrue(_compile);
+    File _file = new File((TestBatchCompiler.TEMP_DIRECTORY + "/buildstate"));
+    boolean _exists = _file.exists();
+    Assert.assertTrue(_exists);
+    File _file_1 = new File((TestBatchCompiler.OUTPUT_DIRECTORY + "/.xtend.buildstate"));
+    boolean _exists_1 = _file_1.exists();
+    Assert.assertFalse(_exists_1);
+    final File generated = new File((TestBatchCompiler.OUTPUT_DIRECTORY + "/test/XtendA.java"));
+    boolean _delete = generated.delete();
+    Assert.assertTrue(_delete);
+    final Runnable _function = () -> {
+      boolean _compile_1 = this.batchCompiler.compile();
+      Assert.assertTrue(_compile_1);
+    };
+    final LoggingTester.LogCapture logs = LoggingTester.captureLogging(Level.INFO, XtendBatchCompiler.class, _function);
+    logs.assertLogEntry("missing");
+    boolean _exists_2 = generated.exists();
+    Assert.assertTrue(_exists_2);
+  }
 }
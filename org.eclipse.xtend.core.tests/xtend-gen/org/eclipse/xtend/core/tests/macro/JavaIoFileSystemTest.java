@@ -7,6 +7,7 @@
  */
 package org.eclipse.xtend.core.tests.macro;
 
+import com.google.common.base.Strings;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -172,6 +173,55 @@ public class JavaIoFileSystemTest {
     }
   }
   
+  @Test
+  public void testModificationStamp_03() {
+    try {
+      final Path path = new Path("/foo/src/my/pack/Foo.txt");
+      final String contents = Strings.repeat("Hello Foo\n", 2000);
+      this.fs.setContents(path, (contents + "Foo"));
+      final long mod = this.fs.getLastModification(path);
+      Thread.sleep(1000);
+      this.fs.setContents(path, (contents + "Foo"));
+      long _lastModification = this.fs.getLastModification(path);
+      Assert.assertEquals(mod, _lastModification);
+      this.fs.setContents(path, (contents + "Bar"));
+      long _lastModification_1 = this.fs.getLastModification(path);
+      boolean _lessThan = (mod < _lastModification_1);
+      Assert.assertTrue(_lessThan);
+      CharSequence _contents = this.fs.getContents(path);
+      String _string = _contents.toString();
+      Assert.assertEquals((contents + "Bar"), _string);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testModificationStamp_04() {
+    try {
+      final Path path = new Path("/foo/src/my/pack/Foo.txt");
+      final String contents = Strings.repeat("Hello Foo\n", 2000);
+      byte[] _bytes = (contents + "Foo").getBytes();
+      ByteArrayInputStream _byteArrayInputStream = new ByteArrayInputStream(_bytes);
+      this.fs.setContentsAsStream(path, _byteArrayInputStream);
+      final long mod = this.fs.getLastModification(path);
+      Thread.sleep(1000);
+      byte[] _bytes_1 = (contents + "Foo").getBytes();
+      ByteArrayInputStream _byteArrayInputStream_1 = new ByteArrayInputStream(_bytes_1);
+      this.fs.setContentsAsStream(path, _byteArrayInputStream_1);
+      long _lastModification = this.fs.getLastModification(path);
+      Assert.assertEquals(mod, _lastModification);
+      byte[] _bytes_2 = (contents + "Foo!").getBytes();
+      ByteArrayInputStream _byteArrayInputStream_2 = new ByteArrayInputStream(_bytes_2);
+      this.fs.setContentsAsStream(path, _byteArrayInputStream_2);
+      long _lastModification_1 = this.fs.getLastModification(path);
+      boolean _lessThan = (mod < _lastModification_1);
+      Assert.assertTrue(_lessThan);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
   @Test
   public void testGetWorkspaceChildren() {
     Iterable<? extends Path> _children = this.fs.getChildren(Path.ROOT);
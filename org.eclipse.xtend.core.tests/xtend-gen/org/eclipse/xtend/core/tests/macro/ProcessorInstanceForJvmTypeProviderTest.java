@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtend.core.tests.macro;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.eclipse.xtend.core.macro.ProcessorInstanceForJvmTypeProvider;
+import org.eclipse.xtend.core.tests.macro.StatefulProcessor;
+import org.eclipse.xtend.core.tests.macro.StatelessProcessor;
+import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.testing.TemporaryFolder;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+@SuppressWarnings("all")
+public class ProcessorInstanceForJvmTypeProviderTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  
+  private final ProcessorInstanceForJvmTypeProvider provider = new ProcessorInstanceForJvmTypeProvider();
+  
+  @Test
+  public void testStatelessProcessorIsReused() {
+    try {
+      final Object processor = this.provider.getInstance(StatelessProcessor.class);
+      Object _instance = this.provider.getInstance(StatelessProcessor.class);
+      Assert.assertSame(processor, _instance);
+      long _createdProcessorInstances = this.provider.getCreatedProcessorInstances();
+      Assert.assertEquals(1, _createdProcessorInstances);
+      long _reusedProcessorInstances = this.provider.getReusedProcessorInstances();
+      Assert.assertEquals(1, _reusedProcessorInstances);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testStatefulProcessorIsNotReused() {
+    try {
+      final Object processor = this.provider.getInstance(StatefulProcessor.class);
+      Object _instance = this.provider.getInstance(StatefulProcessor.class);
+      Assert.assertNotSame(processor, _instance);
+      long _createdProcessorInstances = this.provider.getCreatedProcessorInstances();
+      Assert.assertEquals(2, _createdProcessorInstances);
+      long _reusedProcessorInstances = this.provider.getReusedProcessorInstances();
+      Assert.assertEquals(0, _reusedProcessorInstances);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testSharedClassLoaderForJars() {
+    try {
+      final File folder = this.temporaryFolder.newFolder();
+      final File jar = new File(folder, "processors.jar");
+      FileOutputStream _fileOutputStream = new FileOutputStream(jar);
+      JarOutputStream _jarOutputStream = new JarOutputStream(_fileOutputStream);
+      _jarOutputStream.close();
+      final List<File> classpath = Collections.<File>unmodifiableList(CollectionLiterals.<File>newArrayList(jar, folder));
+      Class<? extends ProcessorInstanceForJvmTypeProviderTest> _class = this.getClass();
+      ClassLoader _classLoader = _class.getClassLoader();
+      final ClassLoader first = this.provider.createSharedClassLoader(classpath, _classLoader);
+      Class<? extends ProcessorInstanceForJvmTypeProviderTest> _class_1 = this.getClass();
+      ClassLoader _classLoader_1 = _class_1.getClassLoader();
+      final ClassLoader second = this.provider.createSharedClassLoader(classpath, _classLoader_1);
+      Assert.assertNotSame(first, second);
+      ClassLoader _parent = first.getParent();
+      ClassLoader _parent_1 = second.getParent();
+      Assert.assertSame(_parent, _parent_1);
+      long _loadedClassLoaders = this.provider.getLoadedClassLoaders();
+      Assert.assertEquals(1, _loadedClassLoaders);
+      long _reusedClassLoaders = this.provider.getReusedClassLoaders();
+      Assert.assertEquals(1, _reusedClassLoaders);
+      long _lastModified = jar.lastModified();
+      long _minus = (_lastModified - 10000);
+      jar.setLastModified(_minus);
+      Class<? extends ProcessorInstanceForJvmTypeProviderTest> _class_2 = this.getClass();
+      ClassLoader _classLoader_2 = _class_2.getClassLoader();
+      final ClassLoader third = this.provider.createSharedClassLoader(classpath, _classLoader_2);
+      ClassLoader _parent_2 = first.getParent();
+      ClassLoader _parent_3 = third.getParent();
+      Assert.assertNotSame(_parent_2, _parent_3);
+      long _loadedClassLoaders_1 = this.provider.getLoadedClassLoaders();
+      Assert.assertEquals(2, _loadedClassLoaders_1);
+      long _reusedClassLoaders_1 = this.provider.getReusedClassLoaders();
+      Assert.assertEquals(1, _reusedClassLoaders_1);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  @Test
+  public void testDroppedClassLoadersAreClosed() {
+    try {
+      File _newFolder = this.temporaryFolder.newFolder();
+      final File jar = new File(_newFolder, "processors.jar");
+      FileOutputStream _fileOutputStream = new FileOutputStream(jar);
+      final JarOutputStream out = new JarOutputStream(_fileOutputStream);
+      JarEntry _jarEntry = new JarEntry("processor-marker.txt");
+      out.putNextEntry(_jarEntry);
+      out.close();
+      Class<? extends ProcessorInstanceForJvmTypeProviderTest> _class = this.getClass();
+      ClassLoader _classLoader = _class.getClassLoader();
+      final ClassLoader first = this.provider.createSharedClassLoader(Collections.<File>unmodifiableList(CollectionLiterals.<File>newArrayList(jar)), _classLoader);
+      ClassLoader _parent = first.getParent();
+      URL _resource = _parent.getResource("processor-marker.txt");
+      Assert.assertNotNull(_resource);
+      long _lastModified = jar.lastModified();
+      long _minus = (_lastModified - 10000);
+      jar.setLastModified(_minus);
+      Class<? extends ProcessorInstanceForJvmTypeProviderTest> _class_1 = this.getClass();
+      ClassLoader _classLoader_1 = _class_1.getClassLoader();
+      final ClassLoader second = this.provider.createSharedClassLoader(Collections.<File>unmodifiableList(CollectionLiterals.<File>newArrayList(jar)), _classLoader_1);
+      ClassLoader _parent_1 = second.getParent();
+      URL _resource_1 = _parent_1.getResource("processor-marker.txt");
+      Assert.assertNotNull(_resource_1);
+      ClassLoader _parent_2 = first.getParent();
+      URL _resource_2 = _parent_2.getResource("processor-marker.txt");
+      Assert.assertNull(_resource_2);
+      this.provider.clearSharedClassLoaders();
+      ClassLoader _parent_3 = second.getParent();
+      URL _resource_3 = _parent_3.getResource("processor-marker.txt");
+      Assert.assertNull(_resource_3);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+}
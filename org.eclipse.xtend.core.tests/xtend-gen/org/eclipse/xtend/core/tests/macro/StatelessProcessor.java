@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.xtend.core.tests.macro;
+
+import java.util.List;
+import java.util.function.Consumer;
+import org.eclipse.xtend.lib.macro.TransformationContext;
+import org.eclipse.xtend.lib.macro.TransformationParticipant;
+import org.eclipse.xtend.lib.macro.declaration.MutableClassDeclaration;
+import org.eclipse.xtext.xbase.lib.Extension;
+
+@SuppressWarnings("all")
+public class StatelessProcessor implements TransformationParticipant<MutableClassDeclaration> {
+  @Override
+  public void doTransform(final List<? extends MutableClassDeclaration> annotatedTargetElements, @Extension final TransformationContext context) {
+    final Consumer<MutableClassDeclaration> _function = (MutableClassDeclaration it) -> {
+      context.addWarning(it, "Transformed");
+    };
+    annotatedTargetElements.forEach(_function);
+  }
+}
@@ -100,6 +100,8 @@ public class XtendCompiler extends XbaseCompiler {
 		private final String variableName;
 		private ITreeAppendable appendable;
 		private ITreeAppendable currentAppendable;
+		private final boolean compact;
+		private final StringBuilder pendingText;
 
 		public RichStringPrepareCompiler(ITreeAppendable appendable, String variableName, RichString richString) {
 			this.ifStack = Lists.newLinkedList();
@@ -107,6 +109,8 @@ public class XtendCompiler extends XbaseCompiler {
 			this.appendableStack = Lists.newLinkedList();
 			this.appendable = appendable;
 			this.variableName = variableName;
+			this.compact = isCompactRichString(richString);
+			this.pendingText = new StringBuilder();
 			List<XExpression> expressions = richString.getExpressions();
 			if (!expressions.isEmpty() && expressions.get(0) instanceof RichStringLiteral)
 				setCurrentAppendable((RichStringLiteral) expressions.get(0));
@@ -114,6 +118,7 @@ public class XtendCompiler extends XbaseCompiler {
 
 		@Override
 		public void acceptSemanticLineBreak(int charCount, RichStringLiteral origin, boolean controlStructureSeen) {
+			flushText();
 			setCurrentAppendable(origin);
 			currentAppendable.newLine();
 			currentAppendable.append(variableName);
@@ -141,6 +146,18 @@ public class XtendCompiler extends XbaseCompiler {
 			setCurrentAppendable(origin);
 			if (text.length() == 0)
 				return;
+			if (compact) {
+				// adjacent text, e.g. the indentation and the content of a line, is appended at once
+				pendingText.append(text);
+				return;
+			}
+			appendText(text);
+		}
+
+		/**
+		 * @since 2.11
+		 */
+		protected void appendText(CharSequence text) {
 			currentAppendable.newLine();
 			currentAppendable.append(variableName);
 			currentAppendable.append(".append(\"");
@@ -148,8 +165,21 @@ public class XtendCompiler extends XbaseCompiler {
 			currentAppendable.append("\");");
 		}
 
+		/**
+		 * Appends the text that was collected since the last line break, expression or control structure.
+		 * 
+		 * @since 2.11
+		 */
+		protected void flushText() {
+			if (pendingText.length() != 0) {
+				appendText(pendingText);
+				pendingText.setLength(0);
+			}
+		}
+
 		@Override
 		public void acceptIfCondition(XExpression condition) {
+			flushText();
 			currentAppendable = null;
 			ifStack.add((RichStringIf) condition.eContainer());
 			appendable.newLine();
@@ -169,6 +199,7 @@ public class XtendCompiler extends XbaseCompiler {
 
 		@Override
 		public void acceptElseIfCondition(XExpression condition) {
+			flushText();
 			currentAppendable = null;
 			writeElse();
 			writeIf(condition);
@@ -193,12 +224,14 @@ public class XtendCompiler extends XbaseCompiler {
 
 		@Override
 		public void acceptElse() {
+			flushText();
 			currentAppendable = null;
 			writeElse();
 		}
 
 		@Override
 		public void acceptEndIf() {
+			flushText();
 			currentAppendable = null;
 			RichStringIf richStringIf = ifStack.removeLast();
 			for (int i = 0; i < richStringIf.getElseIfs().size() + 2; i++) {
@@ -211,6 +244,7 @@ public class XtendCompiler extends XbaseCompiler {
 
 		@Override
 		public void acceptForLoop(JvmFormalParameter parameter, /* @Nullable */ XExpression expression) {
+			flushText();
 			currentAppendable = null;
 			super.acceptForLoop(parameter, expression);
 			if (expression == null)
@@ -250,6 +284,7 @@ public class XtendCompiler extends XbaseCompiler {
 		
 		@Override
 		public boolean forLoopHasNext(/* @Nullable */ XExpression before, /* @Nullable */ XExpression separator, CharSequence indentation) {
+			flushText();
 			currentAppendable = null;
 			if (!super.forLoopHasNext(before, separator, indentation))
 				return false;
@@ -284,6 +319,7 @@ public class XtendCompiler extends XbaseCompiler {
 		
 		@Override
 		public void acceptEndFor(/* @Nullable */ XExpression after, CharSequence indentation) {
+			flushText();
 			currentAppendable = null;
 			super.acceptEndFor(after, indentation);
 			appendable.decreaseIndentation();
@@ -312,6 +348,7 @@ public class XtendCompiler extends XbaseCompiler {
 
 		@Override
 		public void acceptExpression(XExpression expression, CharSequence indentation) {
+			flushText();
 			currentAppendable = null;
 			writeExpression(expression, indentation, false);
 		}
@@ -328,12 +365,28 @@ public class XtendCompiler extends XbaseCompiler {
 				else
 					tracingAppendable.append(".append(");
 				internalToJavaExpression(expression, tracingAppendable);
+				if (compact && !immediate && (indentation.length() == 0 || isSingleLine(expression))) {
+					tracingAppendable.append(");");
+					return;
+				}
 				tracingAppendable.append(", \"");
 				tracingAppendable.append(Strings.convertToJavaString(indentation.toString(), false));
 				tracingAppendable.append("\");");
 			}
 		}
 
+		/**
+		 * @return <code>true</code> if the string representation of the given expression's value never contains a line
+		 *         break, so it does not need to be indented.
+		 * @since 2.11
+		 */
+		protected boolean isSingleLine(XExpression expression) {
+			LightweightTypeReference type = getLightweightType(expression);
+			if (type == null || !(type.isPrimitive() || type.isWrapper()))
+				return false;
+			return !type.isType(char.class) && !type.isType(Character.class);
+		}
+
 	}
 	
 	@Override
@@ -385,6 +438,7 @@ public class XtendCompiler extends XbaseCompiler {
 			b.increaseIndentation();
 			RichStringPrepareCompiler compiler = new RichStringPrepareCompiler(b, variableName, richString);
 			richStringProcessor.process(richString, compiler, indentationHandler.get());
+			compiler.flushText();
 			b.closeScope();
 			b.decreaseIndentation().newLine().append("}").decreaseIndentation().newLine().append("};");
 		} else {
@@ -399,9 +453,20 @@ public class XtendCompiler extends XbaseCompiler {
 			b.append("();");
 			RichStringPrepareCompiler compiler = new RichStringPrepareCompiler(b, variableName, richString);
 			richStringProcessor.process(richString, compiler, indentationHandler.get());
+			compiler.flushText();
 		}
 	}
 
+	/**
+	 * @return <code>true</code> if the given template expression is compiled to as few calls as possible.
+	 * @see XtendGeneratorConfig#isCompactRichStrings()
+	 * @since 2.11
+	 */
+	protected boolean isCompactRichString(RichString richString) {
+		GeneratorConfig config = generatorConfigProvider.get(richString);
+		return config instanceof XtendGeneratorConfig && ((XtendGeneratorConfig) config).isCompactRichStrings();
+	}
+
 	@Override
 	public void internalToConvertedExpression(XExpression obj, ITreeAppendable appendable) {
 		if (obj instanceof AnonymousClass)
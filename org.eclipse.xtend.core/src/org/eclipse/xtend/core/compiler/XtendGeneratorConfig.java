@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler;
+
+import org.eclipse.xtext.common.types.JvmOperation;
+import org.eclipse.xtext.xbase.compiler.GeneratorConfig;
+
+/**
+ * Generator settings that are specific to Xtend.
+ *
+ * @since 2.11
+ */
+public class XtendGeneratorConfig extends GeneratorConfig {
+
+	private boolean concurrentCreateExtensions = false;
+
+	private int dispatchTableThreshold = 0;
+
+	private boolean compactRichStrings = false;
+
+	/**
+	 * Whether create functions with one or two parameters use a lock-free concurrent cache instead of a
+	 * synchronized one.
+	 *
+	 * The cache is keyed by the arguments themselves, so a cache hit neither locks nor allocates. The initializer of a
+	 * create function still runs exactly once per key and recursive calls from within the initializer see the created
+	 * object. Under contention the create expression may be evaluated by more than one thread, though. Only one of
+	 * the created objects is cached, initialized and returned to all callers; the others are discarded. Results of
+	 * create expressions that are <code>null</code> are not cached.
+	 */
+	public boolean isConcurrentCreateExtensions() {
+		return concurrentCreateExtensions;
+	}
+
+	public void setConcurrentCreateExtensions(boolean concurrentCreateExtensions) {
+		this.concurrentCreateExtensions = concurrentCreateExtensions;
+	}
+
+	/**
+	 * The number of cases from which a dispatch method looks up the case to call in a table instead of testing the
+	 * cases one after the other. This applies to dispatch methods whose cases differ in a single parameter only. The
+	 * table is a <code>java.lang.ClassValue</code> that resolves the most specific case once per runtime class of the
+	 * argument, so it requires Java 7. Smaller dispatch methods keep the chain of <code>instanceof</code> tests. A
+	 * value of <code>0</code> disables dispatch tables.
+	 */
+	public int getDispatchTableThreshold() {
+		return dispatchTableThreshold;
+	}
+
+	public void setDispatchTableThreshold(int dispatchTableThreshold) {
+		this.dispatchTableThreshold = dispatchTableThreshold;
+	}
+
+	/**
+	 * Whether template expressions are compiled to fewer and cheaper calls on the <code>StringConcatenation</code>.
+	 * Adjacent constant text, including the indentation of a line, is appended at once, and values that cannot span
+	 * multiple lines, e.g. numbers and booleans, or values without indentation are appended without the per-line
+	 * indentation handling. The produced text is the same as with the default compilation.
+	 */
+	public boolean isCompactRichStrings() {
+		return compactRichStrings;
+	}
+
+	public void setCompactRichStrings(boolean compactRichStrings) {
+		this.compactRichStrings = compactRichStrings;
+	}
+
+	@Override
+	public GeneratorConfig copy(GeneratorConfig other) {
+		super.copy(other);
+		if (other instanceof XtendGeneratorConfig) {
+			concurrentCreateExtensions = ((XtendGeneratorConfig) other).concurrentCreateExtensions;
+			dispatchTableThreshold = ((XtendGeneratorConfig) other).dispatchTableThreshold;
+			compactRichStrings = ((XtendGeneratorConfig) other).compactRichStrings;
+		}
+		return this;
+	}
+
+	/**
+	 * @return <code>true</code> if the given create function uses a concurrent cache with the given configuration.
+	 */
+	public static boolean isConcurrentCreateExtension(GeneratorConfig config, JvmOperation createOperation) {
+		if (!(config instanceof XtendGeneratorConfig) || !((XtendGeneratorConfig) config).isConcurrentCreateExtensions())
+			return false;
+		// the elements of a var arg parameter are compared one by one, which requires a list key
+		int parameterCount = createOperation.getParameters().size();
+		return !createOperation.isVarArgs() && (parameterCount == 1 || parameterCount == 2);
+	}
+
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * The state of a previous successful run of the {@link XtendBatchCompiler} that is persisted in the output directory
+ * to allow for incremental builds. It records a content hash per source file, the names that are exported and
+ * imported by the file and the files that were generated for it.
+ *
+ * @since 2.11
+ */
+public class BuildState implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger log = Logger.getLogger(BuildState.class);
+
+	/**
+	 * The recorded state of a single source file.
+	 */
+	public static class FileState implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String hash;
+
+		private final Set<String> exportedNames;
+
+		private final Set<String> importedNames;
+
+		private final Set<String> generatedFiles;
+
+		/**
+		 * @param exportedNames the lower case qualified names of the exported objects
+		 * @param importedNames the lower case qualified names that were imported by the file
+		 * @param generatedFiles the paths of the generated files relative to the output directory
+		 */
+		public FileState(String hash, Set<String> exportedNames, Set<String> importedNames, Set<String> generatedFiles) {
+			this.hash = hash;
+			this.exportedNames = exportedNames;
+			this.importedNames = importedNames;
+			this.generatedFiles = generatedFiles;
+		}
+
+		public String getHash() {
+			return hash;
+		}
+
+		public Set<String> getExportedNames() {
+			return exportedNames;
+		}
+
+		public Set<String> getImportedNames() {
+			return importedNames;
+		}
+
+		public Set<String> getGeneratedFiles() {
+			return generatedFiles;
+		}
+	}
+
+	private final String configurationHash;
+
+	private final Map<String, FileState> files = Maps.newLinkedHashMap();
+
+	/**
+	 * @param configurationHash a hash of everything besides the Xtend sources that influences the compilation result,
+	 *            e.g. the class path and the compiler settings.
+	 */
+	public BuildState(String configurationHash) {
+		this.configurationHash = configurationHash;
+	}
+
+	public String getConfigurationHash() {
+		return configurationHash;
+	}
+
+	/**
+	 * @return the recorded files keyed by the URI of the source file.
+	 */
+	public Map<String, FileState> getFiles() {
+		return files;
+	}
+
+	/**
+	 * @return the URIs of the recorded source files that no longer exist.
+	 */
+	public Set<String> getDeletedFiles(Map<String, String> currentHashes) {
+		return Sets.newLinkedHashSet(Sets.difference(files.keySet(), currentHashes.keySet()));
+	}
+
+	/**
+	 * Computes the source files that have to be recompiled: files that are new or have changed, and all files that
+	 * transitively import a name that is exported by a changed or deleted file.
+	 *
+	 * @param currentHashes the content hashes of the current source files keyed by their URI
+	 * @param additionalExportedNames names that are known to be exported by the changed files in their current version
+	 */
+	public Set<String> getAffectedFiles(Map<String, String> currentHashes, Collection<String> additionalExportedNames) {
+		Set<String> affected = Sets.newLinkedHashSet();
+		Set<String> changedNames = Sets.newHashSet(additionalExportedNames);
+		for (Map.Entry<String, String> entry : currentHashes.entrySet()) {
+			FileState previous = files.get(entry.getKey());
+			if (previous == null || !previous.getHash().equals(entry.getValue())) {
+				affected.add(entry.getKey());
+				if (previous != null) {
+					changedNames.addAll(previous.getExportedNames());
+				}
+			}
+		}
+		for (String deleted : getDeletedFiles(currentHashes)) {
+			changedNames.addAll(files.get(deleted).getExportedNames());
+		}
+		boolean changed = !changedNames.isEmpty();
+		while (changed) {
+			changed = false;
+			for (String uri : currentHashes.keySet()) {
+				FileState state = files.get(uri);
+				if (state != null && !affected.contains(uri)
+						&& !Sets.intersection(state.getImportedNames(), changedNames).isEmpty()) {
+					affected.add(uri);
+					changedNames.addAll(state.getExportedNames());
+					changed = true;
+				}
+			}
+		}
+		return affected;
+	}
+
+	/**
+	 * @return the state that was persisted in the given file or <code>null</code> if there is no such state or it
+	 *         cannot be read.
+	 */
+	public static BuildState load(File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				return (BuildState) in.readObject();
+			} finally {
+				in.close();
+			}
+		} catch (Exception e) {
+			log.info("Cannot read the build state from '" + file + "'. A full build is performed.");
+			log.debug(e.getMessage(), e);
+			return null;
+		}
+	}
+
+	public void save(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeObject(this);
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,426 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.util.internal.Stopwatches;
+import org.eclipse.xtext.util.internal.Stopwatches.NumbersForTask;
+import org.eclipse.xtext.util.internal.Stopwatches.StoppedTask;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+/**
+ * Collects the wall time, the CPU time, the allocated bytes and the number of processed resources per phase of the
+ * {@link XtendBatchCompiler}, along with the time that was spent on each source file. The phases are also recorded
+ * as {@link Stopwatches} tasks, so the report includes the numbers of all other instrumented tasks, e.g. those of the
+ * active annotation processing.
+ *
+ * CPU time and allocated bytes are the sum of the thread that runs the phase and of the tasks that the worker threads
+ * of a parallel phase run through {@link #measureWorker(Callable)}. The thread that writes the generated files in the
+ * background is not included.
+ *
+ * The {@link Stopwatches} are global to the VM. The report enables them while at least one report is running and
+ * restores their previous state afterwards. It lists the growth of each task during the compilation, so the numbers
+ * of other compilations that run at the same time in the same VM are included.
+ *
+ * @since 2.11
+ */
+public class CompilationReport {
+
+	private static final Logger log = Logger.getLogger(CompilationReport.class);
+
+	private static final String TASK_PREFIX = "[batch] ";
+
+	private static int runningReports;
+
+	private static boolean stopwatchesEnabledBefore;
+
+	/**
+	 * A running phase.
+	 */
+	public class Phase {
+
+		private final String name;
+
+		private final StoppedTask task;
+
+		private final long startWallTime;
+
+		private final long startCpuTime;
+
+		private final long startAllocatedBytes;
+
+		private final long startWorkerCpuTime;
+
+		private final long startWorkerAllocatedBytes;
+
+		private long wallTime;
+
+		private long cpuTime;
+
+		private long allocatedBytes;
+
+		private int resources;
+
+		protected Phase(String name) {
+			this.name = name;
+			this.task = Stopwatches.forTask(TASK_PREFIX + name);
+			this.task.start();
+			this.startCpuTime = getCurrentThreadCpuTime();
+			this.startAllocatedBytes = getCurrentThreadAllocatedBytes();
+			this.startWorkerCpuTime = workerCpuTime.get();
+			this.startWorkerAllocatedBytes = workerAllocatedBytes.get();
+			this.startWallTime = System.nanoTime();
+		}
+
+		/**
+		 * @param resources the number of resources that were processed by the phase
+		 */
+		public void stop(int resources) {
+			wallTime = System.nanoTime() - startWallTime;
+			cpuTime = getCurrentThreadCpuTime() - startCpuTime + workerCpuTime.get() - startWorkerCpuTime;
+			allocatedBytes = getCurrentThreadAllocatedBytes() - startAllocatedBytes + workerAllocatedBytes.get()
+					- startWorkerAllocatedBytes;
+			this.resources = resources;
+			task.stop();
+			if (enabled) {
+				phases.add(this);
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getWallTime() {
+			return wallTime;
+		}
+
+		public long getCpuTime() {
+			return cpuTime;
+		}
+
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		public int getResources() {
+			return resources;
+		}
+	}
+
+	private final boolean enabled;
+
+	private final int topFiles;
+
+	private final List<Phase> phases = Collections.synchronizedList(Lists.<Phase> newArrayList());
+
+	private final ConcurrentHashMap<URI, AtomicLong> fileTimes = new ConcurrentHashMap<URI, AtomicLong>();
+
+	private final AtomicLong workerCpuTime = new AtomicLong();
+
+	private final AtomicLong workerAllocatedBytes = new AtomicLong();
+
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	private final Method getThreadAllocatedBytes;
+
+	private Map<String, long[]> initialTasks = Collections.emptyMap();
+
+	/**
+	 * @param enabled whether anything is recorded at all
+	 * @param topFiles the number of files that are listed as the slowest ones
+	 */
+	public CompilationReport(boolean enabled, int topFiles) {
+		this.enabled = enabled;
+		this.topFiles = topFiles;
+		this.getThreadAllocatedBytes = enabled ? findGetThreadAllocatedBytes() : null;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables the {@link Stopwatches} for the duration of the compilation and remembers their current numbers.
+	 */
+	public void start() {
+		if (enabled) {
+			enableStopwatches();
+			initialTasks = snapshotTasks();
+		}
+	}
+
+	public Phase startPhase(String name) {
+		return new Phase(name);
+	}
+
+	/**
+	 * Adds the given time to the time that was spent on the given file. May be called from any thread.
+	 */
+	public void recordFile(URI uri, long nanos) {
+		if (!enabled) {
+			return;
+		}
+		AtomicLong time = fileTimes.get(uri);
+		if (time == null) {
+			time = new AtomicLong();
+			AtomicLong existing = fileTimes.putIfAbsent(uri, time);
+			if (existing != null) {
+				time = existing;
+			}
+		}
+		time.addAndGet(nanos);
+	}
+
+	/**
+	 * Wraps a task that a worker thread runs for the current phase, so that its CPU time and allocated bytes are
+	 * added to the phase.
+	 */
+	public <T> Callable<T> measureWorker(final Callable<T> task) {
+		if (!enabled) {
+			return task;
+		}
+		return new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				long startCpuTime = getCurrentThreadCpuTime();
+				long startAllocatedBytes = getCurrentThreadAllocatedBytes();
+				try {
+					return task.call();
+				} finally {
+					workerCpuTime.addAndGet(getCurrentThreadCpuTime() - startCpuTime);
+					workerAllocatedBytes.addAndGet(getCurrentThreadAllocatedBytes() - startAllocatedBytes);
+				}
+			}
+		};
+	}
+
+	public List<Phase> getPhases() {
+		synchronized (phases) {
+			return Lists.newArrayList(phases);
+		}
+	}
+
+	/**
+	 * @return the slowest files, slowest first, along with the time in nanoseconds that was spent on them.
+	 */
+	public List<Map.Entry<URI, Long>> getSlowestFiles() {
+		List<Map.Entry<URI, Long>> result = Lists.newArrayList();
+		for (Map.Entry<URI, AtomicLong> entry : fileTimes.entrySet()) {
+			result.add(Maps.immutableEntry(entry.getKey(), entry.getValue().get()));
+		}
+		Collections.sort(result, new Comparator<Map.Entry<URI, Long>>() {
+			@Override
+			public int compare(Map.Entry<URI, Long> o1, Map.Entry<URI, Long> o2) {
+				return Long.compare(o2.getValue(), o1.getValue());
+			}
+		});
+		return result.subList(0, Math.min(topFiles, result.size()));
+	}
+
+	/**
+	 * Logs a summary table and writes the report as JSON to the given file. Restores the previous state of the
+	 * {@link Stopwatches}.
+	 */
+	public void finish(File reportFile) {
+		if (!enabled) {
+			return;
+		}
+		try {
+			Map<String, long[]> tasks = getTaskDeltas();
+			log.info(toTable());
+			if (reportFile != null) {
+				try {
+					if (reportFile.getParentFile() != null) {
+						reportFile.getParentFile().mkdirs();
+					}
+					Files.write(toJson(tasks), reportFile, Charsets.UTF_8);
+				} catch (IOException e) {
+					log.warn("Cannot write the compilation report to '" + reportFile + "': " + e.getMessage());
+				}
+			}
+		} finally {
+			restoreStopwatches();
+		}
+	}
+
+	/**
+	 * @return the milliseconds and the number of measurements that were added to each task since the start of the
+	 *         report. Tasks without new measurements are omitted.
+	 */
+	protected Map<String, long[]> getTaskDeltas() {
+		Map<String, long[]> result = Maps.newLinkedHashMap();
+		for (Map.Entry<String, long[]> task : snapshotTasks().entrySet()) {
+			long[] initial = initialTasks.get(task.getKey());
+			long[] current = task.getValue();
+			long measurements = initial == null ? current[1] : current[1] - initial[1];
+			if (measurements > 0) {
+				long millis = initial == null ? current[0] : current[0] - initial[0];
+				result.put(task.getKey(), new long[] { millis, measurements });
+			}
+		}
+		return result;
+	}
+
+	private static Map<String, long[]> snapshotTasks() {
+		Map<String, NumbersForTask> numbers = Stopwatches.allNumbers();
+		Map<String, long[]> result = Maps.newLinkedHashMap();
+		synchronized (numbers) {
+			for (Map.Entry<String, NumbersForTask> task : numbers.entrySet()) {
+				result.put(task.getKey(), new long[] { task.getValue().getMilliseconds(),
+						task.getValue().getNumberOfMeasurements() });
+			}
+		}
+		return result;
+	}
+
+	private static synchronized void enableStopwatches() {
+		if (runningReports++ == 0) {
+			stopwatchesEnabledBefore = isStopwatchesEnabled();
+			Stopwatches.setEnabled(true);
+		}
+	}
+
+	private static synchronized void restoreStopwatches() {
+		if (--runningReports == 0) {
+			Stopwatches.setEnabled(stopwatchesEnabledBefore);
+		}
+	}
+
+	/**
+	 * The {@link Stopwatches} do not expose whether they are enabled. While disabled, they hand out the same inactive
+	 * task for every request.
+	 */
+	private static boolean isStopwatchesEnabled() {
+		String probe = TASK_PREFIX + "report";
+		return Stopwatches.forTask(probe) != Stopwatches.forTask(probe);
+	}
+
+	protected String toTable() {
+		StringBuilder result = new StringBuilder("Compilation report\n");
+		result.append(String.format("%-20s %10s %10s %14s %10s%n", "Phase", "Wall ms", "CPU ms", "Allocated KB",
+				"Resources"));
+		for (Phase phase : getPhases()) {
+			result.append(String.format("%-20s %10d %10d %14d %10d%n", phase.getName(), toMillis(phase.getWallTime()),
+					toMillis(phase.getCpuTime()), phase.getAllocatedBytes() / 1024, phase.getResources()));
+		}
+		List<Map.Entry<URI, Long>> slowestFiles = getSlowestFiles();
+		if (!slowestFiles.isEmpty()) {
+			result.append("Slowest files\n");
+			for (Map.Entry<URI, Long> file : slowestFiles) {
+				result.append(String.format("%10d ms  %s%n", toMillis(file.getValue()), file.getKey()));
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * @param tasks the milliseconds and the number of measurements per task, see {@link #getTaskDeltas()}
+	 */
+	protected String toJson(Map<String, long[]> tasks) {
+		StringBuilder result = new StringBuilder("{\n  \"phases\": [");
+		String separator = "\n";
+		for (Phase phase : getPhases()) {
+			result.append(separator).append("    {\"name\": ").append(quote(phase.getName()));
+			result.append(", \"wallTimeMs\": ").append(toMillis(phase.getWallTime()));
+			result.append(", \"cpuTimeMs\": ").append(toMillis(phase.getCpuTime()));
+			result.append(", \"allocatedBytes\": ").append(phase.getAllocatedBytes());
+			result.append(", \"resources\": ").append(phase.getResources()).append("}");
+			separator = ",\n";
+		}
+		result.append("\n  ],\n  \"slowestFiles\": [");
+		separator = "\n";
+		for (Map.Entry<URI, Long> file : getSlowestFiles()) {
+			result.append(separator).append("    {\"uri\": ").append(quote(file.getKey().toString()));
+			result.append(", \"timeMs\": ").append(toMillis(file.getValue())).append("}");
+			separator = ",\n";
+		}
+		result.append("\n  ],\n  \"tasks\": [");
+		separator = "\n";
+		for (Map.Entry<String, long[]> task : tasks.entrySet()) {
+			result.append(separator).append("    {\"name\": ").append(quote(task.getKey()));
+			result.append(", \"timeMs\": ").append(task.getValue()[0]);
+			result.append(", \"measurements\": ").append(task.getValue()[1]).append("}");
+			separator = ",\n";
+		}
+		result.append("\n  ]\n}\n");
+		return result.toString();
+	}
+
+	private static String quote(String value) {
+		StringBuilder result = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (c < 0x20) {
+				result.append(String.format("\\u%04x", (int) c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.append('"').toString();
+	}
+
+	private static long toMillis(long nanos) {
+		return nanos / 1000000;
+	}
+
+	private long getCurrentThreadCpuTime() {
+		if (enabled && threadMXBean.isCurrentThreadCpuTimeSupported()) {
+			return threadMXBean.getCurrentThreadCpuTime();
+		}
+		return 0;
+	}
+
+	private long getCurrentThreadAllocatedBytes() {
+		if (getThreadAllocatedBytes != null) {
+			try {
+				return (Long) getThreadAllocatedBytes.invoke(threadMXBean, Thread.currentThread().getId());
+			} catch (Exception e) {
+				return 0;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * The allocated bytes are only available on VMs that implement <code>com.sun.management.ThreadMXBean</code>, which
+	 * is not necessarily visible to this bundle, so it is accessed reflectively.
+	 */
+	private Method findGetThreadAllocatedBytes() {
+		try {
+			Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+			if (type.isInstance(threadMXBean)) {
+				return type.getMethod("getThreadAllocatedBytes", long.class);
+			}
+			return null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+}
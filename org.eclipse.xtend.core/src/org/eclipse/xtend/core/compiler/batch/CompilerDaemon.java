@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.List;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Injector;
+
+/**
+ * A long-lived compiler process that serves compilation requests of {@link CompilerDaemonClient clients} on a local
+ * socket. The injector, the grammar and all classes that have been loaded and optimized by the VM are kept warm
+ * between builds. The JVM types of the JDK and of jar files are retained in the {@link SharedJvmTypeCache} unless a
+ * request passes <code>-noSharedTypeCache</code>.
+ *
+ * Each request carries the command line arguments of {@link Main} and is compiled by a fresh
+ * {@link XtendBatchCompiler}, which creates its resource set with the resource set binding of the injector and
+ * configures the project of the request from its source, output and base paths. Clients send absolute paths, so the
+ * project is the same as for a compilation in the process of the client. Requests are served one after the other.
+ * The log output of a compilation is forwarded to the client up to the log level of the client, followed by the
+ * result.
+ *
+ * A request is only served if it carries the secret token of the daemon. The daemon writes the token to a
+ * {@link #getTokenFile(int) file} that only the user who started the daemon can read, so other users of the machine
+ * can neither compile in the daemon nor stop it.
+ *
+ * @since 2.11
+ */
+public class CompilerDaemon {
+
+	private static final Logger log = Logger.getLogger(CompilerDaemon.class);
+
+	static final byte LOG_MESSAGE = 1;
+
+	static final byte RESULT = 2;
+
+	static final String STOP_REQUEST = "-stopDaemon";
+
+	private final Injector injector;
+
+	private final int port;
+
+	private volatile boolean running;
+
+	private String token;
+
+	public CompilerDaemon(Injector injector, int port) {
+		this.injector = injector;
+		this.port = port;
+	}
+
+	/**
+	 * Serves requests until a client asks the daemon to stop.
+	 */
+	public void run() throws IOException {
+		ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		File tokenFile = getTokenFile(serverSocket.getLocalPort());
+		try {
+			token = createToken();
+			writeUserOnly(tokenFile, token);
+			log.info("Xtend compiler daemon is listening on port " + serverSocket.getLocalPort() + ".");
+			running = true;
+			while (running) {
+				Socket socket = serverSocket.accept();
+				try {
+					handleRequest(socket);
+				} catch (IOException e) {
+					log.warn("Failed to serve compilation request: " + e.getMessage(), e);
+				} finally {
+					socket.close();
+				}
+			}
+			log.info("Xtend compiler daemon stopped.");
+		} finally {
+			tokenFile.delete();
+			serverSocket.close();
+		}
+	}
+
+	protected void handleRequest(Socket socket) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		if (!isAuthorized(in.readUTF())) {
+			log.warn("Rejected a request without the token of the compiler daemon.");
+			out.writeByte(RESULT);
+			out.writeBoolean(false);
+			out.flush();
+			return;
+		}
+		Level level = Level.toLevel(in.readInt());
+		int count = in.readInt();
+		List<String> arguments = Lists.newArrayListWithCapacity(count);
+		for (int i = 0; i < count; i++) {
+			arguments.add(in.readUTF());
+		}
+		boolean result;
+		if (arguments.size() == 1 && STOP_REQUEST.equals(arguments.get(0))) {
+			running = false;
+			result = true;
+		} else {
+			AppenderSkeleton appender = createForwardingAppender(out);
+			appender.setThreshold(level);
+			Logger.getRootLogger().addAppender(appender);
+			try {
+				result = compile(arguments);
+			} catch (RuntimeException e) {
+				log.error("Compilation failed: " + e.getMessage(), e);
+				result = false;
+			} finally {
+				Logger.getRootLogger().removeAppender(appender);
+			}
+		}
+		out.writeByte(RESULT);
+		out.writeBoolean(result);
+		out.flush();
+	}
+
+	protected boolean isAuthorized(String requestToken) {
+		return token != null
+				&& MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), requestToken.getBytes(StandardCharsets.UTF_8));
+	}
+
+	protected String createToken() {
+		byte[] bytes = new byte[32];
+		new SecureRandom().nextBytes(bytes);
+		StringBuilder result = new StringBuilder();
+		for (byte b : bytes) {
+			result.append(String.format("%02x", b));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * @return the file that holds the token of the daemon that listens on the given port.
+	 */
+	public static File getTokenFile(int port) {
+		return new File(System.getProperty("user.home"), ".xtend/daemon/" + port + ".token");
+	}
+
+	static String readToken(int port) throws IOException {
+		File tokenFile = getTokenFile(port);
+		if (!tokenFile.isFile()) {
+			throw new IOException("No compiler daemon of the current user listens on port " + port + " (missing "
+					+ tokenFile + ").");
+		}
+		return new String(Files.readAllBytes(tokenFile.toPath()), StandardCharsets.UTF_8).trim();
+	}
+
+	private static void writeUserOnly(File file, String contents) throws IOException {
+		Path path = file.toPath();
+		Files.createDirectories(path.getParent());
+		Files.deleteIfExists(path);
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} else {
+			Files.createFile(path);
+			file.setReadable(false, false);
+			file.setReadable(true, true);
+			file.setWritable(false, false);
+			file.setWritable(true, true);
+		}
+		Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	protected boolean compile(List<String> arguments) {
+		XtendBatchCompiler compiler = injector.getInstance(XtendBatchCompiler.class);
+		// keeping the types of the JDK and of the jars warm between requests is the point of the daemon
+		compiler.setUseSharedJvmTypeCache(true);
+		Main.configure(compiler, arguments.iterator());
+		return compiler.compile();
+	}
+
+	protected AppenderSkeleton createForwardingAppender(final DataOutputStream out) {
+		return new AppenderSkeleton() {
+
+			@Override
+			protected void append(LoggingEvent event) {
+				if (event.getMessage() == null) {
+					return;
+				}
+				try {
+					out.writeByte(LOG_MESSAGE);
+					out.writeInt(event.getLevel().toInt());
+					out.writeUTF(event.getMessage().toString());
+				} catch (IOException e) {
+					// the client went away, the compilation result is lost anyway
+				}
+			}
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public boolean requiresLayout() {
+				return false;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Sends compilation requests to a {@link CompilerDaemon} that listens on a local port.
+ *
+ * @since 2.11
+ */
+public class CompilerDaemonClient {
+
+	private static final Logger log = Logger.getLogger(XtendBatchCompiler.class);
+
+	private final int port;
+
+	public CompilerDaemonClient(int port) {
+		this.port = port;
+	}
+
+	/**
+	 * Compiles in the daemon. The log output of the daemon is passed to {@link #log(Level, String)}. Relative paths in
+	 * the arguments are resolved against the working directory of the client before they are sent.
+	 *
+	 * @param arguments the command line arguments as understood by {@link Main}
+	 * @return <code>true</code> if the compilation succeeded
+	 * @throws IOException if the daemon cannot be reached or was not started by the current user
+	 */
+	public boolean compile(List<String> arguments) throws IOException {
+		return send(Main.toAbsolutePaths(arguments));
+	}
+
+	/**
+	 * Asks the daemon to shut down once it has finished the current compilation.
+	 */
+	public void stopDaemon() throws IOException {
+		send(Collections.singletonList(CompilerDaemon.STOP_REQUEST));
+	}
+
+	private boolean send(List<String> arguments) throws IOException {
+		String token = CompilerDaemon.readToken(port);
+		Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeUTF(token);
+			out.writeInt(getLogLevel().toInt());
+			out.writeInt(arguments.size());
+			for (String argument : arguments) {
+				out.writeUTF(argument);
+			}
+			out.flush();
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			while (true) {
+				byte kind = in.readByte();
+				if (kind == CompilerDaemon.RESULT) {
+					return in.readBoolean();
+				} else if (kind == CompilerDaemon.LOG_MESSAGE) {
+					Level level = Level.toLevel(in.readInt());
+					log(level, in.readUTF());
+				} else {
+					throw new IOException("Unexpected response from the compiler daemon: " + kind);
+				}
+			}
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * @return the level of the least severe log messages that the daemon forwards.
+	 */
+	protected Level getLogLevel() {
+		return log.getEffectiveLevel();
+	}
+
+	protected void log(Level level, String message) {
+		log.log(level, message);
+	}
+
+}
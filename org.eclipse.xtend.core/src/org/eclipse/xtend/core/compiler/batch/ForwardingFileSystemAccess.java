@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.InputStream;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.generator.IFileSystemAccess;
+import org.eclipse.xtext.generator.IFileSystemAccess2;
+import org.eclipse.xtext.util.RuntimeIOException;
+
+/**
+ * A file system access that forwards all calls to a delegate. Operations without an explicit output configuration
+ * use the {@link IFileSystemAccess#DEFAULT_OUTPUT default output}, so subclasses only need to override the variants
+ * that take an output configuration name.
+ *
+ * @since 2.11
+ */
+public class ForwardingFileSystemAccess implements IFileSystemAccess2 {
+
+	private final IFileSystemAccess2 delegate;
+
+	public ForwardingFileSystemAccess(IFileSystemAccess2 delegate) {
+		this.delegate = delegate;
+	}
+
+	protected IFileSystemAccess2 getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public void generateFile(String fileName, CharSequence contents) {
+		generateFile(fileName, IFileSystemAccess.DEFAULT_OUTPUT, contents);
+	}
+
+	@Override
+	public void generateFile(String fileName, String outputConfigurationName, CharSequence contents) {
+		delegate.generateFile(fileName, outputConfigurationName, contents);
+	}
+
+	@Override
+	public void generateFile(String fileName, InputStream content) throws RuntimeIOException {
+		generateFile(fileName, IFileSystemAccess.DEFAULT_OUTPUT, content);
+	}
+
+	@Override
+	public void generateFile(String fileName, String outputCfgName, InputStream content) throws RuntimeIOException {
+		delegate.generateFile(fileName, outputCfgName, content);
+	}
+
+	@Override
+	public void deleteFile(String fileName) {
+		deleteFile(fileName, IFileSystemAccess.DEFAULT_OUTPUT);
+	}
+
+	@Override
+	public void deleteFile(String fileName, String outputConfigurationName) {
+		delegate.deleteFile(fileName, outputConfigurationName);
+	}
+
+	@Override
+	public URI getURI(String path, String outputConfiguration) {
+		return delegate.getURI(path, outputConfiguration);
+	}
+
+	@Override
+	public URI getURI(String path) {
+		return delegate.getURI(path);
+	}
+
+	@Override
+	public InputStream readBinaryFile(String fileName, String outputCfgName) throws RuntimeIOException {
+		return delegate.readBinaryFile(fileName, outputCfgName);
+	}
+
+	@Override
+	public InputStream readBinaryFile(String fileName) throws RuntimeIOException {
+		return delegate.readBinaryFile(fileName);
+	}
+
+	@Override
+	public CharSequence readTextFile(String fileName, String outputCfgName) throws RuntimeIOException {
+		return delegate.readTextFile(fileName, outputCfgName);
+	}
+
+	@Override
+	public CharSequence readTextFile(String fileName) throws RuntimeIOException {
+		return delegate.readTextFile(fileName);
+	}
+
+	@Override
+	public boolean isFile(String path, String outputConfigurationName) throws RuntimeIOException {
+		return delegate.isFile(path, outputConfigurationName);
+	}
+
+	@Override
+	public boolean isFile(String path) throws RuntimeIOException {
+		return delegate.isFile(path);
+	}
+
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Map;
+
+/**
+ * A class loader that serves the bytecode of classes that were compiled in memory. Classes are defined lazily and
+ * are available as <code>.class</code> resources, too, so both reflective and bytecode based type providers can
+ * consume them.
+ *
+ * The parent class loader is owned by this class loader and is closed together with it.
+ *
+ * @since 2.11
+ */
+public class InMemoryClassLoader extends ClassLoader implements Closeable {
+
+	private static final String PROTOCOL = "xtend-inmemory";
+
+	private final Map<String, byte[]> classes;
+
+	/**
+	 * @param classes the bytecode of the classes keyed by their binary name.
+	 */
+	public InMemoryClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+		super(parent);
+		this.classes = classes;
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		byte[] bytes = classes.get(name);
+		if (bytes == null) {
+			throw new ClassNotFoundException(name);
+		}
+		return defineClass(name, bytes, 0, bytes.length);
+	}
+
+	@Override
+	protected URL findResource(String name) {
+		if (!name.endsWith(".class")) {
+			return null;
+		}
+		String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+		final byte[] bytes = classes.get(className);
+		if (bytes == null) {
+			return null;
+		}
+		try {
+			return new URL(PROTOCOL, null, -1, "/" + name, new URLStreamHandler() {
+				@Override
+				protected URLConnection openConnection(URL url) throws IOException {
+					return new URLConnection(url) {
+						@Override
+						public void connect() throws IOException {
+						}
+
+						@Override
+						public InputStream getInputStream() throws IOException {
+							return new ByteArrayInputStream(bytes);
+						}
+					};
+				}
+			});
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (getParent() instanceof Closeable) {
+			((Closeable) getParent()).close();
+		}
+	}
+
+}
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.log4j.Logger;
+import org.eclipse.jdt.core.compiler.CategorizedProblem;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.ClassFile;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.Compiler;
+import org.eclipse.jdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.jdt.internal.compiler.ICompilerRequestor;
+import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
+import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
+import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
+import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Compiles Java sources with the Eclipse compiler without touching the disk. Sources are passed as in-memory
+ * compilation units or files, dependencies are looked up in previously compiled classes and on a class loader, and
+ * the resulting bytecode is returned as a map from binary class names to bytes.
+ *
+ * @since 2.11
+ */
+public class InMemoryStubCompiler {
+
+	private static final Logger log = Logger.getLogger(InMemoryStubCompiler.class);
+
+	private static final byte[] NOT_FOUND = new byte[0];
+
+	private final ClassLoader classpath;
+
+	private final String javaVersion;
+
+	private final String encoding;
+
+	private final Map<String, byte[]> classpathCache = Maps.newHashMap();
+
+	private final Map<String, Boolean> packageCache = Maps.newHashMap();
+
+	private Set<String> jarPackages;
+
+	/**
+	 * @param classpath the class loader that serves the <code>.class</code> resources of the dependencies
+	 * @param javaVersion the source and target level, e.g. <code>1.8</code>
+	 * @param encoding the encoding of source files or <code>null</code> for the platform encoding
+	 */
+	public InMemoryStubCompiler(ClassLoader classpath, String javaVersion, String encoding) {
+		this.classpath = classpath;
+		this.javaVersion = javaVersion;
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Compiles the given sources and files, proceeding on errors.
+	 *
+	 * @param sources the source code keyed by the relative path of the Java file, e.g. <code>foo/Bar.java</code>
+	 * @param files absolute paths of Java files that are compiled along with the sources
+	 * @param classes previously compiled classes that are visible to the compiled sources
+	 * @param result receives the bytecode of the compiled classes keyed by the binary class name
+	 * @return <code>true</code> if the compilation succeeded without errors
+	 */
+	public boolean compile(Map<String, ? extends CharSequence> sources, Iterable<String> files,
+			Map<String, byte[]> classes, final Map<String, byte[]> result) {
+		List<ICompilationUnit> units = Lists.newArrayList();
+		for (Map.Entry<String, ? extends CharSequence> source : sources.entrySet()) {
+			units.add(new CompilationUnit(source.getValue().toString().toCharArray(), source.getKey(), encoding));
+		}
+		for (String file : files) {
+			units.add(new CompilationUnit(null, file, encoding));
+		}
+		if (units.isEmpty()) {
+			return true;
+		}
+		final boolean[] hasErrors = new boolean[1];
+		ICompilerRequestor requestor = new ICompilerRequestor() {
+			@Override
+			public void acceptResult(CompilationResult compilationResult) {
+				if (compilationResult.hasErrors()) {
+					hasErrors[0] = true;
+					if (log.isDebugEnabled()) {
+						for (CategorizedProblem problem : compilationResult.getErrors()) {
+							log.debug(new String(problem.getOriginatingFileName()) + ":" + problem.getSourceLineNumber()
+									+ ": " + problem.getMessage());
+						}
+					}
+				}
+				for (ClassFile classFile : compilationResult.getClassFiles()) {
+					result.put(CharOperation.toString(classFile.getCompoundName()), classFile.getBytes());
+				}
+			}
+		};
+		Set<String> packages = Sets.newHashSet();
+		for (String binaryName : classes.keySet()) {
+			addPackages(binaryName.replace('.', '/'), packages);
+		}
+		for (String path : sources.keySet()) {
+			addPackages(path, packages);
+		}
+		Compiler compiler = new Compiler(new NameEnvironment(classes, packages),
+				DefaultErrorHandlingPolicies.proceedWithAllProblems(), new CompilerOptions(getCompilerOptions()),
+				requestor, new DefaultProblemFactory(Locale.getDefault()));
+		compiler.compile(units.toArray(new ICompilationUnit[units.size()]));
+		return !hasErrors[0];
+	}
+
+	protected Map<String, String> getCompilerOptions() {
+		Map<String, String> options = Maps.newHashMap();
+		options.put(CompilerOptions.OPTION_Source, javaVersion);
+		options.put(CompilerOptions.OPTION_Compliance, javaVersion);
+		options.put(CompilerOptions.OPTION_TargetPlatform, javaVersion);
+		if (encoding != null) {
+			options.put(CompilerOptions.OPTION_Encoding, encoding);
+		}
+		return options;
+	}
+
+	protected byte[] findClassOnClasspath(String binaryName) {
+		byte[] bytes = classpathCache.get(binaryName);
+		if (bytes == null) {
+			bytes = NOT_FOUND;
+			InputStream stream = classpath.getResourceAsStream(binaryName.replace('.', '/') + ".class");
+			if (stream != null) {
+				try {
+					bytes = ByteStreams.toByteArray(stream);
+				} catch (IOException e) {
+					log.debug("Cannot read class " + binaryName, e);
+				} finally {
+					try {
+						stream.close();
+					} catch (IOException e) {
+						// ignore
+					}
+				}
+			}
+			classpathCache.put(binaryName, bytes);
+		}
+		return bytes == NOT_FOUND ? null : bytes;
+	}
+
+	/**
+	 * @param qualifiedName the dot separated name of a package
+	 * @return <code>true</code> if the class path contains a directory or jar entries for the given package.
+	 */
+	protected boolean isPackageOnClasspath(String qualifiedName) {
+		Boolean result = packageCache.get(qualifiedName);
+		if (result == null) {
+			String path = qualifiedName.replace('.', '/');
+			result = classpath.getResource(path) != null || getJarPackages().contains(path);
+			packageCache.put(qualifiedName, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Jars do not necessarily contain entries for their directories, so the packages of the jars that are served by
+	 * URL class loaders are collected from the paths of their entries.
+	 */
+	private Set<String> getJarPackages() {
+		if (jarPackages == null) {
+			jarPackages = Sets.newHashSet();
+			for (ClassLoader loader = classpath; loader != null; loader = loader.getParent()) {
+				if (loader instanceof URLClassLoader) {
+					for (URL url : ((URLClassLoader) loader).getURLs()) {
+						if ("file".equals(url.getProtocol()) && url.getPath().endsWith(".jar")) {
+							addJarPackages(url, jarPackages);
+						}
+					}
+				}
+			}
+		}
+		return jarPackages;
+	}
+
+	private void addJarPackages(URL jar, Set<String> packages) {
+		ZipFile zipFile = null;
+		try {
+			zipFile = new ZipFile(new File(jar.toURI()));
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				addPackages(entries.nextElement().getName(), packages);
+			}
+		} catch (IOException e) {
+			log.debug("Cannot read the entries of " + jar, e);
+		} catch (URISyntaxException e) {
+			log.debug("Cannot read the entries of " + jar, e);
+		} finally {
+			if (zipFile != null) {
+				try {
+					zipFile.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the slash separated packages that enclose the given path.
+	 */
+	private static void addPackages(String path, Set<String> packages) {
+		for (int i = path.lastIndexOf('/'); i > 0; i = path.lastIndexOf('/', i - 1)) {
+			if (!packages.add(path.substring(0, i))) {
+				// the enclosing packages have been added along with this one
+				return;
+			}
+		}
+	}
+
+	private class NameEnvironment implements INameEnvironment {
+
+		private final Map<String, byte[]> classes;
+
+		private final Set<String> packages;
+
+		/**
+		 * @param packages the slash separated packages of the given classes and of the compiled sources
+		 */
+		NameEnvironment(Map<String, byte[]> classes, Set<String> packages) {
+			this.classes = classes;
+			this.packages = packages;
+		}
+
+		@Override
+		public NameEnvironmentAnswer findType(char[][] compoundTypeName) {
+			return findType(CharOperation.toString(compoundTypeName));
+		}
+
+		@Override
+		public NameEnvironmentAnswer findType(char[] typeName, char[][] packageName) {
+			return findType(CharOperation.toString(CharOperation.arrayConcat(packageName, typeName)));
+		}
+
+		private NameEnvironmentAnswer findType(String qualifiedName) {
+			byte[] bytes = findClass(qualifiedName);
+			if (bytes == null) {
+				return null;
+			}
+			try {
+				char[] fileName = (qualifiedName.replace('.', '/') + ".class").toCharArray();
+				return new NameEnvironmentAnswer(new ClassFileReader(bytes, fileName), null);
+			} catch (ClassFormatException e) {
+				log.debug("Invalid class file for " + qualifiedName, e);
+				return null;
+			}
+		}
+
+		private byte[] findClass(String qualifiedName) {
+			byte[] bytes = classes.get(qualifiedName);
+			if (bytes == null) {
+				bytes = findClassOnClasspath(qualifiedName);
+			}
+			return bytes;
+		}
+
+		@Override
+		public boolean isPackage(char[][] parentPackageName, char[] packageName) {
+			String qualifiedName = CharOperation.toString(CharOperation.arrayConcat(parentPackageName, packageName));
+			if (findClass(qualifiedName) != null) {
+				return false;
+			}
+			return packages.contains(qualifiedName.replace('.', '/')) || isPackageOnClasspath(qualifiedName);
+		}
+
+		@Override
+		public void cleanup() {
+		}
+	}
+}
@@ -8,16 +8,19 @@
 package org.eclipse.xtend.core.compiler.batch;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.log4j.BasicConfigurator;
 import org.eclipse.xtend.core.XtendInjectorSingleton;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Injector;
 
 /**
@@ -27,19 +30,60 @@ public class Main {
 
 	public static void main(String[] args) {
 		BasicConfigurator.configure();
-		Injector injector = XtendInjectorSingleton.INJECTOR;
-		XtendBatchCompiler compiler = injector.getInstance(XtendBatchCompiler.class);
 		if ((args == null) || (args.length == 0)) {
 			printUsage();
 			return;
 		}
-		Iterator<String> arguments = Arrays.asList(args).iterator();
+		List<String> argumentList = new ArrayList<String>(Arrays.asList(args));
+		int daemonIndex = argumentList.indexOf("-daemon");
+		if (daemonIndex >= 0 && daemonIndex + 1 < argumentList.size()) {
+			int port = Integer.parseInt(argumentList.get(daemonIndex + 1).trim());
+			try {
+				new CompilerDaemon(XtendInjectorSingleton.INJECTOR, port).run();
+			} catch (IOException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+			return;
+		}
+		int clientIndex = argumentList.indexOf("-daemonPort");
+		if (clientIndex >= 0 && clientIndex + 1 < argumentList.size()) {
+			int port = Integer.parseInt(argumentList.get(clientIndex + 1).trim());
+			argumentList.subList(clientIndex, clientIndex + 2).clear();
+			try {
+				if (!new CompilerDaemonClient(port).compile(argumentList)) {
+					System.exit(1);
+				}
+			} catch (IOException e) {
+				System.err.println("Cannot connect to the Xtend compiler daemon on port " + port + ": " + e.getMessage());
+				System.exit(1);
+			}
+			return;
+		}
+		Injector injector = XtendInjectorSingleton.INJECTOR;
+		XtendBatchCompiler compiler = injector.getInstance(XtendBatchCompiler.class);
+		configure(compiler, argumentList.iterator());
+		if (!compiler.compile()) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Applies the command line arguments to the given compiler.
+	 * 
+	 * @since 2.11
+	 */
+	static void configure(XtendBatchCompiler compiler, Iterator<String> arguments) {
 		while (arguments.hasNext()) {
 			String argument = arguments.next().trim();
 			if ("-d".equals(argument)) {
 				compiler.setOutputPath(arguments.next().trim());
 			} else if ("-classpath".equals(argument) || "-cp".equals(argument)) {
 				compiler.setClassPath(arguments.next().trim());
+			} else if ("-bootClasspath".equals(argument)) {
+				compiler.setBootClassPath(arguments.next().trim());
+			} else if ("-basePath".equals(argument)) {
+				compiler.setBasePath(arguments.next().trim());
 			} else if ("-tempdir".equals(argument) || "-td".equals(argument)) {
 				compiler.setTempDirectory(arguments.next().trim());
 			} else if ("-encoding".equals(argument)) {
@@ -58,6 +102,32 @@ public class Main {
 				compiler.setUseCurrentClassLoaderAsParent(true);
 			} else if ("-writeTraceFiles".equals(argument)) {
 				compiler.setWriteTraceFiles(true);
+			} else if ("-numberOfThreads".equals(argument)) {
+				compiler.setNumberOfThreads(Integer.parseInt(arguments.next().trim()));
+			} else if ("-inMemoryStubs".equals(argument)) {
+				compiler.setInMemoryStubCompilation(true);
+			} else if ("-incremental".equals(argument)) {
+				compiler.setIncremental(true);
+			} else if ("-buildState".equals(argument)) {
+				compiler.setBuildStateLocation(arguments.next().trim());
+			} else if ("-readStorageFiles".equals(argument)) {
+				compiler.setReadStorageFiles(true);
+			} else if ("-sharedTypeCache".equals(argument)) {
+				compiler.setUseSharedJvmTypeCache(true);
+			} else if ("-noSharedTypeCache".equals(argument)) {
+				compiler.setUseSharedJvmTypeCache(false);
+			} else if ("-report".equals(argument)) {
+				compiler.setReportFile(arguments.next().trim());
+			} else if ("-noParallelLoading".equals(argument)) {
+				compiler.setParallelLoading(false);
+			} else if ("-discardNodeModels".equals(argument)) {
+				compiler.setDiscardNodeModels(true);
+			} else if ("-concurrentCreateExtensions".equals(argument)) {
+				compiler.setConcurrentCreateExtensions(true);
+			} else if ("-dispatchTableThreshold".equals(argument)) {
+				compiler.setDispatchTableThreshold(Integer.parseInt(arguments.next().trim()));
+			} else if ("-compactRichStrings".equals(argument)) {
+				compiler.setCompactRichStrings(true);
 			} else {
 				List<String> existingDirs = new ArrayList<String>(compiler.getSourcePathDirectories());
 				existingDirs.add(argument);
@@ -65,9 +135,48 @@ public class Main {
 				compiler.setSourcePath(pathes);
 			}
 		}
-		if (!compiler.compile()) {
-			System.exit(1);
+	}
+
+	private static final Set<String> PATH_OPTIONS = ImmutableSet.of("-d", "-classpath", "-cp", "-bootClasspath",
+			"-basePath", "-tempdir", "-td", "-buildState", "-report");
+
+	private static final Set<String> VALUE_OPTIONS = ImmutableSet.of("-encoding", "-javaSourceVersion",
+			"-generateAnnotationComment", "-numberOfThreads", "-dispatchTableThreshold");
+
+	/**
+	 * Resolves the paths in the given command line arguments against the current working directory, so that a
+	 * {@link CompilerDaemon daemon} with a different working directory reads and writes the same files.
+	 * 
+	 * @since 2.11
+	 */
+	static List<String> toAbsolutePaths(List<String> arguments) {
+		List<String> result = new ArrayList<String>(arguments.size());
+		Iterator<String> iterator = arguments.iterator();
+		while (iterator.hasNext()) {
+			String argument = iterator.next();
+			String option = argument.trim();
+			if (PATH_OPTIONS.contains(option) && iterator.hasNext()) {
+				result.add(argument);
+				result.add(toAbsolutePath(iterator.next().trim()));
+			} else if (VALUE_OPTIONS.contains(option) && iterator.hasNext()) {
+				result.add(argument);
+				result.add(iterator.next());
+			} else if (option.startsWith("-")) {
+				result.add(argument);
+			} else {
+				// a source directory
+				result.add(toAbsolutePath(option));
+			}
+		}
+		return result;
+	}
+
+	private static String toAbsolutePath(String paths) {
+		List<String> result = new ArrayList<String>();
+		for (String path : paths.split(File.pathSeparator)) {
+			result.add(path.length() == 0 ? path : new File(path).getAbsolutePath());
 		}
+		return Joiner.on(File.pathSeparator).join(result);
 	}
 
 	private static void printUsage() {
@@ -83,8 +192,25 @@ public class Main {
 		out.println("-generateGeneratedAnnotation        Put @Generated into generated Java Code");
 		out.println("-includeDateInGeneratedAnnnotation  If -generateGeneratedAnnotation is used, add the current date/time.");
 		out.println("-generateAnnotationComment <string> If -generateGeneratedAnnotation is used, add a comment.");
+		out.println("-concurrentCreateExtensions         Use lock-free caches for create functions with one or two parameters");
+		out.println("-dispatchTableThreshold <number>    Use a dispatch table for dispatch methods with at least this many cases");
+		out.println("-compactRichStrings                 Compile template expressions to as few appends as possible");
 		out.println("-useCurrentClassLoader              Use current classloader as parent classloader");
 		out.println("-writeTraceFiles                    Write Trace-Files");
+		out.println("-numberOfThreads <number>           Number of threads used to validate and generate (default: 1)");
+		out.println("-inMemoryStubs                      Precompile the Java stubs in memory instead of a temp directory");
+		out.println("-incremental                        Only recompile the sources affected by changes since the last build");
+		out.println("-buildState <file>                  Keep the state of incremental builds in this file");
+		out.println("-readStorageFiles                   Load unchanged sources from the storage files of the last build");
+		out.println("-report <file>                      Log a timing and memory report per phase and write it as JSON to the file");
+		out.println("-noParallelLoading                  Load the sources one after the other even if several threads are used");
+		out.println("-discardNodeModels                  Release the parse tree of each source once its Java code is generated");
+		out.println("-sharedTypeCache                    Retain the types of the JDK and of jar files between compilations");
+		out.println("-noSharedTypeCache                  Do not retain these types, e.g. in the compiler daemon where they are retained by default");
+		out.println("-bootClasspath <path>               Specify the boot class path of the target platform");
+		out.println("-basePath <path>                    Specify the base directory of relative paths");
+		out.println("-daemon <port>                      Start a compiler daemon that serves compilations on a local port");
+		out.println("-daemonPort <port>                  Send the compilation to the compiler daemon on the given port");
 	}
 
 }
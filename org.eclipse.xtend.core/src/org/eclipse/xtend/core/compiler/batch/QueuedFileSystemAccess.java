@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.eclipse.xtext.generator.IFileSystemAccess2;
+import org.eclipse.xtext.util.RuntimeIOException;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+
+/**
+ * A file system access that hands all write operations to a single writer thread, so that code generation on the
+ * calling threads can overlap with the file I/O. Read operations are forwarded to the delegate directly.
+ *
+ * Clients have to {@link #start() start} the writer before the first file is generated and have to
+ * {@link #awaitTermination() wait} for the pending writes afterwards.
+ *
+ * @since 2.11
+ */
+public class QueuedFileSystemAccess extends ForwardingFileSystemAccess {
+
+	private static final Runnable END_OF_QUEUE = new Runnable() {
+		@Override
+		public void run() {
+		}
+	};
+
+	private final BlockingQueue<Runnable> requestQueue;
+
+	private final Thread writer;
+
+	private volatile Throwable failure;
+
+	public QueuedFileSystemAccess(IFileSystemAccess2 delegate, int capacity) {
+		super(delegate);
+		this.requestQueue = new ArrayBlockingQueue<Runnable>(capacity);
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				processRequests();
+			}
+		}, "xtend-writer");
+		this.writer.setDaemon(true);
+	}
+
+	public void start() {
+		writer.start();
+	}
+
+	/**
+	 * Blocks until all queued write operations have been performed and rethrows the first failure of the writer.
+	 */
+	public void awaitTermination() {
+		try {
+			requestQueue.put(END_OF_QUEUE);
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		if (failure != null) {
+			throw Throwables.propagate(failure);
+		}
+	}
+
+	protected void processRequests() {
+		while (true) {
+			Runnable request;
+			try {
+				request = requestQueue.take();
+			} catch (InterruptedException e) {
+				failure = e;
+				return;
+			}
+			if (request == END_OF_QUEUE) {
+				return;
+			}
+			// keep draining the queue after a failure so that producers are never blocked
+			if (failure == null) {
+				try {
+					request.run();
+				} catch (Throwable t) {
+					failure = t;
+				}
+			}
+		}
+	}
+
+	protected void send(Runnable request) {
+		if (failure != null) {
+			throw Throwables.propagate(failure);
+		}
+		try {
+			requestQueue.put(request);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void generateFile(final String fileName, final String outputConfigurationName, final CharSequence contents) {
+		send(new Runnable() {
+			@Override
+			public void run() {
+				getDelegate().generateFile(fileName, outputConfigurationName, contents);
+			}
+		});
+	}
+
+	@Override
+	public void generateFile(final String fileName, final String outputCfgName, InputStream content)
+			throws RuntimeIOException {
+		// the stream is consumed eagerly since the caller is free to close it once we return
+		final byte[] bytes;
+		try {
+			bytes = ByteStreams.toByteArray(content);
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		} finally {
+			try {
+				content.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+		send(new Runnable() {
+			@Override
+			public void run() {
+				getDelegate().generateFile(fileName, outputCfgName, new ByteArrayInputStream(bytes));
+			}
+		});
+	}
+
+	@Override
+	public void deleteFile(final String fileName, final String outputConfigurationName) {
+		send(new Runnable() {
+			@Override
+			public void run() {
+				getDelegate().deleteFile(fileName, outputConfigurationName);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.common.types.JvmDeclaredType;
+import org.eclipse.xtext.common.types.access.impl.ClasspathTypeProvider;
+import org.eclipse.xtext.resource.XtextResourceSet;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ForwardingMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * Retains the JVM type resources that are derived from the JDK and from jar files across compiler phases and across
+ * compilations. The {@link #getInstance() default instance} is shared by all compilations in the VM; hosts that run
+ * independent builds use an instance per build.
+ *
+ * The types are kept in resource sets that are owned by the cache: one per JDK and one per set of jar files on top of
+ * it. Jar files are identified by their path and a content hash, so a jar that changes in place yields a new cache
+ * entry. The cache is installed into the resource set of a compilation by wrapping its URI resource map: a request
+ * for a <code>java:/</code> resource is answered from the cache if the compilation's class loader finds the class in
+ * the very same place as the cached class loader. Types that are defined in directories or in memory are still
+ * provided by the compilation itself.
+ *
+ * Each compilation holds on to the entry it uses until it {@link #release(ResourceSet) releases} its resource set. The
+ * class loader of an entry that is evicted from the cache is closed once the last of these compilations has released
+ * it.
+ *
+ * @since 2.11
+ */
+public class SharedJvmTypeCache {
+
+	private static final Logger log = Logger.getLogger(SharedJvmTypeCache.class);
+
+	private static final SharedJvmTypeCache INSTANCE = new SharedJvmTypeCache(16);
+
+	public static SharedJvmTypeCache getInstance() {
+		return INSTANCE;
+	}
+
+	private final Cache<String, SharedTypes> cache;
+
+	private final Map<String, String> jarHashes = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * @param maximumSize the maximum number of retained class paths
+	 */
+	public SharedJvmTypeCache(int maximumSize) {
+		this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize)
+				.removalListener(new RemovalListener<String, SharedTypes>() {
+					@Override
+					public void onRemoval(RemovalNotification<String, SharedTypes> notification) {
+						notification.getValue().evict();
+					}
+				}).build();
+	}
+
+	/**
+	 * Makes the cached types available to the given resource set.
+	 *
+	 * @param resourceSet the resource set of the compilation
+	 * @param classLoader the class loader that serves the types of the compilation
+	 * @param classpath the class path of the compilation; only its jar files are cached
+	 * @param jdkKey identifies the JDK that is provided by the given loader
+	 * @param jdkClassLoader creates the class loader for the JDK if it is not cached yet. The cache never closes this
+	 *            class loader.
+	 */
+	public void install(ResourceSet resourceSet, ClassLoader classLoader, Iterable<File> classpath, String jdkKey,
+			Callable<ClassLoader> jdkClassLoader) {
+		final List<URL> jars = Lists.newArrayList();
+		StringBuilder key = new StringBuilder("jars:").append(jdkKey);
+		for (File entry : classpath) {
+			if (entry.isFile() && entry.getName().endsWith(".jar")) {
+				try {
+					jars.add(entry.toURI().toURL());
+				} catch (MalformedURLException e) {
+					throw new IllegalArgumentException(e);
+				}
+				key.append(File.pathSeparatorChar).append(entry.getAbsolutePath()).append('@').append(hash(entry));
+			}
+		}
+		SharedTypes sharedTypes;
+		do {
+			SharedTypes jdkTypes = getSharedTypes("jdk:" + jdkKey, null, jdkClassLoader, false);
+			sharedTypes = jdkTypes;
+			if (!jars.isEmpty()) {
+				final ClassLoader jdkLoader = jdkTypes.getClassLoader();
+				sharedTypes = getSharedTypes(key.toString(), jdkTypes, new Callable<ClassLoader>() {
+					@Override
+					public ClassLoader call() throws Exception {
+						return new URLClassLoader(jars.toArray(new URL[jars.size()]), jdkLoader);
+					}
+				}, true);
+			}
+			// the entry may have been evicted and closed since it was looked up
+		} while (!sharedTypes.acquire());
+		Map<URI, Resource> resourceMap = resourceSet.getURIResourceMap();
+		if (resourceMap instanceof SharedTypeResourceMap) {
+			// a previous phase installed the cache already
+			SharedTypeResourceMap previous = (SharedTypeResourceMap) resourceMap;
+			resourceMap = previous.delegate();
+			previous.getSharedTypes().release();
+		}
+		resourceSet.setURIResourceMap(new SharedTypeResourceMap(resourceMap, sharedTypes, classLoader));
+	}
+
+	/**
+	 * Detaches the cached types from the given resource set once its compilation is done. Does nothing if the cache
+	 * is not installed in the resource set.
+	 */
+	public void release(ResourceSet resourceSet) {
+		Map<URI, Resource> resourceMap = resourceSet.getURIResourceMap();
+		if (resourceMap instanceof SharedTypeResourceMap) {
+			SharedTypeResourceMap installed = (SharedTypeResourceMap) resourceMap;
+			resourceSet.setURIResourceMap(installed.delegate());
+			installed.getSharedTypes().release();
+		}
+	}
+
+	/**
+	 * Discards all cached types. Their class loaders are closed as soon as no running compilation uses them anymore.
+	 */
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	protected SharedTypes getSharedTypes(String key, final SharedTypes parent, final Callable<ClassLoader> classLoader,
+			final boolean ownsClassLoader) {
+		try {
+			return cache.get(key, new Callable<SharedTypes>() {
+				@Override
+				public SharedTypes call() throws Exception {
+					return new SharedTypes(classLoader.call(), parent, ownsClassLoader);
+				}
+			});
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+
+	protected String hash(File jar) {
+		String stamp = jar.getAbsolutePath() + '@' + jar.length() + '@' + jar.lastModified();
+		String hash = jarHashes.get(stamp);
+		if (hash == null) {
+			try {
+				hash = Files.hash(jar, Hashing.md5()).toString();
+			} catch (IOException e) {
+				// an unreadable jar is never shared
+				hash = stamp + '@' + System.nanoTime();
+			}
+			jarHashes.put(stamp, hash);
+		}
+		return hash;
+	}
+
+	/**
+	 * The types that are derived from a single class loader. Requests for types that are found by the parent are
+	 * forwarded to the parent, so each type exists exactly once in the hierarchy.
+	 */
+	protected static class SharedTypes {
+
+		private final ClassLoader classLoader;
+
+		private final XtextResourceSet resourceSet;
+
+		private final boolean ownsClassLoader;
+
+		private int users;
+
+		private boolean evicted;
+
+		private boolean closed;
+
+		private int prepared;
+
+		public SharedTypes(ClassLoader classLoader, SharedTypes parent, boolean ownsClassLoader) {
+			this.classLoader = classLoader;
+			this.ownsClassLoader = ownsClassLoader;
+			this.resourceSet = new XtextResourceSet() {
+				@Override
+				public synchronized Resource getResource(URI uri, boolean loadOnDemand) {
+					return super.getResource(uri, loadOnDemand);
+				}
+			};
+			new ClasspathTypeProvider(classLoader, resourceSet, null, null);
+			resourceSet.setClasspathURIContext(classLoader);
+			if (parent != null) {
+				resourceSet.setURIResourceMap(new SharedTypeResourceMap(resourceSet.getURIResourceMap(), parent,
+						classLoader));
+			}
+		}
+
+		public ClassLoader getClassLoader() {
+			return classLoader;
+		}
+
+		/**
+		 * @return <code>true</code> if the given class loader finds the type with the given URI in the same place as
+		 *         the shared class loader.
+		 */
+		public boolean isShared(URI uri, ClassLoader requestor) {
+			if ("Primitives".equals(uri.segment(0))) {
+				return true;
+			}
+			String className = uri.segment(1);
+			if (className == null) {
+				return false;
+			}
+			String resourceName = className.replace('.', '/') + ".class";
+			URL shared = classLoader.getResource(resourceName);
+			if (shared == null) {
+				return false;
+			}
+			URL requested = requestor.getResource(resourceName);
+			return requested != null && shared.toExternalForm().equals(requested.toExternalForm());
+		}
+
+		/**
+		 * Loads the resource with the given URI. Before a resource is handed out, it is fully resolved and the lazily
+		 * computed feature caches of its types are filled. The same happens to all resources that are loaded while
+		 * doing so. All of this is done under the lock of these types. Compilations therefore only read the shared
+		 * types, even if they run concurrently or use several worker threads. The first request for a type resolves
+		 * everything it transitively refers to, which is paid for once per cache entry.
+		 */
+		public synchronized Resource getResource(URI uri) {
+			Resource resource = resourceSet.getResource(uri, true);
+			prepareLoadedResources();
+			return resource;
+		}
+
+		private void prepareLoadedResources() {
+			List<Resource> resources = resourceSet.getResources();
+			// resolving a resource may load further resources, which are appended and prepared in the same pass
+			for (; prepared < resources.size(); prepared++) {
+				Resource resource = resources.get(prepared);
+				EcoreUtil.resolveAll(resource);
+				TreeIterator<EObject> iterator = resource.getAllContents();
+				while (iterator.hasNext()) {
+					EObject next = iterator.next();
+					if (next instanceof JvmDeclaredType) {
+						JvmDeclaredType type = (JvmDeclaredType) next;
+						type.getIdentifier();
+						type.getAllFeatures();
+						type.findAllFeaturesByName(type.getSimpleName());
+					}
+				}
+			}
+		}
+
+		/**
+		 * Registers a compilation that uses these types.
+		 * 
+		 * @return <code>false</code> if the types have been closed already and must not be used anymore.
+		 */
+		protected synchronized boolean acquire() {
+			if (closed) {
+				return false;
+			}
+			users++;
+			return true;
+		}
+
+		protected synchronized void release() {
+			users--;
+			closeIfUnused();
+		}
+
+		protected synchronized void evict() {
+			evicted = true;
+			closeIfUnused();
+		}
+
+		private void closeIfUnused() {
+			if (evicted && users <= 0 && !closed) {
+				closed = true;
+				close();
+			}
+		}
+
+		protected void close() {
+			if (ownsClassLoader && classLoader instanceof Closeable) {
+				try {
+					((Closeable) classLoader).close();
+				} catch (IOException e) {
+					log.debug("Failed to close class loader of shared JVM types", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A URI resource map that resolves <code>java:/</code> URIs against shared types if these are not found locally.
+	 */
+	protected static class SharedTypeResourceMap extends ForwardingMap<URI, Resource> {
+
+		private final Map<URI, Resource> delegate;
+
+		private final SharedTypes sharedTypes;
+
+		private final ClassLoader requestor;
+
+		private final Map<URI, Resource> shared = new ConcurrentHashMap<URI, Resource>();
+
+		private final Set<URI> local = Sets.newSetFromMap(new ConcurrentHashMap<URI, Boolean>());
+
+		public SharedTypeResourceMap(Map<URI, Resource> delegate, SharedTypes sharedTypes, ClassLoader requestor) {
+			this.delegate = delegate;
+			this.sharedTypes = sharedTypes;
+			this.requestor = requestor;
+		}
+
+		@Override
+		protected Map<URI, Resource> delegate() {
+			return delegate;
+		}
+
+		public SharedTypes getSharedTypes() {
+			return sharedTypes;
+		}
+
+		@Override
+		public Resource get(Object key) {
+			Resource result = delegate.get(key);
+			if (result != null || !(key instanceof URI) || !"java".equals(((URI) key).scheme())) {
+				return result;
+			}
+			URI uri = (URI) key;
+			result = shared.get(uri);
+			if (result == null && !local.contains(uri)) {
+				if (sharedTypes.isShared(uri, requestor)) {
+					result = sharedTypes.getResource(uri);
+					shared.put(uri, result);
+				} else {
+					local.add(uri);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+	}
+
+}
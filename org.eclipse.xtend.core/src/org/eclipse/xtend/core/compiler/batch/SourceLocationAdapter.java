@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.compiler.batch;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.util.ITextRegionWithLineInformation;
+
+/**
+ * Keeps the offset, length and lines of a semantic element in its source after the node model has been discarded
+ * (see {@link XtendBatchCompiler#setDiscardNodeModels(boolean)}), so that the element can still be reported with its
+ * location.
+ *
+ * @since 2.11
+ */
+public class SourceLocationAdapter extends AdapterImpl {
+
+	/**
+	 * @return the location of the given element in its source, taken from its node if it still has one, or
+	 *         <code>null</code> if the location is unknown.
+	 */
+	public static ITextRegionWithLineInformation getLocation(EObject element) {
+		ICompositeNode node = NodeModelUtils.getNode(element);
+		if (node != null) {
+			return node.getTextRegionWithLineInformation();
+		}
+		SourceLocationAdapter adapter = (SourceLocationAdapter) EcoreUtil.getExistingAdapter(element,
+				SourceLocationAdapter.class);
+		return adapter != null ? adapter.getLocation() : null;
+	}
+
+	private final ITextRegionWithLineInformation location;
+
+	public SourceLocationAdapter(ITextRegionWithLineInformation location) {
+		this.location = location;
+	}
+
+	public ITextRegionWithLineInformation getLocation() {
+		return location;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == SourceLocationAdapter.class;
+	}
+
+}
@@ -14,51 +14,76 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.jdt.core.compiler.batch.BatchCompiler;
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig;
 import org.eclipse.xtend.core.macro.ProcessorInstanceForJvmTypeProvider;
 import org.eclipse.xtend.core.xtend.XtendFile;
 import org.eclipse.xtext.Constants;
+import org.eclipse.xtext.common.types.JvmDeclaredType;
 import org.eclipse.xtext.common.types.access.impl.ClasspathTypeProvider;
 import org.eclipse.xtext.common.types.access.impl.IndexedJvmTypeAccess;
 import org.eclipse.xtext.common.types.descriptions.IStubGenerator;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.generator.GeneratorContext;
 import org.eclipse.xtext.generator.GeneratorDelegate;
+import org.eclipse.xtext.generator.IFileSystemAccess;
+import org.eclipse.xtext.generator.IFileSystemAccess2;
+import org.eclipse.xtext.generator.IGeneratorContext;
 import org.eclipse.xtext.generator.IOutputConfigurationProvider;
 import org.eclipse.xtext.generator.JavaIoFileSystemAccess;
 import org.eclipse.xtext.generator.OutputConfiguration;
 import org.eclipse.xtext.generator.OutputConfigurationAdapter;
+import org.eclipse.xtext.generator.trace.TraceFileNameProvider;
 import org.eclipse.xtext.mwe.NameBasedFilter;
 import org.eclipse.xtext.mwe.PathTraverser;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
 import org.eclipse.xtext.parser.IEncodingProvider;
 import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.resource.CompilerPhases;
 import org.eclipse.xtext.resource.FileExtensionProvider;
+import org.eclipse.xtext.resource.IEObjectDescription;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.SynchronizedXtextResourceSet;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.resource.XtextResourceSet;
 import org.eclipse.xtext.resource.impl.ResourceSetBasedResourceDescriptions;
+import org.eclipse.xtext.resource.persistence.SourceLevelURIsAdapter;
 import org.eclipse.xtext.resource.persistence.StorageAwareResource;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.util.Files;
 import org.eclipse.xtext.util.JavaVersion;
+import org.eclipse.xtext.util.RuntimeIOException;
 import org.eclipse.xtext.util.Strings;
 import org.eclipse.xtext.util.UriUtil;
 import org.eclipse.xtext.util.internal.AlternateJdkLoader;
@@ -67,17 +92,22 @@ import org.eclipse.xtext.validation.IResourceValidator;
 import org.eclipse.xtext.validation.Issue;
 import org.eclipse.xtext.workspace.FileProjectConfig;
 import org.eclipse.xtext.workspace.ProjectConfigAdapter;
-import org.eclipse.xtext.xbase.compiler.GeneratorConfig;
 import org.eclipse.xtext.xbase.compiler.GeneratorConfigProvider;
 import org.eclipse.xtext.xbase.resource.BatchLinkableResource;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.name.Named;
@@ -103,8 +133,79 @@ public class XtendBatchCompiler {
 		}
 	}
 
+	/**
+	 * Orders issues by severity, resource, line and offset so that the reported issues do not depend on the order in
+	 * which resources were loaded or validated.
+	 */
+	private final static class IssueComparator implements Comparator<Issue> {
+		private static final IssueComparator INSTANCE = new IssueComparator();
+
+		@Override
+		public int compare(Issue left, Issue right) {
+			int result = compareNullable(left.getSeverity(), right.getSeverity());
+			if (result == 0) {
+				result = compareNullable(uriString(left.getUriToProblem()), uriString(right.getUriToProblem()));
+			}
+			if (result == 0) {
+				result = compareNullable(left.getLineNumber(), right.getLineNumber());
+			}
+			if (result == 0) {
+				result = compareNullable(left.getOffset(), right.getOffset());
+			}
+			return result;
+		}
+
+		private String uriString(URI uri) {
+			return uri == null ? null : uri.trimFragment().toString();
+		}
+
+		private <T extends Comparable<T>> int compareNullable(T left, T right) {
+			if (left == right) {
+				return 0;
+			}
+			if (left == null) {
+				return 1;
+			}
+			if (right == null) {
+				return -1;
+			}
+			return left.compareTo(right);
+		}
+	}
+
+	/**
+	 * Records the files that are generated for a single resource.
+	 */
+	private final static class RecordingFileSystemAccess extends ForwardingFileSystemAccess {
+		private final Set<String> generatedFiles;
+
+		private RecordingFileSystemAccess(IFileSystemAccess2 delegate, Set<String> generatedFiles) {
+			super(delegate);
+			this.generatedFiles = generatedFiles;
+		}
+
+		@Override
+		public void generateFile(String fileName, String outputConfigurationName, CharSequence contents) {
+			generatedFiles.add(fileName);
+			super.generateFile(fileName, outputConfigurationName, contents);
+		}
+
+		@Override
+		public void generateFile(String fileName, String outputCfgName, InputStream content) {
+			generatedFiles.add(fileName);
+			super.generateFile(fileName, outputCfgName, content);
+		}
+	}
+
 	private static Logger log = Logger.getLogger(XtendBatchCompiler.class.getName());
 
+	/**
+	 * The name of the file in the output directory that holds the {@link BuildState state} of the previous build.
+	 * 
+	 * @since 2.11
+	 */
+	protected static final String BUILD_STATE_FILE_NAME = ".xtend.buildstate";
+
 	protected static final FileFilter ACCEPT_ALL_FILTER = new FileFilter() {
 		@Override
 		public boolean accept(File pathname) {
@@ -114,6 +215,8 @@ public class XtendBatchCompiler {
 
 	protected Provider<ResourceSet> resourceSetProvider;
 	@Inject
+	private Provider<SynchronizedXtextResourceSet> synchronizedResourceSetProvider;
+	@Inject
 	protected Provider<JavaIoFileSystemAccess> javaIoFileSystemAccessProvider;
 	@Inject
 	protected FileExtensionProvider fileExtensionProvider;
@@ -136,6 +239,10 @@ public class XtendBatchCompiler {
 	@Inject
 	private GeneratorConfigProvider generatorConfigProvider;
 	@Inject
+	private TraceFileNameProvider traceFileNameProvider;
+	@Inject
+	private ProcessorInstanceForJvmTypeProvider processorInstanceProvider;
+	@Inject
 	@Named(Constants.LANGUAGE_NAME)
 	private String languageName;
 
@@ -157,7 +264,53 @@ public class XtendBatchCompiler {
 	 * @since 2.8
 	 */
 	protected boolean writeStorageFiles = false;
-	private GeneratorConfig generatorConfig = new GeneratorConfig();
+	/**
+	 * @since 2.11
+	 */
+	protected int numberOfThreads = 1;
+	/**
+	 * @since 2.11
+	 */
+	protected boolean inMemoryStubCompilation = false;
+	/**
+	 * @since 2.11
+	 */
+	protected boolean incremental = false;
+	/**
+	 * @since 2.11
+	 */
+	protected boolean readStorageFiles = false;
+	/**
+	 * @since 2.11
+	 */
+	protected boolean useSharedJvmTypeCache = false;
+	/**
+	 * @since 2.11
+	 */
+	protected SharedJvmTypeCache sharedJvmTypeCache = SharedJvmTypeCache.getInstance();
+	/**
+	 * @since 2.11
+	 */
+	protected boolean parallelLoading = true;
+	/**
+	 * @since 2.11
+	 */
+	protected boolean discardNodeModels = false;
+	/**
+	 * @since 2.11
+	 */
+	protected String buildStateLocation;
+	/**
+	 * @since 2.11
+	 */
+	protected String reportFile;
+	/**
+	 * The number of files that are listed as the slowest ones in the compilation report.
+	 * 
+	 * @since 2.11
+	 */
+	protected int reportedSlowestFiles = 10;
+	private XtendGeneratorConfig generatorConfig = new XtendGeneratorConfig();
 	protected ClassLoader currentClassLoader = getClass().getClassLoader();
 
 	private URI baseURI;
@@ -166,6 +319,17 @@ public class XtendBatchCompiler {
 
 	private ClassLoader annotationProcessingClassLoader;
 
+	private Map<String, byte[]> inMemoryClasses = emptyMap();
+
+	/**
+	 * The resources that are validated and generated in an incremental build or <code>null</code> in a full build.
+	 */
+	private Set<URI> affectedResources;
+
+	private CompilationReport report = new CompilationReport(false, 0);
+
+	private final Map<URI, Set<String>> generatedFiles = new ConcurrentHashMap<URI, Set<String>>();
+
 	private FileProjectConfig projectConfig;
 
 	private OutputConfiguration outputConfiguration;
@@ -208,11 +372,219 @@ public class XtendBatchCompiler {
 		this.writeStorageFiles = writeStorageFiles;
 	}
 	
+	/**
+	 * @since 2.11
+	 */
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * The number of threads that are used to validate the resources once they have been resolved and to generate the
+	 * Java code for them. A value of <code>1</code> (the default) processes the resources sequentially on the current
+	 * thread. Resources are only processed in parallel if their resource set is a
+	 * {@link SynchronizedXtextResourceSet}. Before the workers start, all resources of the resource set, including
+	 * the JVM types they refer to, are resolved, see {@link #prepareParallelProcessing(ResourceSet)}.
+	 * 
+	 * @since 2.11
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive but was: " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isInMemoryStubCompilation() {
+		return inMemoryStubCompilation;
+	}
+
+	/**
+	 * Whether the Java stubs for the Xtend types and the Java sources are precompiled in memory. In that mode, no
+	 * temporary directories are used and the resulting bytecode is served directly to the JVM type provider.
+	 * 
+	 * @since 2.11
+	 */
+	public void setInMemoryStubCompilation(boolean inMemoryStubCompilation) {
+		this.inMemoryStubCompilation = inMemoryStubCompilation;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Whether the compiler persists the state of a successful build in the output directory and uses it in the next
+	 * run to recompile only the changed sources and the sources that depend on them. A change of the class path, the
+	 * Java sources or the compiler settings always leads to a full build.
+	 * 
+	 * @since 2.11
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isReadStorageFiles() {
+		return readStorageFiles;
+	}
+
+	/**
+	 * Whether the storage files of a previous build are used as a cache. Sources that did not change since the last
+	 * successful build and that do not depend on changed sources are loaded from their storage file instead of being
+	 * parsed and inferred again. Implies that storage files are written.
+	 * 
+	 * @since 2.11
+	 */
+	public void setReadStorageFiles(boolean readStorageFiles) {
+		this.readStorageFiles = readStorageFiles;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isUseSharedJvmTypeCache() {
+		return useSharedJvmTypeCache;
+	}
+
+	/**
+	 * Whether the JVM types of the JDK and of jar files are retained in the {@link #getSharedJvmTypeCache() shared
+	 * cache} across the compiler phases and across compilations. Has no effect if the current class loader is used as
+	 * the parent class loader. The active annotation processors in jar files are loaded by a class loader that is
+	 * shared in the same way, see {@link ProcessorInstanceForJvmTypeProvider#createSharedClassLoader(Iterable, ClassLoader)}.
+	 * 
+	 * @since 2.11
+	 */
+	public void setUseSharedJvmTypeCache(boolean useSharedJvmTypeCache) {
+		this.useSharedJvmTypeCache = useSharedJvmTypeCache;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public SharedJvmTypeCache getSharedJvmTypeCache() {
+		return sharedJvmTypeCache;
+	}
+
+	/**
+	 * The cache that retains the JVM types if {@link #setUseSharedJvmTypeCache(boolean) enabled}. Defaults to the
+	 * cache that is shared by all compilations in the VM. Hosts that run independent builds in the same VM pass a
+	 * cache per build, so no build sees the types that were retained by another one.
+	 * 
+	 * @since 2.11
+	 */
+	public void setSharedJvmTypeCache(SharedJvmTypeCache sharedJvmTypeCache) {
+		this.sharedJvmTypeCache = sharedJvmTypeCache;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isParallelLoading() {
+		return parallelLoading;
+	}
+
+	/**
+	 * Whether the Xtend sources are loaded and parsed concurrently if more than one {@link #setNumberOfThreads(int)
+	 * thread} is used. Set to <code>false</code> to fall back to loading them one after the other.
+	 * 
+	 * @since 2.11
+	 */
+	public void setParallelLoading(boolean parallelLoading) {
+		this.parallelLoading = parallelLoading;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isDiscardNodeModels() {
+		return discardNodeModels;
+	}
+
+	/**
+	 * Whether the node models of the sources are discarded once the Java code of all sources has been generated. The
+	 * generation of one source may read the node model of another one, e.g. to copy its documentation, so they are
+	 * discarded in a single pass afterwards. The issues of all sources have been reported at that point and the
+	 * generated trace regions only keep the offsets and line numbers of the source elements. The location of each
+	 * semantic element is retained in a {@link SourceLocationAdapter}, so the parsed text and the nodes are no longer
+	 * needed. This lowers the heap that is retained by the resource set, e.g. while the build state is recorded. The
+	 * generated code does not change.
+	 * 
+	 * @since 2.11
+	 */
+	public void setDiscardNodeModels(boolean discardNodeModels) {
+		this.discardNodeModels = discardNodeModels;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public String getBuildStateLocation() {
+		return buildStateLocation;
+	}
+
+	/**
+	 * The file that the state of an {@link #setIncremental(boolean) incremental} build is persisted to. Defaults to a
+	 * file in the output directory. If the state is kept elsewhere, e.g. in a build directory, the generated files are
+	 * checked for existence, so deleting the output directory still leads to a full build.
+	 * 
+	 * @since 2.11
+	 */
+	public void setBuildStateLocation(String buildStateLocation) {
+		this.buildStateLocation = buildStateLocation;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public String getReportFile() {
+		return reportFile;
+	}
+
+	/**
+	 * Enables the compilation report. The time, CPU time, allocated memory and number of resources per phase and the
+	 * slowest files are logged and written as JSON to the given file.
+	 * 
+	 * @param reportFile the path of the JSON file or <code>null</code> to disable the report
+	 * @since 2.11
+	 */
+	public void setReportFile(String reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * The resource sets of the compilations must be {@link SynchronizedXtextResourceSet synchronized} to be processed
+	 * by more than one thread, see {@link #setNumberOfThreads(int)}.
+	 */
 	@Inject
 	public void setResourceSetProvider(Provider<ResourceSet> resourceSetProvider) {
 		this.resourceSetProvider = resourceSetProvider;
 	}
 
+	/**
+	 * Creates the resource set of a compilation. If more than one {@link #setNumberOfThreads(int) thread} is used, a
+	 * plain {@link XtextResourceSet} is replaced by a {@link SynchronizedXtextResourceSet}, so that JVM types which
+	 * are first requested by a worker thread are loaded under the lock of the resource set. Other resource sets are
+	 * used as they are.
+	 * 
+	 * @since 2.11
+	 */
+	protected ResourceSet createResourceSet() {
+		ResourceSet resourceSet = resourceSetProvider.get();
+		if (getNumberOfThreads() > 1 && resourceSet.getClass() == XtextResourceSet.class) {
+			return synchronizedResourceSetProvider.get();
+		}
+		return resourceSet;
+	}
+
 	public boolean isDeleteTempDirectory() {
 		return deleteTempDirectory;
 	}
@@ -308,6 +680,58 @@ public class XtendBatchCompiler {
 		generatorConfig.setGeneratedAnnotationComment(generatedAnnotationComment);
 	}
 
+	/**
+	 * @since 2.11
+	 */
+	public boolean isConcurrentCreateExtensions() {
+		return generatorConfig.isConcurrentCreateExtensions();
+	}
+
+	/**
+	 * Whether create functions with one or two parameters use a lock-free concurrent cache.
+	 * 
+	 * @see XtendGeneratorConfig#isConcurrentCreateExtensions()
+	 * @since 2.11
+	 */
+	public void setConcurrentCreateExtensions(final boolean concurrentCreateExtensions) {
+		generatorConfig.setConcurrentCreateExtensions(concurrentCreateExtensions);
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public int getDispatchTableThreshold() {
+		return generatorConfig.getDispatchTableThreshold();
+	}
+
+	/**
+	 * The number of cases from which dispatch methods use a dispatch table. <code>0</code> disables
+	 * dispatch tables.
+	 * 
+	 * @see XtendGeneratorConfig#getDispatchTableThreshold()
+	 * @since 2.11
+	 */
+	public void setDispatchTableThreshold(final int dispatchTableThreshold) {
+		generatorConfig.setDispatchTableThreshold(dispatchTableThreshold);
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isCompactRichStrings() {
+		return generatorConfig.isCompactRichStrings();
+	}
+
+	/**
+	 * Whether template expressions are compiled to as few calls on the <code>StringConcatenation</code> as possible.
+	 * 
+	 * @see XtendGeneratorConfig#isCompactRichStrings()
+	 * @since 2.11
+	 */
+	public void setCompactRichStrings(final boolean compactRichStrings) {
+		generatorConfig.setCompactRichStrings(compactRichStrings);
+	}
+
 	/**
 	 * @since 2.8
 	 */
@@ -459,45 +883,144 @@ public class XtendBatchCompiler {
 	}
 
 	public boolean compile() {
+		ResourceSet resourceSet = null;
 		try {
 			if (!checkConfiguration()) {
 				return false;
 			}
-			ResourceSet resourceSet = resourceSetProvider.get();
+			resourceSet = createResourceSet();
 			if (!configureWorkspace(resourceSet)) {
 				return false;
 			}
 			generatorConfigProvider.install(resourceSet, generatorConfig);
-			File classDirectory = createTempDir("classes");
+			report = new CompilationReport(reportFile != null, reportedSlowestFiles);
+			report.start();
+			inMemoryClasses = emptyMap();
+			affectedResources = null;
+			generatedFiles.clear();
+			BuildState previousState = null;
+			Map<String, String> sourceHashes = null;
+			String configurationHash = null;
+			if (isIncremental() || isReadStorageFiles()) {
+				sourceHashes = computeSourceHashes();
+				configurationHash = computeConfigurationHash();
+				previousState = BuildState.load(getBuildStateFile());
+				if (previousState != null && !configurationHash.equals(previousState.getConfigurationHash())) {
+					log.info("The configuration has changed since the last build. A full build is performed.");
+					previousState = null;
+				}
+				if (previousState != null && hasMissingGeneratedFiles(previousState)) {
+					log.info("Files that were generated by the last build are missing. A full build is performed.");
+					previousState = null;
+				}
+				if (isIncremental() && previousState != null && previousState.getDeletedFiles(sourceHashes).isEmpty()
+						&& previousState.getAffectedFiles(sourceHashes, Collections.<String> emptySet()).isEmpty()) {
+					log.info("All Xtend sources are up-to-date.");
+					return true;
+				}
+			}
+			Set<URI> sourceLevelURIs = null;
+			if (isReadStorageFiles()) {
+				sourceLevelURIs = newLinkedHashSet();
+				Set<String> sources = previousState != null
+						? previousState.getAffectedFiles(sourceHashes, Collections.<String> emptySet())
+						: sourceHashes.keySet();
+				for (String uri : sources) {
+					sourceLevelURIs.add(URI.createURI(uri));
+				}
+				// all other sources are loaded from their storage files if these exist
+				SourceLevelURIsAdapter.setSourceLevelUris(resourceSet, sourceLevelURIs);
+			}
+			File classDirectory = isInMemoryStubCompilation() ? null : createTempDir("classes");
 			try {
 				compilerPhases.setIndexing(resourceSet, true);
 				// install a type provider without index lookup for the first phase
 				installJvmTypeProvider(resourceSet, classDirectory, true);
+				CompilationReport.Phase phase = report.startPhase("load");
 				loadXtendFiles(resourceSet);
-				File sourceDirectory = createStubs(resourceSet);
-				if (!preCompileStubs(sourceDirectory, classDirectory)) {
-					log.warn("Compilation of stubs had errors.");
+				if (sourceLevelURIs != null && previousState != null) {
+					reloadDependentsFromSource(resourceSet, previousState, sourceHashes, sourceLevelURIs);
 				}
-				if (!preCompileJava(sourceDirectory, classDirectory)) {
-					log.debug("Compilation of Java code against stubs had errors. This is expected and usually is not a probblem.");
+				phase.stop(countAffectedSources(resourceSet));
+				if (isInMemoryStubCompilation()) {
+					phase = report.startPhase("stubs");
+					Map<String, CharSequence> stubs = createInMemoryStubs(resourceSet);
+					phase.stop(stubs.size());
+					phase = report.startPhase("ecj in memory");
+					inMemoryClasses = preCompileInMemory(stubs);
+					phase.stop(inMemoryClasses.size());
+				} else {
+					phase = report.startPhase("stubs");
+					File sourceDirectory = createStubs(resourceSet);
+					phase.stop(countAffectedSources(resourceSet));
+					phase = report.startPhase("ecj stubs");
+					if (!preCompileStubs(sourceDirectory, classDirectory)) {
+						log.warn("Compilation of stubs had errors.");
+					}
+					phase.stop(countAffectedSources(resourceSet));
+					phase = report.startPhase("ecj java");
+					if (!preCompileJava(sourceDirectory, classDirectory)) {
+						log.debug("Compilation of Java code against stubs had errors. This is expected and usually is not a probblem.");
+					}
+					phase.stop(countAffectedSources(resourceSet));
 				}
 			} finally {
 				compilerPhases.setIndexing(resourceSet, false);
 			}
 			// install a fresh type provider for the second phase, so we clear all previously cached classes and misses.
 			installJvmTypeProvider(resourceSet, classDirectory, false);
-			EcoreUtil.resolveAll(resourceSet);
+			if (previousState != null && isIncremental()) {
+				// resources that were loaded from storage cannot be recompiled, so they are never considered affected
+				affectedResources = sourceLevelURIs != null ? sourceLevelURIs
+						: computeAffectedResources(resourceSet, previousState, sourceHashes);
+				log.info("Compiling " + affectedResources.size() + " of " + sourceHashes.size() + " Xtend sources incrementally.");
+			}
+			CompilationReport.Phase phase = report.startPhase("resolve");
+			if (affectedResources != null || sourceLevelURIs != null || report.isEnabled()) {
+				for (Resource resource : newArrayList(resourceSet.getResources())) {
+					if (isSourceFile(resource) && isAffected(resource)) {
+						long start = System.nanoTime();
+						EcoreUtil.resolveAll(resource);
+						report.recordFile(resource.getURI(), System.nanoTime() - start);
+					}
+				}
+			}
+			if (affectedResources == null && sourceLevelURIs == null) {
+				EcoreUtil.resolveAll(resourceSet);
+			}
+			phase.stop(countAffectedSources(resourceSet));
+			phase = report.startPhase("validate");
 			List<Issue> issues = validate(resourceSet);
+			phase.stop(countAffectedSources(resourceSet));
 			Iterable<Issue> errors = Iterables.filter(issues, SeverityFilter.ERROR);
 			Iterable<Issue> warnings = Iterables.filter(issues, SeverityFilter.WARNING);
 			reportIssues(Iterables.concat(errors, warnings));
 			if (!Iterables.isEmpty(errors)) {
 				return false;
 			}
+			phase = report.startPhase("generate");
 			generateJavaFiles(resourceSet);
+			phase.stop(countAffectedSources(resourceSet));
+			if (isIncremental() || isReadStorageFiles()) {
+				updateBuildState(resourceSet, previousState, sourceHashes, configurationHash);
+			}
 		} finally {
+			report.finish(reportFile != null ? new File(reportFile) : null);
+			report = new CompilationReport(false, 0);
+			if (log.isDebugEnabled()) {
+				log.debug("Processor class loaders in this VM: " + processorInstanceProvider.getLoadedClassLoaders()
+						+ " loaded, " + processorInstanceProvider.getReusedClassLoaders() + " reused. Processor instances: "
+						+ processorInstanceProvider.getCreatedProcessorInstances() + " created, "
+						+ processorInstanceProvider.getReusedProcessorInstances() + " reused.");
+			}
+			if (resourceSet != null && isUseSharedJvmTypeCache()) {
+				getSharedJvmTypeCache().release(resourceSet);
+			}
 			destroyClassLoader(jvmTypesClassLoader);
 			destroyClassLoader(annotationProcessingClassLoader);
+			inMemoryClasses = emptyMap();
+			affectedResources = null;
+			generatedFiles.clear();
 			if (isDeleteTempDirectory()) {
 				deleteTmpFolders();
 			}
@@ -507,6 +1030,252 @@ public class XtendBatchCompiler {
 	
 	
 
+	/**
+	 * @since 2.11
+	 */
+	protected File getBuildStateFile() {
+		if (buildStateLocation != null) {
+			return new File(buildStateLocation);
+		}
+		return new File(getOutputPathFile(), BUILD_STATE_FILE_NAME);
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	protected boolean hasMissingGeneratedFiles(BuildState state) {
+		for (BuildState.FileState fileState : state.getFiles().values()) {
+			for (String generated : fileState.getGeneratedFiles()) {
+				if (!new File(getOutputPathFile(), generated).exists()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the content hashes of all Xtend source files keyed by their URI.
+	 * @since 2.11
+	 */
+	protected Map<String, String> computeSourceHashes() {
+		Map<String, String> result = newLinkedHashMap();
+		for (URI uri : collectXtendFiles()) {
+			result.put(uri.toString(), hash(new File(uri.toFileString())));
+		}
+		return result;
+	}
+
+	/**
+	 * Computes a hash over everything besides the Xtend sources that influences the result of the compilation: the
+	 * compiler settings, the class path and the Java sources in the source directories.
+	 * 
+	 * @since 2.11
+	 */
+	protected String computeConfigurationHash() {
+		Hasher hasher = Hashing.md5().newHasher();
+		putString(hasher, String.valueOf(getJavaSourceVersion()));
+		hasher.putBoolean(isGenerateSyntheticSuppressWarnings());
+		hasher.putBoolean(isGenerateGeneratedAnnotation());
+		hasher.putBoolean(isIncludeDateInGeneratedAnnotation());
+		putString(hasher, String.valueOf(getGeneratedAnnotationComment()));
+		hasher.putBoolean(isConcurrentCreateExtensions());
+		hasher.putInt(getDispatchTableThreshold());
+		hasher.putBoolean(isCompactRichStrings());
+		hasher.putBoolean(isWriteTraceFiles());
+		hasher.putBoolean(isWriteStorageFiles());
+		hasher.putBoolean(isReadStorageFiles());
+		putString(hasher, String.valueOf(getFileEncoding()));
+		putString(hasher, String.valueOf(sourcePath));
+		putString(hasher, String.valueOf(bootClassPath));
+		for (String entry : getClassPathEntries()) {
+			hashFileStamps(new File(entry), hasher);
+		}
+		for (String javaFile : getJavaSourceFiles()) {
+			putString(hasher, javaFile);
+			putString(hasher, hash(new File(javaFile)));
+		}
+		return hasher.hash().toString();
+	}
+
+	private void putString(Hasher hasher, String value) {
+		hasher.putBytes(value.getBytes(Charsets.UTF_8));
+	}
+
+	private void hashFileStamps(File file, Hasher hasher) {
+		putString(hasher, file.getPath());
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				Arrays.sort(children);
+				for (File child : children) {
+					hashFileStamps(child, hasher);
+				}
+			}
+		} else {
+			hasher.putLong(file.length());
+			hasher.putLong(file.lastModified());
+		}
+	}
+
+	private String hash(File file) {
+		try {
+			return com.google.common.io.Files.hash(file, Hashing.md5()).toString();
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+	}
+
+	/**
+	 * Computes the resources that have to be validated and generated in an incremental build, based on the names
+	 * that are exported by the changed resources in their previous and their current version.
+	 * 
+	 * @since 2.11
+	 */
+	protected Set<URI> computeAffectedResources(ResourceSet resourceSet, BuildState previousState,
+			Map<String, String> sourceHashes) {
+		Set<String> changed = previousState.getAffectedFiles(sourceHashes, Collections.<String> emptySet());
+		Set<String> exportedNames = newHashSet();
+		for (Resource resource : newArrayList(resourceSet.getResources())) {
+			if (changed.contains(resource.getURI().toString())) {
+				exportedNames.addAll(getExportedNames(resourceDescriptionManager.getResourceDescription(resource)));
+			}
+		}
+		Set<URI> result = newLinkedHashSet();
+		for (String uri : previousState.getAffectedFiles(sourceHashes, exportedNames)) {
+			result.add(URI.createURI(uri));
+		}
+		return result;
+	}
+
+	/**
+	 * The names that are exported by the changed sources in their current version are only known after these have been
+	 * loaded. Their dependents have been loaded from storage files that were linked against the previous version, so
+	 * they are reloaded from source and added to the given source level URIs.
+	 * 
+	 * @since 2.11
+	 */
+	protected void reloadDependentsFromSource(ResourceSet resourceSet, BuildState previousState,
+			Map<String, String> sourceHashes, Set<URI> sourceLevelURIs) {
+		Set<URI> dependents = computeAffectedResources(resourceSet, previousState, sourceHashes);
+		dependents.removeAll(sourceLevelURIs);
+		if (dependents.isEmpty()) {
+			return;
+		}
+		sourceLevelURIs.addAll(dependents);
+		SourceLevelURIsAdapter.setSourceLevelUris(resourceSet, sourceLevelURIs);
+		for (URI uri : dependents) {
+			Resource resource = resourceSet.getResource(uri, false);
+			if (resource != null) {
+				if (log.isDebugEnabled()) {
+					log.debug("reload xtend file '" + uri + "' from source");
+				}
+				resource.unload();
+				try {
+					resource.load(resourceSet.getLoadOptions());
+				} catch (IOException e) {
+					throw new RuntimeIOException(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	protected boolean isAffected(Resource resource) {
+		return affectedResources == null || affectedResources.contains(resource.getURI());
+	}
+
+	/**
+	 * @return the number of Xtend sources that are compiled, i.e. without the resources of the referenced JVM types.
+	 */
+	private int countAffectedSources(ResourceSet resourceSet) {
+		int result = 0;
+		for (Resource resource : newArrayList(resourceSet.getResources())) {
+			if (isSourceFile(resource) && isAffected(resource)) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Records the state of this successful build and deletes the generated files of removed sources as well as the
+	 * files that are no longer generated for the recompiled sources.
+	 * 
+	 * @since 2.11
+	 */
+	protected void updateBuildState(ResourceSet resourceSet, BuildState previousState, Map<String, String> sourceHashes,
+			String configurationHash) {
+		BuildState state = new BuildState(configurationHash);
+		Set<String> staleFiles = newHashSet();
+		if (previousState != null) {
+			for (String deleted : previousState.getDeletedFiles(sourceHashes)) {
+				staleFiles.addAll(previousState.getFiles().get(deleted).getGeneratedFiles());
+			}
+		}
+		for (Resource resource : newArrayList(resourceSet.getResources())) {
+			String uri = resource.getURI().toString();
+			String hash = sourceHashes.get(uri);
+			if (hash == null) {
+				continue;
+			}
+			BuildState.FileState previous = previousState != null ? previousState.getFiles().get(uri) : null;
+			if ((!isAffected(resource) || !isSourceFile(resource)) && previous != null) {
+				state.getFiles().put(uri, previous);
+				continue;
+			}
+			IResourceDescription description = resourceDescriptionManager.getResourceDescription(resource);
+			Set<String> importedNames = newHashSet();
+			for (QualifiedName importedName : description.getImportedNames()) {
+				importedNames.add(normalizeName(importedName));
+			}
+			Set<String> generated = generatedFiles.get(resource.getURI());
+			generated = generated != null ? newHashSet(generated) : Sets.<String> newHashSet();
+			if (previous != null) {
+				staleFiles.addAll(Sets.difference(previous.getGeneratedFiles(), generated));
+			}
+			state.getFiles().put(uri, new BuildState.FileState(hash, getExportedNames(description), importedNames, generated));
+		}
+		for (String staleFile : staleFiles) {
+			deleteGeneratedFile(staleFile);
+		}
+		try {
+			state.save(getBuildStateFile());
+		} catch (IOException e) {
+			log.warn("Cannot write the build state to '" + getBuildStateFile() + "'", e);
+		}
+	}
+
+	private Set<String> getExportedNames(IResourceDescription description) {
+		Set<String> result = newHashSet();
+		for (IEObjectDescription exported : description.getExportedObjects()) {
+			result.add(normalizeName(exported.getName()));
+		}
+		return result;
+	}
+
+	private String normalizeName(QualifiedName name) {
+		return name.toString().toLowerCase().replace('$', '.');
+	}
+
+	/**
+	 * Deletes a previously generated file and its trace file.
+	 * 
+	 * @since 2.11
+	 */
+	protected void deleteGeneratedFile(String relativePath) {
+		File file = new File(getOutputPathFile(), relativePath);
+		if (log.isDebugEnabled()) {
+			log.debug("delete stale file '" + file + "'");
+		}
+		file.delete();
+		if (relativePath.endsWith(".java")) {
+			new File(file.getParentFile(), traceFileNameProvider.getTraceFromJava(file.getName())).delete();
+		}
+	}
+
 	/**
 	 * @since 2.8
 	 */
@@ -552,6 +1321,69 @@ public class XtendBatchCompiler {
 
 	protected ResourceSet loadXtendFiles(final ResourceSet resourceSet) {
 		encodingProvider.setDefaultEncoding(getFileEncoding());
+		List<URI> uris = collectXtendFiles();
+		if (getNumberOfThreads() > 1 && isParallelLoading() && uris.size() > 1) {
+			loadXtendFilesInParallel(resourceSet, uris);
+			return resourceSet;
+		}
+		for (URI uri : uris) {
+			if (log.isDebugEnabled()) {
+				log.debug("load xtend file '" + uri + "'");
+			}
+			resourceSet.getResource(uri, true);
+		}
+		return resourceSet;
+	}
+
+	/**
+	 * Attaches the resources for the given URIs to the resource set in the given order and loads them with a pool of
+	 * {@link #getNumberOfThreads() worker threads}. Loading a resource only parses its own content, so the resources
+	 * can be loaded independently of each other.
+	 * 
+	 * @since 2.11
+	 */
+	protected void loadXtendFilesInParallel(final ResourceSet resourceSet, List<URI> uris) {
+		List<Resource> resources = Lists.newArrayListWithCapacity(uris.size());
+		for (URI uri : uris) {
+			if (log.isDebugEnabled()) {
+				log.debug("load xtend file '" + uri + "'");
+			}
+			Resource resource = resourceSet.getResource(uri, false);
+			if (resource == null) {
+				resource = resourceSet.createResource(uri);
+				if (resource == null) {
+					throw new IllegalStateException("Cannot create a resource for '" + uri + "'");
+				}
+			}
+			resources.add(resource);
+		}
+		ExecutorService executor = createExecutorService("xtend-loading", resources.size());
+		try {
+			List<Future<?>> results = Lists.newArrayListWithCapacity(resources.size());
+			for (final Resource resource : resources) {
+				results.add(executor.submit(report.measureWorker(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						if (!resource.isLoaded()) {
+							resource.load(resourceSet.getLoadOptions());
+						}
+						return null;
+					}
+				})));
+			}
+			for (Future<?> result : results) {
+				getResult(result);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the URIs of the Xtend files in the source directories.
+	 * @since 2.11
+	 */
+	protected List<URI> collectXtendFiles() {
 		final NameBasedFilter nameBasedFilter = new NameBasedFilter();
 		nameBasedFilter.setExtension(fileExtensionProvider.getPrimaryFileExtension());
 		PathTraverser pathTraverser = new PathTraverser();
@@ -563,15 +1395,11 @@ public class XtendBatchCompiler {
 				return matches;
 			}
 		});
+		List<URI> result = Lists.newArrayList();
 		for (String src : pathes.keySet()) {
-			for (URI uri : pathes.get(src)) {
-				if (log.isDebugEnabled()) {
-					log.debug("load xtend file '" + uri + "'");
-				}
-				resourceSet.getResource(uri, true);
-			}
+			result.addAll(pathes.get(src));
 		}
-		return resourceSet;
+		return result;
 	}
 
 	@Deprecated
@@ -592,6 +1420,87 @@ public class XtendBatchCompiler {
 		return outputDirectory;
 	}
 
+	/**
+	 * Generates the Java stubs for the Xtend types into memory.
+	 * 
+	 * @return the source code of the stubs keyed by the relative path of the Java file.
+	 * @since 2.11
+	 */
+	protected Map<String, CharSequence> createInMemoryStubs(ResourceSet resourceSet) {
+		final Map<String, CharSequence> stubs = newLinkedHashMap();
+		IFileSystemAccess fileSystemAccess = new IFileSystemAccess() {
+			@Override
+			public void generateFile(String fileName, CharSequence contents) {
+				stubs.put(fileName, contents);
+			}
+
+			@Override
+			public void generateFile(String fileName, String outputConfigurationName, CharSequence contents) {
+				stubs.put(fileName, contents);
+			}
+
+			@Override
+			public void deleteFile(String fileName) {
+				stubs.remove(fileName);
+			}
+		};
+		List<Resource> resources = Lists.newArrayList(resourceSet.getResources());
+		for (Resource resource : resources) {
+			IResourceDescription description = resourceDescriptionManager.getResourceDescription(resource);
+			stubGenerator.doGenerateStubs(fileSystemAccess, description);
+		}
+		return stubs;
+	}
+
+	/**
+	 * Compiles the given stubs and afterwards the Java sources of the source directories against them. Mirrors
+	 * {@link #preCompileStubs(File, File)} and {@link #preCompileJava(File, File)} but keeps the sources and the
+	 * bytecode in memory.
+	 * 
+	 * @return the bytecode of the stubs and the Java classes keyed by their binary name.
+	 * @since 2.11
+	 */
+	protected Map<String, byte[]> preCompileInMemory(Map<String, CharSequence> stubs) {
+		Map<String, byte[]> stubClasses = newHashMap();
+		Map<String, byte[]> result = newHashMap();
+		ClassLoader classpath = createClassLoader(transform(getClassPathEntries(), TO_FILE), getParentClassLoader());
+		try {
+			InMemoryStubCompiler compiler = new InMemoryStubCompiler(classpath, getJavaSourceVersion(),
+					encodingProvider.getDefaultEncoding());
+			Map<String, byte[]> noClasses = emptyMap();
+			if (!compiler.compile(stubs, Collections.<String> emptyList(), noClasses, stubClasses)) {
+				log.warn("Compilation of stubs had errors.");
+			}
+			result.putAll(stubClasses);
+			if (!compiler.compile(Collections.<String, CharSequence> emptyMap(), getJavaSourceFiles(), stubClasses, result)) {
+				log.debug("Compilation of Java code against stubs had errors. This is expected and usually is not a probblem.");
+			}
+		} finally {
+			destroyClassLoader(classpath);
+		}
+		return result;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	protected List<String> getJavaSourceFiles() {
+		PathTraverser pathTraverser = new PathTraverser();
+		Multimap<String, URI> pathes = pathTraverser.resolvePathes(getSourcePathDirectories(), new Predicate<URI>() {
+			@Override
+			public boolean apply(URI input) {
+				return "java".equals(input.fileExtension());
+			}
+		});
+		List<String> result = Lists.newArrayList();
+		for (URI uri : pathes.values()) {
+			if (uri.isFile()) {
+				result.add(uri.toFileString());
+			}
+		}
+		return result;
+	}
+
 	protected boolean preCompileStubs(File tmpSourceDirectory, File classDirectory) {
 		return preCompile(tmpSourceDirectory, singletonList(tmpSourceDirectory.toString()), getClassPathEntries());
 	}	
@@ -659,20 +1568,136 @@ public class XtendBatchCompiler {
 	}
 
 	protected List<Issue> validate(ResourceSet resourceSet) {
+		List<Resource> resources = Lists.newArrayList();
+		for (Resource resource : resourceSet.getResources()) {
+			if (isAffected(resource)) {
+				resources.add(resource);
+			}
+		}
+		if (getNumberOfThreads() > 1 && resources.size() > 1 && canProcessInParallel(resourceSet)) {
+			prepareParallelProcessing(resourceSet);
+			return validateInParallel(resources);
+		}
 		List<Issue> issues = Lists.newArrayList();
-		List<Resource> resources = Lists.newArrayList(resourceSet.getResources());
 		for (Resource resource : resources) {
-			IResourceServiceProvider resourceServiceProvider = IResourceServiceProvider.Registry.INSTANCE
-					.getResourceServiceProvider(resource.getURI());
-			if (resourceServiceProvider != null && isSourceFile(resource)) {
-				IResourceValidator resourceValidator = resourceServiceProvider.getResourceValidator();
-				List<Issue> result = resourceValidator.validate(resource, CheckMode.ALL, null);
-				addAll(issues, result);
-			}
+			addAll(issues, validate(resource));
 		}
 		return issues;
 	}
 
+	/**
+	 * Worker threads may still load JVM types that were not referenced before, e.g. while a validation rule looks up
+	 * a type by its name. This is only safe if the resource set serializes these requests.
+	 * 
+	 * @return <code>true</code> if the resources of the given resource set can be processed by several threads.
+	 * @since 2.11
+	 */
+	protected boolean canProcessInParallel(ResourceSet resourceSet) {
+		if (resourceSet instanceof SynchronizedXtextResourceSet) {
+			return true;
+		}
+		log.debug("The resource set does not synchronize access to its resources. The resources are processed sequentially.");
+		return false;
+	}
+
+	/**
+	 * Resolves all resources of the resource set, including the JVM types that are loaded while doing so, and
+	 * computes the lazily built feature caches of all JVM types. The worker threads thus find a fully resolved model
+	 * and do not modify the shared JVM types when they look up their features. Resolving a resource may load further
+	 * resources, which are appended to the resource set and processed in the same pass. Types that are served by the
+	 * {@link SharedJvmTypeCache} are not part of the resource set; the cache prepares them in the same way before it
+	 * hands them out.
+	 * 
+	 * @since 2.11
+	 */
+	protected void prepareParallelProcessing(ResourceSet resourceSet) {
+		List<Resource> resources = resourceSet.getResources();
+		for (int i = 0; i < resources.size(); i++) {
+			Resource resource = resources.get(i);
+			EcoreUtil.resolveAll(resource);
+			TreeIterator<EObject> iterator = resource.getAllContents();
+			while (iterator.hasNext()) {
+				EObject next = iterator.next();
+				if (next instanceof JvmDeclaredType) {
+					JvmDeclaredType type = (JvmDeclaredType) next;
+					type.getAllFeatures();
+					type.findAllFeaturesByName(type.getSimpleName());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Validates the given, already resolved resources with a pool of {@link #getNumberOfThreads() worker threads}. The
+	 * issues are returned in the order of the given resources.
+	 * 
+	 * @since 2.11
+	 */
+	protected List<Issue> validateInParallel(List<Resource> resources) {
+		ExecutorService executor = createExecutorService("xtend-validation", resources.size());
+		try {
+			List<Future<List<Issue>>> results = Lists.newArrayListWithCapacity(resources.size());
+			for (final Resource resource : resources) {
+				results.add(executor.submit(report.measureWorker(new Callable<List<Issue>>() {
+					@Override
+					public List<Issue> call() throws Exception {
+						return validate(resource);
+					}
+				})));
+			}
+			List<Issue> issues = Lists.newArrayList();
+			for (Future<List<Issue>> result : results) {
+				issues.addAll(getResult(result));
+			}
+			return issues;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	protected List<Issue> validate(Resource resource) {
+		IResourceServiceProvider resourceServiceProvider = IResourceServiceProvider.Registry.INSTANCE
+				.getResourceServiceProvider(resource.getURI());
+		if (resourceServiceProvider != null && isSourceFile(resource)) {
+			IResourceValidator resourceValidator = resourceServiceProvider.getResourceValidator();
+			long start = System.nanoTime();
+			try {
+				return resourceValidator.validate(resource, CheckMode.ALL, null);
+			} finally {
+				report.recordFile(resource.getURI(), System.nanoTime() - start);
+			}
+		}
+		return emptyList();
+	}
+
+	/**
+	 * Creates the executor for a parallel compilation phase. Never uses more threads than there is work for.
+	 * 
+	 * @since 2.11
+	 */
+	protected ExecutorService createExecutorService(String name, int numberOfTasks) {
+		int threads = Math.max(1, Math.min(getNumberOfThreads(), numberOfTasks));
+		return Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build());
+	}
+
+	/**
+	 * Waits for the given result and rethrows the failure of the computation unwrapped.
+	 */
+	private <T> T getResult(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+
 	/**
 	 * @since 2.8
 	 */
@@ -711,8 +1736,10 @@ public class XtendBatchCompiler {
 	 * Performs the actual installation of the JvmTypeProvider.
 	 */
 	private void internalInstallJvmTypeProvider(ResourceSet resourceSet, File tmpClassDirectory, boolean skipIndexLookup) {
-		Iterable<String> classPathEntries = concat(getClassPathEntries(), getSourcePathDirectories(),
-				asList(tmpClassDirectory.toString()));
+		Iterable<String> classPathEntries = concat(getClassPathEntries(), getSourcePathDirectories());
+		if (tmpClassDirectory != null) {
+			classPathEntries = concat(classPathEntries, asList(tmpClassDirectory.toString()));
+		}
 		classPathEntries = filter(classPathEntries, new Predicate<String>() {
 			@Override
 			public boolean apply(String input) {
@@ -724,26 +1751,45 @@ public class XtendBatchCompiler {
 		if (log.isDebugEnabled()) {
 			log.debug("classpath used for Xtend compilation : " + classpath);
 		}
-		ClassLoader parentClassLoader;
-		if (useCurrentClassLoaderAsParent) {
-			parentClassLoader = currentClassLoader;
-		} else {
-			if (isEmpty(bootClassPath)) {
-				parentClassLoader = ClassLoader.getSystemClassLoader().getParent();
-			} else {
-				Iterable<File> bootClassPathEntries = transform(getBootClassPathEntries(), TO_FILE);
-				parentClassLoader = new AlternateJdkLoader(bootClassPathEntries);
-			}
+		jvmTypesClassLoader = createClassLoader(classpath, getParentClassLoader());
+		if (!inMemoryClasses.isEmpty()) {
+			jvmTypesClassLoader = new InMemoryClassLoader(inMemoryClasses, jvmTypesClassLoader);
 		}
-		jvmTypesClassLoader = createClassLoader(classpath, parentClassLoader);
 		new ClasspathTypeProvider(jvmTypesClassLoader, resourceSet, skipIndexLookup ? null : indexedJvmTypeAccess, null);
 		((XtextResourceSet) resourceSet).setClasspathURIContext(jvmTypesClassLoader);
+		if (isUseSharedJvmTypeCache() && !useCurrentClassLoaderAsParent) {
+			getSharedJvmTypeCache().install(resourceSet, jvmTypesClassLoader, classpath,
+					Strings.emptyIfNull(bootClassPath), new Callable<ClassLoader>() {
+						@Override
+						public ClassLoader call() throws Exception {
+							return getParentClassLoader();
+						}
+					});
+		}
 
 		// for annotation processing we need to have the compiler's classpath as a parent.
-		annotationProcessingClassLoader = createClassLoader(classpath, currentClassLoader);
+		if (isUseSharedJvmTypeCache()) {
+			annotationProcessingClassLoader = processorInstanceProvider.createSharedClassLoader(classpath, currentClassLoader);
+		} else {
+			annotationProcessingClassLoader = createClassLoader(classpath, currentClassLoader);
+		}
+		if (!inMemoryClasses.isEmpty()) {
+			annotationProcessingClassLoader = new InMemoryClassLoader(inMemoryClasses, annotationProcessingClassLoader);
+		}
 		resourceSet.eAdapters().add(new ProcessorInstanceForJvmTypeProvider.ProcessorClassloaderAdapter(annotationProcessingClassLoader));
 	}
 	
+	private ClassLoader getParentClassLoader() {
+		if (useCurrentClassLoaderAsParent) {
+			return currentClassLoader;
+		}
+		if (isEmpty(bootClassPath)) {
+			return ClassLoader.getSystemClassLoader().getParent();
+		}
+		Iterable<File> bootClassPathEntries = transform(getBootClassPathEntries(), TO_FILE);
+		return new AlternateJdkLoader(bootClassPathEntries);
+	}
+
 	private static final Function<String, File> TO_FILE = new Function<String, File>() {
 		@Override
 		public File apply(String from) {
@@ -771,7 +1817,9 @@ public class XtendBatchCompiler {
 	}
 
 	protected void reportIssues(Iterable<Issue> issues) {
-		for (Issue issue : issues) {
+		List<Issue> sortedIssues = newArrayList(issues);
+		sort(sortedIssues, IssueComparator.INSTANCE);
+		for (Issue issue : sortedIssues) {
 			StringBuilder issueBuilder = createIssueMessage(issue);
 			if (Severity.ERROR == issue.getSeverity()) {
 				log.error(issueBuilder.toString());
@@ -803,15 +1851,102 @@ public class XtendBatchCompiler {
 
 		GeneratorContext context = new GeneratorContext();
 		context.setCancelIndicator(CancelIndicator.NullImpl);
+		List<Resource> sourceResources = Lists.newArrayList();
 		for (Resource resource : newArrayList(resourceSet.getResources())) {
-			if (isSourceFile(resource)) {
-				if (isWriteStorageFiles()) {
-					StorageAwareResource storageAwareResource = (StorageAwareResource)resource;
-					storageAwareResource.getResourceStorageFacade().saveResource(storageAwareResource, javaIoFileSystemAccess);
-				}
-				generator.generate(resource, javaIoFileSystemAccess, context);
+			if (isSourceFile(resource) && isAffected(resource)) {
+				sourceResources.add(resource);
+			}
+		}
+		if (getNumberOfThreads() > 1 && sourceResources.size() > 1 && canProcessInParallel(resourceSet)) {
+			// the validation may have been skipped or run sequentially, so make sure the workers find a resolved model
+			prepareParallelProcessing(resourceSet);
+			generateJavaFilesInParallel(sourceResources, javaIoFileSystemAccess, context);
+		} else {
+			for (Resource resource : sourceResources) {
+				generateJavaFiles(resource, javaIoFileSystemAccess, context);
+			}
+		}
+		if (isDiscardNodeModels()) {
+			for (Resource resource : sourceResources) {
+				discardNodeModel(resource);
+			}
+		}
+	}
+
+	/**
+	 * Runs the generator for the given source resources on a pool of {@link #getNumberOfThreads() worker threads}.
+	 * The produced files are written to disk by a separate writer thread so that the code generation overlaps with
+	 * the file I/O.
+	 * 
+	 * @since 2.11
+	 */
+	protected void generateJavaFilesInParallel(List<Resource> sourceResources, IFileSystemAccess2 fileSystemAccess,
+			final IGeneratorContext context) {
+		final QueuedFileSystemAccess queuedFileSystemAccess = new QueuedFileSystemAccess(fileSystemAccess,
+				Math.max(16, getNumberOfThreads() * 4));
+		queuedFileSystemAccess.start();
+		ExecutorService executor = createExecutorService("xtend-generator", sourceResources.size());
+		try {
+			List<Future<?>> results = Lists.newArrayListWithCapacity(sourceResources.size());
+			for (final Resource resource : sourceResources) {
+				results.add(executor.submit(report.measureWorker(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						generateJavaFiles(resource, queuedFileSystemAccess, context);
+						return null;
+					}
+				})));
+			}
+			for (Future<?> result : results) {
+				getResult(result);
+			}
+		} finally {
+			executor.shutdownNow();
+			queuedFileSystemAccess.awaitTermination();
+		}
+	}
+
+	/**
+	 * Generates the Java code and the optional storage file for a single source resource.
+	 * 
+	 * @since 2.11
+	 */
+	protected void generateJavaFiles(Resource resource, IFileSystemAccess2 fileSystemAccess, IGeneratorContext context) {
+		if (isIncremental() || isReadStorageFiles()) {
+			Set<String> generated = Collections.synchronizedSet(Sets.<String> newHashSet());
+			generatedFiles.put(resource.getURI(), generated);
+			fileSystemAccess = new RecordingFileSystemAccess(fileSystemAccess, generated);
+		}
+		if (isWriteStorageFiles() || isReadStorageFiles()) {
+			StorageAwareResource storageAwareResource = (StorageAwareResource)resource;
+			storageAwareResource.getResourceStorageFacade().saveResource(storageAwareResource, fileSystemAccess);
+		}
+		long start = System.nanoTime();
+		generator.generate(resource, fileSystemAccess, context);
+		report.recordFile(resource.getURI(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Detaches the node model from the semantic elements of the given resource and drops its parse result, so that
+	 * the nodes and the parsed text can be garbage collected. The location of each semantic element is kept in a
+	 * {@link SourceLocationAdapter}. Must not be called before the Java code of all sources has been generated.
+	 * 
+	 * @since 2.11
+	 */
+	protected void discardNodeModel(Resource resource) {
+		if (!(resource instanceof XtextResource) || ((XtextResource) resource).getParseResult() == null) {
+			return;
+		}
+		TreeIterator<EObject> iterator = resource.getAllContents();
+		while (iterator.hasNext()) {
+			EObject next = iterator.next();
+			ICompositeNode node = NodeModelUtils.getNode(next);
+			if (node instanceof Adapter) {
+				next.eAdapters().remove(node);
+				next.eAdapters().add(new SourceLocationAdapter(node.getTextRegionWithLineInformation()));
 			}
 		}
+		((XtextResource) resource).setParseResult(null);
 	}
 
 	protected ResourceSetBasedResourceDescriptions getResourceDescriptions(ResourceSet resourceSet) {
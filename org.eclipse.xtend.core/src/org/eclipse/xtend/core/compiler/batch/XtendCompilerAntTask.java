@@ -24,6 +24,19 @@ public class XtendCompilerAntTask extends Java {
 
 	private Path srcdir;
 	private String encoding;
+	private Integer numberOfThreads;
+	private boolean inMemoryStubs;
+	private boolean incremental;
+	private boolean readStorageFiles;
+	private boolean sharedTypeCache;
+	private boolean concurrentCreateExtensions;
+	private Integer dispatchTableThreshold;
+	private boolean compactRichStrings;
+	private boolean parallelLoading = true;
+	private boolean discardNodeModels;
+	private File report;
+	private File buildState;
+	private Integer daemonPort;
 
 	@Override
 	public void execute() throws BuildException {
@@ -69,6 +82,50 @@ public class XtendCompilerAntTask extends Java {
 			createArg().setValue("-encoding");
 			createArg().setValue(getEncoding());
 		}
+		if (getNumberOfThreads() != null) {
+			createArg().setValue("-numberOfThreads");
+			createArg().setValue(getNumberOfThreads().toString());
+		}
+		if (isInMemoryStubs()) {
+			createArg().setValue("-inMemoryStubs");
+		}
+		if (isIncremental()) {
+			createArg().setValue("-incremental");
+		}
+		if (isReadStorageFiles()) {
+			createArg().setValue("-readStorageFiles");
+		}
+		if (getBuildState() != null) {
+			createArg().setValue("-buildState");
+			createArg().setValue(getBuildState().getAbsolutePath());
+		}
+		if (getReport() != null) {
+			createArg().setValue("-report");
+			createArg().setValue(getReport().getAbsolutePath());
+		}
+		if (!isParallelLoading()) {
+			createArg().setValue("-noParallelLoading");
+		}
+		if (isDiscardNodeModels()) {
+			createArg().setValue("-discardNodeModels");
+		}
+		if (isSharedTypeCache()) {
+			createArg().setValue("-sharedTypeCache");
+		}
+		if (isConcurrentCreateExtensions()) {
+			createArg().setValue("-concurrentCreateExtensions");
+		}
+		if (getDispatchTableThreshold() != null) {
+			createArg().setValue("-dispatchTableThreshold");
+			createArg().setValue(getDispatchTableThreshold().toString());
+		}
+		if (isCompactRichStrings()) {
+			createArg().setValue("-compactRichStrings");
+		}
+		if (getDaemonPort() != null) {
+			createArg().setValue("-daemonPort");
+			createArg().setValue(getDaemonPort().toString());
+		}
 	}
 
 	private void validateArgs() {
@@ -119,6 +176,188 @@ public class XtendCompilerAntTask extends Java {
 		this.encoding = encoding;
 	}
 
+	/**
+	 * @since 2.11
+	 */
+	public Integer getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setNumberOfThreads(Integer numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isInMemoryStubs() {
+		return inMemoryStubs;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setInMemoryStubs(boolean inMemoryStubs) {
+		this.inMemoryStubs = inMemoryStubs;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isReadStorageFiles() {
+		return readStorageFiles;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setReadStorageFiles(boolean readStorageFiles) {
+		this.readStorageFiles = readStorageFiles;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public File getReport() {
+		return report;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setReport(File report) {
+		this.report = report;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public File getBuildState() {
+		return buildState;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setBuildState(File buildState) {
+		this.buildState = buildState;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isParallelLoading() {
+		return parallelLoading;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setParallelLoading(boolean parallelLoading) {
+		this.parallelLoading = parallelLoading;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isDiscardNodeModels() {
+		return discardNodeModels;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setDiscardNodeModels(boolean discardNodeModels) {
+		this.discardNodeModels = discardNodeModels;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isSharedTypeCache() {
+		return sharedTypeCache;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setSharedTypeCache(boolean sharedTypeCache) {
+		this.sharedTypeCache = sharedTypeCache;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isConcurrentCreateExtensions() {
+		return concurrentCreateExtensions;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setConcurrentCreateExtensions(boolean concurrentCreateExtensions) {
+		this.concurrentCreateExtensions = concurrentCreateExtensions;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public Integer getDispatchTableThreshold() {
+		return dispatchTableThreshold;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setDispatchTableThreshold(Integer dispatchTableThreshold) {
+		this.dispatchTableThreshold = dispatchTableThreshold;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public boolean isCompactRichStrings() {
+		return compactRichStrings;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setCompactRichStrings(boolean compactRichStrings) {
+		this.compactRichStrings = compactRichStrings;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public Integer getDaemonPort() {
+		return daemonPort;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public void setDaemonPort(Integer daemonPort) {
+		this.daemonPort = daemonPort;
+	}
+
 	public void setTempdir(File tempdir) {
 		this.tempdir = tempdir;
 	}
@@ -10,6 +10,7 @@ package org.eclipse.xtend.core.jvmmodel;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.xtend.core.xtend.CreateExtensionInfo;
 import org.eclipse.xtext.common.types.JvmDeclaredType;
@@ -17,6 +18,7 @@ import org.eclipse.xtext.common.types.JvmField;
 import org.eclipse.xtext.common.types.JvmFormalParameter;
 import org.eclipse.xtext.common.types.JvmIdentifiableElement;
 import org.eclipse.xtext.common.types.JvmOperation;
+import org.eclipse.xtext.xbase.XConstructorCall;
 import org.eclipse.xtext.xbase.compiler.XbaseCompiler;
 import org.eclipse.xtext.xbase.compiler.output.ITreeAppendable;
 import org.eclipse.xtext.xbase.jvmmodel.ILogicalContainerProvider;
@@ -31,6 +33,7 @@ import org.eclipse.xtext.xbase.typesystem.references.StandardTypeReferenceOwner;
 import org.eclipse.xtext.xbase.typesystem.references.TypeReferenceInitializer;
 import org.eclipse.xtext.xbase.typesystem.util.CommonTypeComputationServices;
 
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 
 public class CacheMethodCompileStrategy implements Procedures.Procedure1<ITreeAppendable> {
@@ -53,17 +56,33 @@ public class CacheMethodCompileStrategy implements Procedures.Procedure1<ITreeAp
 
 	private JvmField cacheField;
 
+	private JvmField nullKeyField;
+
 	protected void init(CreateExtensionInfo createExtensionInfo, JvmField cacheField, JvmOperation initializerMethod) {
 		this.createExtensionInfo = createExtensionInfo;
 		this.initializerMethod = initializerMethod;
 		this.cacheField = cacheField; 
 	}
 
+	/**
+	 * @since 2.11
+	 */
+	protected void init(CreateExtensionInfo createExtensionInfo, JvmField cacheField, /* @Nullable */ JvmField nullKeyField,
+			JvmOperation initializerMethod) {
+		init(createExtensionInfo, cacheField, initializerMethod);
+		this.nullKeyField = nullKeyField;
+	}
+
 	@Override
 	public void apply(ITreeAppendable appendable) {
 		JvmOperation cacheMethod = (JvmOperation) logicalContainerProvider.getLogicalContainer(createExtensionInfo.getCreateExpression());
 		JvmDeclaredType containerType = cacheMethod.getDeclaringType();
 		IResolvedTypes resolvedTypes = typeResolver.resolveTypes(containerType);
+		LightweightTypeReference cacheType = resolvedTypes.getActualType(cacheField);
+		if (nullKeyField != null && cacheType != null && cacheType.isType(ConcurrentHashMap.class)) {
+			applyConcurrent(appendable, cacheMethod, resolvedTypes, cacheType);
+			return;
+		}
 		final ITypeReferenceOwner owner = new StandardTypeReferenceOwner(services, containerType);
 		LightweightTypeReference listType = owner.newReferenceTo(ArrayList.class, new TypeReferenceInitializer<ParameterizedTypeReference>() {
 			@Override
@@ -138,6 +157,118 @@ public class CacheMethodCompileStrategy implements Procedures.Procedure1<ITreeAp
 		appendable.append(resultVarName).append(";");
 	}
 
+	/**
+	 * Compiles the body of a create function that uses a nested {@link ConcurrentHashMap} per parameter. A cache hit
+	 * neither locks nor allocates. If two threads create an object for the same key concurrently, the one that is
+	 * stored first wins and only that one is initialized.
+	 * 
+	 * @since 2.11
+	 */
+	protected void applyConcurrent(ITreeAppendable appendable, JvmOperation cacheMethod, IResolvedTypes resolvedTypes,
+			LightweightTypeReference cacheType) {
+		ITypeReferenceOwner owner = new StandardTypeReferenceOwner(services, cacheMethod.getDeclaringType());
+		List<JvmFormalParameter> parameters = cacheMethod.getParameters();
+		// compute the keys, null arguments are represented by the null key
+		List<String> keyVarNames = Lists.newArrayList();
+		for (JvmFormalParameter parameter : parameters) {
+			String keyVarName = appendable.declareSyntheticVariable("CacheKey" + keyVarNames.size(), "_cacheKey");
+			if (!keyVarNames.isEmpty()) {
+				appendable.newLine();
+			}
+			keyVarNames.add(keyVarName);
+			appendable.append("final ").append(Object.class).append(" ").append(keyVarName).append(" = ");
+			LightweightTypeReference parameterType = owner.toLightweightTypeReference(parameter.getParameterType());
+			if (parameterType.isPrimitive()) {
+				appendable.append(getVarName(parameter)).append(";");
+			} else {
+				appendable.append(getVarName(parameter)).append(" == null ? ").append(nullKeyField.getSimpleName())
+						.append(" : ").append(getVarName(parameter)).append(";");
+			}
+		}
+		// look up the cache of the last parameter, intermediate caches are created on demand
+		String cacheVarName = cacheField.getSimpleName();
+		LightweightTypeReference innerCacheType = cacheType;
+		for (int i = 0; i < parameters.size() - 1; i++) {
+			innerCacheType = innerCacheType.getTypeArguments().get(1);
+			String innerCacheVarName = appendable.declareSyntheticVariable("Cache" + i, "_cache");
+			appendable.newLine().append(innerCacheType).append(" ").append(innerCacheVarName).append(" = ")
+					.append(cacheVarName).append(".get(").append(keyVarNames.get(i)).append(");");
+			appendable.newLine().append("if (").append(innerCacheVarName).append(" == null) {");
+			appendable.increaseIndentation();
+			appendable.newLine().append(innerCacheVarName).append(" = new ").append(innerCacheType).append("();");
+			String previousCacheVarName = appendable.declareSyntheticVariable("PreviousCache" + i, "_previousCache");
+			appendable.newLine().append("final ").append(innerCacheType).append(" ").append(previousCacheVarName)
+					.append(" = ").append(cacheVarName).append(".putIfAbsent(").append(keyVarNames.get(i)).append(", ")
+					.append(innerCacheVarName).append(");");
+			appendable.newLine().append("if (").append(previousCacheVarName).append(" != null) {");
+			appendable.increaseIndentation();
+			appendable.newLine().append(innerCacheVarName).append(" = ").append(previousCacheVarName).append(";");
+			appendable.decreaseIndentation().newLine().append("}");
+			appendable.decreaseIndentation().newLine().append("}");
+			cacheVarName = innerCacheVarName;
+		}
+		String keyVarName = keyVarNames.get(keyVarNames.size() - 1);
+		LightweightTypeReference declaredResultType = innerCacheType.getTypeArguments().get(1);
+		// if the cache contains the key return the previously created object.
+		String cachedVarName = appendable.declareSyntheticVariable("Cached", "_cached");
+		appendable.newLine().append("final ").append(declaredResultType).append(" ").append(cachedVarName).append(" = ")
+				.append(cacheVarName).append(".get(").append(keyVarName).append(");");
+		appendable.newLine().append("if (").append(cachedVarName).append(" != null) {");
+		appendable.increaseIndentation();
+		appendable.newLine().append("return ").append(cachedVarName).append(";");
+		appendable.decreaseIndentation().newLine().append("}");
+		// declare result variable
+		LightweightTypeReference returnType = resolvedTypes.getActualType(initializerMethod.getParameters().get(0));
+		if (returnType != null) {
+			appendable.newLine().append("final ").append(returnType);
+		} else {
+			appendable.newLine().append("final Object");
+		}
+		String resultVarName = "_result";
+		appendable.append(" ").append(resultVarName).append(";");
+
+		// execute the creation
+		compiler.toJavaStatement(createExtensionInfo.getCreateExpression(), appendable, true);
+		appendable.newLine();
+		appendable.append(resultVarName).append(" = ");
+		compiler.toJavaExpression(createExtensionInfo.getCreateExpression(), appendable);
+		appendable.append(";");
+
+		// store the newly created object in the cache unless another thread was faster
+		boolean castRequired = returnType == null || !declaredResultType.isAssignableFrom(returnType);
+		// a concurrent map does not accept null values, so null is not cached
+		boolean nullable = !(createExtensionInfo.getCreateExpression() instanceof XConstructorCall);
+		if (nullable) {
+			appendable.newLine().append("if (").append(resultVarName).append(" != null) {");
+			appendable.increaseIndentation();
+		}
+		String previousVarName = appendable.declareSyntheticVariable("Previous", "_previous");
+		appendable.newLine().append("final ").append(declaredResultType).append(" ").append(previousVarName).append(" = ")
+				.append(cacheVarName).append(".putIfAbsent(").append(keyVarName).append(", ");
+		if (castRequired) {
+			appendable.append("(").append(declaredResultType).append(")");
+		}
+		appendable.append(resultVarName).append(");");
+		appendable.newLine().append("if (").append(previousVarName).append(" != null) {");
+		appendable.increaseIndentation();
+		appendable.newLine().append("return ").append(previousVarName).append(";");
+		appendable.decreaseIndentation().newLine().append("}");
+		if (nullable) {
+			appendable.decreaseIndentation().newLine().append("}");
+		}
+		appendable.newLine().append(initializerMethod.getSimpleName()).append("(").append(resultVarName);
+		for (JvmFormalParameter parameter : parameters) {
+			appendable.append(", ").append(parameter.getName());
+		}
+		appendable.append(");");
+		// return the result
+		appendable.newLine().append("return ");
+		if (castRequired) {
+			appendable.append("(").append(declaredResultType).append(")");
+		}
+		appendable.append(resultVarName).append(";");
+	}
+
 	protected String getVarName(JvmIdentifiableElement ex) {
 		return ex.getSimpleName();
 	}
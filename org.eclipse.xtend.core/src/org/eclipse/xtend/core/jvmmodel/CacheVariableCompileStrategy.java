@@ -7,15 +7,42 @@
  *******************************************************************************/
 package org.eclipse.xtend.core.jvmmodel;
 
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.xtext.common.types.JvmField;
 import org.eclipse.xtext.xbase.compiler.output.ITreeAppendable;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Procedures;
+import org.eclipse.xtext.xbase.typesystem.IBatchTypeResolver;
+import org.eclipse.xtext.xbase.typesystem.references.LightweightTypeReference;
+
+import com.google.inject.Inject;
 
 public class CacheVariableCompileStrategy implements Procedures.Procedure1<ITreeAppendable> {
 
+	@Inject
+	private IBatchTypeResolver typeResolver;
+
+	private JvmField cacheField;
+
+	/**
+	 * @since 2.11
+	 */
+	protected void init(JvmField cacheField) {
+		this.cacheField = cacheField;
+	}
+
 	@Override
 	public void apply(ITreeAppendable builder) {
+		if (cacheField != null) {
+			LightweightTypeReference fieldType = typeResolver.resolveTypes(cacheField.getDeclaringType())
+					.getActualType(cacheField);
+			if (fieldType != null && fieldType.isType(ConcurrentHashMap.class)) {
+				builder.append("new ").append(fieldType).append("()");
+				return;
+			}
+		}
 		builder.append(CollectionLiterals.class).append(".newHashMap()");
 	}
 
-}
\ No newline at end of file
+}
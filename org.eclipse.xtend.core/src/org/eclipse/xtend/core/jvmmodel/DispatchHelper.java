@@ -19,6 +19,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtend.core.xtend.XtendFunction;
 import org.eclipse.xtext.common.types.JvmDeclaredType;
 import org.eclipse.xtext.common.types.JvmFeature;
+import org.eclipse.xtext.common.types.JvmFormalParameter;
 import org.eclipse.xtext.common.types.JvmMember;
 import org.eclipse.xtext.common.types.JvmOperation;
 import org.eclipse.xtext.common.types.JvmType;
@@ -258,6 +259,32 @@ public class DispatchHelper {
 		return getAllDispatchMethods(dispatchSignature, type, contextualVisibilityHelper);
 	}
 	
+	/**
+	 * Determines the parameter that actually selects the case of a dispatch method.
+	 * 
+	 * @return the index of the only parameter whose type differs between the given cases, or <code>-1</code> if no
+	 *         or more than one parameter differs.
+	 * @since 2.11
+	 */
+	public int getDispatchedParameter(List<JvmOperation> cases) {
+		if (cases.isEmpty())
+			return -1;
+		int result = -1;
+		List<JvmFormalParameter> firstParameters = cases.get(0).getParameters();
+		for (int i = 0; i < firstParameters.size(); i++) {
+			String firstType = firstParameters.get(i).getParameterType().getIdentifier();
+			for (JvmOperation operation : cases) {
+				if (!Strings.equal(firstType, operation.getParameters().get(i).getParameterType().getIdentifier())) {
+					if (result != -1)
+						return -1;
+					result = i;
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Computes all the dispatch methods that are declared in the given type or altered
 	 * by additional cases in this type. The associated operations are sorted by according their parameter types
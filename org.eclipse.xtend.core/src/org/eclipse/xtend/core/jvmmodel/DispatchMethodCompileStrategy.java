@@ -13,6 +13,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.xtext.common.types.JvmField;
 import org.eclipse.xtext.common.types.JvmFormalParameter;
 import org.eclipse.xtext.common.types.JvmIdentifiableElement;
 import org.eclipse.xtext.common.types.JvmOperation;
@@ -49,10 +50,20 @@ public class DispatchMethodCompileStrategy implements Procedures.Procedure1<ITre
 	
 	private JvmOperation dispatchOperation;
 
+	private JvmField dispatchTable;
+
 	protected void initialize(JvmOperation dispatchOperation) {
 		this.dispatchOperation = dispatchOperation;
 	}
 
+	/**
+	 * @since 2.11
+	 */
+	protected void initialize(JvmOperation dispatchOperation, /* @Nullable */ JvmField dispatchTable) {
+		this.dispatchOperation = dispatchOperation;
+		this.dispatchTable = dispatchTable;
+	}
+
 	@Override
 	public void apply(/* @Nullable */ ITreeAppendable a) {
 		if (a == null)
@@ -74,6 +85,14 @@ public class DispatchMethodCompileStrategy implements Procedures.Procedure1<ITre
 			}
 		}
 		ITypeReferenceOwner owner = new StandardTypeReferenceOwner(services, dispatchOperation);
+		if (dispatchTable != null) {
+			int parameter = sorter.getDispatchedParameter(sortedDispatchOperations);
+			if (parameter != -1 && !owner.toLightweightTypeReference(
+					dispatchOperation.getParameters().get(parameter).getParameterType()).isPrimitive()) {
+				generateTableDispatch(a, parameter, sortedDispatchOperations, owner);
+				return;
+			}
+		}
 		for (JvmOperation operation : sortedDispatchOperations) {
 			ITreeAppendable operationAppendable = treeAppendableUtil.traceSignificant(a, operation, true);
 			final List<Later> laters = newArrayList();
@@ -133,22 +152,7 @@ public class DispatchMethodCompileStrategy implements Procedures.Procedure1<ITre
 				operationAppendable.append(") {").increaseIndentation();
 				operationAppendable.newLine();
 			}
-			final boolean isCurrentVoid = typeReferences.is(operation.getReturnType(), Void.TYPE);
-			final boolean isDispatchVoid = typeReferences.is(dispatchOperation.getReturnType(), Void.TYPE);
-			if (isDispatchVoid) {
-				generateActualDispatchCall(dispatchOperation, operation, operationAppendable, owner);
-				// we generate a redundant return statement here to get a better debugging experience
-				operationAppendable.append(";").newLine().append("return;");
-			} else {
-				if (isCurrentVoid) {
-					generateActualDispatchCall(dispatchOperation, operation, operationAppendable, owner);
-					operationAppendable.append(";").newLine().append("return null");
-				} else {
-					operationAppendable.append("return ");
-					generateActualDispatchCall(dispatchOperation, operation, operationAppendable, owner);
-				}
-				operationAppendable.append(";");
-			}
+			generateDispatchCaseCall(operation, operationAppendable, owner);
 			if (sortedDispatchOperations.size() != 1) {
 				operationAppendable.decreaseIndentation();
 				a.newLine().append("}");
@@ -157,28 +161,105 @@ public class DispatchMethodCompileStrategy implements Procedures.Procedure1<ITre
 		if (needsElse) {
 			a.append(" else {").increaseIndentation();
 			a.newLine();
-			a.increaseIndentation();
-			a.append("throw new IllegalArgumentException(\"Unhandled parameter types: \" +").newLine();
-			JvmType jvmType = typeReferences.findDeclaredType("java.util.Arrays", dispatchOperation);
-			if (jvmType != null) {
-				a.append(jvmType);
+			generateUnhandledParameterTypesException(a);
+			a.decreaseIndentation().newLine().append("}");
+		}
+	}
+
+	/**
+	 * Looks up the case in the {@link DispatchTableCompileStrategy dispatch table} and calls it from a switch
+	 * statement.
+	 * 
+	 * @param parameter the index of the only parameter whose type differs between the cases
+	 * @since 2.11
+	 */
+	protected void generateTableDispatch(ITreeAppendable a, int parameter, List<JvmOperation> sortedDispatchOperations,
+			ITypeReferenceOwner owner) {
+		String name = getVarName(dispatchOperation.getParameters().get(parameter), a);
+		JvmOperation nullCase = null;
+		for (JvmOperation operation : sortedDispatchOperations) {
+			if (typeReferences.is(operation.getParameters().get(parameter).getParameterType(), Void.class)) {
+				nullCase = operation;
+				break;
+			}
+		}
+		a.append("if (").append(name).append(" == null) {").increaseIndentation();
+		a.newLine();
+		if (nullCase != null) {
+			ITreeAppendable operationAppendable = treeAppendableUtil.traceSignificant(a, nullCase, true);
+			generateDispatchCaseCall(nullCase, operationAppendable, owner);
+		} else {
+			generateUnhandledParameterTypesException(a);
+		}
+		a.decreaseIndentation().newLine().append("}");
+		a.newLine().append("switch (").append(dispatchTable.getSimpleName()).append(".get(").append(name)
+				.append(".getClass()).intValue()) {").increaseIndentation();
+		for (int i = 0; i < sortedDispatchOperations.size(); i++) {
+			JvmOperation operation = sortedDispatchOperations.get(i);
+			if (operation == nullCase) {
+				continue;
+			}
+			ITreeAppendable operationAppendable = treeAppendableUtil.traceSignificant(a, operation, true);
+			operationAppendable.newLine().append("case ").append(String.valueOf(i)).append(":").increaseIndentation();
+			operationAppendable.newLine();
+			generateDispatchCaseCall(operation, operationAppendable, owner);
+			operationAppendable.decreaseIndentation();
+		}
+		a.newLine().append("default:").increaseIndentation();
+		a.newLine();
+		generateUnhandledParameterTypesException(a);
+		a.decreaseIndentation();
+		a.decreaseIndentation().newLine().append("}");
+	}
+
+	/**
+	 * Calls the given case and returns its result.
+	 * 
+	 * @since 2.11
+	 */
+	protected void generateDispatchCaseCall(JvmOperation operation, ITreeAppendable a, ITypeReferenceOwner owner) {
+		final boolean isCurrentVoid = typeReferences.is(operation.getReturnType(), Void.TYPE);
+		final boolean isDispatchVoid = typeReferences.is(dispatchOperation.getReturnType(), Void.TYPE);
+		if (isDispatchVoid) {
+			generateActualDispatchCall(dispatchOperation, operation, a, owner);
+			// we generate a redundant return statement here to get a better debugging experience
+			a.append(";").newLine().append("return;");
+		} else {
+			if (isCurrentVoid) {
+				generateActualDispatchCall(dispatchOperation, operation, a, owner);
+				a.append(";").newLine().append("return null");
 			} else {
-				a.append(Arrays.class.getSimpleName());
+				a.append("return ");
+				generateActualDispatchCall(dispatchOperation, operation, a, owner);
 			}
-			a.append(".<Object>asList(");
-			Iterator<JvmFormalParameter> iterator = dispatchOperation.getParameters().iterator();
-			while (iterator.hasNext()) {
-				JvmFormalParameter parameter = iterator.next();
-				final String name = getVarName(parameter, a);
-				a.append(name);
-				if (iterator.hasNext()) {
-					a.append(", ");
-				}
+			a.append(";");
+		}
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	protected void generateUnhandledParameterTypesException(ITreeAppendable a) {
+		a.increaseIndentation();
+		a.append("throw new IllegalArgumentException(\"Unhandled parameter types: \" +").newLine();
+		JvmType jvmType = typeReferences.findDeclaredType("java.util.Arrays", dispatchOperation);
+		if (jvmType != null) {
+			a.append(jvmType);
+		} else {
+			a.append(Arrays.class.getSimpleName());
+		}
+		a.append(".<Object>asList(");
+		Iterator<JvmFormalParameter> iterator = dispatchOperation.getParameters().iterator();
+		while (iterator.hasNext()) {
+			JvmFormalParameter parameter = iterator.next();
+			final String name = getVarName(parameter, a);
+			a.append(name);
+			if (iterator.hasNext()) {
+				a.append(", ");
 			}
-			a.append(").toString());");
-			a.decreaseIndentation();
-			a.decreaseIndentation().newLine().append("}");
 		}
+		a.append(").toString());");
+		a.decreaseIndentation();
 	}
 
 	protected void generateActualDispatchCall(JvmOperation dispatchOperation, JvmOperation actualOperationToCall,
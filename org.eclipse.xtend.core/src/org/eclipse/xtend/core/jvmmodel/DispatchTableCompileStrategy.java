@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.jvmmodel;
+
+import java.util.List;
+
+import org.eclipse.xtext.common.types.JvmOperation;
+import org.eclipse.xtext.common.types.JvmType;
+import org.eclipse.xtext.common.types.util.TypeReferences;
+import org.eclipse.xtext.xbase.compiler.output.ITreeAppendable;
+import org.eclipse.xtext.xbase.lib.Procedures;
+import org.eclipse.xtext.xbase.typesystem.conformance.TypeConformanceComputationArgument;
+import org.eclipse.xtext.xbase.typesystem.references.ITypeReferenceOwner;
+import org.eclipse.xtext.xbase.typesystem.references.LightweightTypeReference;
+import org.eclipse.xtext.xbase.typesystem.references.StandardTypeReferenceOwner;
+import org.eclipse.xtext.xbase.typesystem.util.CommonTypeComputationServices;
+
+import com.google.inject.Inject;
+
+/**
+ * Compiles the initializer of the table of a dispatch method whose cases differ in a single parameter. The table is
+ * a <code>java.lang.ClassValue</code> that computes the index of the most specific case for a runtime class of the
+ * dispatched argument once. The index is the position of the case in the
+ * {@link DispatchHelper#getAllDispatchCases(JvmOperation) sorted cases}, or <code>-1</code> if no case matches. The case for <code>null</code> is never part of the table.
+ *
+ * @since 2.11
+ */
+public class DispatchTableCompileStrategy implements Procedures.Procedure1<ITreeAppendable> {
+
+	@Inject
+	private TypeReferences typeReferences;
+
+	@Inject
+	private CommonTypeComputationServices services;
+
+	@Inject
+	private DispatchHelper sorter;
+
+	private JvmOperation dispatchOperation;
+
+	protected void initialize(JvmOperation dispatchOperation) {
+		this.dispatchOperation = dispatchOperation;
+	}
+
+	@Override
+	public void apply(ITreeAppendable a) {
+		JvmType integerType = typeReferences.findDeclaredType(Integer.class, dispatchOperation);
+		a.append("new ").append(typeReferences.findDeclaredType(ClassValue.class, dispatchOperation)).append("<")
+				.append(integerType).append(">() {").increaseIndentation();
+		a.newLine().append("@Override");
+		a.newLine().append("protected ").append(integerType).append(" computeValue(final Class<?> type) {")
+				.increaseIndentation();
+		ITypeReferenceOwner owner = new StandardTypeReferenceOwner(services, dispatchOperation);
+		List<JvmOperation> sortedDispatchOperations = sorter.getAllDispatchCases(dispatchOperation);
+		int parameter = sorter.getDispatchedParameter(sortedDispatchOperations);
+		boolean exhaustive = false;
+		// without a dispatched parameter the dispatch method does not use the table
+		if (parameter != -1) {
+			LightweightTypeReference dispatchParamType = owner.toLightweightTypeReference(
+					dispatchOperation.getParameters().get(parameter).getParameterType());
+			for (int i = 0; i < sortedDispatchOperations.size() && !exhaustive; i++) {
+				LightweightTypeReference caseParamType = owner.toLightweightTypeReference(
+						sortedDispatchOperations.get(i).getParameters().get(parameter).getParameterType());
+				if (caseParamType.isType(Void.class)) {
+					continue;
+				}
+				if (isCatchAll(caseParamType, dispatchParamType)) {
+					// matches every argument that is not null, subsequent cases are unreachable
+					a.newLine().append("return ").append(String.valueOf(i)).append(";");
+					exhaustive = true;
+				} else {
+					JvmType type = caseParamType.getWrapperTypeIfPrimitive().getType();
+					if (type == null) {
+						throw new IllegalStateException(String.valueOf(caseParamType));
+					}
+					a.newLine().append("if (").append(type).append(".class.isAssignableFrom(type)) {").increaseIndentation();
+					a.newLine().append("return ").append(String.valueOf(i)).append(";");
+					a.decreaseIndentation().newLine().append("}");
+				}
+			}
+		}
+		if (!exhaustive) {
+			a.newLine().append("return -1;");
+		}
+		a.decreaseIndentation().newLine().append("}");
+		a.decreaseIndentation().newLine().append("}");
+	}
+
+	/**
+	 * @return <code>true</code> if the case with the given parameter type accepts every argument that is not
+	 *         <code>null</code>.
+	 */
+	protected boolean isCatchAll(LightweightTypeReference caseParamType, LightweightTypeReference dispatchParamType) {
+		return caseParamType.isAssignableFrom(dispatchParamType,
+				new TypeConformanceComputationArgument(true, false, true, true, false, false))
+				&& !dispatchParamType.isPrimitive();
+	}
+
+}
@@ -100,10 +100,19 @@ public class SyntheticNameClashResolver {
 		EObject source = associations.getPrimarySourceElement(element);
 		return (isCreateExtension(source) && (simpleName
 				.startsWith(XtendJvmModelInferrer.CREATE_CHACHE_VARIABLE_PREFIX) || simpleName
+				.startsWith(XtendJvmModelInferrer.CREATE_CACHE_NULL_KEY_PREFIX) || simpleName
 				.startsWith(XtendJvmModelInferrer.CREATE_INITIALIZER_PREFIX)))
+				|| (isDispatchFunction(source) && simpleName.startsWith(XtendJvmModelInferrer.DISPATCH_TABLE_PREFIX))
 				|| isAnonymousExtensionField(source);
 	}
 
+	/**
+	 * @since 2.11
+	 */
+	protected boolean isDispatchFunction(EObject source) {
+		return source instanceof XtendFunction && ((XtendFunction) source).isDispatch();
+	}
+
 	protected boolean isAnonymousExtensionField(EObject source) {
 		return source instanceof XtendField && ((XtendField) source).isExtension()
 				&& isEmpty(((XtendField) source).getName());
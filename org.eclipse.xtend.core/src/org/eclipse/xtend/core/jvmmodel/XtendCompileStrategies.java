@@ -31,13 +31,44 @@ public class XtendCompileStrategies {
 		return strategy;
 	}
 
+	/**
+	 * @param dispatchTable the field that maps the runtime class of the argument to the case to call
+	 * @since 2.11
+	 */
+	public Procedures.Procedure1<ITreeAppendable> forDispatcher(JvmOperation dispatchOperation, JvmField dispatchTable) {
+		DispatchMethodCompileStrategy strategy = dispatchMethodProvider.get();
+		strategy.initialize(dispatchOperation, dispatchTable);
+		return strategy;
+	}
+
+	@Inject
+	private Provider<DispatchTableCompileStrategy> dispatchTableProvider;
+
+	/**
+	 * @since 2.11
+	 */
+	public Procedures.Procedure1<ITreeAppendable> forDispatchTable(JvmOperation dispatchOperation) {
+		DispatchTableCompileStrategy strategy = dispatchTableProvider.get();
+		strategy.initialize(dispatchOperation);
+		return strategy;
+	}
+
 	@Inject
 	private Provider<CacheMethodCompileStrategy> cacheMethodProvider;
 
 	public Procedures.Procedure1<ITreeAppendable> forCacheMethod(CreateExtensionInfo createExtensionInfo,
 			JvmField cacheField, JvmOperation initializerMethod) {
+		return forCacheMethod(createExtensionInfo, cacheField, null, initializerMethod);
+	}
+
+	/**
+	 * @param nullKeyField the key that represents <code>null</code> arguments in a concurrent cache, may be <code>null</code>.
+	 * @since 2.11
+	 */
+	public Procedures.Procedure1<ITreeAppendable> forCacheMethod(CreateExtensionInfo createExtensionInfo,
+			JvmField cacheField, /* @Nullable */ JvmField nullKeyField, JvmOperation initializerMethod) {
 		CacheMethodCompileStrategy strategy = cacheMethodProvider.get();
-		strategy.init(createExtensionInfo, cacheField, initializerMethod);
+		strategy.init(createExtensionInfo, cacheField, nullKeyField, initializerMethod);
 		return strategy;
 	}
 
@@ -48,4 +79,25 @@ public class XtendCompileStrategies {
 		CacheVariableCompileStrategy strategy = cacheVarProvider.get();
 		return strategy;
 	}
+
+	/**
+	 * @since 2.11
+	 */
+	public Procedures.Procedure1<ITreeAppendable> forCacheVariable(XtendFunction function, JvmField cacheField) {
+		CacheVariableCompileStrategy strategy = cacheVarProvider.get();
+		strategy.init(cacheField);
+		return strategy;
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	public Procedures.Procedure1<ITreeAppendable> forCacheNullKey() {
+		return new Procedures.Procedure1<ITreeAppendable>() {
+			@Override
+			public void apply(ITreeAppendable builder) {
+				builder.append("new ").append(Object.class).append("()");
+			}
+		};
+	}
 }
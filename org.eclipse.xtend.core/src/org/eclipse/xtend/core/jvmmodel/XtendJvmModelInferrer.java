@@ -19,6 +19,7 @@ import java.util.Set;
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig;
 import org.eclipse.xtend.core.macro.ActiveAnnotationContext;
 import org.eclipse.xtend.core.macro.ActiveAnnotationContextProvider;
 import org.eclipse.xtend.core.macro.ActiveAnnotationContexts;
@@ -101,6 +102,16 @@ public class XtendJvmModelInferrer extends AbstractModelInferrer {
 	public static final String CREATE_INITIALIZER_PREFIX = "_init_";
 
 	public static final String CREATE_CHACHE_VARIABLE_PREFIX = "_createCache_";
+
+	/**
+	 * @since 2.11
+	 */
+	public static final String CREATE_CACHE_NULL_KEY_PREFIX = "_createCacheNullKey_";
+
+	/**
+	 * @since 2.11
+	 */
+	public static final String DISPATCH_TABLE_PREFIX = "_dispatchTable_";
 	
 	private final static Logger logger = Logger.getLogger(XtendJvmModelInferrer.class);
 
@@ -494,10 +505,51 @@ public class XtendJvmModelInferrer extends AbstractModelInferrer {
 				dispatchHelper.markAsDispatcherFunction(operation);
 				operation.setSimpleName(signature.getSimpleName());
 				operation.setReturnType(jvmTypesBuilder.inferredType());
+				if (isDispatchTable(source, target, operation, operations)) {
+					appendDispatchTable(source, target, operation);
+				}
 			}
 		}
 	}
 
+	/**
+	 * @return <code>true</code> if the given dispatch operation looks up its cases in a table.
+	 * @since 2.11
+	 */
+	protected boolean isDispatchTable(XtendTypeDeclaration source, JvmGenericType target, JvmOperation dispatchOperation,
+			List<JvmOperation> cases) {
+		if (!(generatorConfig instanceof XtendGeneratorConfig))
+			return false;
+		int threshold = ((XtendGeneratorConfig) generatorConfig).getDispatchTableThreshold();
+		// the table is a static field, which local and anonymous classes cannot declare and interfaces cannot hide
+		return threshold > 0 && cases.size() >= threshold && generatorConfig.getJavaSourceVersion().isAtLeast(JAVA7)
+				&& !target.isLocal() && !target.isInterface()
+				&& typeReferences.findDeclaredType(ClassValue.class, source) != null
+				&& dispatchHelper.getDispatchedParameter(cases) != -1;
+	}
+
+	/**
+	 * Adds the static field that maps the runtime classes of the dispatched argument to the case of the given
+	 * dispatch operation.
+	 * @since 2.11
+	 */
+	protected void appendDispatchTable(XtendTypeDeclaration source, JvmGenericType target, JvmOperation dispatchOperation) {
+		JvmTypeReference tableType = typeReferences.getTypeForName(ClassValue.class, source,
+				typeReferences.getTypeForName(Integer.class, source));
+		XtendFunction firstCase = Iterables.getFirst(
+				Iterables.filter(associations.getSourceElements(dispatchOperation), XtendFunction.class), null);
+		if (firstCase == null)
+			return;
+		JvmField table = jvmTypesBuilder.toField(firstCase, DISPATCH_TABLE_PREFIX + dispatchOperation.getSimpleName(), tableType);
+		if (table != null) {
+			table.setStatic(true);
+			table.setFinal(true);
+			jvmTypesBuilder.setInitializer(table, compileStrategies.forDispatchTable(dispatchOperation));
+			target.getMembers().add(table);
+			jvmTypesBuilder.setBody(dispatchOperation, compileStrategies.forDispatcher(dispatchOperation, table));
+		}
+	}
+
 	/**
 	 * @return a {@link JvmOperation} with common denominator argument types of all given operations
 	 */
@@ -652,8 +704,19 @@ public class XtendJvmModelInferrer extends AbstractModelInferrer {
 				source, CREATE_CHACHE_VARIABLE_PREFIX + source.getName(), jvmTypesBuilder.inferredType());
 		if (cacheVar != null) {
 			cacheVar.setFinal(true);
-			jvmTypesBuilder.setInitializer(cacheVar, compileStrategies.forCacheVariable(source));
+			jvmTypesBuilder.setInitializer(cacheVar, compileStrategies.forCacheVariable(source, cacheVar));
 			container.getMembers().add(cacheVar);
+			JvmField nullKey = null;
+			if (XtendGeneratorConfig.isConcurrentCreateExtension(generatorConfig, operation)) {
+				// concurrent caches cannot store null keys, a null argument is mapped to this key instead
+				nullKey = jvmTypesBuilder.toField(source, CREATE_CACHE_NULL_KEY_PREFIX + source.getName(),
+						typeReferences.getTypeForName(Object.class, source));
+				if (nullKey != null) {
+					nullKey.setFinal(true);
+					jvmTypesBuilder.setInitializer(nullKey, compileStrategies.forCacheNullKey());
+					container.getMembers().add(nullKey);
+				}
+			}
 
 			JvmOperation initializer = typesFactory.createJvmOperation();
 			container.getMembers().add(initializer);
@@ -665,7 +728,7 @@ public class XtendJvmModelInferrer extends AbstractModelInferrer {
 			}
 
 			jvmTypesBuilder.setBody(operation,
-					compileStrategies.forCacheMethod(createExtensionInfo, cacheVar, initializer));
+					compileStrategies.forCacheMethod(createExtensionInfo, cacheVar, nullKey, initializer));
 
 			// the first parameter is the created object
 			JvmFormalParameter jvmParam = typesFactory.createJvmFormalParameter();
@@ -3,6 +3,7 @@ package org.eclipse.xtend.core.macro
 import com.google.common.io.ByteStreams
 import com.google.common.io.CharStreams
 import com.google.inject.Inject
+import java.io.ByteArrayInputStream
 import java.io.IOException
 import java.io.InputStream
 import java.io.InputStreamReader
@@ -18,7 +19,6 @@ import org.eclipse.xtend.lib.macro.file.MutableFileSystemSupport
 import org.eclipse.xtend.lib.macro.file.Path
 import org.eclipse.xtext.generator.IFilePostProcessor
 import org.eclipse.xtext.parser.IEncodingProvider
-import org.eclipse.xtext.util.StringInputStream
 import org.eclipse.xtext.workspace.IProjectConfigProvider
 
 import static org.eclipse.emf.ecore.resource.URIConverter.*
@@ -28,6 +28,8 @@ import static extension org.eclipse.xtext.util.UriUtil.*
 
 abstract class AbstractFileSystemSupport implements MutableFileSystemSupport {
 
+	static val BUFFER_SIZE = 8192
+
 	@Inject @Accessors IEncodingProvider encodingProvider
 	@Inject(optional=true) @Accessors IFilePostProcessor postProcessor
 	@Inject @Accessors extension IProjectConfigProvider projectConfigProvider
@@ -65,12 +67,39 @@ abstract class AbstractFileSystemSupport implements MutableFileSystemSupport {
 
 		val processedContents = postProcessor?.postProcess(uri, contents) ?: contents
 		try {
-			path.setContentsAsStream(new StringInputStream(processedContents.toString, path.getCharset))
+			uri.setContents(processedContents.toString.getBytes(path.getCharset))
 		} catch (UnsupportedEncodingException exc) {
 			throw new IllegalArgumentException(exc.message, exc)
 		}
 	}
 
+	/**
+	 * Writes the encoded contents directly to the given file, unless the file already has exactly these contents.
+	 * Files of a different size are written without being read.
+	 * 
+	 * @since 2.11
+	 */
+	protected def void setContents(URI uri, byte[] contents) {
+		try {
+			if (uri.exists && isFile(uri)) {
+				val length = uri.getAttribute(ATTRIBUTE_LENGTH)
+				if (!(length instanceof Long) || length == contents.length as long) {
+					if (!hasContentsChanged(new ByteArrayInputStream(contents), URIConverter.createInputStream(uri)))
+						return;
+				}
+			}
+
+			val out = URIConverter.createOutputStream(uri)
+			try {
+				out.write(contents)
+			} finally {
+				out.close
+			}
+		} catch (IOException exc) {
+			throw new IllegalArgumentException(exc.message, exc)
+		}
+	}
+
 	override setContentsAsStream(Path path, InputStream source) {
 		val uri = path.URI
 		if (uri === null)
@@ -100,13 +129,18 @@ abstract class AbstractFileSystemSupport implements MutableFileSystemSupport {
 	protected def hasContentsChanged(InputStream newContent, InputStream oldContent) {
 		var contentChanged = false;
 		try {
-			var int newByte = newContent.read();
-			var int oldByte = oldContent.read();
-			while (newByte != -1 && oldByte != -1 && newByte == oldByte) {
-				newByte = newContent.read();
-				oldByte = oldContent.read();
+			val newBuffer = newByteArrayOfSize(BUFFER_SIZE)
+			val oldBuffer = newByteArrayOfSize(BUFFER_SIZE)
+			var newRead = fill(newContent, newBuffer)
+			var oldRead = fill(oldContent, oldBuffer)
+			while (newRead > 0 && newRead == oldRead && !contentChanged) {
+				for (var i = 0; i < newRead && !contentChanged; i++) {
+					contentChanged = newBuffer.get(i) != oldBuffer.get(i)
+				}
+				newRead = fill(newContent, newBuffer)
+				oldRead = fill(oldContent, oldBuffer)
 			}
-			contentChanged = newByte != oldByte;
+			contentChanged = contentChanged || newRead != oldRead;
 		} catch (IOException e) {
 			contentChanged = true;
 		} finally {
@@ -121,6 +155,23 @@ abstract class AbstractFileSystemSupport implements MutableFileSystemSupport {
 		return contentChanged;
 	}
 
+	/**
+	 * Fills the buffer from the stream, so that two streams with the same contents yield chunks of the same size.
+	 * 
+	 * @return the number of bytes that were read, {@code -1} if the stream was at its end.
+	 * @since 2.11
+	 */
+	protected def int fill(InputStream stream, byte[] buffer) throws IOException {
+		var count = 0
+		while (count < buffer.length) {
+			val read = stream.read(buffer, count, buffer.length - count)
+			if (read == -1)
+				return if (count == 0) -1 else count
+			count += read
+		}
+		return count
+	}
+
 	override getChildren(Path path) {
 		if (path == ROOT) {
 			return #[path.getAbsolutePath(context.projectConfig.name)]
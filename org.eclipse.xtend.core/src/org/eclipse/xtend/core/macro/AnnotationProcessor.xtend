@@ -22,12 +22,21 @@ import org.eclipse.xtext.util.internal.Stopwatches
 import org.eclipse.xtext.xbase.jvmmodel.IJvmDeclaredTypeAcceptor
 import org.eclipse.xtend.core.xtend.XtendParameter
 import org.eclipse.xtend.lib.macro.ValidationParticipant
-import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import com.google.inject.Singleton
 import org.eclipse.xtend.lib.annotations.Accessors
-import java.util.concurrent.RejectedExecutionException
 import org.apache.log4j.Logger
+import com.google.common.util.concurrent.ThreadFactoryBuilder
+import java.util.Collections
+import java.util.Set
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
 
 /**
  * It checks whether the files contain macro annotations and calls their register and processing functions.
@@ -117,10 +126,12 @@ class AnnotationProcessor {
 	}
 	
 	/**
-	 * runs the given runnable and another thread in parallel, that sets the timeout property on the compilation unit to true
-	 * when the given amount of milliseconds have passed by.
+	 * runs the given runnable while the {@link CancellationObserver} sets the canceled property on the compilation unit to true
+	 * as soon as the given cancel indicator is canceled.
 	 */
 	private def runWithCancelIndiciator(ActiveAnnotationContext ctx, CancelIndicator cancelIndicator, Runnable runnable) {
+		val task = Stopwatches.forTask('[macros] ' + ctx.processorInstance.class.name)
+		task.start
 		val AtomicBoolean isFinished = new AtomicBoolean(false)
 		cancellationObserver.monitorUntil(ctx, cancelIndicator, [isFinished.get])
 		try {
@@ -128,40 +139,134 @@ class AnnotationProcessor {
 		} catch (CancellationException e) {
 		} finally {
 			isFinished.set(true)
+			task.stop
 		}
 	}
 	
+	/**
+	 * Watches the cancel indicators of all running annotation processors with a single scheduled thread. The check is
+	 * only scheduled while there are contexts to watch, and the thread terminates after it has been idle for a second.
+	 */
 	@Singleton
 	protected static class CancellationObserver {
 		private static final Logger log = Logger.getLogger(CancellationObserver)
 		
+		/**
+		 * The interval in milliseconds in which the active contexts are checked for cancellation.
+		 * @since 2.11
+		 */
+		protected static final long CHECK_INTERVAL = 10
+		
+		val Set<MonitoredContext> activeContexts = Collections.newSetFromMap(new ConcurrentHashMap)
+		
+		/**
+		 * @since 2.11
+		 */
 		@Accessors(PROTECTED_GETTER)
-		private ExecutorService pool = initPool()
+		private ScheduledExecutorService watchdog
+		
+		ScheduledFuture<?> scheduledCheck
 		
+		ExecutorService pool
+		
+		/**
+		 * @deprecated the observer no longer runs a task per annotation processor, see {@link #initWatchdog()}
+		 */
+		@Deprecated
 		protected def ExecutorService initPool() {
-			return Executors.newCachedThreadPool();
+			return Executors.newCachedThreadPool
+		}
+		
+		/**
+		 * @deprecated the observer no longer runs a task per annotation processor, see {@link #getWatchdog()}
+		 */
+		@Deprecated
+		protected synchronized def ExecutorService getPool() {
+			if (pool === null) {
+				pool = initPool
+			}
+			return pool
+		}
+		
+		/**
+		 * @since 2.11
+		 */
+		protected def ScheduledExecutorService initWatchdog() {
+			val result = new ScheduledThreadPoolExecutor(1,
+				new ThreadFactoryBuilder().setNameFormat('xtend-cancellation-observer').setDaemon(true).build)
+			result.setKeepAliveTime(1, TimeUnit.SECONDS)
+			result.allowCoreThreadTimeOut(true)
+			result.removeOnCancelPolicy = true
+			return result
 		}
 	
-		def monitorUntil(ActiveAnnotationContext ctx, CancelIndicator cancelIndicator, ()=>boolean isFinished) {
-			val Runnable r = [
-				while (!isFinished.apply) {
-					if (cancelIndicator.canceled) {
-						ctx.compilationUnit.canceled = true
-						return;
+		/**
+		 * @return the periodic check of the monitored contexts or <code>null</code> if the given cancel indicator can
+		 *         never be canceled.
+		 */
+		def Future<?> monitorUntil(ActiveAnnotationContext ctx, CancelIndicator cancelIndicator, ()=>boolean isFinished) {
+			if (cancelIndicator === null || cancelIndicator === CancelIndicator.NullImpl) {
+				// nothing to observe
+				return null
+			}
+			activeContexts.add(new MonitoredContext(ctx, cancelIndicator, isFinished))
+			return scheduleCheck
+		}
+		
+		/**
+		 * @since 2.11
+		 */
+		protected synchronized def Future<?> scheduleCheck() {
+			if (watchdog === null) {
+				watchdog = initWatchdog
+			}
+			if (scheduledCheck === null) {
+				scheduledCheck = watchdog.scheduleWithFixedDelay([checkCanceled], CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.MILLISECONDS)
+			}
+			return scheduledCheck
+		}
+		
+		/**
+		 * Stops the periodic check once the last monitored context has finished or was canceled.
+		 * @since 2.11
+		 */
+		protected synchronized def void cancelCheckIfIdle() {
+			if (activeContexts.empty && scheduledCheck !== null) {
+				scheduledCheck.cancel(false)
+				scheduledCheck = null
+			}
+		}
+		
+		/**
+		 * @since 2.11
+		 */
+		protected def void checkCanceled() {
+			val iterator = activeContexts.iterator
+			while (iterator.hasNext) {
+				val context = iterator.next
+				try {
+					if (context.getFinished.apply) {
+						iterator.remove
+					} else if (context.getCancelIndicator.canceled) {
+						context.getCtx.compilationUnit.canceled = true
+						iterator.remove
 					}
-					Thread.sleep(100)
+				} catch (Exception e) {
+					log.error(e.message, e)
+					iterator.remove
 				}
-			]
-			try {
-				pool.submit(r)
-			} catch(RejectedExecutionException e) {
-				log.debug(e.message, e)
-				// fallback to a fresh thread
-				new Thread(r).start
 			}
+			cancelCheckIfIdle
 		}
 	
 	}
 	
+	@FinalFieldsConstructor
+	@Accessors(PACKAGE_GETTER)
+	protected static class MonitoredContext {
+		val ActiveAnnotationContext ctx
+		val CancelIndicator cancelIndicator
+		val ()=>boolean finished
+	}
+	
 }
-
@@ -7,10 +7,19 @@
  *******************************************************************************/
 package org.eclipse.xtend.core.macro
 
+import com.google.common.cache.Cache
+import com.google.common.cache.CacheBuilder
+import com.google.common.cache.RemovalCause
+import com.google.common.cache.RemovalListener
+import com.google.common.cache.RemovalNotification
 import com.google.inject.Singleton
 import java.io.Closeable
+import java.io.File
 import java.io.IOException
+import java.lang.reflect.Modifier
 import java.net.URLClassLoader
+import java.util.List
+import java.util.concurrent.atomic.AtomicLong
 import org.apache.log4j.Logger
 import org.eclipse.emf.common.notify.Notifier
 import org.eclipse.emf.common.notify.impl.AdapterImpl
@@ -26,6 +35,64 @@ import java.net.URL
 class ProcessorInstanceForJvmTypeProvider {
 	static val logger = Logger.getLogger(ProcessorInstanceForJvmTypeProvider)
 	
+	static val NOT_SHAREABLE = new Object
+	
+	/**
+	 * A processor without instance fields cannot carry any state from one annotated element to the next, so a single
+	 * instance per processor class is used. The instance is stored with its class and is therefore discarded together
+	 * with the class loader of the processor.
+	 */
+	val processorInstances = new ClassValue<Object> {
+		override protected computeValue(Class<?> type) {
+			if (!isStateless(type))
+				return NOT_SHAREABLE
+			createdProcessorInstances.incrementAndGet
+			return type.newInstance
+		}
+	}
+	
+	val Cache<Pair<ClassLoader, List<String>>, SharedClassLoader> sharedClassLoaders = CacheBuilder.newBuilder
+		.maximumSize(16)
+		.removalListener(new RemovalListener<Pair<ClassLoader, List<String>>, SharedClassLoader> {
+			override onRemoval(RemovalNotification<Pair<ClassLoader, List<String>>, SharedClassLoader> notification) {
+				// closes the jar files, unless the same class loader was put back for its key
+				if (notification.cause != RemovalCause.REPLACED
+						|| sharedClassLoaders.getIfPresent(notification.key) !== notification.value) {
+					notification.value.close
+				}
+			}
+		}).build
+	
+	val createdProcessorInstances = new AtomicLong
+	
+	val requestedProcessorInstances = new AtomicLong
+	
+	val loadedClassLoaders = new AtomicLong
+	
+	val reusedClassLoaders = new AtomicLong
+	
+	/**
+	 * A class loader for the jar files of a processor class path together with the sizes and time stamps of the
+	 * jars at the time it was created.
+	 */
+	@Accessors protected static class SharedClassLoader {
+		val String fingerprint
+		val URLClassLoader classLoader
+		
+		new(String fingerprint, URLClassLoader classLoader) {
+			this.fingerprint = fingerprint
+			this.classLoader = classLoader
+		}
+		
+		def close() {
+			try {
+				classLoader.close
+			} catch (IOException e) {
+				logger.debug("Failed to close a shared processor class loader", e)
+			}
+		}
+	}
+	
 	@Accessors public static class ProcessorClassloaderAdapter extends AdapterImpl {
 		var ClassLoader classLoader
 		
@@ -68,12 +135,126 @@ class ProcessorInstanceForJvmTypeProvider {
 	def Object getProcessorInstance(JvmType type) {
 		try {
 			val loadClass = type.classLoader?.loadClass(type.identifier)
-			return loadClass?.newInstance
+			return loadClass?.getInstance
 		} catch (Exception e) {
 			throw new IllegalStateException("Problem during instantiation of "+type.identifier+" : "+e.getMessage, e);
 		}
 	}
 	
+	/**
+	 * @return the instance of the given processor class that is shared by all annotated elements if the processor
+	 *         is stateless, a new instance otherwise.
+	 * @since 2.11
+	 */
+	def Object getInstance(Class<?> processorClass) throws Exception {
+		requestedProcessorInstances.incrementAndGet
+		val shared = processorInstances.get(processorClass)
+		if (shared === NOT_SHAREABLE) {
+			createdProcessorInstances.incrementAndGet
+			return processorClass.newInstance
+		}
+		return shared
+	}
+	
+	/**
+	 * @return <code>true</code> if neither the given class nor one of its super classes declares instance fields.
+	 * @since 2.11
+	 */
+	protected def boolean isStateless(Class<?> processorClass) {
+		var type = processorClass
+		while (type !== null && type != Object) {
+			if (type.declaredFields.exists[!Modifier.isStatic(modifiers)])
+				return false
+			type = type.superclass
+		}
+		return true
+	}
+	
+	/**
+	 * Creates the class loader for the processors of a compilation. The jar files of the class path are served by a
+	 * class loader that is shared by all compilations with the same jar files and the same parent, so the processor
+	 * classes in these jars are loaded and compiled by the VM only once. A jar is identified by its path, size and time
+	 * stamp: if one of them changes, a new class loader is created for the jars and the stale one is dropped from the
+	 * cache and closed. Class loaders that are evicted from the cache are closed, too. The directories of the class
+	 * path are served by a class loader that is private to the compilation and is returned. Closing it does not
+	 * affect the shared class loader.
+	 * 
+	 * Classes in jar files take precedence over classes with the same name in directories, and they cannot see the
+	 * classes in directories.
+	 * 
+	 * @param classpath the jar files and directories of the compilation
+	 * @param parent the parent of the shared class loader
+	 * @since 2.11
+	 */
+	def ClassLoader createSharedClassLoader(Iterable<File> classpath, ClassLoader parent) {
+		val jars = <File>newArrayList
+		val directories = <URL>newArrayList
+		for (entry : classpath) {
+			if (entry.isFile && entry.name.endsWith('.jar'))
+				jars += entry
+			else
+				directories += entry.toURI.toURL
+		}
+		val key = parent -> jars.map[absolutePath]
+		val fingerprint = jars.map[absolutePath + '@' + length + '@' + lastModified].join(File.pathSeparator)
+		var SharedClassLoader sharedClassLoader = null
+		synchronized (sharedClassLoaders) {
+			sharedClassLoader = sharedClassLoaders.getIfPresent(key)
+			if (sharedClassLoader === null || sharedClassLoader.fingerprint != fingerprint) {
+				if (sharedClassLoader !== null)
+					logger.debug("The jar files of the processor class path have changed. The processors are reloaded.")
+				sharedClassLoader = new SharedClassLoader(fingerprint, new URLClassLoader(jars.map[toURI.toURL], parent))
+				sharedClassLoaders.put(key, sharedClassLoader)
+				loadedClassLoaders.incrementAndGet
+			} else {
+				reusedClassLoaders.incrementAndGet
+			}
+		}
+		return new URLClassLoader(directories, sharedClassLoader.classLoader)
+	}
+	
+	/**
+	 * Discards all shared class loaders and closes them. Must not be called while compilations that use them are
+	 * running.
+	 * 
+	 * @since 2.11
+	 */
+	def void clearSharedClassLoaders() {
+		sharedClassLoaders.invalidateAll
+	}
+	
+	/**
+	 * @return the number of processor instances that were created.
+	 * @since 2.11
+	 */
+	def long getCreatedProcessorInstances() {
+		createdProcessorInstances.get
+	}
+	
+	/**
+	 * @return the number of times that a stateless processor instance was reused.
+	 * @since 2.11
+	 */
+	def long getReusedProcessorInstances() {
+		requestedProcessorInstances.get - createdProcessorInstances.get
+	}
+	
+	/**
+	 * @return the number of shared class loaders that were created for the jar files of processor class paths.
+	 * @since 2.11
+	 */
+	def long getLoadedClassLoaders() {
+		loadedClassLoaders.get
+	}
+	
+	/**
+	 * @return the number of times that a shared class loader was reused.
+	 * @since 2.11
+	 */
+	def long getReusedClassLoaders() {
+		reusedClassLoaders.get
+	}
+	
 	def protected getClassLoader(EObject ctx) {
 		val resourceSet = ctx.eResource.resourceSet
 		val adapter = resourceSet.eAdapters.filter(ProcessorClassloaderAdapter).head
@@ -12,11 +12,13 @@ import java.io.Reader;
 import org.antlr.runtime.CharStream;
 import org.antlr.runtime.TokenSource;
 import org.eclipse.xtend.core.parser.antlr.XtendParser;
+import org.eclipse.xtend.core.parser.antlr.internal.BufferedFlexTokenSource;
 import org.eclipse.xtend.core.parser.antlr.internal.FlexerFactory;
 import org.eclipse.xtext.ParserRule;
 import org.eclipse.xtext.RuleCall;
 import org.eclipse.xtext.nodemodel.impl.NodeModelBuilder;
 import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.parser.antlr.XtextTokenStream;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -38,10 +40,30 @@ public class CustomXtendParser extends XtendParser {
 	protected TokenSource createLexer(CharStream stream) {
 		if (stream instanceof ReaderCharStream) {
 			Reader reader = ((ReaderCharStream) stream).getReader();
-			return flexerFactory.createTokenSource(reader);
+			return flexerFactory.createBufferedTokenSource(reader);
 		}
 		throw new IllegalArgumentException(stream.getClass().getName());
 	}
+
+	/**
+	 * The complete content of the node model is the text of the token stream. A buffered token source knows it
+	 * already, so the tokens don't have to create their text for that.
+	 * 
+	 * @since 2.11
+	 */
+	@Override
+	protected XtextTokenStream createTokenStream(TokenSource tokenSource) {
+		if (tokenSource instanceof BufferedFlexTokenSource) {
+			final BufferedFlexTokenSource bufferedTokenSource = (BufferedFlexTokenSource) tokenSource;
+			return new XtextTokenStream(tokenSource, getTokenDefProvider()) {
+				@Override
+				public String toString() {
+					return bufferedTokenSource.getText();
+				}
+			};
+		}
+		return super.createTokenStream(tokenSource);
+	}
 	
 	@Override
 	public IParseResult parse(ParserRule rule, Reader reader) {
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.antlr.runtime.Token;
+import org.eclipse.xtend.core.parser.antlr.internal.FlexerFactory;
+
+/**
+ * The start offsets and types of the tokens of a text. An index for a modified text is derived from the index of the
+ * original text by relexing the modified region only.
+ *
+ * The Xtend lexer has a single lexical state, so the tokens from a token boundary onwards depend on the text from that
+ * boundary onwards only. While scanning a token, the lexer may look arbitrarily far beyond the token's end before it
+ * falls back to it, e.g. up to the end of the text for <code>/**</code> followed by stars only. The index therefore
+ * records for each token how far the lexer had read when it produced the token. Relexing starts at the first token
+ * whose scan reached the modification. It stops as soon as a token starts at the shifted start offset of an original
+ * token in the unmodified rest of the text; the remaining tokens are taken over.
+ *
+ * Instances are immutable.
+ *
+ * @since 2.11
+ */
+public class FlexTokenIndex {
+
+	public static FlexTokenIndex create(FlexerFactory flexerFactory, String text) {
+		FlexTokenIndex empty = new FlexTokenIndex(flexerFactory, "", new int[0], new int[0], new int[0], 0);
+		return empty.relex(text, 0, 0, text.length(), 0);
+	}
+
+	private final FlexerFactory flexerFactory;
+
+	private final String text;
+
+	private final int[] starts;
+
+	private final int[] types;
+
+	/**
+	 * The exclusive end of the text that the lexer had read when it produced a token, one beyond the text's length if
+	 * it had hit the end of the text. Never decreases from one token to the next.
+	 */
+	private final int[] scanEnds;
+
+	private final int count;
+
+	protected FlexTokenIndex(FlexerFactory flexerFactory, String text, int[] starts, int[] types, int[] scanEnds,
+			int count) {
+		this.flexerFactory = flexerFactory;
+		this.text = text;
+		this.starts = starts;
+		this.types = types;
+		this.scanEnds = scanEnds;
+		this.count = count;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public int getTokenCount() {
+		return count;
+	}
+
+	public int getTokenStart(int index) {
+		return starts[index];
+	}
+
+	public int getTokenEnd(int index) {
+		return index + 1 < count ? starts[index + 1] : text.length();
+	}
+
+	public int getTokenType(int index) {
+		return types[index];
+	}
+
+	/**
+	 * @return the index of the token that contains the given offset, or the index of the last token if the offset is
+	 *         beyond the end of the text. <code>-1</code> if there are no tokens.
+	 */
+	public int getTokenIndex(int offset) {
+		int result = Arrays.binarySearch(starts, 0, count, offset);
+		if (result < 0) {
+			// the insertion point is the token after the one that contains the offset
+			result = -result - 2;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the index for the given text, which is derived from this index.
+	 */
+	public FlexTokenIndex update(String newText) {
+		if (text.equals(newText)) {
+			return this;
+		}
+		int oldLength = text.length();
+		int newLength = newText.length();
+		int prefix = 0;
+		int maxPrefix = Math.min(oldLength, newLength);
+		while (prefix < maxPrefix && text.charAt(prefix) == newText.charAt(prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		int maxSuffix = maxPrefix - prefix;
+		while (suffix < maxSuffix && text.charAt(oldLength - suffix - 1) == newText.charAt(newLength - suffix - 1)) {
+			suffix++;
+		}
+		int restartToken = getFirstTokenScannedBeyond(prefix);
+		// if no token was scanned beyond the prefix, the text has been appended to and lexing continues at its end
+		return relex(newText, restartToken, restartToken < count ? starts[restartToken] : oldLength,
+				newLength - suffix, newLength - oldLength);
+	}
+
+	/**
+	 * @return the index of the first token for which the lexer read beyond the given offset, or the number of tokens
+	 *         if there is none.
+	 */
+	protected int getFirstTokenScannedBeyond(int offset) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (scanEnds[middle] > offset) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Takes over the tokens up to the given token and lexes the new text from the given offset on until it is in sync
+	 * with the original tokens again.
+	 *
+	 * @param resyncOffset the offset in the new text from which on it is the same as the original text
+	 * @param delta the difference between the length of the new and the original text
+	 */
+	protected FlexTokenIndex relex(String newText, int restartToken, int restartOffset, int resyncOffset, int delta) {
+		int[] newStarts = Arrays.copyOf(starts, Math.max(count + 16, 16));
+		int[] newTypes = Arrays.copyOf(types, newStarts.length);
+		int[] newScanEnds = Arrays.copyOf(scanEnds, newStarts.length);
+		int newCount = restartToken;
+		try {
+			ScanningReader reader = new ScanningReader(newText, restartOffset);
+			InternalFlexer flexer = flexerFactory.createFlexer(reader);
+			int offset = restartOffset;
+			int type = flexer.advance();
+			while (type != Token.EOF) {
+				if (offset >= resyncOffset) {
+					int originalToken = Arrays.binarySearch(starts, restartToken, count, offset - delta);
+					if (originalToken >= 0) {
+						int remaining = count - originalToken;
+						newStarts = ensureCapacity(newStarts, newCount + remaining);
+						newTypes = ensureCapacity(newTypes, newCount + remaining);
+						newScanEnds = ensureCapacity(newScanEnds, newCount + remaining);
+						// the relexed tokens may have been scanned further than the original ones
+						int scanEnd = newCount > 0 ? newScanEnds[newCount - 1] : 0;
+						for (int i = 0; i < remaining; i++) {
+							newStarts[newCount + i] = starts[originalToken + i] + delta;
+							scanEnd = Math.max(scanEnd, scanEnds[originalToken + i] + delta);
+							newScanEnds[newCount + i] = scanEnd;
+						}
+						System.arraycopy(types, originalToken, newTypes, newCount, remaining);
+						newCount += remaining;
+						break;
+					}
+				}
+				newStarts = ensureCapacity(newStarts, newCount + 1);
+				newTypes = ensureCapacity(newTypes, newCount + 1);
+				newScanEnds = ensureCapacity(newScanEnds, newCount + 1);
+				newStarts[newCount] = offset;
+				newTypes[newCount] = type;
+				newScanEnds[newCount] = reader.getScanEnd();
+				newCount++;
+				offset += flexer.getTokenLength();
+				type = flexer.advance();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e); // cannot happen since ScanningReader doesn't throw IOException
+		}
+		return new FlexTokenIndex(flexerFactory, newText, newStarts, newTypes, newScanEnds, newCount);
+	}
+
+	private int[] ensureCapacity(int[] array, int size) {
+		if (array.length >= size) {
+			return array;
+		}
+		return Arrays.copyOf(array, Math.max(size, array.length * 2));
+	}
+
+	/**
+	 * Hands out one character per read, so the lexer reads exactly as far as it scans.
+	 */
+	protected static class ScanningReader extends Reader {
+
+		private final String text;
+
+		private int position;
+
+		private boolean atEnd;
+
+		public ScanningReader(String text, int position) {
+			this.text = text;
+			this.position = position;
+		}
+
+		/**
+		 * @return the offset up to which the text has been read, one beyond the text's length if the end was hit.
+		 */
+		public int getScanEnd() {
+			return atEnd ? position + 1 : position;
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (position >= text.length()) {
+				atEnd = true;
+				return -1;
+			}
+			buffer[offset] = text.charAt(position++);
+			return 1;
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
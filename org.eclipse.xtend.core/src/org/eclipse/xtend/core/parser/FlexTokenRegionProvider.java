@@ -7,10 +7,6 @@
  *******************************************************************************/
 package org.eclipse.xtend.core.parser;
 
-import java.io.IOException;
-import java.io.StringReader;
-
-import org.antlr.runtime.Token;
 import org.eclipse.xtend.core.parser.antlr.internal.FlexerFactory;
 import org.eclipse.xtext.parser.impl.TokenRegionProvider;
 import org.eclipse.xtext.util.ITextRegion;
@@ -26,29 +22,38 @@ public class FlexTokenRegionProvider extends TokenRegionProvider {
 	@Inject
 	private FlexerFactory flexerFactory;
 
+	/**
+	 * The index of the text of the previous request, which is usually the previous state of the same document.
+	 */
+	private volatile FlexTokenIndex lastIndex;
+
 	@Override
 	public ITextRegion getTokenRegion(String text, ITextRegion region) {
-		try {
-			InternalFlexer flexer = flexerFactory.createFlexer(new StringReader(text));
-			int token = flexer.advance();
-			int prevStart = 0;
-			int nextStart = flexer.getTokenLength();
-			
-			final int regionStartOffset = region.getOffset();
-			final int regionEnd = regionStartOffset + region.getLength();
-			while (token != Token.EOF && nextStart <= regionStartOffset) {
-				prevStart = nextStart;
-				token = flexer.advance();
-				nextStart += flexer.getTokenLength();
-			}
-			while (token != Token.EOF && nextStart < regionEnd) {
-				token = flexer.advance();
-				nextStart += flexer.getTokenLength();
-			}
-			return new TextRegion(prevStart, nextStart - prevStart);
-		} catch(IOException e) {
-			throw new RuntimeException(e); // cannot happen since StringReader doesn't throw IOException
+		FlexTokenIndex index = getTokenIndex(text);
+		int tokenCount = index.getTokenCount();
+		final int regionStartOffset = region.getOffset();
+		final int regionEnd = regionStartOffset + region.getLength();
+		int first = index.getTokenIndex(regionStartOffset);
+		if (first == -1 || index.getTokenEnd(first) <= regionStartOffset) {
+			// the region starts at the end of the text
+			return new TextRegion(text.length(), 0);
+		}
+		int last = first;
+		while (last + 1 < tokenCount && index.getTokenEnd(last) < regionEnd) {
+			last++;
 		}
+		int prevStart = index.getTokenStart(first);
+		return new TextRegion(prevStart, index.getTokenEnd(last) - prevStart);
+	}
+
+	/**
+	 * @since 2.11
+	 */
+	protected FlexTokenIndex getTokenIndex(String text) {
+		FlexTokenIndex previous = lastIndex;
+		FlexTokenIndex result = previous != null ? previous.update(text) : FlexTokenIndex.create(flexerFactory, text);
+		lastIndex = result;
+		return result;
 	}
 
 }
@@ -32,19 +32,46 @@ public class XtendPartialParsingHelper extends TokenSequencePreservingPartialPar
 	@Inject
 	private FlexerFactory flexerFactory;
 
+	/**
+	 * The index of the new text of the previous request, which is usually the original text of the next one.
+	 */
+	private volatile FlexTokenIndex lastIndex;
+
 	@Override
 	protected boolean isSameTokenSequence(String originalText, String newText, int expectedLength) {
+		if (newText.length() < expectedLength) {
+			return false;
+		}
+		FlexTokenIndex previous = lastIndex;
+		FlexTokenIndex original = previous != null && previous.getText().equals(originalText) 
+				? previous
+				: FlexTokenIndex.create(flexerFactory, originalText);
+		FlexTokenIndex updated = original.update(newText.substring(0, expectedLength));
+		lastIndex = updated;
+		int tokenCount = original.getTokenCount();
+		if (tokenCount == 0) {
+			return expectedLength == 0;
+		}
+		// the tokens at the end may continue in the new text, so they are lexed in the context of the complete new text
+		int tail = Math.max(updated.getTokenIndex(Math.max(expectedLength - FlexTokenIndex.LOOKAHEAD, 0)), 0);
+		if (tail > tokenCount) {
+			return false;
+		}
+		for (int i = 0; i < tail; i++) {
+			if (original.getTokenType(i) != updated.getTokenType(i)) {
+				return false;
+			}
+		}
 		try {
-			InternalFlexer originalSequence = flexerFactory.createFlexer(new StringReader(originalText));
-			InternalFlexer newSequence = flexerFactory.createFlexer(new StringReader(newText));
-			int token = originalSequence.advance();
-			int newLength = 0;
-			while(token != Token.EOF) {
-				if (token != newSequence.advance()) {
+			StringReader reader = new StringReader(newText);
+			int newLength = tail < updated.getTokenCount() ? updated.getTokenStart(tail) : 0;
+			reader.skip(newLength);
+			InternalFlexer newSequence = flexerFactory.createFlexer(reader);
+			for (int i = tail; i < tokenCount; i++) {
+				if (original.getTokenType(i) != newSequence.advance()) {
 					return false;
 				}
 				newLength += newSequence.getTokenLength();
-				token = originalSequence.advance();
 			}
 			return newLength == expectedLength;
 		} catch(IOException e) {
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.parser.antlr.internal;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.Token;
+import org.eclipse.xtend.core.parser.InternalFlexer;
+
+/**
+ * A {@link FlexTokenSource} that reads the complete input into a buffer up front. Its tokens only know their offsets
+ * into the shared buffer and create their text when it is asked for, so the lexer does not allocate a string for each
+ * token, e.g. for whitespace and comments whose text is never needed by the parser.
+ *
+ * @since 2.11
+ */
+public class BufferedFlexTokenSource extends FlexTokenSource {
+
+	private static final char[] EMPTY = new char[0];
+
+	private char[] buffer = EMPTY;
+
+	private int length = 0;
+
+	protected BufferedFlexTokenSource(InternalFlexer flexer) {
+		super(flexer);
+	}
+
+	@Override
+	public void reset(Reader reader) {
+		try {
+			// tokens of a previous input keep referring to the previous buffer
+			buffer = EMPTY;
+			length = 0;
+			if (reader != null) {
+				readFully(reader);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		super.reset(new CharArrayReader(buffer, 0, length));
+	}
+
+	private void readFully(Reader reader) throws IOException {
+		char[] result = new char[8192];
+		int count = 0;
+		int read;
+		while ((read = reader.read(result, count, result.length - count)) != -1) {
+			count += read;
+			if (count == result.length) {
+				char[] grown = new char[result.length * 2];
+				System.arraycopy(result, 0, grown, 0, count);
+				result = grown;
+			}
+		}
+		buffer = result;
+		length = count;
+	}
+
+	@Override
+	protected Token createToken(int type, int offset, int length) {
+		return new BufferedToken(buffer, type, Token.DEFAULT_CHANNEL, offset, offset + length - 1);
+	}
+
+	/**
+	 * @return the complete input, which is the concatenation of the text of all tokens.
+	 */
+	public String getText() {
+		return new String(buffer, 0, length);
+	}
+
+	@Override
+	public String getSourceName() {
+		return "BufferedFlexTokenSource";
+	}
+
+	public static class BufferedToken extends CommonToken {
+
+		private static final long serialVersionUID = 1L;
+
+		private final char[] buffer;
+
+		public BufferedToken(char[] buffer, int type, int channel, int start, int stop) {
+			super(null, type, channel, start, stop);
+			this.buffer = buffer;
+		}
+
+		@Override
+		public String getText() {
+			if (text == null) {
+				text = new String(buffer, getStartIndex(), getStopIndex() - getStartIndex() + 1);
+			}
+			return text;
+		}
+
+	}
+
+}
@@ -41,8 +41,7 @@ public class FlexTokenSource implements TokenSource {
 				return Token.EOF_TOKEN;
 			}
 			int length = flexer.getTokenLength();
-			final String tokenText = flexer.getTokenText();
-			CommonToken result = new CommonTokenWithText(tokenText, type, Token.DEFAULT_CHANNEL, offset);
+			Token result = createToken(type, offset, length);
 			offset += length;
 			return result;
 		} catch (IOException e) {
@@ -50,6 +49,16 @@ public class FlexTokenSource implements TokenSource {
 		}
 	}
 
+	/**
+	 * Creates the token for the token that was just consumed by the flexer.
+	 * 
+	 * @since 2.11
+	 */
+	protected Token createToken(int type, int offset, int length) {
+		final String tokenText = flexer.getTokenText();
+		return new CommonTokenWithText(tokenText, type, Token.DEFAULT_CHANNEL, offset);
+	}
+
 	@Override
 	public String getSourceName() {
 		return "FlexTokenSource";
@@ -21,4 +21,12 @@ public class FlexerFactory {
 	public FlexTokenSource createTokenSource(Reader reader) {
 		return new FlexTokenSource(createFlexer(reader));
 	}
+	/**
+	 * @since 2.11
+	 */
+	public BufferedFlexTokenSource createBufferedTokenSource(Reader reader) {
+		BufferedFlexTokenSource result = new BufferedFlexTokenSource(createFlexer(null));
+		result.reset(reader);
+		return result;
+	}
 }
\ No newline at end of file
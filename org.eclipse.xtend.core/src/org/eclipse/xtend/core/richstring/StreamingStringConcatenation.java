@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.richstring;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.eclipse.xtend2.lib.StringConcatenation;
+import org.eclipse.xtend2.lib.StringConcatenationClient;
+import org.eclipse.xtend2.lib.StringConcatenationClient.TargetStringConcatenation;
+import org.eclipse.xtext.xbase.lib.Exceptions;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A {@link TargetStringConcatenation} that writes the appended text to an {@link Appendable}, e.g. a
+ * {@link java.io.Writer}, as it goes instead of collecting it in memory. A template whose target type is
+ * {@link StringConcatenationClient} is compiled to calls on its target only, so it can be streamed with
+ * {@link #write(StringConcatenationClient, Appendable, String)} without materializing the generated text.
+ *
+ * The written text is the same as the string representation of a {@link StringConcatenation} with the same line
+ * delimiter that the client was appended to. Since {@link #newLineIfNotEmpty()} and
+ * {@link #appendImmediate(Object, String)} may still change whitespace at the end of the text, trailing whitespace is
+ * retained until non-whitespace text follows or the concatenation is {@link #finish() finished}.
+ *
+ * The characters that have been written cannot be read back, so {@link #charAt(int)} and
+ * {@link #subSequence(int, int)} are not supported.
+ *
+ * @since 2.11
+ */
+public class StreamingStringConcatenation implements TargetStringConcatenation {
+
+	/**
+	 * Writes the given template to the given appendable.
+	 */
+	public static void write(StringConcatenationClient template, Appendable out, String lineDelimiter)
+			throws IOException {
+		StreamingStringConcatenation target = new StreamingStringConcatenation(out, lineDelimiter);
+		target.append(template);
+		target.finish();
+	}
+
+	private final Appendable out;
+
+	private final String lineDelimiter;
+
+	/**
+	 * The whitespace and line delimiters at the end of the text that have not been written yet.
+	 */
+	private final List<String> pending = Lists.newArrayList();
+
+	private boolean contentInLine = false;
+
+	private String indentation = "";
+
+	private int length = 0;
+
+	public StreamingStringConcatenation(Appendable out, String lineDelimiter) {
+		this.out = out;
+		this.lineDelimiter = lineDelimiter;
+	}
+
+	public StreamingStringConcatenation(Appendable out) {
+		this(out, StringConcatenation.DEFAULT_LINE_DELIMITER);
+	}
+
+	@Override
+	public void append(Object object) {
+		append(object, "");
+	}
+
+	@Override
+	public void append(Object object, String indentation) {
+		if (object == null)
+			return;
+		String outerIndentation = this.indentation;
+		this.indentation = outerIndentation + indentation;
+		try {
+			appendValue(object);
+		} finally {
+			this.indentation = outerIndentation;
+		}
+	}
+
+	@Override
+	public void appendImmediate(Object object, String indentation) {
+		// the object is inserted in front of the trailing whitespace
+		List<String> trailing = Lists.newArrayList(pending);
+		boolean trailingLineBreak = trailing.contains(lineDelimiter);
+		pending.clear();
+		append(object, indentation);
+		for (String segment : trailing) {
+			pending.add(segment);
+		}
+		if (trailingLineBreak) {
+			contentInLine = false;
+		}
+	}
+
+	@Override
+	public void newLine() {
+		appendLineDelimiter();
+	}
+
+	@Override
+	public void newLineIfNotEmpty() {
+		if (contentInLine) {
+			appendLineDelimiter();
+			return;
+		}
+		// drop the current line since it consists of whitespace only
+		int lastDelimiter = pending.lastIndexOf(lineDelimiter);
+		pending.subList(lastDelimiter + 1, pending.size()).clear();
+		if (lastDelimiter != -1) {
+			appendSegment(indentation);
+		}
+	}
+
+	/**
+	 * Writes the trailing whitespace that is significant. Nothing may be appended afterwards.
+	 */
+	public void finish() {
+		if (!contentInLine) {
+			int lastDelimiter = pending.lastIndexOf(lineDelimiter);
+			if (lastDelimiter != -1) {
+				pending.subList(lastDelimiter + 1, pending.size()).clear();
+			}
+		}
+		writePending();
+	}
+
+	/**
+	 * @return the number of characters that have been appended so far.
+	 */
+	@Override
+	public int length() {
+		int result = length;
+		for (String segment : pending) {
+			result += segment.length();
+		}
+		return result;
+	}
+
+	@Override
+	public char charAt(int index) {
+		throw new UnsupportedOperationException("The text has been written already");
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		throw new UnsupportedOperationException("The text has been written already");
+	}
+
+	protected void appendValue(Object object) {
+		if (object instanceof StringConcatenationClient) {
+			ClientAccess.appendClient((StringConcatenationClient) object, this);
+		} else {
+			String text = getStringRepresentation(object);
+			if (text != null) {
+				appendText(text);
+			}
+		}
+	}
+
+	protected String getStringRepresentation(Object object) {
+		return object.toString();
+	}
+
+	/**
+	 * Appends the given text, which may span multiple lines. Line breaks are replaced by the line delimiter.
+	 */
+	protected void appendText(String text) {
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\n' || c == '\r') {
+				appendSegment(text.substring(start, i));
+				appendLineDelimiter();
+				if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				start = i + 1;
+			}
+		}
+		appendSegment(text.substring(start));
+	}
+
+	protected void appendLineDelimiter() {
+		pending.add(lineDelimiter);
+		contentInLine = false;
+		appendSegment(indentation);
+	}
+
+	/**
+	 * Appends text without line breaks.
+	 */
+	protected void appendSegment(String segment) {
+		if (segment.length() == 0)
+			return;
+		if (isWhitespace(segment)) {
+			pending.add(segment);
+		} else {
+			writePending();
+			write(segment);
+			contentInLine = true;
+		}
+	}
+
+	protected boolean isWhitespace(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			if (!Character.isWhitespace(segment.charAt(i)))
+				return false;
+		}
+		return true;
+	}
+
+	private void writePending() {
+		for (String segment : pending) {
+			write(segment);
+		}
+		pending.clear();
+	}
+
+	private void write(String segment) {
+		try {
+			out.append(segment);
+			length += segment.length();
+		} catch (IOException e) {
+			throw Exceptions.sneakyThrow(e);
+		}
+	}
+
+	/**
+	 * Provides access to the protected API of the clients.
+	 */
+	private static abstract class ClientAccess extends StringConcatenationClient {
+
+		private static void appendClient(StringConcatenationClient client, TargetStringConcatenation target) {
+			StringConcatenationClient.appendTo(client, target);
+		}
+
+	}
+
+}
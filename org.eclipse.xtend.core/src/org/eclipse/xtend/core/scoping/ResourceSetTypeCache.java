@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.core.scoping;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.common.types.access.IJvmTypeProvider;
+import org.eclipse.xtext.common.types.access.impl.URIHelperConstants;
+import org.eclipse.xtext.common.types.xtext.AbstractTypeScope;
+import org.eclipse.xtext.naming.IQualifiedNameConverter;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.scoping.IScope;
+
+/**
+ * Caches the types that are found for qualified names in a resource set, so the imports that many resources have in
+ * common, e.g. <code>java.util.List</code>, are resolved only once per resource set instead of once per resource.
+ *
+ * The cache is installed as an adapter of the resource set. It is cleared when the type provider of the resource set
+ * is replaced, e.g. because the classpath changed, or when the source resources that contribute types to the index
+ * change, i.e. when they are added, removed, reloaded or their contents are modified. Loading further types from the
+ * classpath only drops the names that were not found.
+ *
+ * @since 2.11
+ */
+public class ResourceSetTypeCache extends AdapterImpl {
+
+	public static ResourceSetTypeCache findOrInstall(ResourceSet resourceSet) {
+		List<Adapter> adapters = resourceSet.eAdapters();
+		synchronized (adapters) {
+			for (Adapter adapter : adapters) {
+				if (adapter instanceof ResourceSetTypeCache) {
+					return (ResourceSetTypeCache) adapter;
+				}
+			}
+			ResourceSetTypeCache result = new ResourceSetTypeCache();
+			adapters.add(result);
+			for (Resource resource : resourceSet.getResources()) {
+				result.observe(resource);
+			}
+			return result;
+		}
+	}
+
+	private final ConcurrentMap<QualifiedName, IEObjectDescription> types = new ConcurrentHashMap<QualifiedName, IEObjectDescription>();
+
+	private final ConcurrentMap<QualifiedName, IEObjectDescription> binaryTypes = new ConcurrentHashMap<QualifiedName, IEObjectDescription>();
+
+	private final Set<QualifiedName> missingTypes = Collections.newSetFromMap(new ConcurrentHashMap<QualifiedName, Boolean>());
+
+	private final Set<QualifiedName> missingBinaryTypes = Collections.newSetFromMap(new ConcurrentHashMap<QualifiedName, Boolean>());
+
+	/**
+	 * Counts the calls to {@link #clear()}, so a lookup that started before cannot store its outdated result.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Counts the calls to {@link #clearMisses()}, so a lookup that started before cannot store its outdated miss.
+	 */
+	private final AtomicLong missGeneration = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private volatile IJvmTypeProvider typeProvider;
+
+	/**
+	 * Observes the source resources in the resource set.
+	 */
+	private final Adapter resourceObserver = new AdapterImpl() {
+		@Override
+		public void notifyChanged(Notification msg) {
+			if (msg.isTouch()) {
+				return;
+			}
+			int featureID = msg.getFeatureID(Resource.class);
+			if (featureID == Resource.RESOURCE__CONTENTS || featureID == Resource.RESOURCE__IS_LOADED) {
+				clear();
+			}
+		}
+	};
+
+	protected ResourceSetTypeCache() {
+	}
+
+	/**
+	 * @return a scope that looks up the types of the given scope through this cache.
+	 */
+	public AbstractTypeScope getTypeScope(AbstractTypeScope typeScope, IJvmTypeProvider typeProvider) {
+		if (this.typeProvider != typeProvider) {
+			synchronized (this) {
+				if (this.typeProvider != typeProvider) {
+					clear();
+					this.typeProvider = typeProvider;
+				}
+			}
+		}
+		return new CachedTypeScope(typeScope, this);
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public void clear() {
+		generation.incrementAndGet();
+		missGeneration.incrementAndGet();
+		types.clear();
+		binaryTypes.clear();
+		missingTypes.clear();
+		missingBinaryTypes.clear();
+	}
+
+	/**
+	 * Forgets the names that were not found, since the types that were loaded in the meantime may match them.
+	 */
+	public void clearMisses() {
+		missGeneration.incrementAndGet();
+		missingTypes.clear();
+		missingBinaryTypes.clear();
+	}
+
+	@Override
+	public void notifyChanged(Notification msg) {
+		if (msg.getFeatureID(ResourceSet.class) != ResourceSet.RESOURCE_SET__RESOURCES) {
+			return;
+		}
+		switch (msg.getEventType()) {
+			case Notification.ADD:
+				if (observe((Resource) msg.getNewValue())) {
+					clear();
+				} else {
+					clearMisses();
+				}
+				break;
+			case Notification.ADD_MANY: {
+				boolean sourceAdded = false;
+				for (Object resource : (Collection<?>) msg.getNewValue()) {
+					sourceAdded |= observe((Resource) resource);
+				}
+				if (sourceAdded) {
+					clear();
+				} else {
+					clearMisses();
+				}
+				break;
+			}
+			case Notification.SET:
+			case Notification.REMOVE:
+			case Notification.REMOVE_MANY:
+				clear();
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == ResourceSetTypeCache.class;
+	}
+
+	/**
+	 * @return <code>true</code> if the resource is a source resource, i.e. not a type resource of the classpath.
+	 */
+	protected boolean observe(Resource resource) {
+		if (resource == null || resource.getURI() == null
+				|| URIHelperConstants.PROTOCOL.equals(resource.getURI().scheme())) {
+			return false;
+		}
+		List<Adapter> adapters = resource.eAdapters();
+		if (!adapters.contains(resourceObserver)) {
+			adapters.add(resourceObserver);
+		}
+		return true;
+	}
+
+	protected IEObjectDescription getSingleElement(QualifiedName name, boolean binary, AbstractTypeScope typeScope) {
+		ConcurrentMap<QualifiedName, IEObjectDescription> cache = binary ? binaryTypes : types;
+		Set<QualifiedName> misses = binary ? missingBinaryTypes : missingTypes;
+		IEObjectDescription cached = cache.get(name);
+		if (cached != null ? isValid(cached) : misses.contains(name)) {
+			hitCount.incrementAndGet();
+			return cached;
+		}
+		missCount.incrementAndGet();
+		if (cached != null) {
+			cache.remove(name, cached);
+		}
+		long generation = this.generation.get();
+		long missGeneration = this.missGeneration.get();
+		IEObjectDescription result = binary ? typeScope.getSingleElement(name, true) : typeScope.getSingleElement(name);
+		if (result != null) {
+			if (generation == this.generation.get()) {
+				cache.put(name, result);
+				// a clear that happened after the check may have missed the new entry
+				if (generation != this.generation.get()) {
+					cache.remove(name, result);
+				}
+			}
+		} else if (missGeneration == this.missGeneration.get()) {
+			misses.add(name);
+			if (missGeneration != this.missGeneration.get()) {
+				misses.remove(name);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * A type that has been unloaded or removed from its resource since it was cached has to be looked up again.
+	 */
+	protected boolean isValid(IEObjectDescription cached) {
+		EObject type = cached.getEObjectOrProxy();
+		return !type.eIsProxy() && type.eResource() != null;
+	}
+
+	protected static class CachedTypeScope extends AbstractTypeScope {
+
+		private final AbstractTypeScope delegate;
+		private final ResourceSetTypeCache cache;
+
+		protected CachedTypeScope(AbstractTypeScope delegate, ResourceSetTypeCache cache) {
+			super(null, null, null);
+			this.delegate = delegate;
+			this.cache = cache;
+		}
+
+		@Override
+		public IEObjectDescription getSingleElement(QualifiedName name) {
+			return cache.getSingleElement(name, false, delegate);
+		}
+
+		@Override
+		public IEObjectDescription getSingleElement(QualifiedName name, boolean binary) {
+			return cache.getSingleElement(name, binary, delegate);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getElements(QualifiedName name) {
+			return delegate.getElements(name);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getElements(EObject object) {
+			return delegate.getElements(object);
+		}
+
+		@Override
+		public IEObjectDescription getSingleElement(EObject object) {
+			return delegate.getSingleElement(object);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getAllElements() {
+			return delegate.getAllElements();
+		}
+
+		@Override
+		public IScope getParent() {
+			return delegate.getParent();
+		}
+
+		@Override
+		public IJvmTypeProvider getTypeProvider() {
+			return delegate.getTypeProvider();
+		}
+
+		@Override
+		public IQualifiedNameConverter getQualifiedNameConverter() {
+			return delegate.getQualifiedNameConverter();
+		}
+
+	}
+
+}
@@ -7,7 +7,11 @@
  *******************************************************************************/
 package org.eclipse.xtend.core.scoping;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.xtext.common.types.JvmDeclaredType;
 import org.eclipse.xtext.common.types.JvmType;
@@ -18,6 +22,7 @@ import org.eclipse.xtext.scoping.impl.ImportNormalizer;
 import org.eclipse.xtext.util.Strings;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 
 /**
  * @author Sebastian Zarnekow - Initial contribution and API
@@ -27,17 +32,39 @@ public class TypeScopeWithWildcardImports extends AbstractScope {
 	private final ImportNormalizer[][] imports;
 	private final RecordingTypeScope typeScope;
 	private final AbstractScope parent;
+	/**
+	 * The number of imports per imported namespace, e.g. <code>java.util</code>.
+	 */
+	private final Map<String, Integer> importedNamespaces;
+	/**
+	 * The resolved names that are known to denote no type.
+	 */
+	private final Set<QualifiedName> unknownNames = Collections.newSetFromMap(new ConcurrentHashMap<QualifiedName, Boolean>());
 
 	public TypeScopeWithWildcardImports(ImportNormalizer[][] imports, RecordingTypeScope typeScope) {
 		this.imports = imports;
 		this.typeScope = typeScope;
 		this.parent = null;
+		this.importedNamespaces = indexImportedNamespaces(imports);
 	}
 	
 	public TypeScopeWithWildcardImports(List<ImportNormalizer> imports, RecordingTypeScope typeScope, AbstractScope parent) {
 		this.imports = new ImportNormalizer[][] { imports.toArray(new ImportNormalizer[imports.size()]) };
 		this.typeScope = typeScope;
 		this.parent = parent;
+		this.importedNamespaces = indexImportedNamespaces(this.imports);
+	}
+	
+	private static Map<String, Integer> indexImportedNamespaces(ImportNormalizer[][] imports) {
+		Map<String, Integer> result = Maps.newHashMap();
+		for(ImportNormalizer[] chunk: imports) {
+			for(ImportNormalizer normalizer: chunk) {
+				String namespace = normalizer.getImportedNamespacePrefix().toString();
+				Integer count = result.get(namespace);
+				result.put(namespace, count == null ? 1 : count + 1);
+			}
+		}
+		return result;
 	}
 	
 	@Override
@@ -48,9 +75,11 @@ public class TypeScopeWithWildcardImports extends AbstractScope {
 			for(int j = 0; j < chunk.length; j++) {
 				ImportNormalizer normalizer = chunk[j];
 				QualifiedName resolvedName = normalizer.resolve(name);
-				if (resolvedName != null) {
+				if (resolvedName != null && !unknownNames.contains(resolvedName)) {
 					IEObjectDescription candidate = typeScope.getSingleElement(resolvedName, true);
-					if (candidate != null) {
+					if (candidate == null) {
+						unknownNames.add(resolvedName);
+					} else {
 						if (result == null) {
 							result = candidate;
 						} else {
@@ -79,25 +108,15 @@ public class TypeScopeWithWildcardImports extends AbstractScope {
 		}
 		JvmDeclaredType declaredType = (JvmDeclaredType) type;
 		String packageName = declaredType.getPackageName();
-		if (!Strings.isEmpty(packageName)) {
-			QualifiedName qualifiedPackageName = QualifiedName.create(Strings.split(packageName, '.'));
-			QualifiedName withDot = null;
-			String withDollar = null; 
-			for(int i = 0; i < imports.length; i++) {
-				ImportNormalizer[] chunk = imports[i];
-				for(int j = 0; j < chunk.length; j++) {
-					ImportNormalizer normalizer = chunk[j];
-					QualifiedName namespacePrefix = normalizer.getImportedNamespacePrefix();
-					if (namespacePrefix.equals(qualifiedPackageName)) {
-						if (withDot == null) {
-							withDot = QualifiedName.create(Strings.split(type.getQualifiedName('.'), '.'));
-							withDollar = type.eContainer() instanceof JvmType ? type.getQualifiedName('$').substring(packageName.length() + 1) : null;
-						}
-						result.add(EObjectDescription.create(withDot.skipFirst(qualifiedPackageName.getSegmentCount()), type));
-						if (withDollar != null) {
-							result.add(EObjectDescription.create(withDollar, type));	
-						}
-					}
+		Integer importCount = Strings.isEmpty(packageName) ? null : importedNamespaces.get(packageName);
+		if (importCount != null) {
+			int packageSegmentCount = Strings.split(packageName, '.').size();
+			QualifiedName withDot = QualifiedName.create(Strings.split(type.getQualifiedName('.'), '.'));
+			String withDollar = type.eContainer() instanceof JvmType ? type.getQualifiedName('$').substring(packageName.length() + 1) : null;
+			for(int i = 0; i < importCount; i++) {
+				result.add(EObjectDescription.create(withDot.skipFirst(packageSegmentCount), type));
+				if (withDollar != null) {
+					result.add(EObjectDescription.create(withDollar, type));	
 				}
 			}
 		}
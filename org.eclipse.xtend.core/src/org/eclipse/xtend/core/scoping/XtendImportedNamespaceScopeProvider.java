@@ -18,6 +18,7 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.xtend.core.jvmmodel.AnonymousClassUtil;
 import org.eclipse.xtend.core.jvmmodel.IXtendJvmAssociations;
 import org.eclipse.xtend.core.xtend.AnonymousClass;
@@ -103,7 +104,7 @@ public class XtendImportedNamespaceScopeProvider extends XImportSectionNamespace
 			if (context instanceof XImportDeclaration) {
 				Resource resource = context.eResource();
 				IJvmTypeProvider typeProvider = typeScopeProvider.getTypeProvider(resource.getResourceSet());
-				AbstractTypeScope typeScope = typeScopeProvider.createTypeScope(typeProvider, null);
+				AbstractTypeScope typeScope = getSharedTypeScope(resource.getResourceSet(), typeProvider, typeScopeProvider.createTypeScope(typeProvider, null));
 				IResourceDescriptions descriptions = resourceDescriptionsProvider.getResourceDescriptions(context.eResource().getResourceSet());
 				IResourceDescription resourceDescription = descriptions.getResourceDescription(resource.getURI());
 				if (resourceDescription != null) {
@@ -121,7 +122,7 @@ public class XtendImportedNamespaceScopeProvider extends XImportSectionNamespace
 				@Override
 				public AbstractScope get() {
 					IJvmTypeProvider typeProvider = typeScopeProvider.getTypeProvider(resource.getResourceSet());
-					AbstractTypeScope typeScope = typeScopeProvider.createTypeScope(typeProvider, null);
+					AbstractTypeScope typeScope = getSharedTypeScope(resource.getResourceSet(), typeProvider, typeScopeProvider.createTypeScope(typeProvider, null));
 					IResourceDescriptions descriptions = resourceDescriptionsProvider.getResourceDescriptions(context.eResource().getResourceSet());
 					IResourceDescription resourceDescription = descriptions.getResourceDescription(resource.getURI());
 					if (resourceDescription != null) {
@@ -171,6 +172,16 @@ public class XtendImportedNamespaceScopeProvider extends XImportSectionNamespace
 		}
 	}
 	
+	/**
+	 * Looks up the types of the given scope through the {@link ResourceSetTypeCache} of the resource set, which is
+	 * shared by all resources in that resource set. Clients may override to opt out of the shared cache.
+	 * 
+	 * @since 2.11
+	 */
+	protected AbstractTypeScope getSharedTypeScope(ResourceSet resourceSet, IJvmTypeProvider typeProvider, AbstractTypeScope typeScope) {
+		return ResourceSetTypeCache.findOrInstall(resourceSet).getTypeScope(typeScope, typeProvider);
+	}
+	
 	protected Set<QualifiedName> getImportedNamesSet(Resource resource) {
 		ImportedNamesAdapter adapter = getImportedNamesAdapter(resource);
 		return adapter.getImportedNames();
@@ -15,9 +15,11 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtend.core.compiler.XtendGeneratorConfig;
 import org.eclipse.xtend.core.jvmmodel.AnonymousClassUtil;
 import org.eclipse.xtend.core.jvmmodel.DispatchHelper;
 import org.eclipse.xtend.core.jvmmodel.IXtendJvmAssociations;
@@ -58,6 +60,7 @@ import org.eclipse.xtext.xbase.XConstructorCall;
 import org.eclipse.xtext.xbase.XExpression;
 import org.eclipse.xtext.xbase.XVariableDeclaration;
 import org.eclipse.xtext.xbase.annotations.xAnnotations.XAnnotation;
+import org.eclipse.xtext.xbase.compiler.IGeneratorConfigProvider;
 import org.eclipse.xtext.xbase.compiler.output.ITreeAppendable;
 import org.eclipse.xtext.xbase.jvmmodel.IJvmModelAssociator;
 import org.eclipse.xtext.xbase.jvmmodel.JvmTypesBuilder;
@@ -337,6 +340,22 @@ public class XtendReentrantTypeResolver extends LogicalContainerAwareReentrantTy
 		/* @Nullable */
 		protected JvmTypeReference doGetTypeReference(XComputedTypeReferenceImplCustom context) {
 			final ITypeReferenceOwner owner = resolvedTypes.getReferenceOwner();
+			if (XtendGeneratorConfig.isConcurrentCreateExtension(generatorConfigProvider.get(createOperation), createOperation)) {
+				// a map per parameter, keyed by the argument itself
+				LightweightTypeReference valueType = owner.toLightweightTypeReference(createOperation.getReturnType());
+				for (int i = 0; i < createOperation.getParameters().size(); i++) {
+					final LightweightTypeReference mapValueType = valueType;
+					valueType = owner.newReferenceTo(ConcurrentHashMap.class, new TypeReferenceInitializer<ParameterizedTypeReference>() {
+						@Override
+						public LightweightTypeReference enhance(ParameterizedTypeReference ref) {
+							ref.addTypeArgument(owner.newReferenceToObject());
+							ref.addTypeArgument(mapValueType);
+							return ref;
+						}
+					});
+				}
+				return toJavaCompliantTypeReference(valueType, session);
+			}
 			LightweightTypeReference hashMapReference = owner.newReferenceTo(HashMap.class, new TypeReferenceInitializer<ParameterizedTypeReference>() {
 				@Override
 				public LightweightTypeReference enhance(ParameterizedTypeReference ref) {
@@ -358,6 +377,9 @@ public class XtendReentrantTypeResolver extends LogicalContainerAwareReentrantTy
 	@Inject
 	private DispatchHelper dispatchHelper;
 
+	@Inject
+	private IGeneratorConfigProvider generatorConfigProvider;
+
 	@Inject
 	private IXtendJvmAssociations associations;
 	
@@ -4,6 +4,7 @@ import com.google.common.base.Objects;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
 import com.google.inject.Inject;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -26,7 +27,6 @@ import org.eclipse.xtend.lib.macro.file.MutableFileSystemSupport;
 import org.eclipse.xtend.lib.macro.file.Path;
 import org.eclipse.xtext.generator.IFilePostProcessor;
 import org.eclipse.xtext.parser.IEncodingProvider;
-import org.eclipse.xtext.util.StringInputStream;
 import org.eclipse.xtext.util.UriUtil;
 import org.eclipse.xtext.workspace.IProjectConfig;
 import org.eclipse.xtext.workspace.IProjectConfigProvider;
@@ -39,6 +39,8 @@ import org.eclipse.xtext.xbase.lib.Pure;
 
 @SuppressWarnings("all")
 public abstract class AbstractFileSystemSupport implements MutableFileSystemSupport {
+  private final static int BUFFER_SIZE = 8192;
+  
   @Inject
   @Accessors
   private IEncodingProvider encodingProvider;
@@ -120,8 +122,8 @@ public abstract class AbstractFileSystemSupport implements MutableFileSystemSupp
     try {
       String _string = processedContents.toString();
       String _charset = this.getCharset(path);
-      StringInputStream _stringInputStream = new StringInputStream(_string, _charset);
-      this.setContentsAsStream(path, _stringInputStream);
+      byte[] _bytes = _string.getBytes(_charset);
+      this.setContents(uri, _bytes);
     } catch (final Throwable _t) {
       if (_t instanceof UnsupportedEncodingException) {
         final UnsupportedEncodingException exc = (UnsupportedEncodingException)_t;
@@ -133,6 +135,45 @@ public abstract class AbstractFileSystemSupport implements MutableFileSystemSupp
     }
   }
   
+  /**
+   * Writes the encoded contents directly to the given file, unless the file already has exactly these contents.
+   * Files of a different size are written without being read.
+   * 
+   * @since 2.11
+   */
+  protected void setContents(final URI uri, final byte[] contents) {
+    try {
+      if ((this.exists(uri) && this.isFile(uri))) {
+        final Object length = this.getAttribute(uri, URIConverter.ATTRIBUTE_LENGTH);
+        if (((!(length instanceof Long)) || Objects.equal(length, Long.valueOf(((long) contents.length))))) {
+          ByteArrayInputStream _byteArrayInputStream = new ByteArrayInputStream(contents);
+          URIConverter _uRIConverter = this.getURIConverter();
+          InputStream _createInputStream = _uRIConverter.createInputStream(uri);
+          boolean _hasContentsChanged = this.hasContentsChanged(_byteArrayInputStream, _createInputStream);
+          boolean _not = (!_hasContentsChanged);
+          if (_not) {
+            return;
+          }
+        }
+      }
+      URIConverter _uRIConverter_1 = this.getURIConverter();
+      final OutputStream out = _uRIConverter_1.createOutputStream(uri);
+      try {
+        out.write(contents);
+      } finally {
+        out.close();
+      }
+    } catch (final Throwable _t) {
+      if (_t instanceof IOException) {
+        final IOException exc = (IOException)_t;
+        String _message = exc.getMessage();
+        throw new IllegalArgumentException(_message, exc);
+      } else {
+        throw Exceptions.sneakyThrow(_t);
+      }
+    }
+  }
+  
   @Override
   public void setContentsAsStream(final Path path, final InputStream source) {
     final URI uri = this.getURI(path);
@@ -173,17 +214,25 @@ public abstract class AbstractFileSystemSupport implements MutableFileSystemSupp
   protected boolean hasContentsChanged(final InputStream newContent, final InputStream oldContent) {
     boolean contentChanged = false;
     try {
-      int newByte = newContent.read();
-      int oldByte = oldContent.read();
-      while ((((newByte != (-1)) && (oldByte != (-1))) && (newByte == oldByte))) {
+      final byte[] newBuffer = new byte[AbstractFileSystemSupport.BUFFER_SIZE];
+      final byte[] oldBuffer = new byte[AbstractFileSystemSupport.BUFFER_SIZE];
+      int newRead = this.fill(newContent, newBuffer);
+      int oldRead = this.fill(oldContent, oldBuffer);
+      while ((((newRead > 0) && (newRead == oldRead)) && (!contentChanged))) {
         {
-          int _read = newContent.read();
-          newByte = _read;
-          int _read_1 = oldContent.read();
-          oldByte = _read_1;
+          for (int i = 0; ((i < newRead) && (!contentChanged)); i++) {
+            byte _get = newBuffer[i];
+            byte _get_1 = oldBuffer[i];
+            boolean _notEquals = (_get != _get_1);
+            contentChanged = _notEquals;
+          }
+          int _fill = this.fill(newContent, newBuffer);
+          newRead = _fill;
+          int _fill_1 = this.fill(oldContent, oldBuffer);
+          oldRead = _fill_1;
         }
       }
-      contentChanged = (newByte != oldByte);
+      contentChanged = (contentChanged || (newRead != oldRead));
     } catch (final Throwable _t) {
       if (_t instanceof IOException) {
         final IOException e = (IOException)_t;
@@ -207,6 +256,33 @@ public abstract class AbstractFileSystemSupport implements MutableFileSystemSupp
     return contentChanged;
   }
   
+  /**
+   * Fills the buffer from the stream, so that two streams with the same contents yield chunks of the same size.
+   * 
+   * @return the number of bytes that were read, {@code -1} if the stream was at its end.
+   * @since 2.11
+   */
+  protected int fill(final InputStream stream, final byte[] buffer) throws IOException {
+    int count = 0;
+    while ((count < buffer.length)) {
+      {
+        final int read = stream.read(buffer, count, (buffer.length - count));
+        if ((read == (-1))) {
+          int _xifexpression = (int) 0;
+          if ((count == 0)) {
+            _xifexpression = (-1);
+          } else {
+            _xifexpression = count;
+          }
+          return _xifexpression;
+        }
+        int _count = count;
+        count = (_count + read);
+      }
+    }
+    return count;
+  }
+  
   @Override
   public Iterable<? extends Path> getChildren(final Path path) {
     boolean _equals = Objects.equal(path, Path.ROOT);
@@ -7,15 +7,24 @@
  */
 package org.eclipse.xtend.core.macro;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.log4j.Logger;
 import org.eclipse.xtend.core.macro.ActiveAnnotationContext;
@@ -28,6 +37,7 @@ import org.eclipse.xtend.core.xtend.XtendMember;
 import org.eclipse.xtend.core.xtend.XtendParameter;
 import org.eclipse.xtend.lib.annotations.AccessorType;
 import org.eclipse.xtend.lib.annotations.Accessors;
+import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor;
 import org.eclipse.xtend.lib.macro.RegisterGlobalsParticipant;
 import org.eclipse.xtend.lib.macro.TransformationParticipant;
 import org.eclipse.xtend.lib.macro.ValidationParticipant;
@@ -52,60 +62,182 @@ import org.eclipse.xtext.xbase.lib.Pure;
  */
 @SuppressWarnings("all")
 public class AnnotationProcessor {
+  /**
+   * Watches the cancel indicators of all running annotation processors with a single scheduled thread. The check is
+   * only scheduled while there are contexts to watch, and the thread terminates after it has been idle for a second.
+   */
   @Singleton
   protected static class CancellationObserver {
     private final static Logger log = Logger.getLogger(AnnotationProcessor.CancellationObserver.class);
     
+    /**
+     * The interval in milliseconds in which the active contexts are checked for cancellation.
+     * @since 2.11
+     */
+    protected final static long CHECK_INTERVAL = 10;
+    
+    private final Set<AnnotationProcessor.MonitoredContext> activeContexts = Collections.<AnnotationProcessor.MonitoredContext>newSetFromMap(new ConcurrentHashMap<AnnotationProcessor.MonitoredContext, Boolean>());
+    
+    /**
+     * @since 2.11
+     */
     @Accessors(AccessorType.PROTECTED_GETTER)
-    private ExecutorService pool = this.initPool();
+    private ScheduledExecutorService watchdog;
+    
+    private ScheduledFuture<?> scheduledCheck;
+    
+    private ExecutorService pool;
     
+    /**
+     * @deprecated the observer no longer runs a task per annotation processor, see {@link #initWatchdog()}
+     */
+    @Deprecated
     protected ExecutorService initPool() {
       return Executors.newCachedThreadPool();
     }
     
+    /**
+     * @deprecated the observer no longer runs a task per annotation processor, see {@link #getWatchdog()}
+     */
+    @Deprecated
+    protected synchronized ExecutorService getPool() {
+      if ((this.pool == null)) {
+        ExecutorService _initPool = this.initPool();
+        this.pool = _initPool;
+      }
+      return this.pool;
+    }
+    
+    /**
+     * @since 2.11
+     */
+    protected ScheduledExecutorService initWatchdog() {
+      ThreadFactoryBuilder _threadFactoryBuilder = new ThreadFactoryBuilder();
+      ThreadFactoryBuilder _setNameFormat = _threadFactoryBuilder.setNameFormat("xtend-cancellation-observer");
+      ThreadFactoryBuilder _setDaemon = _setNameFormat.setDaemon(true);
+      ThreadFactory _build = _setDaemon.build();
+      final ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, _build);
+      result.setKeepAliveTime(1, TimeUnit.SECONDS);
+      result.allowCoreThreadTimeOut(true);
+      result.setRemoveOnCancelPolicy(true);
+      return result;
+    }
+    
+    /**
+     * @return the periodic check of the monitored contexts or <code>null</code> if the given cancel indicator can
+     *         never be canceled.
+     */
     public Future<?> monitorUntil(final ActiveAnnotationContext ctx, final CancelIndicator cancelIndicator, final Function0<? extends Boolean> isFinished) {
-      Future<?> _xblockexpression = null;
-      {
+      if (((cancelIndicator == null) || (cancelIndicator == CancelIndicator.NullImpl))) {
+        return null;
+      }
+      AnnotationProcessor.MonitoredContext _monitoredContext = new AnnotationProcessor.MonitoredContext(ctx, cancelIndicator, isFinished);
+      this.activeContexts.add(_monitoredContext);
+      return this.scheduleCheck();
+    }
+    
+    /**
+     * @since 2.11
+     */
+    protected synchronized Future<?> scheduleCheck() {
+      if ((this.watchdog == null)) {
+        ScheduledExecutorService _initWatchdog = this.initWatchdog();
+        this.watchdog = _initWatchdog;
+      }
+      if ((this.scheduledCheck == null)) {
         final Runnable _function = () -> {
+          this.checkCanceled();
+        };
+        ScheduledFuture<?> _scheduleWithFixedDelay = this.watchdog.scheduleWithFixedDelay(_function, AnnotationProcessor.CancellationObserver.CHECK_INTERVAL, AnnotationProcessor.CancellationObserver.CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        this.scheduledCheck = _scheduleWithFixedDelay;
+      }
+      return this.scheduledCheck;
+    }
+    
+    /**
+     * Stops the periodic check once the last monitored context has finished or was canceled.
+     * @since 2.11
+     */
+    protected synchronized void cancelCheckIfIdle() {
+      if ((this.activeContexts.isEmpty() && (this.scheduledCheck != null))) {
+        this.scheduledCheck.cancel(false);
+        this.scheduledCheck = null;
+      }
+    }
+    
+    /**
+     * @since 2.11
+     */
+    protected void checkCanceled() {
+      final Iterator<AnnotationProcessor.MonitoredContext> iterator = this.activeContexts.iterator();
+      while (iterator.hasNext()) {
+        {
+          final AnnotationProcessor.MonitoredContext context = iterator.next();
           try {
-            while ((!(isFinished.apply()).booleanValue())) {
-              {
-                boolean _isCanceled = cancelIndicator.isCanceled();
-                if (_isCanceled) {
-                  CompilationUnitImpl _compilationUnit = ctx.getCompilationUnit();
-                  _compilationUnit.setCanceled(true);
-                  return;
-                }
-                Thread.sleep(100);
+            Function0<? extends Boolean> _finished = context.getFinished();
+            Boolean _apply = _finished.apply();
+            if ((_apply).booleanValue()) {
+              iterator.remove();
+            } else {
+              CancelIndicator _cancelIndicator = context.getCancelIndicator();
+              boolean _isCanceled = _cancelIndicator.isCanceled();
+              if (_isCanceled) {
+                ActiveAnnotationContext _ctx = context.getCtx();
+                CompilationUnitImpl _compilationUnit = _ctx.getCompilationUnit();
+                _compilationUnit.setCanceled(true);
+                iterator.remove();
               }
             }
-          } catch (Throwable _e) {
-            throw Exceptions.sneakyThrow(_e);
-          }
-        };
-        final Runnable r = _function;
-        Future<?> _xtrycatchfinallyexpression = null;
-        try {
-          _xtrycatchfinallyexpression = this.pool.submit(r);
-        } catch (final Throwable _t) {
-          if (_t instanceof RejectedExecutionException) {
-            final RejectedExecutionException e = (RejectedExecutionException)_t;
-            String _message = e.getMessage();
-            AnnotationProcessor.CancellationObserver.log.debug(_message, e);
-            Thread _thread = new Thread(r);
-            _thread.start();
-          } else {
-            throw Exceptions.sneakyThrow(_t);
+          } catch (final Throwable _t) {
+            if (_t instanceof Exception) {
+              final Exception e = (Exception)_t;
+              String _message = e.getMessage();
+              AnnotationProcessor.CancellationObserver.log.error(_message, e);
+              iterator.remove();
+            } else {
+              throw Exceptions.sneakyThrow(_t);
+            }
           }
         }
-        _xblockexpression = _xtrycatchfinallyexpression;
       }
-      return _xblockexpression;
+      this.cancelCheckIfIdle();
     }
     
     @Pure
-    protected ExecutorService getPool() {
-      return this.pool;
+    protected ScheduledExecutorService getWatchdog() {
+      return this.watchdog;
+    }
+  }
+  
+  @FinalFieldsConstructor
+  @Accessors(AccessorType.PACKAGE_GETTER)
+  protected static class MonitoredContext {
+    private final ActiveAnnotationContext ctx;
+    
+    private final CancelIndicator cancelIndicator;
+    
+    private final Function0<? extends Boolean> finished;
+    
+    public MonitoredContext(final ActiveAnnotationContext ctx, final CancelIndicator cancelIndicator, final Function0<? extends Boolean> finished) {
+      super();
+      this.ctx = ctx;
+      this.cancelIndicator = cancelIndicator;
+      this.finished = finished;
+    }
+    
+    @Pure
+    ActiveAnnotationContext getCtx() {
+      return this.ctx;
+    }
+    
+    @Pure
+    CancelIndicator getCancelIndicator() {
+      return this.cancelIndicator;
+    }
+    
+    @Pure
+    Function0<? extends Boolean> getFinished() {
+      return this.finished;
     }
   }
   
@@ -276,12 +408,18 @@ public class AnnotationProcessor {
   }
   
   /**
-   * runs the given runnable and another thread in parallel, that sets the timeout property on the compilation unit to true
-   * when the given amount of milliseconds have passed by.
+   * runs the given runnable while the {@link CancellationObserver} sets the canceled property on the compilation unit to true
+   * as soon as the given cancel indicator is canceled.
    */
   private Object runWithCancelIndiciator(final ActiveAnnotationContext ctx, final CancelIndicator cancelIndicator, final Runnable runnable) {
     Object _xblockexpression = null;
     {
+      Object _processorInstance = ctx.getProcessorInstance();
+      Class<?> _class = _processorInstance.getClass();
+      String _name = _class.getName();
+      String _plus = ("[macros] " + _name);
+      final Stopwatches.StoppedTask task = Stopwatches.forTask(_plus);
+      task.start();
       final AtomicBoolean isFinished = new AtomicBoolean(false);
       final Function0<Boolean> _function = () -> {
         return Boolean.valueOf(isFinished.get());
@@ -299,6 +437,7 @@ public class AnnotationProcessor {
         }
       } finally {
         isFinished.set(true);
+        task.stop();
       }
       _xblockexpression = _xtrycatchfinallyexpression;
     }
@@ -8,13 +8,24 @@
 package org.eclipse.xtend.core.macro;
 
 import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.Iterables;
 import com.google.inject.Singleton;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notifier;
@@ -31,12 +42,54 @@ import org.eclipse.xtext.util.internal.AlternateJdkLoader;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Conversions;
 import org.eclipse.xtext.xbase.lib.Exceptions;
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.ListExtensions;
+import org.eclipse.xtext.xbase.lib.Pair;
 import org.eclipse.xtext.xbase.lib.Pure;
 
 @Singleton
 @SuppressWarnings("all")
 public class ProcessorInstanceForJvmTypeProvider {
+  /**
+   * A class loader for the jar files of a processor class path together with the sizes and time stamps of the
+   * jars at the time it was created.
+   */
+  @Accessors
+  protected static class SharedClassLoader {
+    private final String fingerprint;
+    
+    private final URLClassLoader classLoader;
+    
+    public SharedClassLoader(final String fingerprint, final URLClassLoader classLoader) {
+      this.fingerprint = fingerprint;
+      this.classLoader = classLoader;
+    }
+    
+    public void close() {
+      try {
+        this.classLoader.close();
+      } catch (final Throwable _t) {
+        if (_t instanceof IOException) {
+          final IOException e = (IOException)_t;
+          ProcessorInstanceForJvmTypeProvider.logger.debug("Failed to close a shared processor class loader", e);
+        } else {
+          throw Exceptions.sneakyThrow(_t);
+        }
+      }
+    }
+    
+    @Pure
+    public String getFingerprint() {
+      return this.fingerprint;
+    }
+    
+    @Pure
+    public URLClassLoader getClassLoader() {
+      return this.classLoader;
+    }
+  }
+  
   @Accessors
   public static class ProcessorClassloaderAdapter extends AdapterImpl {
     private ClassLoader classLoader;
@@ -99,6 +152,48 @@ public class ProcessorInstanceForJvmTypeProvider {
   
   private final static Logger logger = Logger.getLogger(ProcessorInstanceForJvmTypeProvider.class);
   
+  private final static Object NOT_SHAREABLE = new Object();
+  
+  /**
+   * A processor without instance fields cannot carry any state from one annotated element to the next, so a single
+   * instance per processor class is used. The instance is stored with its class and is therefore discarded together
+   * with the class loader of the processor.
+   */
+  private final ClassValue<Object> processorInstances = new ClassValue<Object>() {
+    @Override
+    protected Object computeValue(final Class<?> type) {
+      try {
+        boolean _isStateless = ProcessorInstanceForJvmTypeProvider.this.isStateless(type);
+        boolean _not = (!_isStateless);
+        if (_not) {
+          return ProcessorInstanceForJvmTypeProvider.NOT_SHAREABLE;
+        }
+        ProcessorInstanceForJvmTypeProvider.this.createdProcessorInstances.incrementAndGet();
+        return type.newInstance();
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    }
+  };
+  
+  private final Cache<Pair<ClassLoader, List<String>>, ProcessorInstanceForJvmTypeProvider.SharedClassLoader> sharedClassLoaders = CacheBuilder.newBuilder().maximumSize(16).<Pair<ClassLoader, List<String>>, ProcessorInstanceForJvmTypeProvider.SharedClassLoader>removalListener(new RemovalListener<Pair<ClassLoader, List<String>>, ProcessorInstanceForJvmTypeProvider.SharedClassLoader>() {
+    @Override
+    public void onRemoval(final RemovalNotification<Pair<ClassLoader, List<String>>, ProcessorInstanceForJvmTypeProvider.SharedClassLoader> notification) {
+      if (((!Objects.equal(notification.getCause(), RemovalCause.REPLACED)) || (ProcessorInstanceForJvmTypeProvider.this.sharedClassLoaders.getIfPresent(notification.getKey()) != notification.getValue()))) {
+        ProcessorInstanceForJvmTypeProvider.SharedClassLoader _value = notification.getValue();
+        _value.close();
+      }
+    }
+  }).<Pair<ClassLoader, List<String>>, ProcessorInstanceForJvmTypeProvider.SharedClassLoader>build();
+  
+  private final AtomicLong createdProcessorInstances = new AtomicLong();
+  
+  private final AtomicLong requestedProcessorInstances = new AtomicLong();
+  
+  private final AtomicLong loadedClassLoaders = new AtomicLong();
+  
+  private final AtomicLong reusedClassLoaders = new AtomicLong();
+  
   /**
    * @return an instance of the given JvmType
    */
@@ -111,11 +206,11 @@ public class ProcessorInstanceForJvmTypeProvider {
         _loadClass=_classLoader.loadClass(_identifier);
       }
       final Class<?> loadClass = _loadClass;
-      Object _newInstance = null;
+      Object _instance = null;
       if (loadClass!=null) {
-        _newInstance=loadClass.newInstance();
+        _instance=this.getInstance(loadClass);
       }
-      return _newInstance;
+      return _instance;
     } catch (final Throwable _t) {
       if (_t instanceof Exception) {
         final Exception e = (Exception)_t;
@@ -131,6 +226,168 @@ public class ProcessorInstanceForJvmTypeProvider {
     }
   }
   
+  /**
+   * @return the instance of the given processor class that is shared by all annotated elements if the processor
+   *         is stateless, a new instance otherwise.
+   * @since 2.11
+   */
+  public Object getInstance(final Class<?> processorClass) throws Exception {
+    this.requestedProcessorInstances.incrementAndGet();
+    final Object shared = this.processorInstances.get(processorClass);
+    if ((shared == ProcessorInstanceForJvmTypeProvider.NOT_SHAREABLE)) {
+      this.createdProcessorInstances.incrementAndGet();
+      return processorClass.newInstance();
+    }
+    return shared;
+  }
+  
+  /**
+   * @return <code>true</code> if neither the given class nor one of its super classes declares instance fields.
+   * @since 2.11
+   */
+  protected boolean isStateless(final Class<?> processorClass) {
+    Class<?> type = processorClass;
+    while (((type != null) && (!Objects.equal(type, Object.class)))) {
+      {
+        Field[] _declaredFields = type.getDeclaredFields();
+        final Function1<Field, Boolean> _function = (Field it) -> {
+          int _modifiers = it.getModifiers();
+          boolean _isStatic = Modifier.isStatic(_modifiers);
+          return Boolean.valueOf((!_isStatic));
+        };
+        boolean _exists = IterableExtensions.<Field>exists(((Iterable<Field>)Conversions.doWrapArray(_declaredFields)), _function);
+        if (_exists) {
+          return false;
+        }
+        Class<?> _superclass = type.getSuperclass();
+        type = _superclass;
+      }
+    }
+    return true;
+  }
+  
+  /**
+   * Creates the class loader for the processors of a compilation. The jar files of the class path are served by a
+   * class loader that is shared by all compilations with the same jar files and the same parent, so the processor
+   * classes in these jars are loaded and compiled by the VM only once. A jar is identified by its path, size and time
+   * stamp: if one of them changes, a new class loader is created for the jars and the stale one is dropped from the
+   * cache and closed. Class loaders that are evicted from the cache are closed, too. The directories of the class
+   * path are served by a class loader that is private to the compilation and is returned. Closing it does not
+   * affect the shared class loader.
+   * 
+   * Classes in jar files take precedence over classes with the same name in directories, and they cannot see the
+   * classes in directories.
+   * 
+   * @param classpath the jar files and directories of the compilation
+   * @param parent the parent of the shared class loader
+   * @since 2.11
+   */
+  public ClassLoader createSharedClassLoader(final Iterable<File> classpath, final ClassLoader parent) {
+    try {
+      final ArrayList<File> jars = CollectionLiterals.<File>newArrayList();
+      final ArrayList<URL> directories = CollectionLiterals.<URL>newArrayList();
+      for (final File entry : classpath) {
+        if ((entry.isFile() && entry.getName().endsWith(".jar"))) {
+          jars.add(entry);
+        } else {
+          URI _uRI = entry.toURI();
+          URL _uRL = _uRI.toURL();
+          directories.add(_uRL);
+        }
+      }
+      final Function1<File, String> _function = (File it) -> {
+        return it.getAbsolutePath();
+      };
+      List<String> _map = ListExtensions.<File, String>map(jars, _function);
+      final Pair<ClassLoader, List<String>> key = Pair.<ClassLoader, List<String>>of(parent, _map);
+      final Function1<File, String> _function_1 = (File it) -> {
+        String _absolutePath = it.getAbsolutePath();
+        String _plus = (_absolutePath + "@");
+        long _length = it.length();
+        String _plus_1 = (_plus + Long.valueOf(_length));
+        String _plus_2 = (_plus_1 + "@");
+        long _lastModified = it.lastModified();
+        return (_plus_2 + Long.valueOf(_lastModified));
+      };
+      List<String> _map_1 = ListExtensions.<File, String>map(jars, _function_1);
+      final String fingerprint = IterableExtensions.join(_map_1, File.pathSeparator);
+      ProcessorInstanceForJvmTypeProvider.SharedClassLoader sharedClassLoader = null;
+      synchronized (this.sharedClassLoaders) {
+        ProcessorInstanceForJvmTypeProvider.SharedClassLoader _ifPresent = this.sharedClassLoaders.getIfPresent(key);
+        sharedClassLoader = _ifPresent;
+        if (((sharedClassLoader == null) || (!Objects.equal(sharedClassLoader.getFingerprint(), fingerprint)))) {
+          if ((sharedClassLoader != null)) {
+            ProcessorInstanceForJvmTypeProvider.logger.debug("The jar files of the processor class path have changed. The processors are reloaded.");
+          }
+          final Function1<File, URL> _function_2 = (File it) -> {
+            try {
+              URI _uRI = it.toURI();
+              return _uRI.toURL();
+            } catch (Throwable _e) {
+              throw Exceptions.sneakyThrow(_e);
+            }
+          };
+          List<URL> _map_2 = ListExtensions.<File, URL>map(jars, _function_2);
+          URLClassLoader _uRLClassLoader = new URLClassLoader(((URL[])Conversions.unwrapArray(_map_2, URL.class)), parent);
+          ProcessorInstanceForJvmTypeProvider.SharedClassLoader _sharedClassLoader = new ProcessorInstanceForJvmTypeProvider.SharedClassLoader(fingerprint, _uRLClassLoader);
+          sharedClassLoader = _sharedClassLoader;
+          this.sharedClassLoaders.put(key, sharedClassLoader);
+          this.loadedClassLoaders.incrementAndGet();
+        } else {
+          this.reusedClassLoaders.incrementAndGet();
+        }
+      }
+      URLClassLoader _classLoader = sharedClassLoader.getClassLoader();
+      return new URLClassLoader(((URL[])Conversions.unwrapArray(directories, URL.class)), _classLoader);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  /**
+   * Discards all shared class loaders and closes them. Must not be called while compilations that use them are
+   * running.
+   * 
+   * @since 2.11
+   */
+  public void clearSharedClassLoaders() {
+    this.sharedClassLoaders.invalidateAll();
+  }
+  
+  /**
+   * @return the number of processor instances that were created.
+   * @since 2.11
+   */
+  public long getCreatedProcessorInstances() {
+    return this.createdProcessorInstances.get();
+  }
+  
+  /**
+   * @return the number of times that a stateless processor instance was reused.
+   * @since 2.11
+   */
+  public long getReusedProcessorInstances() {
+    long _get = this.requestedProcessorInstances.get();
+    long _get_1 = this.createdProcessorInstances.get();
+    return (_get - _get_1);
+  }
+  
+  /**
+   * @return the number of shared class loaders that were created for the jar files of processor class paths.
+   * @since 2.11
+   */
+  public long getLoadedClassLoaders() {
+    return this.loadedClassLoaders.get();
+  }
+  
+  /**
+   * @return the number of times that a shared class loader was reused.
+   * @since 2.11
+   */
+  public long getReusedClassLoaders() {
+    return this.reusedClassLoaders.get();
+  }
+  
   protected ClassLoader getClassLoader(final EObject ctx) {
     Resource _eResource = ctx.eResource();
     final ResourceSet resourceSet = _eResource.getResourceSet();
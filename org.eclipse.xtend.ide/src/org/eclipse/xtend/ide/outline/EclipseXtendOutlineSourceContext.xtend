@@ -39,6 +39,7 @@ class EclipseXtendOutlineSourceContext extends EclipseXtendOutlineContext {
 			if (function.createExtensionInfo !== null) {
 				for (jvmFeature : function.jvmElements.filter(JvmFeature).filter[it != member].filter [
 					simpleName.startsWith(CREATE_CHACHE_VARIABLE_PREFIX) ||
+						simpleName.startsWith(CREATE_CACHE_NULL_KEY_PREFIX) ||
 						simpleName.startsWith(CREATE_INITIALIZER_PREFIX)
 				]) {
 					super.markAsProcessed(jvmFeature)
@@ -50,7 +50,7 @@ public class JdtBasedProcessorProvider extends ProcessorInstanceForJvmTypeProvid
       final ClassLoader classLoader = this.getClassLoader(type);
       String _identifier = type.getIdentifier();
       final Class<?> result = classLoader.loadClass(_identifier);
-      return result.newInstance();
+      return this.getInstance(result);
     } catch (final Throwable _t) {
       if (_t instanceof Exception) {
         final Exception e = (Exception)_t;
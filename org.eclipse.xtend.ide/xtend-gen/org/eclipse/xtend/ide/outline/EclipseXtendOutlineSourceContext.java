@@ -61,7 +61,8 @@ public class EclipseXtendOutlineSourceContext extends EclipseXtendOutlineContext
         };
         Iterable<JvmFeature> _filter_1 = IterableExtensions.<JvmFeature>filter(_filter, _function);
         final Function1<JvmFeature, Boolean> _function_1 = (JvmFeature it) -> {
-          return Boolean.valueOf((it.getSimpleName().startsWith(XtendJvmModelInferrer.CREATE_CHACHE_VARIABLE_PREFIX) || 
+          return Boolean.valueOf(((it.getSimpleName().startsWith(XtendJvmModelInferrer.CREATE_CHACHE_VARIABLE_PREFIX) || 
+            it.getSimpleName().startsWith(XtendJvmModelInferrer.CREATE_CACHE_NULL_KEY_PREFIX)) || 
             it.getSimpleName().startsWith(XtendJvmModelInferrer.CREATE_INITIALIZER_PREFIX)));
         };
         Iterable<JvmFeature> _filter_2 = IterableExtensions.<JvmFeature>filter(_filter_1, _function_1);
@@ -15,12 +15,14 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.security.CodeSource;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
@@ -29,10 +31,17 @@ import org.apache.maven.toolchain.ToolchainManager;
 import org.apache.maven.toolchain.java.DefaultJavaToolChain;
 import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.xtend.core.compiler.batch.CompilerDaemonClient;
+import org.eclipse.xtend.core.compiler.batch.SharedJvmTypeCache;
 import org.eclipse.xtend.core.compiler.batch.XtendBatchCompiler;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 
 import com.google.common.base.Predicate;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
@@ -41,6 +50,24 @@ import com.google.inject.Provider;
  * @author Michael Clay - Initial contribution and API
  */
 public abstract class AbstractXtendCompilerMojo extends AbstractXtendMojo {
+	/**
+	 * The JVM type caches of the running builds, one per build request. The modules of a build that uses several
+	 * threads are executed with copies of the session, which all refer to the same request.
+	 */
+	private static final LoadingCache<MavenExecutionRequest, SharedJvmTypeCache> SHARED_TYPE_CACHES = CacheBuilder
+			.newBuilder().weakKeys().removalListener(new RemovalListener<MavenExecutionRequest, SharedJvmTypeCache>() {
+
+				public void onRemoval(RemovalNotification<MavenExecutionRequest, SharedJvmTypeCache> notification) {
+					notification.getValue().clear();
+				}
+			}).build(new CacheLoader<MavenExecutionRequest, SharedJvmTypeCache>() {
+
+				@Override
+				public SharedJvmTypeCache load(MavenExecutionRequest request) {
+					return new SharedJvmTypeCache(16);
+				}
+			});
+
 	protected static final Predicate<String> FILE_EXISTS = new Predicate<String>() {
 
 		public boolean apply(String filePath) {
@@ -124,6 +151,111 @@ public abstract class AbstractXtendCompilerMojo extends AbstractXtendMojo {
 	 */
 	private String generatedAnnotationComment;
 
+	/**
+	 * The number of threads that are used to validate the Xtend sources and to generate the Java code. Defaults to a
+	 * sequential compilation.
+	 * 
+	 * @parameter default-value="1" expression="${xtendNumberOfThreads}"
+	 */
+	private int numberOfThreads;
+
+	/**
+	 * Set this to true to precompile the Java stubs of the Xtend types in memory instead of the temp directory.
+	 * 
+	 * @parameter default-value="false" expression="${xtendInMemoryStubs}"
+	 */
+	private boolean inMemoryStubs;
+
+	/**
+	 * Set this to true to recompile only the Xtend sources that are affected by the changes since the last build. The
+	 * state of the last build is kept in the temp directory. By default, all sources of a module are compiled.
+	 * 
+	 * @parameter default-value="false" expression="${xtendIncremental}"
+	 */
+	private boolean incremental;
+
+	/**
+	 * Skip the compilation if neither the Xtend and Java sources, nor the class path, nor the configuration, nor the
+	 * generated files changed since the last successful compilation. The check compares hashes of the contents of
+	 * these files and of the configuration that are recorded in the temp directory.
+	 * 
+	 * @parameter default-value="true" expression="${xtendUpToDateCheck}"
+	 */
+	private boolean upToDateCheck;
+
+	/**
+	 * Set this to true to load the Xtend sources that did not change since the last build from their storage files
+	 * instead of parsing them again.
+	 * 
+	 * @parameter default-value="false" expression="${xtendReadStorageFiles}"
+	 */
+	private boolean readStorageFiles;
+
+	/**
+	 * Retain the JVM types of the JDK and of the dependency jars across the modules and goals of a reactor build. Jars
+	 * are identified by their content, so a module never sees the types of a different version of a jar. The types are
+	 * retained for the duration of the build and may be shared by modules that are compiled concurrently. Set this to
+	 * false to load the types anew for each compilation.
+	 * 
+	 * @parameter default-value="true" expression="${xtendSharedTypeCache}"
+	 */
+	private boolean sharedTypeCache;
+
+	/**
+	 * Set this to false to load the Xtend sources one after the other even if more than one thread is used.
+	 * 
+	 * @parameter default-value="true" expression="${xtendParallelLoading}"
+	 */
+	private boolean parallelLoading;
+
+	/**
+	 * Set this to true to release the parse tree of each Xtend source as soon as its Java code has been generated. This
+	 * lowers the heap that is needed to compile many sources. The generated code does not change.
+	 * 
+	 * @parameter default-value="false" expression="${xtendDiscardNodeModels}"
+	 */
+	private boolean discardNodeModels;
+
+	/**
+	 * Set this to true to generate lock-free caches for create functions with one or two parameters, so they can be
+	 * called concurrently without contention.
+	 * 
+	 * @parameter default-value="false" expression="${xtendConcurrentCreateExtensions}"
+	 */
+	private boolean concurrentCreateExtensions;
+
+	/**
+	 * The number of cases from which dispatch methods look up the case to call in a table instead of
+	 * testing one case after the other. Requires Java 7 or higher as the target. 0 disables dispatch tables.
+	 * 
+	 * @parameter default-value="0" expression="${xtendDispatchTableThreshold}"
+	 */
+	private int dispatchTableThreshold;
+
+	/**
+	 * Set this to true to compile template expressions to as few calls on the StringConcatenation as possible. The
+	 * generated text does not change.
+	 * 
+	 * @parameter default-value="false" expression="${xtendCompactRichStrings}"
+	 */
+	private boolean compactRichStrings;
+
+	/**
+	 * The file to write a report with the time and memory spent per compiler phase to. The report is logged, too. If
+	 * not set, no report is created.
+	 * 
+	 * @parameter expression="${xtendReportFile}"
+	 */
+	private String reportFile;
+
+	/**
+	 * The local port of a running Xtend compiler daemon (see <code>Main -daemon &lt;port&gt;</code>). If set, the
+	 * compilation is delegated to the daemon instead of bootstrapping the compiler in the Maven process.
+	 * 
+	 * @parameter default-value="0" expression="${xtendDaemonPort}"
+	 */
+	private int daemonPort;
+
 	@Inject
 	private Provider<XtendBatchCompiler> xtendBatchCompilerProvider;
 
@@ -134,7 +266,7 @@ public abstract class AbstractXtendCompilerMojo extends AbstractXtendMojo {
 	protected void compile(String classPath, List<String> sourcePaths, String outputPath) throws MojoExecutionException {
 		XtendBatchCompiler compiler = getBatchCompiler();
 		Log log = getLog();
-		compiler.setResourceSetProvider(new MavenProjectResourceSetProvider(project));
+		compiler.setResourceSetProvider(new MavenProjectResourceSetProvider(project, numberOfThreads > 1));
 		Iterable<String> filtered = filter(sourcePaths, FILE_EXISTS);
 		if (Iterables.isEmpty(filtered)) {
 			String dir = Iterables.toString(sourcePaths);
@@ -142,6 +274,37 @@ public abstract class AbstractXtendCompilerMojo extends AbstractXtendMojo {
 			return;
 		}
 		String baseDir = project.getBasedir().getAbsolutePath();
+		UpToDateCheck check = null;
+		if (upToDateCheck) {
+			check = createUpToDateCheck(classPath, newArrayList(filtered), outputPath, baseDir);
+			try {
+				if (check.isUpToDate()) {
+					log.info("Xtend sources are up-to-date.");
+					return;
+				}
+			} catch (IOException e) {
+				log.debug("Cannot read the state of the last compilation.", e);
+			}
+			// a failing compilation must not leave a state behind that matches the next run
+			check.invalidate();
+		}
+		if (daemonPort > 0) {
+			compileInDaemon(classPath, newArrayList(filtered), outputPath, baseDir);
+		} else {
+			compileInProcess(compiler, classPath, newArrayList(filtered), outputPath, baseDir);
+		}
+		if (check != null) {
+			try {
+				check.update();
+			} catch (IOException e) {
+				log.warn("Cannot record the state of the compilation.", e);
+			}
+		}
+	}
+
+	private void compileInProcess(XtendBatchCompiler compiler, String classPath, List<String> sourcePaths,
+			String outputPath, String baseDir) throws MojoExecutionException {
+		Log log = getLog();
 		log.debug("Set Java Compliance Level: " + javaSourceVersion);
 		compiler.setJavaSourceVersion(javaSourceVersion);
 		log.debug("Set generateSyntheticSuppressWarnings: " + generateSyntheticSuppressWarnings);
@@ -163,20 +326,146 @@ public abstract class AbstractXtendCompilerMojo extends AbstractXtendMojo {
 		String bootClassPath = getBootClassPath();
 		log.debug("Set bootClasspath: " + bootClassPath);
 		compiler.setBootClassPath(bootClassPath);
-		log.debug("Set source path: " + concat(File.pathSeparator, newArrayList(filtered)));
-		compiler.setSourcePath(concat(File.pathSeparator, newArrayList(filtered)));
+		log.debug("Set source path: " + concat(File.pathSeparator, sourcePaths));
+		compiler.setSourcePath(concat(File.pathSeparator, sourcePaths));
 		log.debug("Set output path: " + outputPath);
 		compiler.setOutputPath(outputPath);
 		log.debug("Set encoding: " + encoding);
 		compiler.setFileEncoding(encoding);
 		log.debug("Set writeTraceFiles: " + writeTraceFiles);
 		compiler.setWriteTraceFiles(writeTraceFiles);
+		log.debug("Set numberOfThreads: " + numberOfThreads);
+		compiler.setNumberOfThreads(numberOfThreads);
+		log.debug("Set inMemoryStubs: " + inMemoryStubs);
+		compiler.setInMemoryStubCompilation(inMemoryStubs);
+		log.debug("Set incremental: " + incremental);
+		compiler.setIncremental(incremental);
+		log.debug("Set buildStateLocation: " + getBuildStateLocation());
+		compiler.setBuildStateLocation(getBuildStateLocation());
+		log.debug("Set readStorageFiles: " + readStorageFiles);
+		compiler.setReadStorageFiles(readStorageFiles);
+		log.debug("Set sharedTypeCache: " + sharedTypeCache);
+		compiler.setUseSharedJvmTypeCache(sharedTypeCache);
+		if (sharedTypeCache) {
+			compiler.setSharedJvmTypeCache(SHARED_TYPE_CACHES.getUnchecked(session.getRequest()));
+		}
+		log.debug("Set parallelLoading: " + parallelLoading);
+		compiler.setParallelLoading(parallelLoading);
+		log.debug("Set discardNodeModels: " + discardNodeModels);
+		compiler.setDiscardNodeModels(discardNodeModels);
+		log.debug("Set concurrentCreateExtensions: " + concurrentCreateExtensions);
+		compiler.setConcurrentCreateExtensions(concurrentCreateExtensions);
+		log.debug("Set dispatchTableThreshold: " + dispatchTableThreshold);
+		compiler.setDispatchTableThreshold(dispatchTableThreshold);
+		log.debug("Set compactRichStrings: " + compactRichStrings);
+		compiler.setCompactRichStrings(compactRichStrings);
+		log.debug("Set reportFile: " + reportFile);
+		compiler.setReportFile(reportFile);
 		if (!compiler.compile()) {
-			String dir = concat(File.pathSeparator, newArrayList(filtered));
+			String dir = concat(File.pathSeparator, sourcePaths);
 			throw new MojoExecutionException("Error compiling xtend sources in '" + dir + "'.");
 		}
 	}
 
+	private void compileInDaemon(String classPath, List<String> sourcePaths, String outputPath, String baseDir)
+			throws MojoExecutionException {
+		List<String> arguments = getCompilerArguments(classPath, sourcePaths, outputPath, baseDir);
+		getLog().debug("Compiling in the Xtend compiler daemon on port " + daemonPort + ": " + arguments);
+		boolean success;
+		try {
+			success = new CompilerDaemonClient(daemonPort).compile(arguments);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Cannot connect to the Xtend compiler daemon on port " + daemonPort + ".", e);
+		}
+		if (!success) {
+			String dir = concat(File.pathSeparator, sourcePaths);
+			throw new MojoExecutionException("Error compiling xtend sources in '" + dir + "'.");
+		}
+	}
+
+	/**
+	 * The state of the last successful compilation covers the effective compiler arguments, the sources, the class
+	 * path, the Xtend compiler itself and the generated files.
+	 */
+	private UpToDateCheck createUpToDateCheck(String classPath, List<String> sourcePaths, String outputPath,
+			String baseDir) {
+		List<String> arguments = getCompilerArguments(classPath, sourcePaths, outputPath, baseDir);
+		List<String> inputs = newArrayList(sourcePaths);
+		inputs.addAll(Arrays.asList(classPath.split(File.pathSeparator)));
+		CodeSource compilerLocation = XtendBatchCompiler.class.getProtectionDomain().getCodeSource();
+		if (compilerLocation != null && "file".equals(compilerLocation.getLocation().getProtocol())) {
+			inputs.add(compilerLocation.getLocation().getPath());
+		}
+		return new UpToDateCheck(new File(getTempDirectory(), "xtend.uptodate"), arguments, inputs, outputPath);
+	}
+
+	private String getBuildStateLocation() {
+		return new File(getTempDirectory(), "xtend.buildstate").getAbsolutePath();
+	}
+
+	/**
+	 * @return the command line arguments of the compiler that correspond to the configuration of this mojo.
+	 */
+	private List<String> getCompilerArguments(String classPath, List<String> sourcePaths, String outputPath,
+			String baseDir) {
+		List<String> arguments = newArrayList("-d", outputPath, "-cp", classPath, "-basePath", baseDir,
+				"-tempdir", getTempDirectory(), "-javaSourceVersion", javaSourceVersion,
+				"-numberOfThreads", String.valueOf(numberOfThreads));
+		String bootClassPath = getBootClassPath();
+		if (bootClassPath.length() > 0) {
+			arguments.addAll(Arrays.asList("-bootClasspath", bootClassPath));
+		}
+		if (encoding != null) {
+			arguments.addAll(Arrays.asList("-encoding", encoding));
+		}
+		if (!generateSyntheticSuppressWarnings) {
+			arguments.add("-noSuppressWarningsAnnotation");
+		}
+		if (generateGeneratedAnnotation) {
+			arguments.add("-generateGeneratedAnnotation");
+		}
+		if (includeDateInGeneratedAnnotation) {
+			arguments.add("-includeDateInGeneratedAnnnotation");
+		}
+		if (generatedAnnotationComment != null) {
+			arguments.addAll(Arrays.asList("-generateAnnotationComment", generatedAnnotationComment));
+		}
+		if (writeTraceFiles) {
+			arguments.add("-writeTraceFiles");
+		}
+		if (inMemoryStubs) {
+			arguments.add("-inMemoryStubs");
+		}
+		if (incremental) {
+			arguments.add("-incremental");
+			arguments.addAll(Arrays.asList("-buildState", getBuildStateLocation()));
+		}
+		if (readStorageFiles) {
+			arguments.add("-readStorageFiles");
+		}
+		arguments.add(sharedTypeCache ? "-sharedTypeCache" : "-noSharedTypeCache");
+		if (!parallelLoading) {
+			arguments.add("-noParallelLoading");
+		}
+		if (discardNodeModels) {
+			arguments.add("-discardNodeModels");
+		}
+		if (concurrentCreateExtensions) {
+			arguments.add("-concurrentCreateExtensions");
+		}
+		if (dispatchTableThreshold > 0) {
+			arguments.addAll(Arrays.asList("-dispatchTableThreshold", String.valueOf(dispatchTableThreshold)));
+		}
+		if (compactRichStrings) {
+			arguments.add("-compactRichStrings");
+		}
+		if (reportFile != null) {
+			arguments.addAll(Arrays.asList("-report", reportFile));
+		}
+		arguments.addAll(sourcePaths);
+		return arguments;
+	}
+
 	private String getBootClassPath() {
 		Toolchain toolchain = toolchainManager.getToolchainFromBuildContext("jdk", session);
 		if (toolchain instanceof DefaultJavaToolChain) {
@@ -3,12 +3,20 @@ package org.eclipse.xtend.maven;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.xtext.generator.trace.AbstractTraceRegion;
 import org.eclipse.xtext.generator.trace.ITraceToBytecodeInstaller;
@@ -19,10 +27,12 @@ import org.eclipse.xtext.smap.TraceAsSmapInstaller;
 import org.eclipse.xtext.util.Strings;
 
 import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
@@ -63,6 +73,40 @@ public abstract class AbstractXtendInstallDebugInfoMojo extends AbstractXtendMoj
 	 */
 	protected boolean xtendAsPrimaryDebugSource;
 
+	/**
+	 * Set this to false to install the traces into all class files on every build. By default, class files that did
+	 * not change since the traces were installed into them and whose trace files did not change either are skipped
+	 * without being read, and so are unchanged class files that have no trace. Class files whose bytecode is not
+	 * changed by the installation are never rewritten.
+	 * 
+	 * @parameter default-value="true" expression="${xtendIncremental}"
+	 */
+	protected boolean incremental;
+
+	/**
+	 * The number of threads that install the traces into the class files. Defaults to a sequential installation.
+	 * 
+	 * @parameter default-value="1" expression="${xtendNumberOfThreads}"
+	 */
+	protected int numberOfThreads;
+
+	/**
+	 * The trace path in the stamps of class files that have no trace.
+	 */
+	private static final String UNTRACED = "untraced";
+
+	/**
+	 * The class files that were read by the last build, mapped to the stamps of the class file and of its trace file
+	 * at that time.
+	 */
+	private Properties previouslyInstalled = new Properties();
+
+	private final Properties installed = new Properties();
+
+	private final AtomicInteger upToDateClassFiles = new AtomicInteger();
+
+	private File installedTracesFile;
+
 	protected void collectJavaSourceFile2traceFile(String root, String subdir,
 			Map<String, File> javaSourceFile2traceFile) {
 		File file = new File(root + "/" + subdir);
@@ -95,6 +139,9 @@ public abstract class AbstractXtendInstallDebugInfoMojo extends AbstractXtendMoj
 	}
 
 	protected Multimap<File, File> createTraceToClassFileMap(List<String> sourceFolders, String outputFolder) {
+		if (incremental) {
+			loadInstalledTraces(outputFolder);
+		}
 		Map<String, File> javaSourceFile2traceFile = Maps.newLinkedHashMap();
 
 		for (String sourceRoot : sourceFolders)
@@ -110,16 +157,16 @@ public abstract class AbstractXtendInstallDebugInfoMojo extends AbstractXtendMoj
 			File packageDir = new File(outputFolder + "/" + packageDirName);
 			if (packageDir.isDirectory()) {
 				for (File classFile : packageDir.listFiles())
-					if (classFile.getName().endsWith(".class"))
+					if (classFile.getName().endsWith(".class") && !isUpToDate(classFile))
 						try {
 							String sourceFileName = classFileDebugSourceExtractor.getDebugSourceFileName(classFile);
-							if (Strings.isEmpty(sourceFileName))
-								continue;
-							if (!sourceFileName.toLowerCase().endsWith(".java"))
-								continue;
-							File traceFile = javaSourceFile2traceFile.get(packageDirName + "/" + sourceFileName);
+							File traceFile = null;
+							if (!Strings.isEmpty(sourceFileName) && sourceFileName.toLowerCase().endsWith(".java"))
+								traceFile = javaSourceFile2traceFile.get(packageDirName + "/" + sourceFileName);
 							if (traceFile != null)
 								trace2class.put(traceFile, classFile);
+							else if (incremental)
+								installed.setProperty(classFile.getPath(), getUntracedStamp(classFile));
 						} catch (IOException e) {
 							getLog().error("Error reading " + classFile, e);
 						}
@@ -139,9 +186,12 @@ public abstract class AbstractXtendInstallDebugInfoMojo extends AbstractXtendMoj
 			for (File classFile : classFiles) {
 				if (getLog().isDebugEnabled())
 					getLog().debug("  " + classFile);
-				byte[] bytecodeWithTraces = traceToBytecodeInstaller.installTrace(Files.toByteArray(classFile));
-				if (bytecodeWithTraces != null)
+				byte[] bytecode = Files.toByteArray(classFile);
+				byte[] bytecodeWithTraces = traceToBytecodeInstaller.installTrace(bytecode);
+				if (bytecodeWithTraces != null && !Arrays.equals(bytecode, bytecodeWithTraces))
 					Files.write(bytecodeWithTraces, classFile);
+				if (incremental)
+					installed.setProperty(classFile.getPath(), getStamp(traceFile, classFile));
 			}
 		} finally {
 			in.close();
@@ -149,12 +199,136 @@ public abstract class AbstractXtendInstallDebugInfoMojo extends AbstractXtendMoj
 	}
 
 	protected void installTraces(Multimap<File, File> trace2class) {
-		for (Map.Entry<File, Collection<File>> e : trace2class.asMap().entrySet()) {
+		if (numberOfThreads > 1 && trace2class.keySet().size() > 1) {
+			installTracesInParallel(trace2class);
+		} else {
+			for (Map.Entry<File, Collection<File>> e : trace2class.asMap().entrySet()) {
+				installTraceAndLogErrors(e.getKey(), e.getValue());
+			}
+		}
+		if (incremental) {
+			saveInstalledTraces();
+		}
+	}
+
+	/**
+	 * Installs the traces with a pool of {@link #numberOfThreads worker threads}. Each trace file is read and
+	 * installed into its class files by a single worker.
+	 */
+	protected void installTracesInParallel(Multimap<File, File> trace2class) {
+		int threads = Math.min(numberOfThreads, trace2class.keySet().size());
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setNameFormat("xtend-install-debug-info-%d").setDaemon(true).build());
+		try {
+			List<Future<?>> results = Lists.newArrayList();
+			for (final Map.Entry<File, Collection<File>> e : trace2class.asMap().entrySet()) {
+				results.add(executor.submit(new Runnable() {
+					public void run() {
+						installTraceAndLogErrors(e.getKey(), e.getValue());
+					}
+				}));
+			}
+			for (Future<?> result : results) {
+				try {
+					result.get();
+				} catch (Exception e) {
+					getLog().error(e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void installTraceAndLogErrors(File traceFile, Collection<File> classFiles) {
+		try {
+			installTrace(traceFile, classFiles);
+		} catch (Exception e) {
+			getLog().error(e);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the given class file was read by the last build and neither the class file nor its
+	 *         trace file changed since then.
+	 */
+	protected boolean isUpToDate(File classFile) {
+		String previousStamp = previouslyInstalled.getProperty(classFile.getPath());
+		int endOfTracePath = previousStamp != null ? previousStamp.indexOf('\n') : -1;
+		if (endOfTracePath < 0) {
+			return false;
+		}
+		String tracePath = previousStamp.substring(0, endOfTracePath);
+		if (UNTRACED.equals(tracePath)) {
+			if (!previousStamp.equals(getUntracedStamp(classFile))) {
+				return false;
+			}
+		} else {
+			if (!previousStamp.equals(getStamp(new File(tracePath), classFile))) {
+				return false;
+			}
+			upToDateClassFiles.incrementAndGet();
+		}
+		installed.setProperty(classFile.getPath(), previousStamp);
+		return true;
+	}
+
+	/**
+	 * The stamp covers the installation mode, so switching the mode installs all traces again.
+	 */
+	protected String getStamp(File traceFile, File classFile) {
+		return traceFile.getPath() + '\n' + traceFile.length() + ':' + traceFile.lastModified() + '\n'
+				+ classFile.length() + ':' + classFile.lastModified() + '\n' + xtendAsPrimaryDebugSource + ':'
+				+ hideSyntheticVariables;
+	}
+
+	/**
+	 * A class file without a trace is read again as soon as it changes.
+	 */
+	protected String getUntracedStamp(File classFile) {
+		return UNTRACED + '\n' + classFile.length() + ':' + classFile.lastModified();
+	}
+
+	/**
+	 * @return the file that keeps track of the class files that were read.
+	 */
+	protected File getInstalledTracesFile(String outputFolder) {
+		return new File(project.getBuild().getDirectory(), "xtend-debug-info/" + new File(outputFolder).getName()
+				+ ".properties");
+	}
+
+	private void loadInstalledTraces(String outputFolder) {
+		installedTracesFile = getInstalledTracesFile(outputFolder);
+		if (!installedTracesFile.isFile()) {
+			return;
+		}
+		try {
+			InputStream in = new FileInputStream(installedTracesFile);
 			try {
-				installTrace(e.getKey(), e.getValue());
-			} catch (Exception e1) {
-				getLog().error(e1);
+				previouslyInstalled.load(in);
+			} finally {
+				in.close();
 			}
+		} catch (IOException e) {
+			getLog().debug("Cannot read " + installedTracesFile + ". All traces are installed.", e);
+			previouslyInstalled = new Properties();
+		}
+	}
+
+	private void saveInstalledTraces() {
+		if (installedTracesFile == null) {
+			return;
+		}
+		try {
+			installedTracesFile.getParentFile().mkdirs();
+			OutputStream out = new FileOutputStream(installedTracesFile);
+			try {
+				installed.store(out, null);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			getLog().warn("Cannot write " + installedTracesFile + ".", e);
 		}
 	}
 
@@ -162,6 +336,9 @@ public abstract class AbstractXtendInstallDebugInfoMojo extends AbstractXtendMoj
 		String p = xtendAsPrimaryDebugSource ? "primary" : "secondary (via SMAP)";
 		int n = trace2class.size();
 		getLog().info("Installing Xtend files into " + n + " class files as " + p + " debug sources in: " + folder);
+		if (upToDateClassFiles.get() > 0) {
+			getLog().info(upToDateClassFiles.get() + " class files are up-to-date.");
+		}
 		getLog().debug("xtendAsPrimaryDebugSource=" + xtendAsPrimaryDebugSource);
 		getLog().debug("hideSyntheticVariables=" + hideSyntheticVariables);
 	}
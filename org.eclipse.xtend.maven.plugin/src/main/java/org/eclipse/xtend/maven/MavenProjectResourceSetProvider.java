@@ -2,6 +2,7 @@ package org.eclipse.xtend.maven;
 
 import org.apache.maven.project.MavenProject;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.resource.SynchronizedXtextResourceSet;
 import org.eclipse.xtext.resource.XtextResourceSet;
 
 import com.google.inject.Provider;
@@ -13,13 +14,24 @@ public class MavenProjectResourceSetProvider implements Provider<ResourceSet> {
 
 	private MavenProject project;
 
+	private boolean synchronizedAccess;
+
 	public MavenProjectResourceSetProvider(MavenProject project) {
+		this(project, false);
+	}
+
+	/**
+	 * @param synchronizedAccess whether the resource sets are used by several threads
+	 * @since 2.11
+	 */
+	public MavenProjectResourceSetProvider(MavenProject project, boolean synchronizedAccess) {
 		super();
 		this.project = project;
+		this.synchronizedAccess = synchronizedAccess;
 	}
 
 	public ResourceSet get() {
-		ResourceSet rs = new XtextResourceSet();
+		ResourceSet rs = synchronizedAccess ? new SynchronizedXtextResourceSet() : new XtextResourceSet();
 		MavenProjectAdapter.install(rs, project);
 		return rs;
 	}
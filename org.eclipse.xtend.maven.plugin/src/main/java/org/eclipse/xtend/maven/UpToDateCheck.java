@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * Tells whether anything that influences an Xtend compilation changed since its last successful run. The state of a
+ * run is a hash over the effective compiler arguments and over the paths and contents of the input files, i.e. the
+ * sources, the dependency artifacts and the compiler itself, and of the generated files. Files that are merely touched
+ * do not invalidate the state. Within a build, the content hash of a file is computed once per path, size and time
+ * stamp, so the jars that are shared by the modules of a reactor are read only once.
+ */
+public class UpToDateCheck {
+
+	private static final Map<String, HashCode> CONTENT_HASHES = new ConcurrentHashMap<String, HashCode>();
+
+	private final File stateFile;
+
+	private final List<String> arguments;
+
+	private final Iterable<String> inputs;
+
+	private final String outputPath;
+
+	private String inputHash;
+
+	/**
+	 * @param stateFile the file that the state of the last successful run is kept in
+	 * @param arguments the effective arguments of the compiler
+	 * @param inputs the files and directories that are read by the compiler
+	 * @param outputPath the directory that the compiler writes to
+	 */
+	public UpToDateCheck(File stateFile, List<String> arguments, Iterable<String> inputs, String outputPath) {
+		this.stateFile = stateFile;
+		this.arguments = arguments;
+		this.inputs = inputs;
+		this.outputPath = outputPath;
+	}
+
+	public boolean isUpToDate() throws IOException {
+		if (!stateFile.isFile()) {
+			return false;
+		}
+		String previousState = Files.toString(stateFile, Charsets.UTF_8);
+		return previousState.equals(getInputHash() + ":" + hashOutputs());
+	}
+
+	/**
+	 * Records the state after a successful compilation. The inputs are hashed as they were before the compilation.
+	 */
+	public void update() throws IOException {
+		stateFile.getParentFile().mkdirs();
+		Files.write(getInputHash() + ":" + hashOutputs(), stateFile, Charsets.UTF_8);
+	}
+
+	/**
+	 * Deletes the recorded state, so that the next check fails.
+	 */
+	public void invalidate() {
+		stateFile.delete();
+	}
+
+	protected String getInputHash() {
+		if (inputHash == null) {
+			Hasher hasher = Hashing.md5().newHasher();
+			for (String argument : arguments) {
+				putString(hasher, argument);
+			}
+			for (String input : inputs) {
+				hashFiles(new File(input), hasher);
+			}
+			inputHash = hasher.hash().toString();
+		}
+		return inputHash;
+	}
+
+	protected String hashOutputs() {
+		Hasher hasher = Hashing.md5().newHasher();
+		hashFiles(new File(outputPath), hasher);
+		return hasher.hash().toString();
+	}
+
+	protected void hashFiles(File file, Hasher hasher) {
+		putString(hasher, file.getAbsolutePath());
+		if (file.isDirectory()) {
+			String[] children = file.list();
+			if (children != null) {
+				Arrays.sort(children);
+				for (String child : children) {
+					hashFiles(new File(file, child), hasher);
+				}
+			}
+		} else if (file.isFile()) {
+			hasher.putBytes(hashContent(file).asBytes());
+		}
+	}
+
+	protected HashCode hashContent(File file) {
+		String stamp = file.getAbsolutePath() + '@' + file.length() + '@' + file.lastModified();
+		HashCode hash = CONTENT_HASHES.get(stamp);
+		if (hash == null) {
+			try {
+				hash = Files.hash(file, Hashing.md5());
+			} catch (IOException e) {
+				// an unreadable file never matches a recorded state
+				return Hashing.md5().newHasher().putLong(System.nanoTime()).hash();
+			}
+			CONTENT_HASHES.put(stamp, hash);
+		}
+		return hash;
+	}
+
+	private void putString(Hasher hasher, String value) {
+		hasher.putBytes(value.getBytes(Charsets.UTF_8));
+		hasher.putByte((byte) 0);
+	}
+
+}
@@ -9,18 +9,30 @@ import org.eclipse.xtext.xbase.annotations.XbaseWithAnnotationsStandaloneSetup;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 
+/**
+ * Creates the injector that is shared by all executions of the Xtend mojos in the class realm of the plugin, i.e. by
+ * the modules and goals of a Maven session. The injector is created and the EMF registries are populated exactly
+ * once, even if the modules are built concurrently.
+ */
 public class XtendMavenStandaloneSetup implements ISetup {
 
-	private static Injector injector = null;
+	private static volatile Injector injector = null;
 
 	public Injector createInjectorAndDoEMFRegistration() {
-		if (injector != null)
-			return injector;
-		XbaseWithAnnotationsStandaloneSetup.doSetup();
-		EPackage.Registry.INSTANCE.put(XtendPackage.eINSTANCE.getNsURI(), XtendPackage.eINSTANCE);
-		injector = Guice.createInjector(new XtendMavenModule());
-		new XtendStandaloneSetupGenerated().register(injector);
-		return injector;
+		Injector result = injector;
+		if (result == null) {
+			synchronized (XtendMavenStandaloneSetup.class) {
+				result = injector;
+				if (result == null) {
+					XbaseWithAnnotationsStandaloneSetup.doSetup();
+					EPackage.Registry.INSTANCE.put(XtendPackage.eINSTANCE.getNsURI(), XtendPackage.eINSTANCE);
+					result = Guice.createInjector(new XtendMavenModule());
+					new XtendStandaloneSetupGenerated().register(result);
+					injector = result;
+				}
+			}
+		}
+		return result;
 	}
 
 }
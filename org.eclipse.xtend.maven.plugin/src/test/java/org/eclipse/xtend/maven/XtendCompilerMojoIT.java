@@ -103,6 +103,49 @@ public class XtendCompilerMojoIT {
 		verifier.assertFilePresent(outputdir + "src/test/generated-sources/xtend/tests/XtendC.java");
 	}
 	
+	@Test
+	public void aggregationWithParallelReactor() throws Exception {
+		Verifier verifier = newVerifier(ROOT + "/aggregation");
+		verifier.getCliOptions().add("-T4");
+		verifier.getCliOptions().add("-DxtendSharedTypeCache=true");
+		verifier.getCliOptions().add("-DxtendNumberOfThreads=2");
+		verifier.executeGoal("test");
+		verifier.verifyErrorFreeLog();
+		String outputdir = verifier.getBasedir() + "/relativeoutput-module/";
+		verifier.assertFilePresent(outputdir + "src/main/generated-sources/xtend/test/XtendA.java");
+		verifier.assertFilePresent(outputdir + "src/test/generated-sources/xtend/tests/XtendA.java");
+	}
+	
+	@Test
+	public void upToDateCheck() throws Exception {
+		Verifier verifier = newVerifier(ROOT + "/simple");
+		verifier.executeGoal("compile");
+		verifier.verifyErrorFreeLog();
+		verifier.resetStreams();
+		String generated = verifier.getBasedir() + "/src/main/generated-sources/xtend/test/XtendA.java";
+		verifier.assertFilePresent(generated);
+
+		verifier.setAutoclean(false);
+		verifier.executeGoal("compile");
+		verifier.verifyErrorFreeLog();
+		verifier.verifyTextInLog("Xtend sources are up-to-date.");
+		verifier.resetStreams();
+
+		// touching a source without changing it keeps the module up-to-date
+		File source = new File(verifier.getBasedir() + "/src/main/java/test/XtendA.xtend");
+		Assert.assertTrue(source.setLastModified(source.lastModified() + 10000));
+		verifier.executeGoal("compile");
+		verifier.verifyErrorFreeLog();
+		verifier.verifyTextInLog("Xtend sources are up-to-date.");
+		verifier.resetStreams();
+
+		new File(generated).delete();
+		verifier.executeGoal("compile");
+		verifier.verifyErrorFreeLog();
+		verifier.assertFilePresent(generated);
+		verifier.resetStreams();
+	}
+	
 	@Test
 	public void suppressWarningsAnnotation() throws Exception {
 		Verifier verifier = newVerifier(ROOT + "/suppress_warnings_annotation");
@@ -1,8 +1,11 @@
 package org.eclipse.xtend.maven;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Paths;
+import java.util.Properties;
 
 import org.apache.maven.it.VerificationException;
 import org.apache.maven.it.Verifier;
@@ -233,6 +236,65 @@ public class XtendInstallDebugInfoMojoIT {
 		Assert.assertEquals(xpt2.toString(), info2);
 	}
 
+	@Test
+	public void simpleSMAPInParallelAndUpToDate() throws Exception {
+		Verifier verifier = newVerifier(ROOT + "/simple_smap");
+		verifier.getCliOptions().add("-DxtendNumberOfThreads=4");
+		verifier.executeGoal("verify");
+		verifier.verifyErrorFreeLog();
+		verifier.resetStreams();
+		String xtendGenDir = verifier.getBasedir() + "/target/classes/test";
+		String debugInfo = new ClassFileDebugInfoExtractor().getDebugInfo(xtendGenDir);
+		Assert.assertTrue(debugInfo, debugInfo.contains("// XtendA.java:15:23 -> XtendA.xtend:6"));
+		File classFile = new File(xtendGenDir, "XtendA.class");
+		long lastModified = classFile.lastModified();
+
+		verifier.setAutoclean(false);
+		verifier.executeGoal("verify");
+		verifier.verifyErrorFreeLog();
+		verifier.verifyTextInLog("class files are up-to-date.");
+		verifier.resetStreams();
+		Assert.assertEquals(debugInfo, new ClassFileDebugInfoExtractor().getDebugInfo(xtendGenDir));
+		Assert.assertEquals(lastModified, classFile.lastModified());
+	}
+
+	@Test
+	public void smapMultisourceUntracedAndUnchanged() throws Exception {
+		Verifier verifier = verifyErrorFreeLog(ROOT + "/smap_multisource");
+		String classesDir = verifier.getBasedir() + "/target/classes";
+		String debugInfo = new ClassFileDebugInfoExtractor().getDebugInfo(classesDir);
+		File tracedClassFile = new File(classesDir, "test/XtendA.class");
+		File untracedClassFile = new File(classesDir, "test/JavaB.class");
+		long tracedLastModified = tracedClassFile.lastModified();
+		long untracedLastModified = untracedClassFile.lastModified();
+
+		// the class file without a trace is recorded, so that it is not read again by the next build
+		Properties installed = new Properties();
+		InputStream in = new FileInputStream(verifier.getBasedir() + "/target/xtend-debug-info/classes.properties");
+		try {
+			installed.load(in);
+		} finally {
+			in.close();
+		}
+		String untracedStamp = null;
+		for (String classFile : installed.stringPropertyNames()) {
+			if (classFile.endsWith("JavaB.class"))
+				untracedStamp = installed.getProperty(classFile);
+		}
+		Assert.assertNotNull(installed.toString(), untracedStamp);
+		Assert.assertTrue(untracedStamp, untracedStamp.startsWith("untraced\n"));
+
+		// a full installation must not rewrite class files whose bytecode does not change
+		verifier.setAutoclean(false);
+		verifier.getCliOptions().add("-DxtendIncremental=false");
+		verifier.executeGoal("verify");
+		verifier.verifyErrorFreeLog();
+		verifier.resetStreams();
+		Assert.assertEquals(debugInfo, new ClassFileDebugInfoExtractor().getDebugInfo(classesDir));
+		Assert.assertEquals(tracedLastModified, tracedClassFile.lastModified());
+		Assert.assertEquals(untracedLastModified, untracedClassFile.lastModified());
+	}
+
 	private Verifier verifyErrorFreeLog(String pathToTestProject) throws IOException, VerificationException {
 		return verifyErrorFreeLog(pathToTestProject, "verify");
 	}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2016 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtend.performance.tests;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtend.core.XtendInjectorSingleton;
+import org.eclipse.xtend.core.compiler.batch.XtendBatchCompiler;
+import org.eclipse.xtext.util.Files;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Measures the heap that is retained by the batch compiler once all sources have been generated, with and without
+ * discarding the node models of the generated sources.
+ */
+public class BatchCompilerHeapTest extends Assert {
+
+	private static final int FILES = 400;
+
+	private static final int METHODS = 40;
+
+	private static File sourceDirectory;
+
+	private static File outputDirectory;
+
+	public static class HeapMeasuringBatchCompiler extends XtendBatchCompiler {
+
+		private long usedHeap;
+
+		@Override
+		protected void generateJavaFiles(ResourceSet resourceSet) {
+			super.generateJavaFiles(resourceSet);
+			// the resource set is still reachable, so this is what the compiler holds on to at the end of the build
+			usedHeap = measureUsedHeap();
+		}
+
+		public long getUsedHeap() {
+			return usedHeap;
+		}
+
+	}
+
+	@BeforeClass
+	public static void createSources() throws IOException {
+		File root = new File(System.getProperty("java.io.tmpdir"), "heap-test" + System.nanoTime());
+		sourceDirectory = new File(root, "src");
+		outputDirectory = new File(root, "xtend-gen");
+		File packageDirectory = new File(sourceDirectory, "heap");
+		packageDirectory.mkdirs();
+		outputDirectory.mkdirs();
+		for (int i = 0; i < FILES; i++) {
+			Files.writeStringIntoFile(new File(packageDirectory, "Type" + i + ".xtend").getPath(), getModel(i),
+					Charsets.UTF_8.name());
+		}
+	}
+
+	@AfterClass
+	public static void deleteSources() throws IOException {
+		Files.cleanFolder(sourceDirectory.getParentFile(), null, true, true);
+	}
+
+	protected static String getModel(int index) {
+		StringBuilder result = new StringBuilder();
+		result.append("package heap\n");
+		result.append("import java.util.List\n");
+		result.append("/**\n * A generated type that references {@link Type").append(Math.max(0, index - 1)).append("}.\n */\n");
+		result.append("class Type").append(index).append(" {\n");
+		result.append("	List<String> names = newArrayList\n");
+		for (int i = 0; i < METHODS; i++) {
+			result.append("	/** Computes the value number ").append(i).append(". */\n");
+			result.append("	def String m").append(i).append("(int count, String prefix) {\n");
+			result.append("		val filtered = names.filter[ length > count && startsWith(prefix) ]\n");
+			result.append("		'''").append("\u00ABFOR name : filtered SEPARATOR ', '\u00BB\u00ABname.toUpperCase\u00BB\u00ABENDFOR\u00BB").append("'''.toString\n");
+			result.append("	}\n");
+		}
+		result.append("}\n");
+		return result.toString();
+	}
+
+	@Test
+	public void testRetainedHeap() throws Exception {
+		// warm up the shared state of the injector, e.g. the grammar and the JDK types
+		compile(false);
+		long retained = compile(false);
+		long discarded = compile(true);
+		System.out.println("Heap used after generating " + FILES + " files: " + toMegabytes(retained) + " MB, "
+				+ toMegabytes(discarded) + " MB with discarded node models");
+		assertTrue(discarded < retained);
+	}
+
+	protected long compile(boolean discardNodeModels) {
+		HeapMeasuringBatchCompiler compiler = XtendInjectorSingleton.INJECTOR
+				.getInstance(HeapMeasuringBatchCompiler.class);
+		compiler.setSourcePath(sourceDirectory.getPath());
+		compiler.setOutputPath(outputDirectory.getPath());
+		compiler.setFileEncoding(Charsets.UTF_8.name());
+		compiler.setUseCurrentClassLoaderAsParent(true);
+		compiler.setCurrentClassLoader(getClass().getClassLoader());
+		compiler.setDeleteTempDirectory(true);
+		compiler.setDiscardNodeModels(discardNodeModels);
+		assertTrue(compiler.compile());
+		return compiler.getUsedHeap();
+	}
+
+	protected static long measureUsedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private String toMegabytes(long bytes) {
+		return String.valueOf(bytes / (1024 * 1024));
+	}
+
+}